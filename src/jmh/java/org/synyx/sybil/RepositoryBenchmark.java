@@ -0,0 +1,130 @@
+package org.synyx.sybil;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import org.synyx.sybil.brick.persistence.Brick;
+import org.synyx.sybil.brick.persistence.BrickRepository;
+import org.synyx.sybil.bricklet.input.illuminance.persistence.Illuminance;
+import org.synyx.sybil.bricklet.input.illuminance.persistence.IlluminanceRepository;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStripRepository;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Collections;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * RepositoryBenchmark. Looks up the last configured brick, LED strip and illuminance sensor by name, from config files
+ * in a temporary directory.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RepositoryBenchmark {
+
+    @Param({ "10", "100" })
+    int entries;
+
+    private Path configDir;
+    private String last;
+    private BrickRepository brickRepository;
+    private LEDStripRepository ledStripRepository;
+    private IlluminanceRepository illuminanceRepository;
+
+    @Setup
+    public void setup() throws IOException {
+
+        configDir = Files.createTempDirectory("sybil-benchmark");
+        last = "entry" + (entries - 1);
+
+        StringJoiner bricks = new StringJoiner(",", "[", "]");
+        StringJoiner ledStrips = new StringJoiner(",", "[", "]");
+        StringJoiner illuminances = new StringJoiner(",", "[", "]");
+
+        for (int entry = 0; entry < entries; entry++) {
+            String name = "entry" + entry;
+            bricks.add(String.format("{\"name\":\"%s\",\"hostname\":\"localhost\",\"port\":4223,\"uid\":\"b%d\"}", name,
+                    entry));
+            ledStrips.add(String.format("{\"name\":\"%s\",\"uid\":\"l%d\",\"length\":30,\"brick\":\"%s\"}", name,
+                    entry, name));
+            illuminances.add(String.format(
+                    "{\"name\":\"%s\",\"uid\":\"i%d\",\"threshold\":16,\"multiplier\":0.1,\"brick\":\"%s\"}", name,
+                    entry, name));
+        }
+
+        write("bricks.json", bricks.toString());
+        write("ledstrips.json", ledStrips.toString());
+        write("illuminances.json", illuminances.toString());
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources()
+            .addFirst(new MapPropertySource("benchmark",
+                    Collections.singletonMap("path.to.configfiles", configDir.toString() + File.separator)));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        brickRepository = new BrickRepository(objectMapper, environment);
+        ledStripRepository = new LEDStripRepository(objectMapper, environment);
+        illuminanceRepository = new IlluminanceRepository(objectMapper, environment);
+    }
+
+
+    @TearDown
+    public void tearDown() throws IOException {
+
+        for (File file : configDir.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+
+        Files.delete(configDir);
+    }
+
+
+    @Benchmark
+    public Brick getBrick() {
+
+        return brickRepository.get(last);
+    }
+
+
+    @Benchmark
+    public LEDStrip getLEDStrip() {
+
+        return ledStripRepository.get(last);
+    }
+
+
+    @Benchmark
+    public Illuminance getIlluminance() {
+
+        return illuminanceRepository.get(last);
+    }
+
+
+    private void write(String fileName, String json) throws IOException {
+
+        Files.write(configDir.resolve(fileName), json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,68 @@
+package org.synyx.sybil.bricklet.output.ledstrip.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * LEDStripDTOBenchmark. Serializes the pixels of a LED strip like the display controller returns them, and
+ * deserializes them like it receives them.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LEDStripDTOBenchmark {
+
+    @Param({ "30", "300" })
+    int length;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private LEDStripDTO ledStripDTO;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws IOException {
+
+        List<Color> pixels = new ArrayList<>(length);
+
+        for (int position = 0; position < length; position++) {
+            pixels.add(new Color(position % 256, 255 - position % 256, 127));
+        }
+
+        ledStripDTO = new LEDStripDTO(pixels, 1);
+        json = objectMapper.writeValueAsBytes(ledStripDTO);
+    }
+
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+
+        return objectMapper.writeValueAsBytes(ledStripDTO);
+    }
+
+
+    @Benchmark
+    public LEDStripDTO deserialize() throws IOException {
+
+        return objectMapper.readValue(json, LEDStripDTO.class);
+    }
+}
@@ -0,0 +1,114 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.tinkerforge.IPConnection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.core.env.StandardEnvironment;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStripRepository;
+import org.synyx.sybil.metrics.MetricsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * LEDStripServiceBenchmark. Draws pixels onto a LED strip that discards them, from loading its configuration to
+ * writing the last chunk, without any transition.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LEDStripServiceBenchmark {
+
+    private static final String NAME = "benchmark";
+
+    @Param({ "30", "300" })
+    int length;
+
+    private LEDStripService ledStripService;
+    private List<Color> pixels;
+    private List<Color> otherPixels;
+    private boolean other;
+
+    @Setup
+    public void setup() {
+
+        LEDStrip ledStrip = new LEDStrip(NAME, "abc", length, "abrick");
+        BrickletLEDStripWrapper brickletLEDStrip = new NoopBrickletLEDStripWrapper();
+
+        MetricsService metricsService = new MetricsService();
+
+        // the LED strip has no sensor, so the illuminance service is never asked
+        ledStripService = new LEDStripService(new BrickletLEDStripWrapperService(null, metricsService) {
+
+                    @Override
+                    public BrickletLEDStripWrapper getBrickletLEDStrip(LEDStrip ledStrip) {
+
+                        return brickletLEDStrip;
+                    }
+
+
+                    @Override
+                    public BrickletLEDStripWrapper getBrickletLEDStrip(LEDStrip ledStrip, IPConnection ipConnection) {
+
+                        return brickletLEDStrip;
+                    }
+                }, null,
+                new LEDStripRepository(new ObjectMapper(), new StandardEnvironment()) {
+
+                    @Override
+                    public LEDStrip get(String name) {
+
+                        return ledStrip;
+                    }
+                }, new FrameBufferService(), new TransitionService(0, 1, 0), new BrightnessQuantizer(0.125, 0.25),
+                new BrickBackoff(0, 0), metricsService, new PhotonLatencyTracker(metricsService, 1000),
+                new ChunkRetry(0, 0));
+
+        pixels = gradient(length, 0);
+        otherPixels = gradient(length, 1);
+    }
+
+
+    /**
+     * Draws alternating frames, so every frame differs from the frame buffer.
+     */
+    @Benchmark
+    public FrameBuffer setColors() {
+
+        other = !other;
+
+        ledStripService.setColors(NAME, other ? otherPixels : pixels);
+
+        return ledStripService.getFrameBuffer(NAME);
+    }
+
+
+    static List<Color> gradient(int length, int offset) {
+
+        List<Color> pixels = new ArrayList<>(length);
+
+        for (int position = 0; position < length; position++) {
+            int value = (position + offset) % 256;
+            pixels.add(new Color(value, 255 - value, value / 2));
+        }
+
+        return pixels;
+    }
+}
@@ -0,0 +1,80 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import com.tinkerforge.IPConnection;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * NoopBrickletLEDStripWrapper. A LED strip that is never connected and discards everything sent to it, so only Sybil's
+ * own share of drawing is measured.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class NoopBrickletLEDStripWrapper implements BrickletLEDStripWrapper {
+
+    @Override
+    public int getChunksPerWrite() {
+
+        return 1;
+    }
+
+
+    @Override
+    public void setChunks(TransferBuffer transferBuffer, int first, int count, boolean acknowledged) {
+
+        // discarded
+    }
+
+
+    @Override
+    public List<Color> getPixels(int index, int length) {
+
+        return Collections.nCopies(length, Color.BLACK);
+    }
+
+
+    @Override
+    public void setFrameDuration(int duration) {
+
+        // nothing to set up
+    }
+
+
+    @Override
+    public void setChipType(int chip) {
+
+        // nothing to set up
+    }
+
+
+    @Override
+    public void addFrameRenderedListener(FrameRenderedListener listener) {
+
+        // never renders
+    }
+
+
+    @Override
+    public void removeFrameRenderedListener(FrameRenderedListener listener) {
+
+        // never renders
+    }
+
+
+    @Override
+    public IPConnection getIPConnection() {
+
+        return null;
+    }
+
+
+    @Override
+    public void disconnect() {
+
+        // never connected
+    }
+}
@@ -0,0 +1,45 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Sprite1DBenchmark. Builds a sprite from the list of colors a client sent.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Sprite1DBenchmark {
+
+    @Param({ "30", "300" })
+    int length;
+
+    private List<Color> pixels;
+
+    @Setup
+    public void setup() {
+
+        pixels = LEDStripServiceBenchmark.gradient(length, 0);
+    }
+
+
+    @Benchmark
+    public Sprite1D fromColors() {
+
+        return new Sprite1D(pixels);
+    }
+}
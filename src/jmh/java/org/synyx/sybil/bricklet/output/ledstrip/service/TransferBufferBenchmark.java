@@ -0,0 +1,48 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * TransferBufferBenchmark. Encodes a sprite for transfer, applying the brightness to every primary color, once with
+ * the brightness left unchanged and once dimmed.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransferBufferBenchmark {
+
+    @Param({ "30", "300" })
+    int length;
+
+    @Param({ "1.0", "0.5" })
+    double brightness;
+
+    private Sprite1D sprite;
+    private int bufferSize;
+
+    @Setup
+    public void setup() {
+
+        sprite = new Sprite1D(LEDStripServiceBenchmark.gradient(length, 0));
+        bufferSize = (length + TransferBuffer.CHUNK_SIZE - 1) / TransferBuffer.CHUNK_SIZE * TransferBuffer.CHUNK_SIZE;
+    }
+
+
+    @Benchmark
+    public TransferBuffer encode() {
+
+        return TransferBuffer.encode(sprite, bufferSize, brightness);
+    }
+}
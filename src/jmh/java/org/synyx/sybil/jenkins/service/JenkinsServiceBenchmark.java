@@ -0,0 +1,65 @@
+package org.synyx.sybil.jenkins.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.synyx.sybil.jenkins.JenkinsJob;
+import org.synyx.sybil.jenkins.StatusInformation;
+import org.synyx.sybil.jenkins.persistence.JobConfig;
+import org.synyx.sybil.metrics.MetricsService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * JenkinsServiceBenchmark. Aggregates the jobs of a Jenkins server into the statuses of the LED strips they are
+ * configured for, with every job configured for one of ten LED strips.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JenkinsServiceBenchmark {
+
+    private static final int LED_STRIPS = 10;
+    private static final String[] COLORS = { "blue", "yellow", "red", "blue_anime", "yellow_anime", "red_anime" };
+
+    @Param({ "20", "200" })
+    int jobCount;
+
+    private JenkinsService jenkinsService;
+    private List<JenkinsJob> jobs;
+    private List<JobConfig> jobConfigs;
+
+    @Setup
+    public void setup() {
+
+        // aggregating needs none of the collaborators
+        jenkinsService = new JenkinsService(null, null, null, null, new MetricsService());
+        jobs = new ArrayList<>(jobCount);
+        jobConfigs = new ArrayList<>(jobCount);
+
+        for (int job = 0; job < jobCount; job++) {
+            jobs.add(new JenkinsJob("job" + job, COLORS[job % COLORS.length]));
+            jobConfigs.add(new JobConfig("job" + job, "ledstrip" + job % LED_STRIPS));
+        }
+    }
+
+
+    @Benchmark
+    public Map<String, StatusInformation> aggregate() {
+
+        return jenkinsService.getLEDStripStatusesFromJobs(jobs, jobConfigs, new HashMap<>());
+    }
+}
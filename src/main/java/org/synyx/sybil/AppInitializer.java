@@ -1,7 +1,10 @@
 package org.synyx.sybil;
 
+import org.springframework.web.filter.DelegatingFilterProxy;
 import org.springframework.web.servlet.support.AbstractAnnotationConfigDispatcherServletInitializer;
 
+import javax.servlet.Filter;
+
 import org.synyx.sybil.config.SpringConfig;
 import org.synyx.sybil.config.WebConfig;
 
@@ -33,4 +36,11 @@ public class AppInitializer extends AbstractAnnotationConfigDispatcherServletIni
 
         return new String[] { "/" };
     }
+
+
+    @Override
+    protected Filter[] getServletFilters() {
+
+        return new Filter[] { new DelegatingFilterProxy("requestMetricsFilter") };
+    }
 }
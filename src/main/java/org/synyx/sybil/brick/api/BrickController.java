@@ -0,0 +1,69 @@
+package org.synyx.sybil.brick.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.synyx.sybil.LoadFailedException;
+import org.synyx.sybil.brick.dto.BrickDTOService;
+import org.synyx.sybil.brick.dto.BrickHealthDTO;
+import org.synyx.sybil.brick.service.BrickNotFoundException;
+import org.synyx.sybil.bricklet.output.ledstrip.api.APIError;
+
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+
+/**
+ * BrickController. Shows the state of the connections to the bricks.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RestController
+@RequestMapping("/configuration/bricks")
+public class BrickController {
+
+    private final BrickDTOService brickDTOService;
+
+    @Autowired
+    public BrickController(BrickDTOService brickDTOService) {
+
+        this.brickDTOService = brickDTOService;
+    }
+
+    @RequestMapping(value = "/health", method = RequestMethod.GET, produces = "application/json")
+    public List<BrickHealthDTO> getHealth() {
+
+        return brickDTOService.getHealth();
+    }
+
+
+    @RequestMapping(value = "/{name}/health", method = RequestMethod.GET, produces = "application/json")
+    public BrickHealthDTO getHealth(@PathVariable String name) {
+
+        return brickDTOService.getHealth(name);
+    }
+
+
+    @ExceptionHandler({ BrickNotFoundException.class })
+    public ResponseEntity<APIError> notFoundError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), NOT_FOUND);
+    }
+
+
+    @ExceptionHandler({ LoadFailedException.class })
+    public ResponseEntity<APIError> serverError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), INTERNAL_SERVER_ERROR);
+    }
+}
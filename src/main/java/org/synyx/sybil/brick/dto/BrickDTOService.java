@@ -0,0 +1,48 @@
+package org.synyx.sybil.brick.dto;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.stereotype.Service;
+
+import org.synyx.sybil.brick.service.BrickHealth;
+import org.synyx.sybil.brick.service.BrickHealthService;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+
+/**
+ * BrickDTOService.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class BrickDTOService {
+
+    private final BrickHealthService brickHealthService;
+
+    @Autowired
+    public BrickDTOService(BrickHealthService brickHealthService) {
+
+        this.brickHealthService = brickHealthService;
+    }
+
+    public BrickHealthDTO getHealth(String name) {
+
+        return toDTO(brickHealthService.getHealth(name));
+    }
+
+
+    public List<BrickHealthDTO> getHealth() {
+
+        return brickHealthService.getAll().stream().map(this::toDTO).collect(Collectors.toList());
+    }
+
+
+    private BrickHealthDTO toDTO(BrickHealth health) {
+
+        return new BrickHealthDTO(health.getName(), health.getState().name(), health.getSince(),
+                health.getReconnects(), health.getResets());
+    }
+}
@@ -0,0 +1,63 @@
+package org.synyx.sybil.brick.dto;
+
+/**
+ * BrickHealthDTO. The state of the connection to a brick, since when it is in that state, and how often the brick was
+ * reconnected or reset.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class BrickHealthDTO {
+
+    private final String name;
+    private final String state;
+    private final long since;
+    private final int reconnects;
+    private final int resets;
+
+    /**
+     * Instantiates a new brick health DTO.
+     *
+     * @param  name  The name of the brick
+     * @param  state  The state of the connection, UNKNOWN, CONNECTED or DISCONNECTED
+     * @param  since  The time the state was entered in milliseconds since the epoch, 0 if unknown
+     * @param  reconnects  How often the connection was established again after it was lost
+     * @param  resets  How often the brick or one of its bricklets restarted
+     */
+    public BrickHealthDTO(String name, String state, long since, int reconnects, int resets) {
+
+        this.name = name;
+        this.state = state;
+        this.since = since;
+        this.reconnects = reconnects;
+        this.resets = resets;
+    }
+
+    public String getName() {
+
+        return name;
+    }
+
+
+    public String getState() {
+
+        return state;
+    }
+
+
+    public long getSince() {
+
+        return since;
+    }
+
+
+    public int getReconnects() {
+
+        return reconnects;
+    }
+
+
+    public int getResets() {
+
+        return resets;
+    }
+}
@@ -0,0 +1,62 @@
+package org.synyx.sybil.brick.service;
+
+/**
+ * The health of a brick, as seen by its monitoring connection. Immutable.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public final class BrickHealth {
+
+    private final String name;
+    private final BrickState state;
+    private final long since;
+    private final int reconnects;
+    private final int resets;
+
+    /**
+     * Instantiates a new brick health.
+     *
+     * @param  name  The name of the brick
+     * @param  state  The state of the connection
+     * @param  since  The time the state was entered in milliseconds since the epoch, 0 if unknown
+     * @param  reconnects  How often the connection was established again after it was lost
+     * @param  resets  How often the brick or one of its bricklets restarted
+     */
+    public BrickHealth(String name, BrickState state, long since, int reconnects, int resets) {
+
+        this.name = name;
+        this.state = state;
+        this.since = since;
+        this.reconnects = reconnects;
+        this.resets = resets;
+    }
+
+    public String getName() {
+
+        return name;
+    }
+
+
+    public BrickState getState() {
+
+        return state;
+    }
+
+
+    public long getSince() {
+
+        return since;
+    }
+
+
+    public int getReconnects() {
+
+        return reconnects;
+    }
+
+
+    public int getResets() {
+
+        return resets;
+    }
+}
@@ -0,0 +1,328 @@
+package org.synyx.sybil.brick.service;
+
+import com.tinkerforge.AlreadyConnectedException;
+import com.tinkerforge.IPConnection;
+import com.tinkerforge.NetworkException;
+import com.tinkerforge.NotConnectedException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.core.env.Environment;
+
+import org.springframework.stereotype.Service;
+
+import org.synyx.sybil.LoadFailedException;
+import org.synyx.sybil.brick.persistence.Brick;
+import org.synyx.sybil.brick.persistence.BrickRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+
+/**
+ * BrickHealthService. Keeps a monitoring connection open to every brick, which reconnects on its own once it is lost,
+ * and tracks the state of each brick from the connection's connected, disconnected and enumerate callbacks.
+ *
+ * <p>Bricks that could not be connected to at all are tried again periodically. Whenever a brick is connected again
+ * after it was down, or the brick announces that it (re)started, the reset listeners are notified once so the
+ * bricklets can be set up again.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class BrickHealthService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BrickHealthService.class);
+    private static final long DEFAULT_PERIOD = 5000;
+    private static final String HOST = "0";
+
+    private final BrickRepository brickRepository;
+    private final long period;
+    private final ConcurrentMap<String, Monitor> monitors = new ConcurrentHashMap<>();
+    private final List<BrickResetListener> resetListeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @Autowired
+    public BrickHealthService(BrickRepository brickRepository, Environment environment) {
+
+        this(brickRepository, environment.getProperty("brick.health.check.ms", Long.class, DEFAULT_PERIOD));
+    }
+
+
+    /**
+     * Instantiates a new brick health service.
+     *
+     * @param  brickRepository  The brick repository
+     * @param  period  The time between two attempts to connect to the bricks that aren't connected in milliseconds, 0
+     *                 to never monitor them
+     */
+    public BrickHealthService(BrickRepository brickRepository, long period) {
+
+        this.brickRepository = brickRepository;
+        this.period = Math.max(0, period);
+    }
+
+    @PostConstruct
+    public void startMonitoring() {
+
+        if (period > 0) {
+            executor.scheduleWithFixedDelay(this::check, 0, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+
+        executor.shutdownNow();
+
+        monitors.values().forEach(Monitor::close);
+        monitors.clear();
+    }
+
+
+    public void addResetListener(BrickResetListener listener) {
+
+        resetListeners.add(listener);
+    }
+
+
+    /**
+     * Checks whether a brick is known to be down, so calls to it would only time out.
+     *
+     * @param  name  The name of the brick
+     *
+     * @return  true if the brick's monitoring connection failed or was lost, and isn't established again yet
+     */
+    public boolean isDown(String name) {
+
+        Monitor monitor = monitors.get(name);
+
+        return monitor != null && monitor.state == BrickState.DISCONNECTED;
+    }
+
+
+    public BrickHealth getHealth(String name) {
+
+        if (brickRepository.get(name) == null) {
+            throw new BrickNotFoundException("Brick " + name + " is not configured.");
+        }
+
+        return getHealth(name, monitors.get(name));
+    }
+
+
+    public List<BrickHealth> getAll() {
+
+        List<BrickHealth> health = new ArrayList<>();
+
+        for (Brick brick : brickRepository.getAll()) {
+            health.add(getHealth(brick.getName(), monitors.get(brick.getName())));
+        }
+
+        return health;
+    }
+
+
+    /**
+     * Connects to every configured brick that has no monitoring connection, and closes the monitoring connections of
+     * bricks no longer configured.
+     */
+    void check() {
+
+        List<Brick> bricks;
+
+        try {
+            bricks = brickRepository.getAll();
+        } catch (LoadFailedException exception) {
+            LOG.error("Error loading bricks to monitor:", exception);
+
+            return;
+        }
+
+        Set<String> names = new HashSet<>();
+
+        for (Brick brick : bricks) {
+            names.add(brick.getName());
+            monitors.computeIfAbsent(brick.getName(), key -> new Monitor(brick, new IPConnection())).check();
+        }
+
+        for (String name : monitors.keySet()) {
+            Monitor monitor = names.contains(name) ? null : monitors.remove(name);
+
+            if (monitor != null) {
+                monitor.close();
+            }
+        }
+    }
+
+
+    private BrickHealth getHealth(String name, Monitor monitor) {
+
+        if (monitor == null) {
+            return new BrickHealth(name, BrickState.UNKNOWN, 0, 0, 0);
+        }
+
+        return monitor.getHealth();
+    }
+
+
+    private void notifyReset(String name) {
+
+        for (BrickResetListener listener : resetListeners) {
+            try {
+                listener.brickReset(name);
+            } catch (RuntimeException exception) {
+                LOG.error("Error setting up the bricklets of brick " + name + " again:", exception);
+            }
+        }
+    }
+
+    private final class Monitor {
+
+        private final Brick brick;
+        private final IPConnection ipConnection;
+        private volatile BrickState state = BrickState.UNKNOWN;
+        private long since;
+        private int reconnects;
+        private int resets;
+
+        private Monitor(Brick brick, IPConnection ipConnection) {
+
+            this.brick = brick;
+            this.ipConnection = ipConnection;
+
+            ipConnection.setAutoReconnect(true);
+            ipConnection.addConnectedListener(this::connected);
+            ipConnection.addDisconnectedListener(this::disconnected);
+            ipConnection.addEnumerateListener(this::enumerated);
+        }
+
+        private void check() {
+
+            if (ipConnection.getConnectionState() != IPConnection.CONNECTION_STATE_DISCONNECTED) {
+                // connected, or reconnecting on its own
+                return;
+            }
+
+            try {
+                ipConnection.connect(brick.getHostname(), brick.getPort());
+            } catch (NetworkException | AlreadyConnectedException exception) {
+                if (enter(BrickState.DISCONNECTED) != BrickState.DISCONNECTED) {
+                    LOG.warn("Brick " + brick.getName() + " is down:", exception);
+                }
+
+                return;
+            }
+
+            // the connected callback arrives asynchronously, entering the state twice does no harm
+            connected(IPConnection.CONNECT_REASON_REQUEST);
+        }
+
+
+        private void connected(short reason) {
+
+            BrickState previous = enter(BrickState.CONNECTED);
+
+            if (reason == IPConnection.CONNECT_REASON_AUTO_RECONNECT) {
+                synchronized (this) {
+                    reconnects++;
+                }
+            }
+
+            if (previous == BrickState.DISCONNECTED) {
+                LOG.info("Brick " + brick.getName() + " is connected again");
+                notifyReset(brick.getName());
+            }
+        }
+
+
+        private void disconnected(short reason) {
+
+            if (reason == IPConnection.DISCONNECT_REASON_REQUEST) {
+                return;
+            }
+
+            if (enter(BrickState.DISCONNECTED) != BrickState.DISCONNECTED) {
+                LOG.warn("Lost connection to brick " + brick.getName() + ", reconnecting");
+            }
+        }
+
+
+        private void enumerated(String uid, String connectedUid, char position, short[] hardwareVersion,
+            short[] firmwareVersion, int deviceIdentifier, short enumerationType) {
+
+            // a restarting brick enumerates itself and then every one of its bricklets, only the brick counts
+            if (enumerationType != IPConnection.ENUMERATION_TYPE_CONNECTED || !isBrick(uid, connectedUid)) {
+                return;
+            }
+
+            synchronized (this) {
+                resets++;
+            }
+
+            LOG.info("Brick " + brick.getName() + " (re)started");
+            notifyReset(brick.getName());
+        }
+
+
+        /**
+         * Checks whether an enumerated device is the brick itself. Without a configured UID, that is the device
+         * connected directly to the host rather than to another brick.
+         */
+        private boolean isBrick(String uid, String connectedUid) {
+
+            if (brick.getUid() == null || brick.getUid().isEmpty()) {
+                return HOST.equals(connectedUid);
+            }
+
+            return brick.getUid().equals(uid);
+        }
+
+
+        private synchronized BrickState enter(BrickState next) {
+
+            BrickState previous = state;
+
+            if (previous != next) {
+                state = next;
+                since = System.currentTimeMillis();
+            }
+
+            return previous;
+        }
+
+
+        private synchronized BrickHealth getHealth() {
+
+            return new BrickHealth(brick.getName(), state, since, reconnects, resets);
+        }
+
+
+        private void close() {
+
+            ipConnection.setAutoReconnect(false);
+
+            try {
+                ipConnection.disconnect();
+            } catch (NotConnectedException exception) {
+                LOG.debug("Brick " + brick.getName() + " was already disconnected:", exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.synyx.sybil.brick.service;
+
+/**
+ * Notified when the bricklets of a brick lost their state and have to be set up again, because the brick or one of
+ * them restarted, or the brick was reconnected after it was down.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+@FunctionalInterface
+public interface BrickResetListener {
+
+    /**
+     * Called on the thread of the brick's monitoring connection.
+     *
+     * @param  brick  The name of the brick
+     */
+    void brickReset(String brick);
+}
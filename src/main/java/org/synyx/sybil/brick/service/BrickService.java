@@ -3,6 +3,7 @@ package org.synyx.sybil.brick.service;
 import com.tinkerforge.AlreadyConnectedException;
 import com.tinkerforge.BrickMaster;
 import com.tinkerforge.IPConnection;
+import com.tinkerforge.NetworkException;
 import com.tinkerforge.NotConnectedException;
 import com.tinkerforge.TimeoutException;
 
@@ -16,8 +17,10 @@ import org.springframework.stereotype.Service;
 import org.synyx.sybil.LoadFailedException;
 import org.synyx.sybil.brick.persistence.Brick;
 import org.synyx.sybil.brick.persistence.BrickRepository;
-
-import java.io.IOException;
+import org.synyx.sybil.metrics.Counter;
+import org.synyx.sybil.metrics.MetricsService;
+import org.synyx.sybil.metrics.Timer;
+import org.synyx.sybil.profiling.BrickConnectEvent;
 
 import javax.annotation.PostConstruct;
 
@@ -34,11 +37,20 @@ public class BrickService {
     private static final Logger LOG = LoggerFactory.getLogger(BrickService.class);
 
     private final BrickRepository brickRepository;
+    private final BrickHealthService brickHealthService;
+    private final Timer configLookups;
+    private final Timer connects;
+    private final Counter connectionErrors;
 
     @Autowired
-    public BrickService(BrickRepository brickRepository) {
+    public BrickService(BrickRepository brickRepository, BrickHealthService brickHealthService,
+        MetricsService metricsService) {
 
         this.brickRepository = brickRepository;
+        this.brickHealthService = brickHealthService;
+        this.configLookups = metricsService.getConfigLookups();
+        this.connects = metricsService.timer("sybil_brick_connect_seconds", "Time to connect to a brick", "brick");
+        this.connectionErrors = metricsService.getConnectionErrors();
     }
 
     @PostConstruct
@@ -54,22 +66,48 @@ public class BrickService {
     }
 
 
+    /**
+     * Opens a connection to a brick.
+     *
+     * @param  name  The name of the brick
+     *
+     * @return  The connection, which has to be disconnected by the caller
+     *
+     * @throws  BrickConnectionException  if the connection fails, or right away while the brick is known to be down.
+     */
     public IPConnection connect(String name) {
 
+        long start = System.nanoTime();
         Brick brick = brickRepository.get(name);
+        configLookups.record("brick", System.nanoTime() - start);
 
         if (brick == null) {
             throw new BrickNotFoundException("Brick " + name + " is not configured.");
         }
 
+        if (brickHealthService.isDown(name)) {
+            throw new BrickConnectionException("Brick " + name + " is down.");
+        }
+
         IPConnection ipConnection = new IPConnection();
+        BrickConnectEvent event = new BrickConnectEvent(name, brick.getHostname(), brick.getPort());
+
+        start = System.nanoTime();
+        event.begin();
 
         try {
             ipConnection.connect(brick.getHostname(), brick.getPort());
-        } catch (IOException | AlreadyConnectedException exception) {
+        } catch (NetworkException | AlreadyConnectedException exception) {
+            connectionErrors.increment(name);
+            event.failed(exception);
+
             throw new BrickConnectionException("Error connecting to brick:", exception);
+        } finally {
+            event.commit();
         }
 
+        connects.record(name, System.nanoTime() - start);
+
         return ipConnection;
     }
 
@@ -0,0 +1,17 @@
+package org.synyx.sybil.brick.service;
+
+/**
+ * The state of the connection to a brick.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public enum BrickState {
+
+    /** Not monitored yet, or the brick was just added to the configuration. */
+    UNKNOWN,
+
+    CONNECTED,
+
+    /** The connection failed or was lost, until it is established again. Calls to the brick fail right away. */
+    DISCONNECTED
+}
@@ -0,0 +1,61 @@
+package org.synyx.sybil.bricklet.input.illuminance.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.synyx.sybil.LoadFailedException;
+import org.synyx.sybil.bricklet.input.illuminance.dto.IlluminanceDTOService;
+import org.synyx.sybil.bricklet.input.illuminance.dto.IlluminanceHistoryDTO;
+import org.synyx.sybil.bricklet.input.illuminance.service.IlluminanceNotFoundException;
+import org.synyx.sybil.bricklet.output.ledstrip.api.APIError;
+
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+
+/**
+ * IlluminanceController. Shows the recent readings of the illuminance sensors, e.g. to tune their threshold and
+ * multiplier.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RestController
+@RequestMapping("/configuration/illuminances/{name}")
+public class IlluminanceController {
+
+    private final IlluminanceDTOService illuminanceDTOService;
+
+    @Autowired
+    public IlluminanceController(IlluminanceDTOService illuminanceDTOService) {
+
+        this.illuminanceDTOService = illuminanceDTOService;
+    }
+
+    @RequestMapping(value = "/history", method = RequestMethod.GET, produces = "application/json")
+    public IlluminanceHistoryDTO getHistory(@PathVariable String name) {
+
+        return illuminanceDTOService.getHistory(name);
+    }
+
+
+    @ExceptionHandler({ IlluminanceNotFoundException.class })
+    public ResponseEntity<APIError> notFoundError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), NOT_FOUND);
+    }
+
+
+    @ExceptionHandler({ LoadFailedException.class })
+    public ResponseEntity<APIError> serverError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), INTERNAL_SERVER_ERROR);
+    }
+}
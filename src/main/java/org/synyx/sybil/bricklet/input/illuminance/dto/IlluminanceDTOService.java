@@ -0,0 +1,44 @@
+package org.synyx.sybil.bricklet.input.illuminance.dto;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.stereotype.Service;
+
+import org.synyx.sybil.bricklet.input.illuminance.service.IlluminanceReadings;
+import org.synyx.sybil.bricklet.input.illuminance.service.IlluminanceService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * IlluminanceDTOService.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class IlluminanceDTOService {
+
+    private final IlluminanceService illuminanceService;
+
+    @Autowired
+    public IlluminanceDTOService(IlluminanceService illuminanceService) {
+
+        this.illuminanceService = illuminanceService;
+    }
+
+    public IlluminanceHistoryDTO getHistory(String name) {
+
+        IlluminanceReadings readings = illuminanceService.getReadings(name);
+
+        List<IlluminanceReadingDTO> readingDTOs = new ArrayList<>(readings.size());
+
+        for (int index = 0; index < readings.size(); index++) {
+            readingDTOs.add(new IlluminanceReadingDTO(readings.getTime(index), readings.getReading(index)));
+        }
+
+        return new IlluminanceHistoryDTO(readingDTOs, readings.getSmoothed(), readings.getMinimum(),
+                readings.getMaximum(), readings.getMean(), readings.getMedian());
+    }
+}
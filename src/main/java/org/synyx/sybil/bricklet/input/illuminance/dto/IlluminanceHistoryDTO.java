@@ -0,0 +1,76 @@
+package org.synyx.sybil.bricklet.input.illuminance.dto;
+
+import java.util.List;
+
+
+/**
+ * IlluminanceHistoryDTO. The recent readings of an illuminance sensor, oldest first, their smoothed value and
+ * aggregates over them. All illuminances are in decilux.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class IlluminanceHistoryDTO {
+
+    private final List<IlluminanceReadingDTO> readings;
+    private final double smoothed;
+    private final int minimum;
+    private final int maximum;
+    private final double mean;
+    private final double median;
+
+    /**
+     * Instantiates a new illuminance history DTO.
+     *
+     * @param  readings  The readings, oldest first
+     * @param  smoothed  The smoothed illuminance, as of the latest reading
+     * @param  minimum  The lowest reading
+     * @param  maximum  The highest reading
+     * @param  mean  The mean of the readings
+     * @param  median  The median of the readings
+     */
+    public IlluminanceHistoryDTO(List<IlluminanceReadingDTO> readings, double smoothed, int minimum, int maximum,
+        double mean, double median) {
+
+        this.readings = readings;
+        this.smoothed = smoothed;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.mean = mean;
+        this.median = median;
+    }
+
+    public List<IlluminanceReadingDTO> getReadings() {
+
+        return readings;
+    }
+
+
+    public double getSmoothed() {
+
+        return smoothed;
+    }
+
+
+    public int getMinimum() {
+
+        return minimum;
+    }
+
+
+    public int getMaximum() {
+
+        return maximum;
+    }
+
+
+    public double getMean() {
+
+        return mean;
+    }
+
+
+    public double getMedian() {
+
+        return median;
+    }
+}
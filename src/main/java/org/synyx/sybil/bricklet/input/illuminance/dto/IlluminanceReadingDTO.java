@@ -0,0 +1,35 @@
+package org.synyx.sybil.bricklet.input.illuminance.dto;
+
+/**
+ * IlluminanceReadingDTO. A single reading of an illuminance sensor.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class IlluminanceReadingDTO {
+
+    private final long time;
+    private final int illuminance;
+
+    /**
+     * Instantiates a new illuminance reading DTO.
+     *
+     * @param  time  The time of the reading in milliseconds since the epoch
+     * @param  illuminance  The illuminance in decilux
+     */
+    public IlluminanceReadingDTO(long time, int illuminance) {
+
+        this.time = time;
+        this.illuminance = illuminance;
+    }
+
+    public long getTime() {
+
+        return time;
+    }
+
+
+    public int getIlluminance() {
+
+        return illuminance;
+    }
+}
@@ -0,0 +1,103 @@
+package org.synyx.sybil.bricklet.input.illuminance.service;
+
+import java.util.Arrays;
+
+
+/**
+ * The most recent readings of one illuminance sensor, in a ring buffer of fixed size, and their smoothed value.
+ *
+ * <p>Each reading is first replaced by the median of the last few readings, which drops single outliers, and the
+ * medians are then smoothed by an exponentially weighted moving average. The first reading is taken as it is.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+final class IlluminanceHistory {
+
+    private final long[] times;
+    private final int[] readings;
+    private final int medianWindow;
+    private final double alpha;
+    private final int[] window;
+
+    private int next;
+    private int count;
+    private double smoothed;
+
+    /**
+     * Instantiates a new, empty history.
+     *
+     * @param  capacity  The number of readings kept
+     * @param  medianWindow  The number of readings the median is taken of
+     * @param  alpha  The weight of a new median in the moving average, from 0 (exclusive) to 1 (no smoothing)
+     */
+    IlluminanceHistory(int capacity, int medianWindow, double alpha) {
+
+        this.times = new long[Math.max(1, capacity)];
+        this.readings = new int[times.length];
+        this.medianWindow = Math.max(1, Math.min(medianWindow, times.length));
+        this.alpha = alpha;
+        this.window = new int[this.medianWindow];
+    }
+
+    /**
+     * Adds a reading, overwriting the oldest one if the history is full.
+     *
+     * @param  time  The time of the reading in milliseconds since the epoch
+     * @param  reading  The illuminance in decilux
+     *
+     * @return  The smoothed illuminance in decilux
+     */
+    synchronized double add(long time, int reading) {
+
+        times[next] = time;
+        readings[next] = reading;
+        next = (next + 1) % times.length;
+
+        if (count < times.length) {
+            count++;
+        }
+
+        double median = median(Math.min(count, medianWindow));
+
+        smoothed = count == 1 ? median : smoothed + alpha * (median - smoothed);
+
+        return smoothed;
+    }
+
+
+    /**
+     * Copies the readings.
+     *
+     * @return  The readings, oldest first
+     */
+    synchronized IlluminanceReadings getReadings() {
+
+        long[] timesCopy = new long[count];
+        int[] readingsCopy = new int[count];
+
+        int oldest = (next - count + times.length) % times.length;
+
+        for (int index = 0; index < count; index++) {
+            timesCopy[index] = times[(oldest + index) % times.length];
+            readingsCopy[index] = readings[(oldest + index) % times.length];
+        }
+
+        return new IlluminanceReadings(timesCopy, readingsCopy, smoothed);
+    }
+
+
+    private double median(int size) {
+
+        for (int index = 0; index < size; index++) {
+            window[index] = readings[(next - 1 - index + times.length) % times.length];
+        }
+
+        Arrays.sort(window, 0, size);
+
+        if (size % 2 == 1) {
+            return window[size / 2];
+        }
+
+        return (window[size / 2 - 1] + window[size / 2]) / 2.0;
+    }
+}
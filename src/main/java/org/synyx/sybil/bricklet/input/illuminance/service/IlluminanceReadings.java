@@ -0,0 +1,102 @@
+package org.synyx.sybil.bricklet.input.illuminance.service;
+
+import java.util.Arrays;
+
+
+/**
+ * A copy of the recent readings of an illuminance sensor, oldest first, and aggregates over them. Immutable.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public final class IlluminanceReadings {
+
+    private final long[] times;
+    private final int[] readings;
+    private final double smoothed;
+
+    IlluminanceReadings(long[] times, int[] readings, double smoothed) {
+
+        this.times = times;
+        this.readings = readings;
+        this.smoothed = smoothed;
+    }
+
+    public int size() {
+
+        return readings.length;
+    }
+
+
+    /**
+     * Gets the time of a reading.
+     *
+     * @param  index  The index of the reading, 0 is the oldest
+     *
+     * @return  The time in milliseconds since the epoch
+     */
+    public long getTime(int index) {
+
+        return times[index];
+    }
+
+
+    /**
+     * Gets a reading.
+     *
+     * @param  index  The index of the reading, 0 is the oldest
+     *
+     * @return  The illuminance in decilux
+     */
+    public int getReading(int index) {
+
+        return readings[index];
+    }
+
+
+    /**
+     * Gets the smoothed illuminance, as of the latest reading.
+     *
+     * @return  The illuminance in decilux, 0 if there are no readings
+     */
+    public double getSmoothed() {
+
+        return smoothed;
+    }
+
+
+    public int getMinimum() {
+
+        return Arrays.stream(readings).min().orElse(0);
+    }
+
+
+    public int getMaximum() {
+
+        return Arrays.stream(readings).max().orElse(0);
+    }
+
+
+    public double getMean() {
+
+        return Arrays.stream(readings).average().orElse(0);
+    }
+
+
+    public double getMedian() {
+
+        if (readings.length == 0) {
+            return 0;
+        }
+
+        int[] sorted = readings.clone();
+        Arrays.sort(sorted);
+
+        int middle = sorted.length / 2;
+
+        if (sorted.length % 2 == 1) {
+            return sorted[middle];
+        }
+
+        return (sorted[middle - 1] + sorted[middle]) / 2.0;
+    }
+}
@@ -5,14 +5,24 @@ import com.tinkerforge.TimeoutException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 
+import org.springframework.core.env.Environment;
+
 import org.springframework.stereotype.Service;
 
 import org.synyx.sybil.bricklet.input.illuminance.persistence.Illuminance;
 import org.synyx.sybil.bricklet.input.illuminance.persistence.IlluminanceRepository;
+import org.synyx.sybil.metrics.Counter;
+import org.synyx.sybil.metrics.MetricsService;
+import org.synyx.sybil.metrics.Timer;
+import org.synyx.sybil.profiling.IlluminanceReadEvent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
 /**
- * IlluminanceService.
+ * IlluminanceService. Keeps the recent readings of each sensor, and derives the brightness from their smoothed value,
+ * so a single noisy reading doesn't make the LED strips flicker.
  *
  * @author  Tobias Theuer - theuer@synyx.de
  */
@@ -22,27 +32,63 @@ public class IlluminanceService {
 
     private static final double DEFAULT_BRIGHTNESS = 1.0;
     private static final int TEN = 10;
+    private static final int DEFAULT_HISTORY_SIZE = 600;
+    private static final int DEFAULT_MEDIAN_WINDOW = 5;
+    private static final double DEFAULT_ALPHA = 0.3;
 
     private final BrickletAmbientLightWrapperService brickletAmbientLightWrapperService;
     private final IlluminanceRepository illuminanceRepository;
+    private final int historySize;
+    private final int medianWindow;
+    private final double alpha;
+    private final Timer configLookups;
+    private final Timer reads;
+    private final Counter timeouts;
+    private final Counter connectionErrors;
+    private final ConcurrentMap<String, IlluminanceHistory> histories = new ConcurrentHashMap<>();
 
     @Autowired
     public IlluminanceService(BrickletAmbientLightWrapperService brickletAmbientLightWrapperService,
-        IlluminanceRepository illuminanceRepository) {
+        IlluminanceRepository illuminanceRepository, MetricsService metricsService, Environment environment) {
+
+        this(brickletAmbientLightWrapperService, illuminanceRepository, metricsService,
+            environment.getProperty("illuminance.history.size", Integer.class, DEFAULT_HISTORY_SIZE),
+            environment.getProperty("illuminance.median.window", Integer.class, DEFAULT_MEDIAN_WINDOW),
+            environment.getProperty("illuminance.smoothing.alpha", Double.class, DEFAULT_ALPHA));
+    }
+
+
+    /**
+     * Instantiates a new illuminance service.
+     *
+     * @param  brickletAmbientLightWrapperService  The ambient light bricklet provider
+     * @param  illuminanceRepository  The illuminance repository
+     * @param  metricsService  The metrics service, timing sensor reads
+     * @param  historySize  The number of readings kept per sensor
+     * @param  medianWindow  The number of readings the median is taken of, 1 to not take a median
+     * @param  alpha  The weight of a new median in the moving average, 1 to not smooth at all
+     */
+    public IlluminanceService(BrickletAmbientLightWrapperService brickletAmbientLightWrapperService,
+        IlluminanceRepository illuminanceRepository, MetricsService metricsService, int historySize, int medianWindow,
+        double alpha) {
 
         this.brickletAmbientLightWrapperService = brickletAmbientLightWrapperService;
         this.illuminanceRepository = illuminanceRepository;
+        this.historySize = historySize;
+        this.medianWindow = medianWindow;
+        this.alpha = Math.max(Double.MIN_VALUE, Math.min(1, alpha));
+        this.configLookups = metricsService.getConfigLookups();
+        this.reads = metricsService.timer("sybil_illuminance_read_seconds", "Time to read an illuminance sensor",
+                "sensor", "brick");
+        this.timeouts = metricsService.getTimeouts();
+        this.connectionErrors = metricsService.getConnectionErrors();
     }
 
     public double getBrightness(String name) {
 
         double brightness = DEFAULT_BRIGHTNESS;
 
-        Illuminance illuminanceConfig = illuminanceRepository.get(name);
-
-        if (illuminanceConfig == null) {
-            throw new IlluminanceNotFoundException("Illuminance sensor " + name + " not found.");
-        }
+        Illuminance illuminanceConfig = getIlluminanceConfig(name);
 
         /* since the sensor reports in lux / 10, we have to multiply the threshold and divide the multiplier by 10 each.
          * A multiplier of 1.0 results in an increase in brightness of 100% per Lux that is below the threshold.
@@ -54,7 +100,7 @@ public class IlluminanceService {
 
         double multiplier = illuminanceConfig.getMultiplier() / TEN;
 
-        int illuminance = getIlluminance(illuminanceConfig);
+        double illuminance = getHistory(name).add(System.currentTimeMillis(), getIlluminance(illuminanceConfig));
 
         if (illuminance < thresholdInDecilux) {
             brightness += (thresholdInDecilux - illuminance) * multiplier;
@@ -64,21 +110,73 @@ public class IlluminanceService {
     }
 
 
+    /**
+     * Gets the recent readings of a sensor. Sensors are only read when a brightness is requested.
+     *
+     * @param  name  The name of the sensor
+     *
+     * @return  The readings, oldest first
+     */
+    public IlluminanceReadings getReadings(String name) {
+
+        getIlluminanceConfig(name);
+
+        return getHistory(name).getReadings();
+    }
+
+
+    private Illuminance getIlluminanceConfig(String name) {
+
+        long start = System.nanoTime();
+        Illuminance illuminanceConfig = illuminanceRepository.get(name);
+        configLookups.record("illuminance", System.nanoTime() - start);
+
+        if (illuminanceConfig == null) {
+            throw new IlluminanceNotFoundException("Illuminance sensor " + name + " not found.");
+        }
+
+        return illuminanceConfig;
+    }
+
+
+    private IlluminanceHistory getHistory(String name) {
+
+        return histories.computeIfAbsent(name, key -> new IlluminanceHistory(historySize, medianWindow, alpha));
+    }
+
+
     private int getIlluminance(Illuminance illuminanceConfig) {
 
         BrickletAmbientLightWrapper brickletAmbientLight = brickletAmbientLightWrapperService.getBrickletAmbientLight(
                 illuminanceConfig);
 
         int illuminance;
+        IlluminanceReadEvent event = new IlluminanceReadEvent(illuminanceConfig.getName(),
+                illuminanceConfig.getBrick());
+        long start = System.nanoTime();
+        event.begin();
 
         try {
             illuminance = brickletAmbientLight.getIlluminance();
+            event.setIlluminance(illuminance);
 
             brickletAmbientLight.disconnect();
-        } catch (TimeoutException | NotConnectedException exception) {
+        } catch (TimeoutException exception) {
+            timeouts.increment(illuminanceConfig.getBrick(), "illuminance");
+            event.failed(exception);
+
+            throw new IlluminanceConnectionException("Error getting sensor value:", exception);
+        } catch (NotConnectedException exception) {
+            connectionErrors.increment(illuminanceConfig.getBrick());
+            event.failed(exception);
+
             throw new IlluminanceConnectionException("Error getting sensor value:", exception);
+        } finally {
+            event.commit();
         }
 
+        reads.record(illuminanceConfig.getName(), illuminanceConfig.getBrick(), System.nanoTime() - start);
+
         return illuminance;
     }
 }
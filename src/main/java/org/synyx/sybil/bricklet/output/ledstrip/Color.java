@@ -1,22 +1,20 @@
 package org.synyx.sybil.bricklet.output.ledstrip;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.tinkerforge.BrickletLEDStrip;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-
 import org.synyx.sybil.jenkins.Status;
 
-import java.util.Objects;
-
 
 /**
- * Color object for LED strips.
+ * Color object for LED strips. Immutable, the three primary colors are packed into a single int as 0xRRGGBB.
  *
  * @author  Tobias Theuer - theuer@synyx.de
  */
-public class Color {
+public final class Color {
 
     public static final Color BLACK = new Color(0, 0, 0);
     public static final Color WHITE = new Color(255, 255, 255);
@@ -26,10 +24,16 @@ public class Color {
 
     private static final int MAX_PRIMARY_COLOR = 255;
     private static final int MIN_PRIMARY_COLOR = 0;
+    private static final int RED_SHIFT = 16;
+    private static final int GREEN_SHIFT = 8;
+    private static final int CACHE_SIZE = 256;
+
+    private static final Color[] COMMON = { BLACK, WHITE, CRITICAL, WARNING, OKAY };
+
+    // direct mapped, races only cost an allocation, since Colors are immutable
+    private static final Color[] CACHE = new Color[CACHE_SIZE];
 
-    private int red;
-    private int green;
-    private int blue;
+    private final int rgb;
 
     /**
      * Converts Red, Green and Blue into the right format.
@@ -38,20 +42,90 @@ public class Color {
      * @param  green  green: int, between 0 and 255
      * @param  blue  blue: int, between 0 and 255
      */
-    public Color(int red, int green, int blue) {
+    @JsonCreator
+    public Color(@JsonProperty("red") int red, @JsonProperty("green") int green, @JsonProperty("blue") int blue) {
 
-        this.red = setColorLimits(red);
-        this.green = setColorLimits(green);
-        this.blue = setColorLimits(blue);
+        this.rgb = pack(setColorLimits(red), setColorLimits(green), setColorLimits(blue));
     }
 
 
-    public Color() {
+    private Color(int rgb) {
 
-        // default constructor deliberately left empty.
+        this.rgb = rgb;
     }
 
-    private int setColorLimits(int primaryColor) {
+    /**
+     * Gets the color for packed primary colors, reusing a cached instance if possible.
+     *
+     * @param  rgb  The primary colors as 0xRRGGBB
+     *
+     * @return  The color
+     */
+    public static Color valueOf(int rgb) {
+
+        int packed = rgb & 0xFFFFFF;
+
+        for (Color common : COMMON) {
+            if (common.rgb == packed) {
+                return common;
+            }
+        }
+
+        int index = cacheIndex(packed);
+        Color cached = CACHE[index];
+
+        if (cached != null && cached.rgb == packed) {
+            return cached;
+        }
+
+        Color color = new Color(packed);
+        CACHE[index] = color;
+
+        return color;
+    }
+
+
+    /**
+     * Packs primary colors into a single int. The values are not checked, they have to be between 0 and 255.
+     *
+     * @param  red  The red value
+     * @param  green  The green value
+     * @param  blue  The blue value
+     *
+     * @return  The primary colors as 0xRRGGBB
+     */
+    public static int pack(int red, int green, int blue) {
+
+        return red << RED_SHIFT | green << GREEN_SHIFT | blue;
+    }
+
+
+    public static int red(int rgb) {
+
+        return rgb >> RED_SHIFT & MAX_PRIMARY_COLOR;
+    }
+
+
+    public static int green(int rgb) {
+
+        return rgb >> GREEN_SHIFT & MAX_PRIMARY_COLOR;
+    }
+
+
+    public static int blue(int rgb) {
+
+        return rgb & MAX_PRIMARY_COLOR;
+    }
+
+
+    private static int cacheIndex(int rgb) {
+
+        // Fibonacci hashing, the top 8 bits index the 256 entries
+        return (rgb * 0x9E3779B1) >>> 24;
+    }
+
+
+    private static int setColorLimits(int primaryColor) {
 
         if (primaryColor < MIN_PRIMARY_COLOR) {
             return MIN_PRIMARY_COLOR;
@@ -104,28 +178,35 @@ public class Color {
         int green = rgbValues.b[position];
         int blue = rgbValues.r[position];
 
-        return new Color(red, green, blue);
+        return valueOf(pack(setColorLimits(red), setColorLimits(green), setColorLimits(blue)));
     }
 
 
     @JsonProperty("blue")
     public int getBlue() {
 
-        return blue;
+        return blue(rgb);
     }
 
 
     @JsonProperty("green")
     public int getGreen() {
 
-        return green;
+        return green(rgb);
     }
 
 
     @JsonProperty("red")
     public int getRed() {
 
-        return red;
+        return red(rgb);
+    }
+
+
+    @JsonIgnore
+    public int getRGB() {
+
+        return rgb;
     }
 
 
@@ -140,27 +221,20 @@ public class Color {
             return false;
         }
 
-        Color color = (Color) o;
-
-        EqualsBuilder builder = new EqualsBuilder();
-        builder.append(red, color.red);
-        builder.append(green, color.green);
-        builder.append(blue, color.blue);
-
-        return builder.isEquals();
+        return rgb == ((Color) o).rgb;
     }
 
 
     @Override
     public int hashCode() {
 
-        return Objects.hash(red, green, blue);
+        return rgb;
     }
 
 
     @Override
     public String toString() {
 
-        return "(" + red + ", " + green + ", " + blue + ")";
+        return "(" + getRed() + ", " + getGreen() + ", " + getBlue() + ")";
     }
 }
@@ -0,0 +1,112 @@
+package org.synyx.sybil.bricklet.output.ledstrip.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.validation.BindingResult;
+
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.synyx.sybil.LoadFailedException;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.AnimationDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTOService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripConnectionException;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripNotFoundException;
+import org.synyx.sybil.bricklet.output.ledstrip.service.UnknownEffectException;
+
+import javax.validation.Valid;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NO_CONTENT;
+
+
+/**
+ * AnimationController. Starts and stops effects that are rendered on the server.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RestController
+@RequestMapping("/configuration/ledstrips/{name}/animation")
+public class AnimationController {
+
+    private final LEDStripDTOService ledStripDTOService;
+
+    @Autowired
+    public AnimationController(LEDStripDTOService ledStripDTOService) {
+
+        this.ledStripDTOService = ledStripDTOService;
+    }
+
+    @RequestMapping(method = RequestMethod.GET, produces = "application/json")
+    public ResponseEntity<AnimationDTO> getAnimation(@PathVariable String name) {
+
+        AnimationDTO animationDTO = ledStripDTOService.getAnimation(name);
+
+        if (animationDTO == null) {
+            return new ResponseEntity<>(NO_CONTENT);
+        }
+
+        return ResponseEntity.ok(animationDTO);
+    }
+
+
+    @ResponseStatus(NO_CONTENT)
+    @RequestMapping(method = RequestMethod.PUT)
+    public void putAnimation(@PathVariable String name, @Valid @RequestBody AnimationDTO animationDTO,
+        BindingResult bindingResult) {
+
+        if (bindingResult.hasErrors()) {
+            throw new BadRequestException(bindingResult.getAllErrors().get(0).getObjectName()
+                + " " + bindingResult.getAllErrors().get(0).getDefaultMessage());
+        }
+
+        if ("chase".equals(animationDTO.getEffect())) {
+            if (animationDTO.getColor() == null) {
+                throw new BadRequestException("Effect chase needs a color");
+            }
+        } else if (animationDTO.getPixels() == null) {
+            throw new BadRequestException("Effect " + animationDTO.getEffect() + " needs pixels");
+        }
+
+        ledStripDTOService.startAnimation(name, animationDTO);
+    }
+
+
+    @ResponseStatus(NO_CONTENT)
+    @RequestMapping(method = RequestMethod.DELETE)
+    public void deleteAnimation(@PathVariable String name) {
+
+        ledStripDTOService.stopAnimation(name);
+    }
+
+
+    @ExceptionHandler({ BadRequestException.class, UnknownEffectException.class })
+    public ResponseEntity<APIError> badRequestError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), BAD_REQUEST);
+    }
+
+
+    @ExceptionHandler({ LEDStripNotFoundException.class })
+    public ResponseEntity<APIError> notFoundError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), NOT_FOUND);
+    }
+
+
+    @ExceptionHandler({ LEDStripConnectionException.class, LoadFailedException.class })
+    public ResponseEntity<APIError> serverError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), INTERNAL_SERVER_ERROR);
+    }
+}
@@ -0,0 +1,74 @@
+package org.synyx.sybil.bricklet.output.ledstrip.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.validation.BindingResult;
+
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.synyx.sybil.LoadFailedException;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripBatchDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTOService;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripResultDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripConnectionException;
+
+import java.util.List;
+
+import javax.validation.Valid;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+
+/**
+ * BatchDisplayController. Displays frames on many LED strips with a single request.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RestController
+@RequestMapping("/configuration/ledstrips/display")
+public class BatchDisplayController {
+
+    private final LEDStripDTOService ledStripDTOService;
+
+    @Autowired
+    public BatchDisplayController(LEDStripDTOService ledStripDTOService) {
+
+        this.ledStripDTOService = ledStripDTOService;
+    }
+
+    @ResponseBody
+    @RequestMapping(method = RequestMethod.PUT, produces = "application/json")
+    public List<LEDStripResultDTO> putDisplays(@Valid @RequestBody LEDStripBatchDTO ledStripBatchDTO,
+        BindingResult bindingResult) {
+
+        if (bindingResult.hasErrors()) {
+            throw new BadRequestException(bindingResult.getAllErrors().get(0).getObjectName()
+                + " " + bindingResult.getAllErrors().get(0).getDefaultMessage());
+        }
+
+        return ledStripDTOService.setColorsOfLEDStrips(ledStripBatchDTO);
+    }
+
+
+    @ExceptionHandler({ BadRequestException.class })
+    public ResponseEntity<APIError> badRequestError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), BAD_REQUEST);
+    }
+
+
+    @ExceptionHandler({ LEDStripConnectionException.class, LoadFailedException.class })
+    public ResponseEntity<APIError> serverError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), INTERNAL_SERVER_ERROR);
+    }
+}
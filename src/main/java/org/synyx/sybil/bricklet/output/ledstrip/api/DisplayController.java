@@ -10,13 +10,19 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMethod;
-import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
 import org.synyx.sybil.LoadFailedException;
 import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTO;
 import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTOService;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripPatchDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripStreamService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.FrameBufferModifiedException;
 import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripConnectionException;
 import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripNotFoundException;
 
@@ -25,6 +31,8 @@ import javax.validation.Valid;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
 
 
 /**
@@ -37,35 +45,94 @@ import static org.springframework.http.HttpStatus.NOT_FOUND;
 @RequestMapping("/configuration/ledstrips/{name}/display")
 public class DisplayController {
 
+    private static final String HARDWARE = "hardware";
+
     private final LEDStripDTOService ledStripDTOService;
+    private final LEDStripStreamService ledStripStreamService;
 
     @Autowired
-    public DisplayController(LEDStripDTOService ledStripDTOService) {
+    public DisplayController(LEDStripDTOService ledStripDTOService, LEDStripStreamService ledStripStreamService) {
 
         this.ledStripDTOService = ledStripDTOService;
+        this.ledStripStreamService = ledStripStreamService;
     }
 
-    @ResponseBody
+    /**
+     * Gets the pixels of a LED strip from its frame buffer, tagged with its generation. If the client already has the
+     * current generation, 304 is returned. With {@code source=hardware}, the pixels are read back from the LED strip
+     * instead, for diagnostics.
+     */
     @RequestMapping(method = RequestMethod.GET, produces = { "application/json" })
-    public LEDStripDTO getDisplay(@PathVariable String name) {
+    public ResponseEntity<LEDStripDTO> getDisplay(@PathVariable String name,
+        @RequestParam(value = "source", required = false) String source,
+        @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+
+        if (HARDWARE.equals(source)) {
+            return withETag(ledStripDTOService.readBack(name));
+        }
+
+        long generation = ledStripDTOService.getGeneration(name);
 
-        return ledStripDTOService.get(name);
+        if (generation > 0 && EntityTags.matches(ifNoneMatch, generation)) {
+            return ResponseEntity.status(NOT_MODIFIED).eTag(EntityTags.of(generation)).body(null);
+        }
+
+        return withETag(ledStripDTOService.get(name));
     }
 
 
-    @ResponseBody
     @RequestMapping(method = RequestMethod.PUT, produces = "application/json")
-    public LEDStripDTO putDisplay(@PathVariable String name, @Valid @RequestBody LEDStripDTO ledStripDTO,
-        BindingResult bindingResult) {
+    public ResponseEntity<LEDStripDTO> putDisplay(@PathVariable String name,
+        @Valid @RequestBody LEDStripDTO ledStripDTO, BindingResult bindingResult,
+        @RequestHeader(value = "If-Match", required = false) String ifMatch) {
 
         if (bindingResult.hasErrors()) {
             throw new BadRequestException(bindingResult.getAllErrors().get(0).getObjectName()
                 + " " + bindingResult.getAllErrors().get(0).getDefaultMessage());
         }
 
-        ledStripDTOService.setColorsOfLEDStrip(name, ledStripDTO);
+        if (ifMatch == null || EntityTags.isWildcard(ifMatch)) {
+            return withETag(ledStripDTOService.setColorsOfLEDStrip(name, ledStripDTO));
+        }
 
-        return getDisplay(name);
+        return withETag(ledStripDTOService.setColorsOfLEDStrip(name, ledStripDTO,
+                    EntityTags.expectedGenerations(ifMatch)));
+    }
+
+
+    @RequestMapping(method = RequestMethod.PATCH, produces = "application/json")
+    public ResponseEntity<LEDStripDTO> patchDisplay(@PathVariable String name,
+        @Valid @RequestBody LEDStripPatchDTO ledStripPatchDTO, BindingResult bindingResult,
+        @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+
+        if (bindingResult.hasErrors()) {
+            throw new BadRequestException(bindingResult.getAllErrors().get(0).getObjectName()
+                + " " + bindingResult.getAllErrors().get(0).getDefaultMessage());
+        }
+
+        if (ledStripPatchDTO.getRanges().isEmpty() && ledStripPatchDTO.getFills().isEmpty()) {
+            throw new BadRequestException("Patch contains neither ranges nor fills");
+        }
+
+        if (ifMatch == null || EntityTags.isWildcard(ifMatch)) {
+            return withETag(ledStripDTOService.patch(name, ledStripPatchDTO));
+        }
+
+        return withETag(ledStripDTOService.patch(name, ledStripPatchDTO, EntityTags.expectedGenerations(ifMatch)));
+    }
+
+
+    @RequestMapping(value = "/stream", method = RequestMethod.GET)
+    public SseEmitter streamDisplay(@PathVariable String name) {
+
+        return ledStripStreamService.subscribe(name);
+    }
+
+
+    @ExceptionHandler({ FrameBufferModifiedException.class })
+    public ResponseEntity<APIError> preconditionFailedError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), PRECONDITION_FAILED);
     }
 
 
@@ -88,4 +155,14 @@ public class DisplayController {
 
         return new ResponseEntity<>(new APIError(exception.getMessage()), INTERNAL_SERVER_ERROR);
     }
+
+
+    private ResponseEntity<LEDStripDTO> withETag(LEDStripDTO ledStripDTO) {
+
+        if (ledStripDTO.getGeneration() == 0) {
+            return ResponseEntity.ok(ledStripDTO);
+        }
+
+        return ResponseEntity.ok().eTag(EntityTags.of(ledStripDTO.getGeneration())).body(ledStripDTO);
+    }
 }
@@ -0,0 +1,98 @@
+package org.synyx.sybil.bricklet.output.ledstrip.api;
+
+import java.util.Arrays;
+
+
+/**
+ * EntityTags. Turns frame buffer generations into ETags and compares them with the If-None-Match and If-Match headers.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+final class EntityTags {
+
+    private static final String WILDCARD = "*";
+    private static final String WEAK_PREFIX = "W/";
+    private static final long NO_MATCH = -1;
+
+    private EntityTags() {
+
+        // utility class
+    }
+
+    static String of(long generation) {
+
+        return "\"" + generation + "\"";
+    }
+
+
+    /**
+     * Checks an If-None-Match header, which may contain several and weak entity tags.
+     *
+     * @param  header  The header, may be null
+     * @param  generation  The current generation
+     *
+     * @return  true if the header matches the current generation
+     */
+    static boolean matches(String header, long generation) {
+
+        if (header == null) {
+            return false;
+        }
+
+        if (WILDCARD.equals(header.trim())) {
+            return true;
+        }
+
+        for (String tag : header.split(",")) {
+            String trimmed = tag.trim();
+
+            if (trimmed.startsWith(WEAK_PREFIX)) {
+                trimmed = trimmed.substring(WEAK_PREFIX.length());
+            }
+
+            if (parseStrong(trimmed) == generation) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    static boolean isWildcard(String header) {
+
+        return WILDCARD.equals(header.trim());
+    }
+
+
+    /**
+     * Gets the generations an If-Match header accepts, which may contain several entity tags. If-Match uses strong
+     * comparison, so weak and malformed entity tags are left out and can never match.
+     *
+     * @param  header  The header
+     *
+     * @return  The accepted generations, empty if none can match
+     */
+    static long[] expectedGenerations(String header) {
+
+        return Arrays.stream(header.split(","))
+            .map(String::trim)
+            .mapToLong(EntityTags::parseStrong)
+            .filter(generation -> generation != NO_MATCH)
+            .toArray();
+    }
+
+
+    private static long parseStrong(String tag) {
+
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return NO_MATCH;
+        }
+
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException exception) {
+            return NO_MATCH;
+        }
+    }
+}
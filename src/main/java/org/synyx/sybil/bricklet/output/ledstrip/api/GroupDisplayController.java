@@ -0,0 +1,84 @@
+package org.synyx.sybil.bricklet.output.ledstrip.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.validation.BindingResult;
+
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.synyx.sybil.LoadFailedException;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTOService;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripResultDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripConnectionException;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripNotFoundException;
+
+import java.util.List;
+
+import javax.validation.Valid;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+
+/**
+ * GroupDisplayController. Displays the same frame on all LED strips of a group.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RestController
+@RequestMapping("/configuration/ledstripgroups/{group}/display")
+public class GroupDisplayController {
+
+    private final LEDStripDTOService ledStripDTOService;
+
+    @Autowired
+    public GroupDisplayController(LEDStripDTOService ledStripDTOService) {
+
+        this.ledStripDTOService = ledStripDTOService;
+    }
+
+    @ResponseBody
+    @RequestMapping(method = RequestMethod.PUT, produces = "application/json")
+    public List<LEDStripResultDTO> putDisplay(@PathVariable String group, @Valid @RequestBody LEDStripDTO ledStripDTO,
+        BindingResult bindingResult) {
+
+        if (bindingResult.hasErrors()) {
+            throw new BadRequestException(bindingResult.getAllErrors().get(0).getObjectName()
+                + " " + bindingResult.getAllErrors().get(0).getDefaultMessage());
+        }
+
+        return ledStripDTOService.setColorsOfGroup(group, ledStripDTO);
+    }
+
+
+    @ExceptionHandler({ BadRequestException.class })
+    public ResponseEntity<APIError> badRequestError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), BAD_REQUEST);
+    }
+
+
+    @ExceptionHandler({ LEDStripNotFoundException.class })
+    public ResponseEntity<APIError> notFoundError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), NOT_FOUND);
+    }
+
+
+    @ExceptionHandler({ LEDStripConnectionException.class, LoadFailedException.class })
+    public ResponseEntity<APIError> serverError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), INTERNAL_SERVER_ERROR);
+    }
+}
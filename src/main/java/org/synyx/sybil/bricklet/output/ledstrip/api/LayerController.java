@@ -0,0 +1,102 @@
+package org.synyx.sybil.bricklet.output.ledstrip.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.validation.BindingResult;
+
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.synyx.sybil.LoadFailedException;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTOService;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LayerDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripConnectionException;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripNotFoundException;
+
+import java.util.List;
+
+import javax.validation.Valid;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NO_CONTENT;
+
+
+/**
+ * LayerController. Adds and removes the layers composited onto a LED strip.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RestController
+@RequestMapping("/configuration/ledstrips/{name}/layers")
+public class LayerController {
+
+    private final LEDStripDTOService ledStripDTOService;
+
+    @Autowired
+    public LayerController(LEDStripDTOService ledStripDTOService) {
+
+        this.ledStripDTOService = ledStripDTOService;
+    }
+
+    @RequestMapping(method = RequestMethod.GET, produces = "application/json")
+    public List<LayerDTO> getLayers(@PathVariable String name) {
+
+        return ledStripDTOService.getLayers(name);
+    }
+
+
+    @ResponseStatus(NO_CONTENT)
+    @RequestMapping(value = "/{layer}", method = RequestMethod.PUT)
+    public void putLayer(@PathVariable String name, @PathVariable String layer,
+        @Valid @RequestBody LayerDTO layerDTO, BindingResult bindingResult) {
+
+        if (bindingResult.hasErrors()) {
+            throw new BadRequestException(bindingResult.getAllErrors().get(0).getObjectName()
+                + " " + bindingResult.getAllErrors().get(0).getDefaultMessage());
+        }
+
+        ledStripDTOService.putLayer(name, layer, layerDTO);
+    }
+
+
+    @RequestMapping(value = "/{layer}", method = RequestMethod.DELETE)
+    public ResponseEntity<Void> deleteLayer(@PathVariable String name, @PathVariable String layer) {
+
+        if (!ledStripDTOService.removeLayer(name, layer)) {
+            return new ResponseEntity<>(NOT_FOUND);
+        }
+
+        return new ResponseEntity<>(NO_CONTENT);
+    }
+
+
+    @ExceptionHandler({ BadRequestException.class })
+    public ResponseEntity<APIError> badRequestError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), BAD_REQUEST);
+    }
+
+
+    @ExceptionHandler({ LEDStripNotFoundException.class })
+    public ResponseEntity<APIError> notFoundError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), NOT_FOUND);
+    }
+
+
+    @ExceptionHandler({ LEDStripConnectionException.class, LoadFailedException.class })
+    public ResponseEntity<APIError> serverError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), INTERNAL_SERVER_ERROR);
+    }
+}
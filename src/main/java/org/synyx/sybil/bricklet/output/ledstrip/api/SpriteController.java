@@ -0,0 +1,112 @@
+package org.synyx.sybil.bricklet.output.ledstrip.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.validation.BindingResult;
+
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.synyx.sybil.LoadFailedException;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTOService;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.SpriteDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.SpriteDisplayDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripConnectionException;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripNotFoundException;
+import org.synyx.sybil.bricklet.output.ledstrip.service.SpriteNotFoundException;
+
+import java.net.URI;
+
+import javax.validation.Valid;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+
+/**
+ * SpriteController. Uploads sprites to the sprite library and displays them on LED strips by reference.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RestController
+public class SpriteController {
+
+    private static final String SPRITES = "/configuration/sprites";
+
+    private final LEDStripDTOService ledStripDTOService;
+
+    @Autowired
+    public SpriteController(LEDStripDTOService ledStripDTOService) {
+
+        this.ledStripDTOService = ledStripDTOService;
+    }
+
+    @RequestMapping(value = SPRITES, method = RequestMethod.POST, produces = "application/json")
+    public ResponseEntity<SpriteDTO> postSprite(@Valid @RequestBody SpriteDTO spriteDTO,
+        BindingResult bindingResult) {
+
+        if (bindingResult.hasErrors()) {
+            throw new BadRequestException(bindingResult.getAllErrors().get(0).getObjectName()
+                + " " + bindingResult.getAllErrors().get(0).getDefaultMessage());
+        }
+
+        SpriteDTO stored = ledStripDTOService.putSprite(spriteDTO);
+
+        return ResponseEntity.created(URI.create(SPRITES + "/" + stored.getId())).body(stored);
+    }
+
+
+    @RequestMapping(value = SPRITES + "/{id}", method = RequestMethod.GET, produces = "application/json")
+    public SpriteDTO getSprite(@PathVariable String id) {
+
+        return ledStripDTOService.getSprite(id);
+    }
+
+
+    @RequestMapping(
+        value = "/configuration/ledstrips/{name}/display/sprite", method = RequestMethod.PUT,
+        produces = "application/json"
+    )
+    public ResponseEntity<LEDStripDTO> displaySprite(@PathVariable String name,
+        @Valid @RequestBody SpriteDisplayDTO spriteDisplayDTO, BindingResult bindingResult) {
+
+        if (bindingResult.hasErrors()) {
+            throw new BadRequestException(bindingResult.getAllErrors().get(0).getObjectName()
+                + " " + bindingResult.getAllErrors().get(0).getDefaultMessage());
+        }
+
+        LEDStripDTO ledStripDTO = ledStripDTOService.displaySprite(name, spriteDisplayDTO);
+
+        return ResponseEntity.ok().eTag(EntityTags.of(ledStripDTO.getGeneration())).body(ledStripDTO);
+    }
+
+
+    @ExceptionHandler({ BadRequestException.class })
+    public ResponseEntity<APIError> badRequestError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), BAD_REQUEST);
+    }
+
+
+    @ExceptionHandler({ LEDStripNotFoundException.class, SpriteNotFoundException.class })
+    public ResponseEntity<APIError> notFoundError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), NOT_FOUND);
+    }
+
+
+    @ExceptionHandler({ LEDStripConnectionException.class, LoadFailedException.class })
+    public ResponseEntity<APIError> serverError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), INTERNAL_SERVER_ERROR);
+    }
+}
@@ -0,0 +1,101 @@
+package org.synyx.sybil.bricklet.output.ledstrip.dto;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import java.util.List;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+
+
+/**
+ * AnimationDTO. An effect to run on a LED strip. The number of frames defaults to 50, the spacing to 3.
+ *
+ * <ul>
+ *   <li>fade: From the current frame to the pixels, in the given number of frames</li>
+ *   <li>chase: Every spacing-th pixel in color on the background, moving on by one pixel every number of frames</li>
+ *   <li>pulse: The pixels, dimming and brightening again with a period of the given number of frames</li>
+ *   <li>scroll: The pixels, moving on by one pixel every number of frames</li>
+ * </ul>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class AnimationDTO {
+
+    private static final int DEFAULT_FRAMES = 50;
+    private static final int DEFAULT_SPACING = 3;
+
+    @NotNull
+    @Pattern(regexp = "fade|chase|pulse|scroll")
+    private final String effect;
+
+    private final List<Color> pixels;
+
+    private final Color color;
+
+    private final Color background;
+
+    @Min(1)
+    private final int frames;
+
+    @Min(1)
+    private final int spacing;
+
+    public AnimationDTO(String effect, List<Color> pixels, Color color, Color background, int frames, int spacing) {
+
+        this.effect = effect;
+        this.pixels = pixels;
+        this.color = color;
+        this.background = background;
+        this.frames = frames;
+        this.spacing = spacing;
+    }
+
+
+    public AnimationDTO() {
+
+        // default constructor deliberately left (almost) empty
+        this.effect = null;
+        this.pixels = null;
+        this.color = null;
+        this.background = null;
+        this.frames = DEFAULT_FRAMES;
+        this.spacing = DEFAULT_SPACING;
+    }
+
+    public String getEffect() {
+
+        return effect;
+    }
+
+
+    public List<Color> getPixels() {
+
+        return pixels;
+    }
+
+
+    public Color getColor() {
+
+        return color;
+    }
+
+
+    public Color getBackground() {
+
+        return background;
+    }
+
+
+    public int getFrames() {
+
+        return frames;
+    }
+
+
+    public int getSpacing() {
+
+        return spacing;
+    }
+}
@@ -0,0 +1,57 @@
+package org.synyx.sybil.bricklet.output.ledstrip.dto;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+
+/**
+ * FillRangeDTO. A run of consecutive pixels, all of the same color, starting at an offset on the LED strip.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class FillRangeDTO {
+
+    @Min(0)
+    private final int offset;
+
+    @Min(1)
+    private final int length;
+
+    @NotNull
+    private final Color color;
+
+    public FillRangeDTO(int offset, int length, Color color) {
+
+        this.offset = offset;
+        this.length = length;
+        this.color = color;
+    }
+
+
+    public FillRangeDTO() {
+
+        // default constructor deliberately left (almost) empty
+        this.offset = 0;
+        this.length = 0;
+        this.color = null;
+    }
+
+    public int getOffset() {
+
+        return offset;
+    }
+
+
+    public int getLength() {
+
+        return length;
+    }
+
+
+    public Color getColor() {
+
+        return color;
+    }
+}
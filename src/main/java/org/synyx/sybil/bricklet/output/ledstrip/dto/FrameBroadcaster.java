@@ -0,0 +1,183 @@
+package org.synyx.sybil.bricklet.output.ledstrip.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.service.FrameBuffer;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * FrameBroadcaster. Sends the frames rendered onto one LED strip to all of its subscribers.
+ *
+ * <p>Every event is computed and serialized once, no matter how many subscribers there are. Not thread-safe, all calls
+ * have to come from the same thread.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class FrameBroadcaster {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FrameBroadcaster.class);
+
+    private static final int KEYFRAME_INTERVAL = 50;
+    private static final int MERGE_GAP = 4; // unchanged pixels between two changed ranges that still get merged
+
+    private final ObjectMapper objectMapper;
+    private final List<SseEmitter> emitters = new ArrayList<>();
+
+    private FrameBuffer previous;
+    private int framesSinceKeyframe;
+
+    public FrameBroadcaster(ObjectMapper objectMapper) {
+
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Adds a subscriber and sends it a keyframe of the current state, if there is one.
+     *
+     * @param  emitter  The new subscriber
+     * @param  current  The LED strip's current frame buffer, used if no other subscriber has seen a frame yet
+     */
+    public void subscribe(SseEmitter emitter, FrameBuffer current) {
+
+        if (previous == null) {
+            previous = current;
+            framesSinceKeyframe = 0;
+        }
+
+        emitters.add(emitter);
+
+        if (previous != null) {
+            send(Collections.singletonList(emitter), "keyframe", previous.getGeneration(), keyframe(previous));
+        }
+    }
+
+
+    public void unsubscribe(SseEmitter emitter) {
+
+        emitters.remove(emitter);
+
+        if (emitters.isEmpty()) {
+            previous = null;
+        }
+    }
+
+
+    public boolean hasSubscribers() {
+
+        return !emitters.isEmpty();
+    }
+
+
+    /**
+     * Sends a newly rendered frame to all subscribers, as a diff or, periodically, as a keyframe.
+     *
+     * @param  frameBuffer  The newly rendered frame
+     */
+    public void publish(FrameBuffer frameBuffer) {
+
+        if (emitters.isEmpty() || (previous != null && frameBuffer.getGeneration() <= previous.getGeneration())) {
+            return;
+        }
+
+        FrameDTO frame;
+
+        if (previous == null || previous.getLength() != frameBuffer.getLength()
+                || framesSinceKeyframe >= KEYFRAME_INTERVAL) {
+            frame = keyframe(frameBuffer);
+            framesSinceKeyframe = 0;
+        } else {
+            frame = diff(previous, frameBuffer);
+            framesSinceKeyframe++;
+        }
+
+        previous = frameBuffer;
+
+        if (frame.isKeyframe() || !frame.getRanges().isEmpty()) {
+            send(new ArrayList<>(emitters), frame.isKeyframe() ? "keyframe" : "diff", frame.getGeneration(), frame);
+        }
+    }
+
+
+    private FrameDTO keyframe(FrameBuffer frameBuffer) {
+
+        return new FrameDTO(frameBuffer.getGeneration(), true, frameBuffer.getLength(),
+                Collections.singletonList(new PixelRangeDTO(0, frameBuffer.getPixels())));
+    }
+
+
+    private FrameDTO diff(FrameBuffer before, FrameBuffer after) {
+
+        List<PixelRangeDTO> ranges = new ArrayList<>();
+
+        int length = after.getLength();
+        int position = 0;
+
+        while (position < length) {
+            if (before.getPixel(position).equals(after.getPixel(position))) {
+                position++;
+
+                continue;
+            }
+
+            int start = position;
+            int end = position + 1;
+            int unchanged = 0;
+
+            for (position = end; position < length && unchanged <= MERGE_GAP; position++) {
+                if (before.getPixel(position).equals(after.getPixel(position))) {
+                    unchanged++;
+                } else {
+                    end = position + 1;
+                    unchanged = 0;
+                }
+            }
+
+            List<Color> pixels = new ArrayList<>(end - start);
+
+            for (int i = start; i < end; i++) {
+                pixels.add(after.getPixel(i));
+            }
+
+            ranges.add(new PixelRangeDTO(start, pixels));
+            position = end;
+        }
+
+        return new FrameDTO(after.getGeneration(), false, length, ranges);
+    }
+
+
+    private void send(List<SseEmitter> recipients, String eventName, long generation, FrameDTO frame) {
+
+        String data;
+
+        try {
+            data = objectMapper.writeValueAsString(frame);
+        } catch (JsonProcessingException exception) {
+            LOG.error("Error serializing frame:", exception);
+
+            return;
+        }
+
+        for (SseEmitter emitter : recipients) {
+            try {
+                emitter.send(SseEmitter.event().id(String.valueOf(generation)).name(eventName).data(data));
+            } catch (IOException | IllegalStateException exception) {
+                LOG.debug("Dropping subscriber:", exception);
+                unsubscribe(emitter);
+            }
+        }
+    }
+}
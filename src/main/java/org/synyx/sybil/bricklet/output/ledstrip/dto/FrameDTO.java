@@ -0,0 +1,51 @@
+package org.synyx.sybil.bricklet.output.ledstrip.dto;
+
+import java.util.List;
+
+
+/**
+ * FrameDTO. A change to a LED strip's frame buffer, sent to subscribed clients.
+ *
+ * <p>A keyframe contains the whole frame as a single range starting at 0, a diff only the ranges that changed since
+ * the previous event.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class FrameDTO {
+
+    private final long generation;
+    private final boolean keyframe;
+    private final int length;
+    private final List<PixelRangeDTO> ranges;
+
+    public FrameDTO(long generation, boolean keyframe, int length, List<PixelRangeDTO> ranges) {
+
+        this.generation = generation;
+        this.keyframe = keyframe;
+        this.length = length;
+        this.ranges = ranges;
+    }
+
+    public long getGeneration() {
+
+        return generation;
+    }
+
+
+    public boolean isKeyframe() {
+
+        return keyframe;
+    }
+
+
+    public int getLength() {
+
+        return length;
+    }
+
+
+    public List<PixelRangeDTO> getRanges() {
+
+        return ranges;
+    }
+}
@@ -0,0 +1,36 @@
+package org.synyx.sybil.bricklet.output.ledstrip.dto;
+
+import java.util.Map;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+
+/**
+ * LEDStripBatchDTO. Frames for several LED strips, by name of the LED strip.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class LEDStripBatchDTO {
+
+    @Valid
+    @NotNull
+    private final Map<String, LEDStripDTO> ledstrips;
+
+    public LEDStripBatchDTO(Map<String, LEDStripDTO> ledstrips) {
+
+        this.ledstrips = ledstrips;
+    }
+
+
+    public LEDStripBatchDTO() {
+
+        // default constructor deliberately left (almost) empty
+        this.ledstrips = null;
+    }
+
+    public Map<String, LEDStripDTO> getLedstrips() {
+
+        return ledstrips;
+    }
+}
@@ -1,5 +1,7 @@
 package org.synyx.sybil.bricklet.output.ledstrip.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import org.synyx.sybil.bricklet.output.ledstrip.Color;
 
 import java.util.List;
@@ -17,9 +19,26 @@ public class LEDStripDTO {
     @NotNull
     private final List<Color> pixels;
 
+    @JsonIgnore
+    private final long generation;
+
     public LEDStripDTO(List<Color> pixels) {
 
+        this(pixels, 0);
+    }
+
+
+    /**
+     * Instantiates a new LEDStripDTO.
+     *
+     * @param  pixels  The pixels
+     * @param  generation  The generation of the LED strip's frame buffer the pixels belong to, 0 if unknown. Not
+     *                     serialized, it is sent as the ETag instead.
+     */
+    public LEDStripDTO(List<Color> pixels, long generation) {
+
         this.pixels = pixels;
+        this.generation = generation;
     }
 
 
@@ -27,10 +46,18 @@ public class LEDStripDTO {
 
         // default constructor deliberately left (almost) empty
         this.pixels = null;
+        this.generation = 0;
     }
 
     public List<Color> getPixels() {
 
         return pixels;
     }
+
+
+    @JsonIgnore
+    public long getGeneration() {
+
+        return generation;
+    }
 }
@@ -5,9 +5,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.service.Animation;
+import org.synyx.sybil.bricklet.output.ledstrip.service.AnimationService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.ChaseAnimation;
+import org.synyx.sybil.bricklet.output.ledstrip.service.FadeAnimation;
+import org.synyx.sybil.bricklet.output.ledstrip.service.FrameBuffer;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripBatchService;
 import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.Layer;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LayerService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.PositionedSprite;
+import org.synyx.sybil.bricklet.output.ledstrip.service.PulseAnimation;
+import org.synyx.sybil.bricklet.output.ledstrip.service.ScrollAnimation;
+import org.synyx.sybil.bricklet.output.ledstrip.service.Sprite1D;
+import org.synyx.sybil.bricklet.output.ledstrip.service.SpriteLibrary;
+import org.synyx.sybil.bricklet.output.ledstrip.service.UnknownEffectException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -19,24 +37,305 @@ import java.util.List;
 @Service
 public class LEDStripDTOService {
 
+    private static final double PULSE_MINIMUM = 0.1;
+
     private final LEDStripService ledStripService;
+    private final LEDStripBatchService ledStripBatchService;
+    private final AnimationService animationService;
+    private final LayerService layerService;
+    private final SpriteLibrary spriteLibrary;
 
     @Autowired
-    public LEDStripDTOService(LEDStripService ledStripService) {
+    public LEDStripDTOService(LEDStripService ledStripService, LEDStripBatchService ledStripBatchService,
+        AnimationService animationService, LayerService layerService, SpriteLibrary spriteLibrary) {
 
         this.ledStripService = ledStripService;
+        this.ledStripBatchService = ledStripBatchService;
+        this.animationService = animationService;
+        this.layerService = layerService;
+        this.spriteLibrary = spriteLibrary;
+    }
+
+    public LEDStripDTO setColorsOfLEDStrip(String name, LEDStripDTO ledStripDTO) {
+
+        FrameBuffer frameBuffer = ledStripService.setColors(name, ledStripDTO.getPixels());
+
+        return new LEDStripDTO(frameBuffer.getPixels(), frameBuffer.getGeneration());
+    }
+
+
+    public LEDStripDTO setColorsOfLEDStrip(String name, LEDStripDTO ledStripDTO, long[] expectedGenerations) {
+
+        FrameBuffer frameBuffer = ledStripService.setColors(name, ledStripDTO.getPixels(), expectedGenerations);
+
+        return new LEDStripDTO(frameBuffer.getPixels(), frameBuffer.getGeneration());
+    }
+
+
+    public List<LEDStripResultDTO> setColorsOfLEDStrips(LEDStripBatchDTO ledStripBatchDTO) {
+
+        Map<String, List<Color>> pixelsByName = new LinkedHashMap<>();
+
+        for (Map.Entry<String, LEDStripDTO> entry : ledStripBatchDTO.getLedstrips().entrySet()) {
+            pixelsByName.put(entry.getKey(), entry.getValue().getPixels());
+        }
+
+        Map<String, RuntimeException> failures = ledStripBatchService.setColors(pixelsByName);
+
+        return toResults(pixelsByName.keySet(), failures);
+    }
+
+
+    public List<LEDStripResultDTO> setColorsOfGroup(String group, LEDStripDTO ledStripDTO) {
+
+        Map<String, RuntimeException> failures = ledStripBatchService.setColorsOfGroup(group,
+                ledStripDTO.getPixels());
+
+        return toResults(failures.keySet(), failures);
+    }
+
+
+    private List<LEDStripResultDTO> toResults(Collection<String> names, Map<String, RuntimeException> failures) {
+
+        List<LEDStripResultDTO> results = new ArrayList<>();
+
+        for (String name : names) {
+            RuntimeException failure = failures.get(name);
+
+            if (failure == null) {
+                results.add(new LEDStripResultDTO(name, true, null));
+            } else {
+                results.add(new LEDStripResultDTO(name, false, failure.getMessage()));
+            }
+        }
+
+        return results;
+    }
+
+
+    public LEDStripDTO patch(String name, LEDStripPatchDTO ledStripPatchDTO) {
+
+        FrameBuffer frameBuffer = ledStripService.updatePixels(name, toSprites(ledStripPatchDTO));
+
+        return new LEDStripDTO(frameBuffer.getPixels(), frameBuffer.getGeneration());
     }
 
-    public void setColorsOfLEDStrip(String name, LEDStripDTO ledStripDTO) {
 
-        ledStripService.setColors(name, ledStripDTO.getPixels());
+    public LEDStripDTO patch(String name, LEDStripPatchDTO ledStripPatchDTO, long[] expectedGenerations) {
+
+        FrameBuffer frameBuffer = ledStripService.updatePixels(name, toSprites(ledStripPatchDTO), expectedGenerations);
+
+        return new LEDStripDTO(frameBuffer.getPixels(), frameBuffer.getGeneration());
     }
 
 
+    private List<PositionedSprite> toSprites(LEDStripPatchDTO ledStripPatchDTO) {
+
+        List<PositionedSprite> sprites = new ArrayList<>();
+
+        for (PixelRangeDTO range : ledStripPatchDTO.getRanges()) {
+            sprites.add(new PositionedSprite(range.getOffset(), new Sprite1D(range.getPixels())));
+        }
+
+        for (FillRangeDTO fill : ledStripPatchDTO.getFills()) {
+            Sprite1D sprite = new Sprite1D(fill.getLength());
+            sprite.setFill(fill.getColor());
+            sprites.add(new PositionedSprite(fill.getOffset(), sprite));
+        }
+
+        return sprites;
+    }
+
+
+    /**
+     * Gets the pixels of a LED strip from its frame buffer, without touching the hardware. Only if nothing was rendered
+     * since startup, the pixels are read back from the LED strip.
+     *
+     * @param  name  The name of the LED strip
+     *
+     * @return  The pixels and the generation
+     */
     public LEDStripDTO get(String name) {
 
+        FrameBuffer frameBuffer = ledStripService.getFrameBuffer(name);
+
+        if (frameBuffer == null) {
+            return readBack(name);
+        }
+
+        return new LEDStripDTO(frameBuffer.getPixels(), frameBuffer.getGeneration());
+    }
+
+
+    /**
+     * Reads the pixels back from a LED strip, along with the generation of its frame buffer, e.g. to check whether the
+     * hardware shows what the frame buffer says. The generation is looked up first, so if a frame is rendered in
+     * between, it is too old rather than too new.
+     *
+     * @param  name  The name of the LED strip
+     *
+     * @return  The pixels and the generation
+     */
+    public LEDStripDTO readBack(String name) {
+
+        long generation = getGeneration(name);
         List<Color> pixels = ledStripService.getPixels(name);
 
-        return new LEDStripDTO(pixels);
+        return new LEDStripDTO(pixels, generation);
+    }
+
+
+    /**
+     * Gets the generation of a LED strip's frame buffer, without touching the hardware.
+     *
+     * @param  name  The name of the LED strip
+     *
+     * @return  The generation, 0 if nothing was rendered since startup
+     */
+    public long getGeneration(String name) {
+
+        FrameBuffer frameBuffer = ledStripService.getFrameBuffer(name);
+
+        return frameBuffer == null ? 0 : frameBuffer.getGeneration();
+    }
+
+
+    public void startAnimation(String name, AnimationDTO animationDTO) {
+
+        animationService.start(name, toAnimation(name, animationDTO));
+    }
+
+
+    public void stopAnimation(String name) {
+
+        animationService.stop(name);
+    }
+
+
+    /**
+     * Gets the animation running on a LED strip.
+     *
+     * @param  name  The name of the LED strip
+     *
+     * @return  The animation, only the effect is set, or null if none is running
+     */
+    public AnimationDTO getAnimation(String name) {
+
+        String effect = animationService.getEffect(name);
+
+        if (effect == null) {
+            return null;
+        }
+
+        return new AnimationDTO(effect, null, null, null, 0, 0);
+    }
+
+
+    public void putLayer(String name, String layerName, LayerDTO layerDTO) {
+
+        long expiresAt = layerDTO.getTtl() == 0 ? 0 : System.currentTimeMillis() + layerDTO.getTtl();
+
+        layerService.put(name,
+            new Layer(layerName, layerDTO.getPriority(), layerDTO.getOffset(),
+                new Sprite1D(layerName, layerDTO.getPixels()), layerDTO.getAlpha(), expiresAt));
+    }
+
+
+    public boolean removeLayer(String name, String layerName) {
+
+        return layerService.remove(name, layerName);
+    }
+
+
+    /**
+     * Gets the layers of a LED strip.
+     *
+     * @param  name  The name of the LED strip
+     *
+     * @return  The layers, lowest priority first, each with the time it has left to live
+     */
+    public List<LayerDTO> getLayers(String name) {
+
+        long now = System.currentTimeMillis();
+
+        List<LayerDTO> result = new ArrayList<>();
+
+        for (Layer layer : layerService.getLayers(name)) {
+            long ttl = layer.getExpiresAt() == 0 ? 0 : Math.max(1, layer.getExpiresAt() - now);
+
+            result.add(new LayerDTO(layer.getName(), layer.getPriority(), layer.getOffset(),
+                    toColors(layer.getSprite()), layer.getAlpha(), ttl));
+        }
+
+        return result;
+    }
+
+
+    public SpriteDTO putSprite(SpriteDTO spriteDTO) {
+
+        String id = spriteLibrary.put(new Sprite1D(spriteDTO.getPixels()));
+
+        return new SpriteDTO(id, spriteDTO.getPixels());
+    }
+
+
+    public SpriteDTO getSprite(String id) {
+
+        return new SpriteDTO(id, toColors(spriteLibrary.get(id)));
+    }
+
+
+    public LEDStripDTO displaySprite(String name, SpriteDisplayDTO spriteDisplayDTO) {
+
+        FrameBuffer frameBuffer = spriteLibrary.display(name, spriteDisplayDTO.getId(), spriteDisplayDTO.getOffset(),
+                spriteDisplayDTO.isRepeat());
+
+        return new LEDStripDTO(frameBuffer.getPixels(), frameBuffer.getGeneration());
+    }
+
+
+    private List<Color> toColors(Sprite1D sprite) {
+
+        List<Color> colors = new ArrayList<>(sprite.getLength());
+
+        for (int position = 0; position < sprite.getLength(); position++) {
+            colors.add(sprite.getPixel(position));
+        }
+
+        return colors;
+    }
+
+
+    private Animation toAnimation(String name, AnimationDTO animationDTO) {
+
+        switch (animationDTO.getEffect()) {
+            case "fade":
+                return new FadeAnimation(getCurrentSprite(name), new Sprite1D(animationDTO.getPixels()),
+                        animationDTO.getFrames());
+
+            case "chase":
+                Color background = animationDTO.getBackground() == null ? Color.BLACK : animationDTO.getBackground();
+
+                return new ChaseAnimation(animationDTO.getColor(), background, animationDTO.getSpacing(),
+                        animationDTO.getFrames());
+
+            case "pulse":
+                return new PulseAnimation(new Sprite1D(animationDTO.getPixels()), animationDTO.getFrames(),
+                        PULSE_MINIMUM);
+
+            case "scroll":
+                return new ScrollAnimation(new Sprite1D(animationDTO.getPixels()), animationDTO.getFrames());
+
+            default:
+                throw new UnknownEffectException("Unknown effect " + animationDTO.getEffect());
+        }
+    }
+
+
+    private Sprite1D getCurrentSprite(String name) {
+
+        FrameBuffer frameBuffer = ledStripService.getFrameBuffer(name);
+
+        return frameBuffer == null ? new Sprite1D(0) : frameBuffer.getSprite();
     }
 }
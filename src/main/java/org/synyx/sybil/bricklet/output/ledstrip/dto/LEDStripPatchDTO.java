@@ -0,0 +1,46 @@
+package org.synyx.sybil.bricklet.output.ledstrip.dto;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.validation.Valid;
+
+
+/**
+ * LEDStripPatchDTO. Partial update of a LED strip: pixel ranges and/or filled ranges, applied in that order.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class LEDStripPatchDTO {
+
+    @Valid
+    private final List<PixelRangeDTO> ranges;
+
+    @Valid
+    private final List<FillRangeDTO> fills;
+
+    public LEDStripPatchDTO(List<PixelRangeDTO> ranges, List<FillRangeDTO> fills) {
+
+        this.ranges = ranges;
+        this.fills = fills;
+    }
+
+
+    public LEDStripPatchDTO() {
+
+        // default constructor deliberately left (almost) empty
+        this.ranges = null;
+        this.fills = null;
+    }
+
+    public List<PixelRangeDTO> getRanges() {
+
+        return ranges == null ? Collections.<PixelRangeDTO>emptyList() : ranges;
+    }
+
+
+    public List<FillRangeDTO> getFills() {
+
+        return fills == null ? Collections.<FillRangeDTO>emptyList() : fills;
+    }
+}
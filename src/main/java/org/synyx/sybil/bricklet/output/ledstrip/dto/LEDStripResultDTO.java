@@ -0,0 +1,37 @@
+package org.synyx.sybil.bricklet.output.ledstrip.dto;
+
+/**
+ * LEDStripResultDTO. The outcome of drawing onto a single LED strip as part of a batch.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class LEDStripResultDTO {
+
+    private final String name;
+    private final boolean success;
+    private final String error;
+
+    public LEDStripResultDTO(String name, boolean success, String error) {
+
+        this.name = name;
+        this.success = success;
+        this.error = error;
+    }
+
+    public String getName() {
+
+        return name;
+    }
+
+
+    public boolean isSuccess() {
+
+        return success;
+    }
+
+
+    public String getError() {
+
+        return error;
+    }
+}
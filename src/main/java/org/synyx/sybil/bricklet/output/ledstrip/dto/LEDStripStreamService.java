@@ -0,0 +1,102 @@
+package org.synyx.sybil.bricklet.output.ledstrip.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.stereotype.Service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import org.synyx.sybil.bricklet.output.ledstrip.service.FrameBuffer;
+import org.synyx.sybil.bricklet.output.ledstrip.service.FrameBufferListener;
+import org.synyx.sybil.bricklet.output.ledstrip.service.FrameBufferService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripService;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+
+/**
+ * LEDStripStreamService. Streams the frames rendered onto LED strips to subscribed clients via Server-Sent Events.
+ *
+ * <p>There is one {@link FrameBroadcaster} per LED strip. All broadcasters are driven by a single thread, so slow
+ * subscribers never hold up rendering.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class LEDStripStreamService implements FrameBufferListener {
+
+    private final LEDStripService ledStripService;
+    private final FrameBufferService frameBufferService;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<String, FrameBroadcaster> broadcasters = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @Autowired
+    public LEDStripStreamService(LEDStripService ledStripService, FrameBufferService frameBufferService,
+        ObjectMapper objectMapper) {
+
+        this.ledStripService = ledStripService;
+        this.frameBufferService = frameBufferService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void registerListener() {
+
+        frameBufferService.addListener(this);
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+
+        frameBufferService.removeListener(this);
+        executor.shutdownNow();
+    }
+
+
+    /**
+     * Subscribes to the frames rendered onto a LED strip.
+     *
+     * @param  name  The name of the LED strip
+     *
+     * @return  The emitter the frames will be sent through
+     */
+    public SseEmitter subscribe(String name) {
+
+        // throws LEDStripNotFoundException for unconfigured LED strips
+        ledStripService.getFrameBuffer(name);
+
+        SseEmitter emitter = new SseEmitter();
+        FrameBroadcaster broadcaster = broadcasters.computeIfAbsent(name, key -> new FrameBroadcaster(objectMapper));
+
+        Runnable unsubscribe = () -> executor.execute(() -> broadcaster.unsubscribe(emitter));
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+
+        // read the frame buffer on the broadcasting thread, so no frame can slip in between it and the first diff
+        executor.execute(() -> broadcaster.subscribe(emitter, frameBufferService.get(name)));
+
+        return emitter;
+    }
+
+
+    @Override
+    public void frameRendered(FrameBuffer frameBuffer) {
+
+        FrameBroadcaster broadcaster = broadcasters.get(frameBuffer.getName());
+
+        if (broadcaster != null) {
+            executor.execute(() -> broadcaster.publish(frameBuffer));
+        }
+    }
+}
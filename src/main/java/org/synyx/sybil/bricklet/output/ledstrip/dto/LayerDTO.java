@@ -0,0 +1,105 @@
+package org.synyx.sybil.bricklet.output.ledstrip.dto;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import java.util.List;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+
+/**
+ * LayerDTO. Pixels at an offset, drawn over all layers of lower priority. The priority defaults to 200, above the
+ * status of Jenkins jobs, the alpha to 255 (opaque) and the time to live to 0 (forever).
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class LayerDTO {
+
+    private static final int DEFAULT_PRIORITY = 200;
+    private static final int OPAQUE = 255;
+
+    private final String name;
+
+    private final int priority;
+
+    private final int offset;
+
+    @NotNull
+    private final List<Color> pixels;
+
+    @Min(0)
+    @Max(OPAQUE)
+    private final int alpha;
+
+    @Min(0)
+    private final long ttl;
+
+    /**
+     * Instantiates a new layer DTO.
+     *
+     * @param  name  The name of the layer, only set in responses
+     * @param  priority  Layers with a higher priority are drawn over those with a lower one
+     * @param  offset  The position of the first pixel on the LED strip
+     * @param  pixels  The pixels
+     * @param  alpha  The opacity of the layer, from 0 (invisible) to 255 (opaque)
+     * @param  ttl  The time in milliseconds until the layer is removed, 0 to keep it
+     */
+    public LayerDTO(String name, int priority, int offset, List<Color> pixels, int alpha, long ttl) {
+
+        this.name = name;
+        this.priority = priority;
+        this.offset = offset;
+        this.pixels = pixels;
+        this.alpha = alpha;
+        this.ttl = ttl;
+    }
+
+
+    public LayerDTO() {
+
+        // default constructor deliberately left (almost) empty
+        this.name = null;
+        this.priority = DEFAULT_PRIORITY;
+        this.offset = 0;
+        this.pixels = null;
+        this.alpha = OPAQUE;
+        this.ttl = 0;
+    }
+
+    public String getName() {
+
+        return name;
+    }
+
+
+    public int getPriority() {
+
+        return priority;
+    }
+
+
+    public int getOffset() {
+
+        return offset;
+    }
+
+
+    public List<Color> getPixels() {
+
+        return pixels;
+    }
+
+
+    public int getAlpha() {
+
+        return alpha;
+    }
+
+
+    public long getTtl() {
+
+        return ttl;
+    }
+}
@@ -0,0 +1,48 @@
+package org.synyx.sybil.bricklet.output.ledstrip.dto;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import java.util.List;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+
+/**
+ * PixelRangeDTO. A run of consecutive pixels, starting at an offset on the LED strip.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class PixelRangeDTO {
+
+    @Min(0)
+    private final int offset;
+
+    @NotNull
+    private final List<Color> pixels;
+
+    public PixelRangeDTO(int offset, List<Color> pixels) {
+
+        this.offset = offset;
+        this.pixels = pixels;
+    }
+
+
+    public PixelRangeDTO() {
+
+        // default constructor deliberately left (almost) empty
+        this.offset = 0;
+        this.pixels = null;
+    }
+
+    public int getOffset() {
+
+        return offset;
+    }
+
+
+    public List<Color> getPixels() {
+
+        return pixels;
+    }
+}
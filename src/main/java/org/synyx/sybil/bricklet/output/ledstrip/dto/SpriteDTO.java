@@ -0,0 +1,52 @@
+package org.synyx.sybil.bricklet.output.ledstrip.dto;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+
+
+/**
+ * SpriteDTO. Pixels stored in the sprite library, identified by a hash of the pixels.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class SpriteDTO {
+
+    private final String id;
+
+    @NotNull
+    private final List<Color> pixels;
+
+    /**
+     * Instantiates a new sprite DTO.
+     *
+     * @param  id  The id of the sprite, only set in responses
+     * @param  pixels  The pixels
+     */
+    public SpriteDTO(String id, List<Color> pixels) {
+
+        this.id = id;
+        this.pixels = pixels;
+    }
+
+
+    public SpriteDTO() {
+
+        // default constructor deliberately left (almost) empty
+        this.id = null;
+        this.pixels = null;
+    }
+
+    public String getId() {
+
+        return id;
+    }
+
+
+    public List<Color> getPixels() {
+
+        return pixels;
+    }
+}
@@ -0,0 +1,59 @@
+package org.synyx.sybil.bricklet.output.ledstrip.dto;
+
+import javax.validation.constraints.NotNull;
+
+
+/**
+ * SpriteDisplayDTO. A reference to a sprite in the sprite library, and where to display it on a LED strip.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class SpriteDisplayDTO {
+
+    @NotNull
+    private final String id;
+
+    private final int offset;
+
+    private final boolean repeat;
+
+    /**
+     * Instantiates a new sprite display DTO.
+     *
+     * @param  id  The id of the sprite
+     * @param  offset  The position of the sprite's first pixel on the LED strip, may be negative
+     * @param  repeat  Whether to repeat the sprite along the whole LED strip
+     */
+    public SpriteDisplayDTO(String id, int offset, boolean repeat) {
+
+        this.id = id;
+        this.offset = offset;
+        this.repeat = repeat;
+    }
+
+
+    public SpriteDisplayDTO() {
+
+        // default constructor deliberately left (almost) empty
+        this.id = null;
+        this.offset = 0;
+        this.repeat = false;
+    }
+
+    public String getId() {
+
+        return id;
+    }
+
+
+    public int getOffset() {
+
+        return offset;
+    }
+
+
+    public boolean isRepeat() {
+
+        return repeat;
+    }
+}
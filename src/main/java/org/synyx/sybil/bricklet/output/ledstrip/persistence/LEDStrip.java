@@ -6,7 +6,9 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import org.synyx.sybil.bricklet.output.ledstrip.Color;
 import org.synyx.sybil.jenkins.Status;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 
@@ -27,6 +29,11 @@ public class LEDStrip {
     private String sensor;
     private boolean hasSensor = false;
 
+    private List<String> groups = new ArrayList<>();
+
+    private int version = 1;
+    private boolean acknowledged = false;
+
     private int okayRed;
     private int okayGreen;
     private int okayBlue;
@@ -116,6 +123,52 @@ public class LEDStrip {
     }
 
 
+    public List<String> getGroups() {
+
+        return groups;
+    }
+
+
+    public void setGroups(List<String> groups) {
+
+        this.groups = groups == null ? new ArrayList<>() : groups;
+    }
+
+
+    /**
+     * Gets the version of the LED Strip Bricklet.
+     *
+     * @return  1 for the original LED Strip Bricklet, 2 for the LED Strip Bricklet 2.0
+     */
+    public int getVersion() {
+
+        return version;
+    }
+
+
+    public void setVersion(int version) {
+
+        this.version = version;
+    }
+
+
+    /**
+     * Whether every chunk written to the LED strip waits to be acknowledged, instead of only the last one of a frame.
+     *
+     * @return  true if every chunk is acknowledged
+     */
+    public boolean isAcknowledged() {
+
+        return acknowledged;
+    }
+
+
+    public void setAcknowledged(boolean acknowledged) {
+
+        this.acknowledged = acknowledged;
+    }
+
+
     public boolean hasCustomColors() {
 
         return hasCustomColors;
@@ -14,11 +14,13 @@ import org.synyx.sybil.LoadFailedException;
 import java.io.File;
 import java.io.IOException;
 
+import java.util.ArrayList;
 import java.util.List;
 
 
 /**
- * LEDStripRepository.
+ * LEDStripRepository. The config file is parsed once and again whenever it is modified, so the same configuration is
+ * represented by the same instances until then.
  *
  * @author  Tobias Theuer - theuer@synyx.de
  */
@@ -29,6 +31,10 @@ public class LEDStripRepository {
     private final ObjectMapper objectMapper;
     private final String configDir;
 
+    private List<LEDStrip> ledStrips;
+    private long lastModified;
+    private long fileLength;
+
     @Autowired
     public LEDStripRepository(ObjectMapper objectMapper, Environment environment) {
 
@@ -50,22 +56,51 @@ public class LEDStripRepository {
 
     public List<LEDStrip> getAll() {
 
-        return getLedStrips();
+        return new ArrayList<>(getLedStrips());
     }
 
 
-    private List<LEDStrip> getLedStrips() {
+    /**
+     * Gets the LED strips belonging to a group.
+     *
+     * @param  group  The name of the group
+     *
+     * @return  The LED strips of the group, in the order they are configured, empty if there are none
+     */
+    public List<LEDStrip> getGroup(String group) {
+
+        List<LEDStrip> members = new ArrayList<>();
 
-        List<LEDStrip> ledStrips;
+        for (LEDStrip ledStrip : getLedStrips()) {
+            if (ledStrip.getGroups().contains(group)) {
+                members.add(ledStrip);
+            }
+        }
+
+        return members;
+    }
+
+
+    private synchronized List<LEDStrip> getLedStrips() {
+
+        File file = new File(configDir + "ledstrips.json");
+        long modified = file.lastModified();
+        long length = file.length();
+
+        if (ledStrips != null && modified == lastModified && length == fileLength) {
+            return ledStrips;
+        }
 
         try {
-            ledStrips = objectMapper.readValue(new File(configDir + "ledstrips.json"),
-                    new TypeReference<List<LEDStrip>>() {
+            ledStrips = objectMapper.readValue(file, new TypeReference<List<LEDStrip>>() {
                     });
         } catch (IOException exception) {
             throw new LoadFailedException("Error loading LED strips config file:", exception);
         }
 
+        lastModified = modified;
+        fileLength = length;
+
         return ledStrips;
     }
 }
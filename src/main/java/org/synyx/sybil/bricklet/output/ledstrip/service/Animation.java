@@ -0,0 +1,38 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+/**
+ * An effect rendered frame by frame on the server. The frames are numbered from 0 and are requested one after another,
+ * each as soon as the LED strip has rendered the previous one.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public interface Animation {
+
+    /**
+     * Checks whether the animation has a frame with the given number.
+     *
+     * @param  frame  The number of the frame
+     *
+     * @return  false once the animation is over, endless animations always return true
+     */
+    boolean hasFrame(long frame);
+
+
+    /**
+     * Renders a frame.
+     *
+     * @param  frame  The number of the frame
+     * @param  length  The length of the LED strip
+     *
+     * @return  The frame, should be as long as the LED strip
+     */
+    Sprite1D render(long frame, int length);
+
+
+    /**
+     * Gets the name of the effect, e.g. "fade".
+     *
+     * @return  The name of the effect
+     */
+    String getEffect();
+}
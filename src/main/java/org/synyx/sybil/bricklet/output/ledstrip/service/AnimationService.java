@@ -0,0 +1,257 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.stereotype.Service;
+
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStripRepository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+
+/**
+ * AnimationService. Runs animations on LED strips, paced by the LED strips themselves.
+ *
+ * <p>Each running animation keeps its LED strip connected and listens for its frame rendered callback. The next frame
+ * is only rendered and sent once the LED strip reports that it has displayed the previous one, so there is never more
+ * than one frame in flight per LED strip. Should a callback get lost, the animation is resumed after a second.</p>
+ *
+ * <p>The brightness is read once when the animation starts. Anything else drawn onto the LED strip while the
+ * animation runs is overwritten by its next frame.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class AnimationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AnimationService.class);
+    private static final int THREADS = 4;
+    private static final long STALL_TIMEOUT = 1000;
+
+    private final LEDStripService ledStripService;
+    private final LEDStripRepository ledStripRepository;
+    private final BrickletLEDStripWrapperService brickletLEDStripWrapperService;
+    private final ConcurrentMap<String, RunningAnimation> animations = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(THREADS);
+
+    @Autowired
+    public AnimationService(LEDStripService ledStripService, LEDStripRepository ledStripRepository,
+        BrickletLEDStripWrapperService brickletLEDStripWrapperService) {
+
+        this.ledStripService = ledStripService;
+        this.ledStripRepository = ledStripRepository;
+        this.brickletLEDStripWrapperService = brickletLEDStripWrapperService;
+    }
+
+    @PostConstruct
+    public void startWatchdog() {
+
+        executor.scheduleWithFixedDelay(this::resumeStalled, STALL_TIMEOUT, STALL_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+
+        for (String name : animations.keySet()) {
+            stop(name);
+        }
+
+        executor.shutdownNow();
+    }
+
+
+    /**
+     * Starts an animation on a LED strip, replacing the one running there.
+     *
+     * @param  name  The name of the LED strip
+     * @param  animation  The animation
+     *
+     * @throws  LEDStripNotFoundException  if the LED strip is not configured.
+     * @throws  LEDStripConnectionException  if the LED strip or its sensor could not be reached.
+     */
+    public void start(String name, Animation animation) {
+
+        LEDStrip ledStrip = ledStripRepository.get(name);
+
+        if (ledStrip == null) {
+            throw new LEDStripNotFoundException("LED strip " + name + " not found");
+        }
+
+        double brightness = ledStripService.getBrightness(ledStrip);
+        int bufferSize = ledStripService.getPixelBufferSize(ledStrip);
+
+        BrickletLEDStripWrapper brickletLEDStrip = brickletLEDStripWrapperService.getBrickletLEDStrip(ledStrip);
+
+        RunningAnimation running = new RunningAnimation(ledStrip, animation, brickletLEDStrip, bufferSize,
+                brightness);
+        brickletLEDStrip.addFrameRenderedListener(running);
+
+        RunningAnimation previous = animations.put(ledStrip.getName(), running);
+
+        if (previous != null) {
+            release(previous);
+        }
+
+        executor.execute(() -> renderNext(running));
+    }
+
+
+    /**
+     * Stops the animation running on a LED strip. The LED strip keeps showing the last frame.
+     *
+     * @param  name  The name of the LED strip
+     *
+     * @return  true if an animation was running
+     */
+    public boolean stop(String name) {
+
+        RunningAnimation running = animations.remove(name);
+
+        if (running == null) {
+            return false;
+        }
+
+        release(running);
+
+        return true;
+    }
+
+
+    /**
+     * Gets the effect of the animation running on a LED strip.
+     *
+     * @param  name  The name of the LED strip
+     *
+     * @return  The name of the effect, or null if no animation is running
+     */
+    public String getEffect(String name) {
+
+        RunningAnimation running = animations.get(name);
+
+        return running == null ? null : running.animation.getEffect();
+    }
+
+
+    private void renderNext(RunningAnimation running) {
+
+        synchronized (running) {
+            if (running.released) {
+                return;
+            }
+
+            if (!running.animation.hasFrame(running.frame)) {
+                finish(running);
+
+                return;
+            }
+
+            Sprite1D sprite = running.animation.render(running.frame, running.ledStrip.getLength());
+            running.frame++;
+
+            // set before sending, the callback may arrive before the last chunk has been acknowledged
+            running.sentAt = System.nanoTime();
+            running.inFlight.set(true);
+
+            try {
+                ledStripService.drawFrame(running.ledStrip, sprite,
+                    TransferBuffer.encode(sprite, running.bufferSize, running.brightness), running.brickletLEDStrip);
+            } catch (LEDStripConnectionException exception) {
+                LOG.error("Error drawing animation on LED strip " + running.ledStrip.getName() + ":", exception);
+                finish(running);
+            }
+        }
+    }
+
+
+    private void frameRendered(RunningAnimation running) {
+
+        if (running.inFlight.compareAndSet(true, false)) {
+            executor.execute(() -> renderNext(running));
+        }
+    }
+
+
+    private void resumeStalled() {
+
+        long now = System.nanoTime();
+
+        for (RunningAnimation running : animations.values()) {
+            if (now - running.sentAt > TimeUnit.MILLISECONDS.toNanos(STALL_TIMEOUT)
+                    && running.inFlight.compareAndSet(true, false)) {
+                LOG.debug("No frame rendered callback from LED strip " + running.ledStrip.getName() + ", resuming");
+                executor.execute(() -> renderNext(running));
+            }
+        }
+    }
+
+
+    private void finish(RunningAnimation running) {
+
+        animations.remove(running.ledStrip.getName(), running);
+        release(running);
+    }
+
+
+    private void release(RunningAnimation running) {
+
+        synchronized (running) {
+            if (running.released) {
+                return;
+            }
+
+            running.released = true;
+        }
+
+        running.brickletLEDStrip.removeFrameRenderedListener(running);
+
+        try {
+            running.brickletLEDStrip.disconnect();
+        } catch (LEDStripConnectionException exception) {
+            LOG.debug("LED strip " + running.ledStrip.getName() + " was already disconnected:", exception);
+        }
+    }
+
+    private final class RunningAnimation implements BrickletLEDStripWrapper.FrameRenderedListener {
+
+        private final LEDStrip ledStrip;
+        private final Animation animation;
+        private final BrickletLEDStripWrapper brickletLEDStrip;
+        private final int bufferSize;
+        private final double brightness;
+        private final AtomicBoolean inFlight = new AtomicBoolean();
+
+        private long frame;
+        private volatile long sentAt;
+        private volatile boolean released;
+
+        private RunningAnimation(LEDStrip ledStrip, Animation animation, BrickletLEDStripWrapper brickletLEDStrip,
+            int bufferSize, double brightness) {
+
+            this.ledStrip = ledStrip;
+            this.animation = animation;
+            this.brickletLEDStrip = brickletLEDStrip;
+            this.bufferSize = bufferSize;
+            this.brightness = brightness;
+        }
+
+        @Override
+        public void frameRendered(int length) {
+
+            AnimationService.this.frameRendered(this);
+        }
+    }
+}
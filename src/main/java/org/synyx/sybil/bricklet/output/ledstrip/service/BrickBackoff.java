@@ -0,0 +1,119 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.core.env.Environment;
+
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+
+/**
+ * BrickBackoff. Remembers which bricks could not be reached, and for how long they are left alone before the next
+ * attempt. The time doubles with every failed attempt, up to a maximum, and is reset by the first successful one.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class BrickBackoff {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BrickBackoff.class);
+    private static final long DEFAULT_INITIAL = 1000;
+    private static final long DEFAULT_MAXIMUM = 60000;
+
+    private final long initial;
+    private final long maximum;
+    private final LongSupplier clock;
+    private final ConcurrentMap<String, Unreachable> unreachable = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BrickBackoff(Environment environment) {
+
+        this(environment.getProperty("ledstrip.backoff.initial.ms", Long.class, DEFAULT_INITIAL),
+            environment.getProperty("ledstrip.backoff.max.ms", Long.class, DEFAULT_MAXIMUM));
+    }
+
+
+    /**
+     * Instantiates a new brick backoff.
+     *
+     * @param  initial  The time in milliseconds a brick is left alone after the first failed attempt, 0 to never
+     *                  leave it alone
+     * @param  maximum  The longest time in milliseconds a brick is left alone
+     */
+    public BrickBackoff(long initial, long maximum) {
+
+        this(initial, maximum, System::currentTimeMillis);
+    }
+
+
+    BrickBackoff(long initial, long maximum, LongSupplier clock) {
+
+        this.initial = Math.max(0, initial);
+        this.maximum = Math.max(this.initial, maximum);
+        this.clock = clock;
+    }
+
+    /**
+     * Checks whether a brick is left alone at the moment.
+     *
+     * @param  brick  The name of the brick
+     *
+     * @return  true if the last attempt to reach it failed, and the next one is not due yet
+     */
+    public boolean isBackingOff(String brick) {
+
+        Unreachable state = unreachable.get(brick);
+
+        return state != null && clock.getAsLong() < state.retryAt;
+    }
+
+
+    /**
+     * Records a failed attempt to reach a brick.
+     *
+     * @param  brick  The name of the brick
+     */
+    public void failed(String brick) {
+
+        Unreachable state = unreachable.compute(brick, (key, previous) -> {
+                    long delay = previous == null ? initial : Math.min(maximum, previous.delay * 2);
+
+                    return new Unreachable(delay, clock.getAsLong() + delay);
+                });
+
+        LOG.warn("Brick " + brick + " could not be reached, next attempt in " + state.delay + " ms");
+    }
+
+
+    /**
+     * Records a successful attempt to reach a brick.
+     *
+     * @param  brick  The name of the brick
+     */
+    public void succeeded(String brick) {
+
+        if (unreachable.remove(brick) != null) {
+            LOG.info("Brick " + brick + " can be reached again");
+        }
+    }
+
+    private static final class Unreachable {
+
+        private final long delay;
+        private final long retryAt;
+
+        private Unreachable(long delay, long retryAt) {
+
+            this.delay = delay;
+            this.retryAt = retryAt;
+        }
+    }
+}
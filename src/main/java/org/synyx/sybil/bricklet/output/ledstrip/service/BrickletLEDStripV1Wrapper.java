@@ -0,0 +1,136 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import com.tinkerforge.BrickletLEDStrip;
+import com.tinkerforge.IPConnection;
+import com.tinkerforge.NotConnectedException;
+import com.tinkerforge.TimeoutException;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * BrickletLEDStripV1Wrapper. The original LED Strip Bricklet, which takes 16 pixels per call.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class BrickletLEDStripV1Wrapper implements BrickletLEDStripWrapper {
+
+    private final BrickletLEDStrip brickletLEDStrip;
+    private final IPConnection ipConnection;
+    private final Map<FrameRenderedListener, BrickletLEDStrip.FrameRenderedListener> listeners =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Creates a LED Strip Bricklet with the given UID on a connection.
+     *
+     * @param  uid  the uid
+     * @param  ipcon  the ipcon
+     */
+    public BrickletLEDStripV1Wrapper(String uid, IPConnection ipcon) {
+
+        this(new BrickletLEDStrip(uid, ipcon), ipcon);
+    }
+
+
+    BrickletLEDStripV1Wrapper(BrickletLEDStrip brickletLEDStrip, IPConnection ipcon) {
+
+        this.brickletLEDStrip = brickletLEDStrip;
+        this.ipConnection = ipcon;
+    }
+
+    /**
+     * @return  1, the original LED Strip Bricklet takes 16 pixels per call
+     */
+    @Override
+    public int getChunksPerWrite() {
+
+        return 1;
+    }
+
+
+    @Override
+    public void setChunks(TransferBuffer transferBuffer, int first, int count, boolean acknowledged)
+        throws TimeoutException, NotConnectedException {
+
+        for (int chunk = first; chunk < first + count; chunk++) {
+            // the LED strip handles requests in order, so acknowledging the last chunk acknowledges all of them
+            brickletLEDStrip.setResponseExpected(BrickletLEDStrip.FUNCTION_SET_RGB_VALUES,
+                acknowledged && chunk == first + count - 1);
+            brickletLEDStrip.setRGBValues(chunk * TransferBuffer.CHUNK_SIZE, (short) TransferBuffer.CHUNK_SIZE, // NOSONAR Tinkerforge uses shorts
+                transferBuffer.getBlue(chunk), transferBuffer.getRed(chunk), transferBuffer.getGreen(chunk));
+        }
+    }
+
+
+    @Override
+    public List<Color> getPixels(int index, int length) throws TimeoutException, NotConnectedException {
+
+        BrickletLEDStrip.RGBValues rgbValues = brickletLEDStrip.getRGBValues(index, (short) length); // NOSONAR Tinkerforge uses shorts
+        List<Color> pixels = new ArrayList<>(length);
+
+        for (int pixel = 0; pixel < length; pixel++) {
+            pixels.add(Color.colorFromLEDStrip(rgbValues, pixel));
+        }
+
+        return pixels;
+    }
+
+
+    @Override
+    public void setFrameDuration(int duration) throws TimeoutException, NotConnectedException {
+
+        brickletLEDStrip.setFrameDuration(duration);
+    }
+
+
+    @Override
+    public void setChipType(int chip) throws TimeoutException, NotConnectedException {
+
+        brickletLEDStrip.setChipType(chip);
+    }
+
+
+    @Override
+    public void addFrameRenderedListener(FrameRenderedListener listener) {
+
+        BrickletLEDStrip.FrameRenderedListener frameRenderedListener = listener::frameRendered;
+
+        if (listeners.putIfAbsent(listener, frameRenderedListener) == null) {
+            brickletLEDStrip.addFrameRenderedListener(frameRenderedListener);
+        }
+    }
+
+
+    @Override
+    public void removeFrameRenderedListener(FrameRenderedListener listener) {
+
+        BrickletLEDStrip.FrameRenderedListener frameRenderedListener = listeners.remove(listener);
+
+        if (frameRenderedListener != null) {
+            brickletLEDStrip.removeFrameRenderedListener(frameRenderedListener);
+        }
+    }
+
+
+    @Override
+    public IPConnection getIPConnection() {
+
+        return ipConnection;
+    }
+
+
+    @Override
+    public void disconnect() {
+
+        try {
+            ipConnection.disconnect();
+        } catch (NotConnectedException exception) {
+            throw new LEDStripConnectionException("Error disconnecting:", exception);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import com.tinkerforge.BrickletLEDStripV2;
+import com.tinkerforge.IPConnection;
+import com.tinkerforge.NotConnectedException;
+import com.tinkerforge.StreamOutOfSyncException;
+import com.tinkerforge.TimeoutException;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * BrickletLEDStripV2Wrapper. A LED Strip Bricklet 2.0. It takes up to 2048 pixels per call, which are streamed to it
+ * in packets of 58 values. The packets aren't acknowledged one by one, an acknowledged write is confirmed once after
+ * its last packet.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class BrickletLEDStripV2Wrapper implements BrickletLEDStripWrapper {
+
+    private static final int CHANNELS = 3;
+    private static final int MAX_PIXELS_PER_WRITE = 2048;
+
+    // the original LED Strip Bricklet's default, so the channels are sent in the same order
+    private static final int CHANNEL_MAPPING = BrickletLEDStripV2.CHANNEL_MAPPING_BRG;
+
+    private final BrickletLEDStripV2 brickletLEDStripV2;
+    private final IPConnection ipConnection;
+    private final Map<FrameRenderedListener, BrickletLEDStripV2.FrameStartedListener> listeners =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Creates a LED Strip Bricklet 2.0 with the given UID on a connection.
+     *
+     * @param  uid  the uid
+     * @param  ipcon  the ipcon
+     */
+    public BrickletLEDStripV2Wrapper(String uid, IPConnection ipcon) {
+
+        this(new BrickletLEDStripV2(uid, ipcon), ipcon);
+    }
+
+
+    BrickletLEDStripV2Wrapper(BrickletLEDStripV2 brickletLEDStripV2, IPConnection ipcon) {
+
+        this.brickletLEDStripV2 = brickletLEDStripV2;
+        this.ipConnection = ipcon;
+
+        // acknowledged by default, which would wait for every packet of a write
+        brickletLEDStripV2.setResponseExpected(BrickletLEDStripV2.FUNCTION_SET_LED_VALUES_LOW_LEVEL, false);
+    }
+
+    @Override
+    public int getChunksPerWrite() {
+
+        return MAX_PIXELS_PER_WRITE / TransferBuffer.CHUNK_SIZE;
+    }
+
+
+    @Override
+    public void setChunks(TransferBuffer transferBuffer, int first, int count, boolean acknowledged)
+        throws TimeoutException, NotConnectedException {
+
+        int[] values = new int[count * TransferBuffer.CHUNK_SIZE * CHANNELS];
+
+        for (int chunk = 0; chunk < count; chunk++) {
+            interleave(values, chunk * TransferBuffer.CHUNK_SIZE, TransferBuffer.CHUNK_SIZE,
+                transferBuffer.getBlue(first + chunk), transferBuffer.getRed(first + chunk),
+                transferBuffer.getGreen(first + chunk));
+        }
+
+        brickletLEDStripV2.setLEDValues(first * TransferBuffer.CHUNK_SIZE * CHANNELS, values);
+
+        if (acknowledged) {
+            confirm();
+        }
+    }
+
+
+    @Override
+    public List<Color> getPixels(int index, int length) throws TimeoutException, NotConnectedException {
+
+        int[] values;
+
+        try {
+            values = brickletLEDStripV2.getLEDValues(index * CHANNELS, length * CHANNELS);
+        } catch (StreamOutOfSyncException exception) {
+            throw new LEDStripConnectionException("Error getting pixel values:", exception);
+        }
+
+        List<Color> pixels = new ArrayList<>(length);
+
+        // the channels come back in the order they were sent: blue, red, green
+        for (int pixel = 0; pixel < length; pixel++) {
+            pixels.add(new Color(values[pixel * CHANNELS + 1], values[pixel * CHANNELS + 2],
+                    values[pixel * CHANNELS]));
+        }
+
+        return pixels;
+    }
+
+
+    @Override
+    public void setFrameDuration(int duration) throws TimeoutException, NotConnectedException {
+
+        brickletLEDStripV2.setFrameDuration(duration);
+    }
+
+
+    /**
+     * Sets the chip type, and the channel mapping the original LED Strip Bricklet uses.
+     */
+    @Override
+    public void setChipType(int chip) throws TimeoutException, NotConnectedException {
+
+        brickletLEDStripV2.setChipType(chip);
+        brickletLEDStripV2.setChannelMapping(CHANNEL_MAPPING);
+    }
+
+
+    /**
+     * Adds a listener that is called when a frame has been sent to the LEDs, i.e. when the LED Strip Bricklet 2.0
+     * starts the next frame.
+     */
+    @Override
+    public void addFrameRenderedListener(FrameRenderedListener listener) {
+
+        BrickletLEDStripV2.FrameStartedListener frameStartedListener = listener::frameRendered;
+
+        if (listeners.putIfAbsent(listener, frameStartedListener) == null) {
+            brickletLEDStripV2.addFrameStartedListener(frameStartedListener);
+        }
+    }
+
+
+    @Override
+    public void removeFrameRenderedListener(FrameRenderedListener listener) {
+
+        BrickletLEDStripV2.FrameStartedListener frameStartedListener = listeners.remove(listener);
+
+        if (frameStartedListener != null) {
+            brickletLEDStripV2.removeFrameStartedListener(frameStartedListener);
+        }
+    }
+
+
+    @Override
+    public IPConnection getIPConnection() {
+
+        return ipConnection;
+    }
+
+
+    @Override
+    public void disconnect() {
+
+        try {
+            ipConnection.disconnect();
+        } catch (NotConnectedException exception) {
+            throw new LEDStripConnectionException("Error disconnecting:", exception);
+        }
+    }
+
+
+    /**
+     * Waits until the LED strip received everything sent to it so far. The packets of a write aren't acknowledged, but
+     * the LED Strip Bricklet 2.0 handles requests in order, so a getter is only answered after them.
+     */
+    private void confirm() throws TimeoutException, NotConnectedException {
+
+        brickletLEDStripV2.getFrameDuration();
+    }
+
+
+    private static void interleave(int[] values, int pixel, int length, short[] first, short[] second, // NOSONAR Tinkerforge uses shorts
+        short[] third) {
+
+        for (int index = 0; index < length; index++) {
+            values[(pixel + index) * CHANNELS] = first[index];
+            values[(pixel + index) * CHANNELS + 1] = second[index];
+            values[(pixel + index) * CHANNELS + 2] = third[index];
+        }
+    }
+}
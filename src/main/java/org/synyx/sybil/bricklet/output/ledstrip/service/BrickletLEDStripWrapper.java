@@ -1,40 +1,91 @@
 package org.synyx.sybil.bricklet.output.ledstrip.service;
 
-import com.tinkerforge.BrickletLEDStrip;
 import com.tinkerforge.IPConnection;
 import com.tinkerforge.NotConnectedException;
+import com.tinkerforge.TimeoutException;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import java.util.List;
 
 
 /**
- * BrickletLEDStripWrapper.
+ * BrickletLEDStripWrapper. A LED strip, whichever version of LED Strip Bricklet drives it, see
+ * {@link BrickletLEDStripV1Wrapper} and {@link BrickletLEDStripV2Wrapper}.
  *
  * @author  Tobias Theuer - theuer@synyx.de
  */
-public class BrickletLEDStripWrapper extends BrickletLEDStrip {
+public interface BrickletLEDStripWrapper {
+
+    /**
+     * Gets the number of 16 pixel chunks that are written with one call.
+     *
+     * @return  The number of chunks
+     */
+    int getChunksPerWrite();
 
-    private final IPConnection ipConnection;
 
     /**
-     * Creates an object with the unique device ID \c uid. and adds it to the IP Connection \c ipcon.
+     * Writes consecutive chunks of a frame.
      *
-     * @param  uid  the uid
-     * @param  ipcon  the ipcon
+     * @param  transferBuffer  The frame
+     * @param  first  The number of the first chunk
+     * @param  count  The number of chunks, at most {@link #getChunksPerWrite()}
+     * @param  acknowledged  Whether to wait until the LED strip acknowledged the chunks, otherwise they are streamed
+     *
+     * @throws  TimeoutException  if the acknowledgement doesn't arrive
+     * @throws  NotConnectedException  if the connection is closed
      */
-    public BrickletLEDStripWrapper(String uid, IPConnection ipcon) {
+    void setChunks(TransferBuffer transferBuffer, int first, int count, boolean acknowledged)
+        throws TimeoutException, NotConnectedException;
+
+
+    /**
+     * Reads pixels back from the LED strip.
+     *
+     * @param  index  The first pixel
+     * @param  length  The number of pixels, at most 16
+     *
+     * @return  The pixels' colors
+     *
+     * @throws  TimeoutException  if the LED strip doesn't answer
+     * @throws  NotConnectedException  if the connection is closed
+     */
+    List<Color> getPixels(int index, int length) throws TimeoutException, NotConnectedException;
+
+
+    void setFrameDuration(int duration) throws TimeoutException, NotConnectedException;
+
+
+    void setChipType(int chip) throws TimeoutException, NotConnectedException;
+
+
+    /**
+     * Adds a listener that is called whenever a frame has been sent to the LEDs.
+     */
+    void addFrameRenderedListener(FrameRenderedListener listener);
+
+
+    void removeFrameRenderedListener(FrameRenderedListener listener);
+
+
+    IPConnection getIPConnection();
 
-        super(uid, ipcon);
-        ipConnection = ipcon;
-    }
 
     /**
      * Disconnect the bricklet and its brick.
      */
-    public void disconnect() {
+    void disconnect();
+
+    /**
+     * Called whenever a frame has been sent to the LEDs.
+     */
+    @FunctionalInterface
+    interface FrameRenderedListener {
 
-        try {
-            ipConnection.disconnect();
-        } catch (NotConnectedException exception) {
-            throw new LEDStripConnectionException("Error disconnecting:", exception);
-        }
+        /**
+         * @param  length  The number of pixels sent
+         */
+        void frameRendered(int length);
     }
 }
@@ -12,6 +12,10 @@ import org.synyx.sybil.brick.service.BrickConnectionException;
 import org.synyx.sybil.brick.service.BrickNotFoundException;
 import org.synyx.sybil.brick.service.BrickService;
 import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.metrics.Counter;
+import org.synyx.sybil.metrics.MetricsService;
+import org.synyx.sybil.metrics.Timer;
+import org.synyx.sybil.profiling.BrickletSetupEvent;
 
 
 /**
@@ -25,34 +29,83 @@ public class BrickletLEDStripWrapperService {
 
     private static final int FRAME_DURATION = 10;
     private static final int CHIP_TYPE = 2812;
+    private static final int VERSION_2 = 2;
 
     private final BrickService brickService;
+    private final Timer setups;
+    private final Counter timeouts;
+    private final Counter connectionErrors;
 
     @Autowired
-    public BrickletLEDStripWrapperService(BrickService brickService) {
+    public BrickletLEDStripWrapperService(BrickService brickService, MetricsService metricsService) {
 
         this.brickService = brickService;
+        this.setups = metricsService.timer("sybil_ledstrip_setup_seconds",
+                "Time to set the frame duration and chip type of a LED strip", "ledstrip", "brick");
+        this.timeouts = metricsService.getTimeouts();
+        this.connectionErrors = metricsService.getConnectionErrors();
     }
 
     public BrickletLEDStripWrapper getBrickletLEDStrip(LEDStrip ledStrip) {
 
-        IPConnection ipConnection;
+        return getBrickletLEDStrip(ledStrip, connect(ledStrip.getBrick()));
+    }
+
+
+    /**
+     * Opens a connection to a brick, which can then be shared by several of its LED strips.
+     *
+     * @param  brick  The name of the brick
+     *
+     * @return  The connection, which has to be disconnected by the caller
+     */
+    public IPConnection connect(String brick) {
 
         try {
-            ipConnection = brickService.connect(ledStrip.getBrick());
+            return brickService.connect(brick);
         } catch (BrickConnectionException | BrickNotFoundException exception) {
             throw new LEDStripConnectionException("Error connecting to brick:", exception);
         }
+    }
+
+
+    /**
+     * Sets up a LED strip on an existing connection. Disconnecting the returned LED strip closes the connection.
+     *
+     * @param  ledStrip  The LED strip's configuration
+     * @param  ipConnection  The connection to the LED strip's brick
+     *
+     * @return  The LED strip, for the version of LED Strip Bricklet configured
+     */
+    public BrickletLEDStripWrapper getBrickletLEDStrip(LEDStrip ledStrip, IPConnection ipConnection) {
 
-        BrickletLEDStripWrapper brickletLEDStrip = new BrickletLEDStripWrapper(ledStrip.getUid(), ipConnection);
+        BrickletLEDStripWrapper brickletLEDStrip = ledStrip.getVersion() == VERSION_2
+            ? new BrickletLEDStripV2Wrapper(ledStrip.getUid(), ipConnection)
+            : new BrickletLEDStripV1Wrapper(ledStrip.getUid(), ipConnection);
+
+        BrickletSetupEvent event = new BrickletSetupEvent(ledStrip.getName(), ledStrip.getBrick());
+        long start = System.nanoTime();
+        event.begin();
 
         try {
             brickletLEDStrip.setFrameDuration(FRAME_DURATION);
             brickletLEDStrip.setChipType(CHIP_TYPE);
-        } catch (TimeoutException | NotConnectedException exception) {
+        } catch (TimeoutException exception) {
+            timeouts.increment(ledStrip.getBrick(), "setup");
+            event.failed(exception);
+
             throw new LEDStripConnectionException("Error setting up LED strip:", exception);
+        } catch (NotConnectedException exception) {
+            connectionErrors.increment(ledStrip.getBrick());
+            event.failed(exception);
+
+            throw new LEDStripConnectionException("Error setting up LED strip:", exception);
+        } finally {
+            event.commit();
         }
 
+        setups.record(ledStrip.getName(), ledStrip.getBrick(), System.nanoTime() - start);
+
         return brickletLEDStrip;
     }
 }
@@ -0,0 +1,77 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.core.env.Environment;
+
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * BrightnessQuantizer. Rounds the brightness reported by an illuminance sensor to a fixed step, so frames encoded for
+ * one brightness can be reused while it stays at that level.
+ *
+ * <p>Each sensor keeps its level until its brightness leaves the level by more than half a step plus the hysteresis,
+ * so a reading jittering around the middle between two levels doesn't flip back and forth between them.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class BrightnessQuantizer {
+
+    private static final double DEFAULT_STEP = 0.125;
+    private static final double DEFAULT_HYSTERESIS = 0.25;
+    private static final double HALF = 0.5;
+
+    private final double step;
+    private final double hysteresis;
+    private final ConcurrentMap<String, Double> levels = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BrightnessQuantizer(Environment environment) {
+
+        this(environment.getProperty("ledstrip.brightness.step", Double.class, DEFAULT_STEP),
+            environment.getProperty("ledstrip.brightness.hysteresis", Double.class, DEFAULT_HYSTERESIS));
+    }
+
+
+    /**
+     * Instantiates a new brightness quantizer.
+     *
+     * @param  step  The difference between two levels, 0 to not quantize at all
+     * @param  hysteresis  How far, in steps, the brightness has to move past the middle between two levels before the
+     *                     level changes
+     */
+    public BrightnessQuantizer(double step, double hysteresis) {
+
+        this.step = Math.max(0, step);
+        this.hysteresis = Math.max(0, hysteresis);
+    }
+
+    /**
+     * Quantizes the brightness reported by a sensor.
+     *
+     * @param  sensor  The name of the sensor
+     * @param  brightness  The brightness the sensor reported
+     *
+     * @return  The level of the sensor, its previous level if the brightness didn't leave it far enough
+     */
+    public double quantize(String sensor, double brightness) {
+
+        if (step == 0) {
+            return brightness;
+        }
+
+        return levels.compute(sensor, (key, level) -> {
+                if (level != null && Math.abs(brightness - level) <= step * (HALF + hysteresis)) {
+                    return level;
+                }
+
+                return Math.round(brightness / step) * step;
+            });
+    }
+}
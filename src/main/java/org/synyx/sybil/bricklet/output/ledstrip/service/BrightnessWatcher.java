@@ -0,0 +1,175 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.core.env.Environment;
+
+import org.springframework.stereotype.Service;
+
+import org.synyx.sybil.LoadFailedException;
+import org.synyx.sybil.bricklet.input.illuminance.service.IlluminanceConnectionException;
+import org.synyx.sybil.bricklet.input.illuminance.service.IlluminanceNotFoundException;
+import org.synyx.sybil.bricklet.input.illuminance.service.IlluminanceService;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStripRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+
+/**
+ * BrightnessWatcher. Reads the illuminance sensors of all LED strips periodically, and sends the frames of the LED
+ * strips bound to a sensor again as soon as its brightness reaches another level, instead of waiting until something
+ * else is drawn onto them.
+ *
+ * <p>Each sensor is read once per period, however many LED strips it is bound to, and a change of its level causes at
+ * most one redraw per LED strip. LED strips running an animation are skipped, the animation keeps the brightness it
+ * started with.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class BrightnessWatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BrightnessWatcher.class);
+    private static final long DEFAULT_PERIOD = 1000;
+
+    private final LEDStripService ledStripService;
+    private final LEDStripRepository ledStripRepository;
+    private final IlluminanceService illuminanceService;
+    private final BrightnessQuantizer brightnessQuantizer;
+    private final AnimationService animationService;
+    private final long period;
+    private final ConcurrentMap<String, Double> levels = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @Autowired
+    public BrightnessWatcher(LEDStripService ledStripService, LEDStripRepository ledStripRepository,
+        IlluminanceService illuminanceService, BrightnessQuantizer brightnessQuantizer,
+        AnimationService animationService, Environment environment) {
+
+        this(ledStripService, ledStripRepository, illuminanceService, brightnessQuantizer, animationService,
+            environment.getProperty("ledstrip.brightness.poll.ms", Long.class, DEFAULT_PERIOD));
+    }
+
+
+    /**
+     * Instantiates a new brightness watcher.
+     *
+     * @param  ledStripService  The LED strip service
+     * @param  ledStripRepository  The LED strip repository
+     * @param  illuminanceService  The illuminance service
+     * @param  brightnessQuantizer  The brightness quantizer, shared with the LED strip service
+     * @param  animationService  The animation service
+     * @param  period  The time between two readings of the sensors in milliseconds, 0 to never read them
+     */
+    public BrightnessWatcher(LEDStripService ledStripService, LEDStripRepository ledStripRepository,
+        IlluminanceService illuminanceService, BrightnessQuantizer brightnessQuantizer,
+        AnimationService animationService, long period) {
+
+        this.ledStripService = ledStripService;
+        this.ledStripRepository = ledStripRepository;
+        this.illuminanceService = illuminanceService;
+        this.brightnessQuantizer = brightnessQuantizer;
+        this.animationService = animationService;
+        this.period = Math.max(0, period);
+    }
+
+    @PostConstruct
+    public void startPolling() {
+
+        if (period > 0) {
+            executor.scheduleWithFixedDelay(this::poll, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+
+        executor.shutdownNow();
+    }
+
+
+    /**
+     * Reads every sensor bound to a LED strip once, and redraws the LED strips of those whose level changed since
+     * the previous reading. The first reading of a sensor only records its level.
+     */
+    void poll() {
+
+        Map<String, List<LEDStrip>> ledStripsBySensor;
+
+        try {
+            ledStripsBySensor = getLEDStripsBySensor();
+        } catch (LoadFailedException exception) {
+            LOG.error("Error loading LED strips to watch their brightness:", exception);
+
+            return;
+        }
+
+        for (Map.Entry<String, List<LEDStrip>> entry : ledStripsBySensor.entrySet()) {
+            String sensor = entry.getKey();
+            double level;
+
+            try {
+                level = brightnessQuantizer.quantize(sensor, illuminanceService.getBrightness(sensor));
+            } catch (IlluminanceConnectionException | IlluminanceNotFoundException exception) {
+                LOG.warn("Error reading illuminance sensor " + sensor + ":", exception);
+
+                continue;
+            }
+
+            Double previous = levels.put(sensor, level);
+
+            if (previous != null && previous != level) {
+                redraw(entry.getValue(), level);
+            }
+        }
+    }
+
+
+    private Map<String, List<LEDStrip>> getLEDStripsBySensor() {
+
+        Map<String, List<LEDStrip>> ledStripsBySensor = new LinkedHashMap<>();
+
+        for (LEDStrip ledStrip : ledStripRepository.getAll()) {
+            RenderProfile profile = ledStripService.getProfile(ledStrip);
+
+            if (profile.hasSensor()) {
+                ledStripsBySensor.computeIfAbsent(profile.getSensor(), key -> new ArrayList<>()).add(ledStrip);
+            }
+        }
+
+        return ledStripsBySensor;
+    }
+
+
+    private void redraw(List<LEDStrip> ledStrips, double level) {
+
+        for (LEDStrip ledStrip : ledStrips) {
+            if (animationService.getEffect(ledStrip.getName()) != null) {
+                continue;
+            }
+
+            try {
+                ledStripService.redraw(ledStrip, level);
+            } catch (LEDStripConnectionException exception) {
+                LOG.error("Error redrawing LED strip " + ledStrip.getName() + " with new brightness:", exception);
+            }
+        }
+    }
+}
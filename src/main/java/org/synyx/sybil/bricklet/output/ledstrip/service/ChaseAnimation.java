@@ -0,0 +1,62 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+
+/**
+ * Lights every n-th pixel and moves the pattern along the LED strip, like a theater marquee. Endless.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class ChaseAnimation implements Animation {
+
+    private final Color color;
+    private final Color background;
+    private final int spacing;
+    private final int framesPerStep;
+
+    /**
+     * Instantiates a new chase.
+     *
+     * @param  color  The color of the lit pixels
+     * @param  background  The color of the pixels in between
+     * @param  spacing  The distance between two lit pixels, at least 1
+     * @param  framesPerStep  The number of frames before the pattern moves on by one pixel, at least 1
+     */
+    public ChaseAnimation(Color color, Color background, int spacing, int framesPerStep) {
+
+        this.color = color;
+        this.background = background;
+        this.spacing = Math.max(1, spacing);
+        this.framesPerStep = Math.max(1, framesPerStep);
+    }
+
+    @Override
+    public boolean hasFrame(long frame) {
+
+        return true;
+    }
+
+
+    @Override
+    public Sprite1D render(long frame, int length) {
+
+        Sprite1D sprite = new Sprite1D(length, getEffect());
+        sprite.setFill(background);
+
+        int shift = (int) (frame / framesPerStep % spacing);
+
+        for (int position = shift; position < length; position += spacing) {
+            sprite.setPixel(position, color);
+        }
+
+        return sprite;
+    }
+
+
+    @Override
+    public String getEffect() {
+
+        return "chase";
+    }
+}
@@ -0,0 +1,119 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.core.env.Environment;
+
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+import javax.annotation.PreDestroy;
+
+
+/**
+ * ChunkRetry. How often a chunk write that wasn't acknowledged in time is retried, and how long to wait before each
+ * retry. The wait doubles with every retry, and a random part of up to half of it keeps writers that failed together
+ * from retrying together. Retries run on a thread of their own, so neither the writer that failed nor the threads
+ * drawing onto other LED strips wait for them.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class ChunkRetry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChunkRetry.class);
+    private static final int DEFAULT_RETRIES = 2;
+    private static final long DEFAULT_BACKOFF = 20;
+    private static final int MAX_DOUBLINGS = 16;
+
+    private final int retries;
+    private final long backoff;
+    private final DoubleSupplier random;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @Autowired
+    public ChunkRetry(Environment environment) {
+
+        this(environment.getProperty("ledstrip.chunk.retries", Integer.class, DEFAULT_RETRIES),
+            environment.getProperty("ledstrip.chunk.retry.backoff.ms", Long.class, DEFAULT_BACKOFF));
+    }
+
+
+    /**
+     * Instantiates a new chunk retry.
+     *
+     * @param  retries  How often a chunk write is retried, 0 to fail the frame on the first timeout
+     * @param  backoff  The longest time in milliseconds to wait before the first retry
+     */
+    public ChunkRetry(int retries, long backoff) {
+
+        this(retries, backoff, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+
+    ChunkRetry(int retries, long backoff, DoubleSupplier random) {
+
+        this.retries = Math.max(0, retries);
+        this.backoff = Math.max(0, backoff);
+        this.random = random;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+
+        executor.shutdownNow();
+    }
+
+
+    public int getRetries() {
+
+        return retries;
+    }
+
+
+    /**
+     * Gets the time to wait before a retry, between half of and the full backoff for it.
+     *
+     * @param  retry  The number of the retry, starting at 1
+     *
+     * @return  The time in milliseconds
+     */
+    public long getDelay(int retry) {
+
+        long delay = backoff << Math.min(MAX_DOUBLINGS, Math.max(0, retry - 1));
+
+        return delay - (long) (delay / 2 * random.getAsDouble());
+    }
+
+
+    /**
+     * Runs a retry once its backoff elapsed.
+     *
+     * @param  retry  The retry, which is logged if it fails
+     * @param  number  The number of the retry, starting at 1
+     */
+    public void schedule(Runnable retry, int number) {
+
+        try {
+            executor.schedule(() -> {
+                    try {
+                        retry.run();
+                    } catch (RuntimeException exception) {
+                        LOG.error("Error retrying chunk write:", exception);
+                    }
+                }, getDelay(number), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException exception) {
+            LOG.debug("Not retrying chunk write, shutting down:", exception);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+
+/**
+ * Composites the layers of one LED strip over its background, i.e. whatever was last drawn onto it directly.
+ *
+ * <p>Changes only mark the 16 pixel chunks they touch as dirty, rendering re-composites just those chunks. Not thread
+ * safe, guarded by the LED strip's lock.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+final class Compositor {
+
+    private static final int CHUNK_SIZE = TransferBuffer.CHUNK_SIZE;
+
+    // layers of equal priority are ordered by name, so re-adding one doesn't move it over the others
+    private static final Comparator<Layer> ORDER = Comparator.comparingInt(Layer::getPriority).thenComparing(
+            Layer::getName);
+
+    private final int length;
+    private final int[] background;
+    private final int[] frame;
+    private final List<Layer> layers = new ArrayList<>(); // sorted by ORDER, lowest first
+    private final BitSet dirty = new BitSet();
+
+    /**
+     * Instantiates a new compositor, without layers. Nothing is dirty, the background is assumed to be displayed.
+     *
+     * @param  length  The length of the LED strip
+     * @param  background  The frame currently displayed
+     */
+    Compositor(int length, Sprite1D background) {
+
+        this.length = length;
+        this.background = new int[length];
+        this.frame = new int[length];
+
+        setBackground(background, allChunks());
+        render();
+    }
+
+    /**
+     * Replaces chunks of the background.
+     *
+     * @param  sprite  The new background, padded with black pixels, its other chunks are ignored
+     * @param  chunks  The chunks to replace
+     */
+    void setBackground(Sprite1D sprite, BitSet chunks) {
+
+        for (int chunk = chunks.nextSetBit(0); chunk >= 0; chunk = chunks.nextSetBit(chunk + 1)) {
+            int start = chunk * CHUNK_SIZE;
+            int end = Math.min(length, start + CHUNK_SIZE);
+            int copied = Math.max(start, Math.min(end, sprite.getLength()));
+
+            if (start < copied) {
+                sprite.copyRGB(start, background, start, copied - start);
+            }
+
+            if (copied < end) {
+                Arrays.fill(background, copied, end, 0);
+            }
+        }
+
+        dirty.or(chunks);
+    }
+
+
+    /**
+     * Adds a layer, replacing the one with the same name.
+     *
+     * @param  layer  The layer
+     */
+    void put(Layer layer) {
+
+        remove(layer.getName());
+
+        int index = Collections.binarySearch(layers, layer, ORDER);
+
+        layers.add(index < 0 ? -index - 1 : index, layer);
+        markDirty(layer);
+    }
+
+
+    /**
+     * Removes a layer.
+     *
+     * @param  name  The name of the layer
+     *
+     * @return  true if there was such a layer
+     */
+    boolean remove(String name) {
+
+        for (Iterator<Layer> iterator = layers.iterator(); iterator.hasNext();) {
+            Layer layer = iterator.next();
+
+            if (layer.getName().equals(name)) {
+                iterator.remove();
+                markDirty(layer);
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Removes all expired layers.
+     *
+     * @param  now  The current time in milliseconds since the epoch
+     *
+     * @return  true if any layer expired
+     */
+    boolean expire(long now) {
+
+        boolean expired = false;
+
+        for (Iterator<Layer> iterator = layers.iterator(); iterator.hasNext();) {
+            Layer layer = iterator.next();
+
+            if (layer.isExpired(now)) {
+                iterator.remove();
+                markDirty(layer);
+                expired = true;
+            }
+        }
+
+        return expired;
+    }
+
+
+    Layer get(String name) {
+
+        for (Layer layer : layers) {
+            if (layer.getName().equals(name)) {
+                return layer;
+            }
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Gets the layers, lowest priority first.
+     *
+     * @return  An unmodifiable copy of the layers
+     */
+    List<Layer> getLayers() {
+
+        return Collections.unmodifiableList(new ArrayList<>(layers));
+    }
+
+
+    /**
+     * Gets the layer drawn over all others.
+     *
+     * @return  The layer with the highest priority, null if there are no layers
+     */
+    Layer getTop() {
+
+        return layers.isEmpty() ? null : layers.get(layers.size() - 1);
+    }
+
+
+    boolean hasLayers() {
+
+        return !layers.isEmpty();
+    }
+
+
+    /**
+     * Re-composites the dirty chunks.
+     *
+     * @return  The chunks that were re-composited, and need to be sent to the LED strip
+     */
+    BitSet render() {
+
+        BitSet rendered = (BitSet) dirty.clone();
+
+        for (int chunk = dirty.nextSetBit(0); chunk >= 0; chunk = dirty.nextSetBit(chunk)) {
+            int lastChunk = dirty.nextClearBit(chunk);
+            int start = chunk * CHUNK_SIZE;
+            int end = Math.min(length, lastChunk * CHUNK_SIZE);
+
+            if (start < end) {
+                System.arraycopy(background, start, frame, start, end - start);
+
+                for (Layer layer : layers) {
+                    layer.blend(frame, start, end);
+                }
+            }
+
+            chunk = lastChunk;
+        }
+
+        dirty.clear();
+
+        return rendered;
+    }
+
+
+    /**
+     * Gets the composited frame as of the last render.
+     *
+     * @param  name  The name of the new sprite
+     *
+     * @return  A new sprite
+     */
+    Sprite1D getFrame(String name) {
+
+        Sprite1D result = new Sprite1D(length, name);
+        result.setRGB(frame);
+
+        return result;
+    }
+
+
+    /**
+     * Composites the whole frame with a layer in place of the one with the same name, without changing the layers or
+     * what was rendered.
+     *
+     * @param  name  The name of the new sprite
+     * @param  replacement  The layer to composite instead
+     *
+     * @return  A new sprite
+     */
+    Sprite1D getFrame(String name, Layer replacement) {
+
+        List<Layer> replaced = new ArrayList<>(layers);
+        replaced.removeIf(layer -> layer.getName().equals(replacement.getName()));
+
+        int index = Collections.binarySearch(replaced, replacement, ORDER);
+        replaced.add(index < 0 ? -index - 1 : index, replacement);
+
+        int[] composited = background.clone();
+
+        for (Layer layer : replaced) {
+            layer.blend(composited, 0, length);
+        }
+
+        Sprite1D result = new Sprite1D(length, name);
+        result.setRGB(composited);
+
+        return result;
+    }
+
+
+    Sprite1D getBackground() {
+
+        Sprite1D result = new Sprite1D(length);
+        result.setRGB(background);
+
+        return result;
+    }
+
+
+    private void markDirty(Layer layer) {
+
+        int start = Math.max(0, layer.getOffset());
+        int end = Math.min(length, layer.getEnd());
+
+        if (start < end) {
+            dirty.set(start / CHUNK_SIZE, (end - 1) / CHUNK_SIZE + 1);
+        }
+    }
+
+
+    private BitSet allChunks() {
+
+        BitSet chunks = new BitSet();
+        chunks.set(0, (length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+
+        return chunks;
+    }
+}
@@ -0,0 +1,81 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+/**
+ * Fades from one sprite to another over a number of frames, then stops at the target.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class FadeAnimation implements Animation {
+
+    private final int[] fromRed;
+    private final int[] fromGreen;
+    private final int[] fromBlue;
+    private final int[] toRed;
+    private final int[] toGreen;
+    private final int[] toBlue;
+    private final int frames;
+
+    /**
+     * Instantiates a new fade.
+     *
+     * @param  from  The sprite to start with
+     * @param  to  The sprite to end with
+     * @param  frames  The number of frames, the last one is the target
+     */
+    public FadeAnimation(Sprite1D from, Sprite1D to, int frames) {
+
+        this.fromRed = from.getRed();
+        this.fromGreen = from.getGreen();
+        this.fromBlue = from.getBlue();
+        this.toRed = to.getRed();
+        this.toGreen = to.getGreen();
+        this.toBlue = to.getBlue();
+        this.frames = Math.max(1, frames);
+    }
+
+    @Override
+    public boolean hasFrame(long frame) {
+
+        return frame < frames;
+    }
+
+
+    @Override
+    public Sprite1D render(long frame, int length) {
+
+        Sprite1D sprite = new Sprite1D(length, getEffect());
+
+        // the last frame is exactly the target, even for a single frame fade
+        int step = (int) Math.min(frame + 1, frames);
+
+        int[] red = new int[length];
+        int[] green = new int[length];
+        int[] blue = new int[length];
+
+        for (int position = 0; position < length; position++) {
+            red[position] = interpolate(fromRed, toRed, position, step);
+            green[position] = interpolate(fromGreen, toGreen, position, step);
+            blue[position] = interpolate(fromBlue, toBlue, position, step);
+        }
+
+        sprite.setPixels(red, green, blue);
+
+        return sprite;
+    }
+
+
+    @Override
+    public String getEffect() {
+
+        return "fade";
+    }
+
+
+    private int interpolate(int[] from, int[] to, int position, int step) {
+
+        int start = position < from.length ? from[position] : 0;
+        int end = position < to.length ? to[position] : 0;
+
+        return start + (end - start) * step / frames;
+    }
+}
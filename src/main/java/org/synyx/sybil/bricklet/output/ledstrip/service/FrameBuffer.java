@@ -0,0 +1,79 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * The pixels last rendered onto a LED strip, before brightness was applied. Immutable.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class FrameBuffer {
+
+    private final String name;
+    private final long generation;
+    private final Sprite1D pixels;
+
+    /**
+     * Instantiates a new frame buffer.
+     *
+     * @param  name  The name of the LED strip
+     * @param  generation  Increases by one with every frame rendered onto the LED strip
+     * @param  pixels  The rendered pixels, copied so later changes to the sprite don't leak in
+     */
+    public FrameBuffer(String name, long generation, Sprite1D pixels) {
+
+        this.name = name;
+        this.generation = generation;
+        this.pixels = new Sprite1D(pixels, pixels.getLength());
+    }
+
+    public String getName() {
+
+        return name;
+    }
+
+
+    public long getGeneration() {
+
+        return generation;
+    }
+
+
+    public int getLength() {
+
+        return pixels.getLength();
+    }
+
+
+    public Color getPixel(int position) {
+
+        return pixels.getPixel(position);
+    }
+
+
+    /**
+     * Gets a copy of the frame as a sprite, which can be changed without affecting this frame buffer.
+     *
+     * @return  A new sprite
+     */
+    public Sprite1D getSprite() {
+
+        return new Sprite1D(pixels, pixels.getLength());
+    }
+
+
+    public List<Color> getPixels() {
+
+        List<Color> result = new ArrayList<>(pixels.getLength());
+
+        for (int position = 0; position < pixels.getLength(); position++) {
+            result.add(pixels.getPixel(position));
+        }
+
+        return result;
+    }
+}
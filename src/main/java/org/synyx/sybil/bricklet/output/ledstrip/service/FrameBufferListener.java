@@ -0,0 +1,16 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+/**
+ * Gets notified whenever a frame has been rendered onto a LED strip.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public interface FrameBufferListener {
+
+    /**
+     * Called after a frame was successfully written to a LED strip.
+     *
+     * @param  frameBuffer  The frame that is now displayed
+     */
+    void frameRendered(FrameBuffer frameBuffer);
+}
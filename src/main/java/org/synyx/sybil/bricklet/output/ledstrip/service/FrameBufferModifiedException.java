@@ -0,0 +1,15 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+/**
+ * FrameBufferModifiedException. Thrown when a conditional write finds that the LED strip's frame buffer has moved on
+ * from the generation the writer expected.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class FrameBufferModifiedException extends RuntimeException {
+
+    public FrameBufferModifiedException(String message) {
+
+        super(message);
+    }
+}
@@ -0,0 +1,76 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * FrameBufferService. Remembers what was last rendered onto each LED strip and tells interested listeners about it.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class FrameBufferService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FrameBufferService.class);
+
+    private final ConcurrentMap<String, FrameBuffer> frameBuffers = new ConcurrentHashMap<>();
+    private final List<FrameBufferListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Gets the frame last rendered onto a LED strip.
+     *
+     * @param  name  The name of the LED strip
+     *
+     * @return  The frame buffer, or null if nothing was rendered since startup
+     */
+    public FrameBuffer get(String name) {
+
+        return frameBuffers.get(name);
+    }
+
+
+    /**
+     * Records a rendered frame and notifies all listeners.
+     *
+     * @param  name  The name of the LED strip
+     * @param  pixels  The pixels now displayed on the LED strip, before brightness was applied
+     *
+     * @return  The new frame buffer
+     */
+    public FrameBuffer update(String name, Sprite1D pixels) {
+
+        FrameBuffer frameBuffer = frameBuffers.compute(name,
+                (key, previous) -> new FrameBuffer(key, previous == null ? 1 : previous.getGeneration() + 1, pixels));
+
+        for (FrameBufferListener listener : listeners) {
+            try {
+                listener.frameRendered(frameBuffer);
+            } catch (RuntimeException exception) {
+                LOG.error("Error notifying frame buffer listener:", exception);
+            }
+        }
+
+        return frameBuffer;
+    }
+
+
+    public void addListener(FrameBufferListener listener) {
+
+        listeners.add(listener);
+    }
+
+
+    public void removeListener(FrameBufferListener listener) {
+
+        listeners.remove(listener);
+    }
+}
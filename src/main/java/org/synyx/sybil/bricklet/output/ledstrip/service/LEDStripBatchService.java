@@ -0,0 +1,310 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import com.tinkerforge.IPConnection;
+import com.tinkerforge.NotConnectedException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.stereotype.Service;
+
+import org.synyx.sybil.LoadFailedException;
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStripRepository;
+import org.synyx.sybil.metrics.Ingest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+
+/**
+ * LEDStripBatchService. Draws onto many LED strips at once.
+ *
+ * <p>The LED strip configuration is loaded once per batch. The LED strips are grouped by brick: Each brick gets a
+ * single connection, over which its LED strips are drawn one after another, while the bricks are served in
+ * parallel.</p>
+ *
+ * <p>Bricks that are backed off from aren't connected to, and a brick that can't be connected to is backed off from.
+ * The frames of their LED strips are recorded as the LED strips' frame buffers all the same, so the reconciler draws
+ * them once the brick can be reached again.</p>
+ *
+ * <p>When a whole group of LED strips displays the same frame, the frame is encoded only once for each distinct
+ * combination of padded length and brightness, and the encoded frame is shared by all the LED strips it fits.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class LEDStripBatchService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LEDStripBatchService.class);
+    private static final int THREADS = 8;
+
+    private final LEDStripService ledStripService;
+    private final LEDStripRepository ledStripRepository;
+    private final BrickletLEDStripWrapperService brickletLEDStripWrapperService;
+    private final PhotonLatencyTracker photonLatencyTracker;
+    private final BrickBackoff brickBackoff;
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @Autowired
+    public LEDStripBatchService(LEDStripService ledStripService, LEDStripRepository ledStripRepository,
+        BrickletLEDStripWrapperService brickletLEDStripWrapperService, PhotonLatencyTracker photonLatencyTracker,
+        BrickBackoff brickBackoff) {
+
+        this.ledStripService = ledStripService;
+        this.ledStripRepository = ledStripRepository;
+        this.brickletLEDStripWrapperService = brickletLEDStripWrapperService;
+        this.photonLatencyTracker = photonLatencyTracker;
+        this.brickBackoff = brickBackoff;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+
+        executor.shutdownNow();
+    }
+
+
+    /**
+     * Draws pixels onto several LED strips.
+     *
+     * @param  pixelsByName  The pixels to display, by name of the LED strip
+     *
+     * @return  The exceptions that occurred, by name of the LED strip. LED strips that were drawn successfully are
+     *          absent.
+     *
+     * @throws  LoadFailedException  if the LED strip configuration could not be loaded, before anything was drawn.
+     */
+    public Map<String, RuntimeException> setColors(Map<String, List<Color>> pixelsByName) {
+
+        Map<String, RuntimeException> failures = new ConcurrentHashMap<>();
+        Map<String, List<LEDStrip>> ledStripsByBrick = new LinkedHashMap<>();
+        Map<String, LEDStrip> configuredLEDStrips = new HashMap<>();
+
+        for (LEDStrip ledStrip : ledStripRepository.getAll()) {
+            configuredLEDStrips.put(ledStrip.getName(), ledStrip);
+        }
+
+        for (String name : pixelsByName.keySet()) {
+            LEDStrip ledStrip = configuredLEDStrips.get(name);
+
+            if (ledStrip == null) {
+                failures.put(name, new LEDStripNotFoundException("LED strip " + name + " not found"));
+            } else {
+                ledStripsByBrick.computeIfAbsent(ledStrip.getBrick(), key -> new ArrayList<>()).add(ledStrip);
+            }
+        }
+
+        drawByBrick(ledStripsByBrick,
+            (ledStrip, ipConnection) ->
+                ledStripService.setColors(ledStrip, pixelsByName.get(ledStrip.getName()), ipConnection),
+            ledStrip -> ledStripService.recordColors(ledStrip, pixelsByName.get(ledStrip.getName())), failures);
+
+        return failures;
+    }
+
+
+    /**
+     * Draws the same pixels onto all LED strips of a group.
+     *
+     * @param  group  The name of the group
+     * @param  pixels  The pixels to display
+     *
+     * @return  Every LED strip of the group by name, in the order they are configured, mapped to the exception that
+     *          occurred or to {@code null} if it was drawn successfully.
+     *
+     * @throws  LEDStripNotFoundException  if no LED strip belongs to the group.
+     * @throws  LoadFailedException  if the LED strip configuration could not be loaded, before anything was drawn.
+     */
+    public Map<String, RuntimeException> setColorsOfGroup(String group, List<Color> pixels) {
+
+        List<LEDStrip> ledStrips = ledStripRepository.getGroup(group);
+
+        if (ledStrips.isEmpty()) {
+            throw new LEDStripNotFoundException("LED strip group " + group + " not found");
+        }
+
+        Map<String, RuntimeException> failures = new ConcurrentHashMap<>();
+        Map<String, List<LEDStrip>> ledStripsByBrick = new LinkedHashMap<>();
+        Map<String, TransferBuffer> transferBuffersByName = new HashMap<>();
+        Map<String, TransferBuffer> transferBuffersByFormat = new HashMap<>();
+        Map<String, Double> brightnessBySensor = new HashMap<>();
+        Map<String, LEDStripConnectionException> sensorFailures = new HashMap<>();
+
+        Sprite1D sprite = new Sprite1D(pixels);
+
+        for (LEDStrip ledStrip : ledStrips) {
+            String sensor = ledStrip.hasSensor() ? ledStrip.getSensor() : null;
+
+            if (!brightnessBySensor.containsKey(sensor) && !sensorFailures.containsKey(sensor)) {
+                try {
+                    brightnessBySensor.put(sensor, ledStripService.getBrightness(ledStrip));
+                } catch (LEDStripConnectionException exception) {
+                    sensorFailures.put(sensor, exception);
+                }
+            }
+
+            if (sensorFailures.containsKey(sensor)) {
+                failures.put(ledStrip.getName(), sensorFailures.get(sensor));
+
+                continue;
+            }
+
+            int bufferSize = ledStripService.getPixelBufferSize(ledStrip);
+            double brightness = brightnessBySensor.get(sensor);
+
+            TransferBuffer transferBuffer = transferBuffersByFormat.computeIfAbsent(bufferSize + "@" + brightness,
+                    key -> TransferBuffer.encode(sprite, bufferSize, brightness));
+
+            transferBuffersByName.put(ledStrip.getName(), transferBuffer);
+            ledStripsByBrick.computeIfAbsent(ledStrip.getBrick(), key -> new ArrayList<>()).add(ledStrip);
+        }
+
+        drawByBrick(ledStripsByBrick,
+            (ledStrip, ipConnection) ->
+                ledStripService.drawEncoded(ledStrip, sprite, transferBuffersByName.get(ledStrip.getName()),
+                    ipConnection),
+            ledStrip ->
+                ledStripService.recordEncoded(ledStrip, sprite, transferBuffersByName.get(ledStrip.getName())),
+            failures);
+
+        Map<String, RuntimeException> results = new LinkedHashMap<>();
+
+        for (LEDStrip ledStrip : ledStrips) {
+            results.put(ledStrip.getName(), failures.get(ledStrip.getName()));
+        }
+
+        return results;
+    }
+
+
+    /**
+     * @param  draw  Draws a LED strip over the connection to its brick
+     * @param  record  Records the frame of a LED strip whose brick can't be reached
+     */
+    private void drawByBrick(Map<String, List<LEDStrip>> ledStripsByBrick, BiConsumer<LEDStrip, IPConnection> draw,
+        Consumer<LEDStrip> record, Map<String, RuntimeException> failures) {
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        Ingest ingest = Ingest.current();
+
+        for (Map.Entry<String, List<LEDStrip>> entry : ledStripsByBrick.entrySet()) {
+            tasks.add(() -> {
+                // the frames are followed from the time the batch was received
+                if (ingest != null) {
+                    Ingest.begin(ingest.getTime());
+                }
+
+                try {
+                    drawOnBrick(entry.getKey(), entry.getValue(), draw, record, failures);
+                } finally {
+                    Ingest.end();
+                }
+
+                return null;
+            });
+        }
+
+        await(tasks);
+    }
+
+
+    private void drawOnBrick(String brick, List<LEDStrip> ledStrips, BiConsumer<LEDStrip, IPConnection> draw,
+        Consumer<LEDStrip> record, Map<String, RuntimeException> failures) {
+
+        if (brickBackoff.isBackingOff(brick)) {
+            recordOnBrick(ledStrips, record, null, failures);
+
+            return;
+        }
+
+        IPConnection ipConnection;
+
+        try {
+            ipConnection = brickletLEDStripWrapperService.connect(brick);
+        } catch (LEDStripConnectionException exception) {
+            brickBackoff.failed(brick);
+            recordOnBrick(ledStrips, record, exception, failures);
+
+            return;
+        }
+
+        try {
+            for (LEDStrip ledStrip : ledStrips) {
+                try {
+                    draw.accept(ledStrip, ipConnection);
+                } catch (LEDStripConnectionException exception) {
+                    failures.put(ledStrip.getName(), exception);
+                } catch (RuntimeException exception) {
+                    // reported for this LED strip only, the others on the brick are still drawn
+                    LOG.error("Error drawing LED strip " + ledStrip.getName() + ":", exception);
+                    failures.put(ledStrip.getName(), exception);
+                }
+            }
+        } finally {
+            photonLatencyTracker.disconnectWhenRendered(ipConnection, () -> {
+                try {
+                    ipConnection.disconnect();
+                } catch (NotConnectedException exception) {
+                    LOG.debug("Brick " + brick + " was already disconnected:", exception);
+                }
+            });
+        }
+    }
+
+
+    /**
+     * Records the frames of the LED strips on a brick that can't be reached, they are out of sync until the reconciler
+     * draws them.
+     *
+     * @param  failure  Why the brick can't be reached, or null if it is backed off from, which is no failure
+     */
+    private void recordOnBrick(List<LEDStrip> ledStrips, Consumer<LEDStrip> record,
+        LEDStripConnectionException failure, Map<String, RuntimeException> failures) {
+
+        for (LEDStrip ledStrip : ledStrips) {
+            try {
+                record.accept(ledStrip);
+
+                if (failure != null) {
+                    failures.put(ledStrip.getName(), failure);
+                }
+            } catch (RuntimeException exception) {
+                LOG.error("Error recording the frame of LED strip " + ledStrip.getName() + ":", exception);
+                failures.put(ledStrip.getName(), exception);
+            }
+        }
+    }
+
+
+    private void await(List<Callable<Void>> tasks) {
+
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new LEDStripConnectionException("Interrupted while drawing LED strips:", exception);
+        } catch (ExecutionException exception) {
+            throw new LEDStripConnectionException("Error drawing LED strips:", exception.getCause());
+        }
+    }
+}
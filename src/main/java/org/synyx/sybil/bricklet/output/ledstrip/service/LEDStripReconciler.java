@@ -0,0 +1,121 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.core.env.Environment;
+
+import org.springframework.stereotype.Service;
+
+import org.synyx.sybil.LoadFailedException;
+import org.synyx.sybil.brick.service.BrickHealthService;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+
+/**
+ * LEDStripReconciler. Periodically sends the frame buffers of the LED strips that are out of sync, because their
+ * brick could not be reached, as soon as the brick is no longer backed off from. Once a brick restarted or was
+ * connected again after it was down, the frame buffers of all its LED strips are sent right away.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class LEDStripReconciler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LEDStripReconciler.class);
+    private static final long DEFAULT_PERIOD = 1000;
+
+    private final LEDStripService ledStripService;
+    private final BrickHealthService brickHealthService;
+    private final long period;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @Autowired
+    public LEDStripReconciler(LEDStripService ledStripService, BrickHealthService brickHealthService,
+        Environment environment) {
+
+        this(ledStripService, brickHealthService,
+            environment.getProperty("ledstrip.reconcile.ms", Long.class, DEFAULT_PERIOD));
+    }
+
+
+    /**
+     * Instantiates a new LED strip reconciler.
+     *
+     * @param  ledStripService  The LED strip service
+     * @param  brickHealthService  The brick health service, notifying of bricks that were reset
+     * @param  period  The time between two attempts in milliseconds, 0 to never reconcile
+     */
+    public LEDStripReconciler(LEDStripService ledStripService, BrickHealthService brickHealthService, long period) {
+
+        this.ledStripService = ledStripService;
+        this.brickHealthService = brickHealthService;
+        this.period = Math.max(0, period);
+    }
+
+    @PostConstruct
+    public void startReconciling() {
+
+        brickHealthService.addResetListener(this::brickReset);
+
+        if (period > 0) {
+            executor.scheduleWithFixedDelay(this::reconcile, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+
+        executor.shutdownNow();
+    }
+
+
+    /**
+     * Marks the LED strips of a brick that was reset out of sync and reconciles them, on the reconciler's thread.
+     *
+     * @param  brick  The name of the brick
+     */
+    void brickReset(String brick) {
+
+        executor.execute(() -> {
+            try {
+                ledStripService.invalidate(brick);
+            } catch (LoadFailedException exception) {
+                LOG.error("Error loading LED strips of brick " + brick + ":", exception);
+
+                return;
+            }
+
+            reconcile();
+        });
+    }
+
+
+    /**
+     * Tries to send the frame buffer of every LED strip that is out of sync once.
+     */
+    void reconcile() {
+
+        for (String name : ledStripService.getOutOfSync()) {
+            try {
+                if (ledStripService.reconcile(name)) {
+                    LOG.info("LED strip " + name + " is in sync again");
+                }
+            } catch (LEDStripConnectionException exception) {
+                LOG.debug("LED strip " + name + " is still out of sync:", exception);
+            } catch (LEDStripNotFoundException | LoadFailedException exception) {
+                LOG.error("Error reconciling LED strip " + name + ":", exception);
+            }
+        }
+    }
+}
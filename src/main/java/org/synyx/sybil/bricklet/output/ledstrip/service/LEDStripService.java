@@ -1,9 +1,12 @@
 package org.synyx.sybil.bricklet.output.ledstrip.service;
 
-import com.tinkerforge.BrickletLEDStrip;
+import com.tinkerforge.IPConnection;
 import com.tinkerforge.NotConnectedException;
 import com.tinkerforge.TimeoutException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import org.springframework.beans.factory.annotation.Autowired;
 
 import org.springframework.stereotype.Service;
@@ -16,57 +19,110 @@ import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
 import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStripRepository;
 import org.synyx.sybil.jenkins.Status;
 import org.synyx.sybil.jenkins.StatusInformation;
+import org.synyx.sybil.metrics.Counter;
+import org.synyx.sybil.metrics.Ingest;
+import org.synyx.sybil.metrics.MetricsService;
+import org.synyx.sybil.metrics.Timer;
+import org.synyx.sybil.profiling.ChunkEvent;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 
 
 /**
  * LEDStripService.
  *
+ * <p>Once a LED strip has layers, e.g. the status of its Jenkins jobs, everything drawn onto it directly becomes their
+ * background, and the layers are composited over it.</p>
+ *
+ * <p>The frame buffer is the frame a LED strip is supposed to display. It is updated before anything is sent, so a
+ * failed write leaves the LED strip out of sync instead of losing the frame. While its brick is backed off from, a
+ * write only updates the frame buffer, and {@link #reconcile(String)} sends the latest frame once the brick can be
+ * reached again.</p>
+ *
  * @author  Tobias Theuer - theuer@synyx.de
  */
 
 @Service
 public class LEDStripService {
 
+    public static final String STATUS_LAYER = "status";
+
+    private static final Logger LOG = LoggerFactory.getLogger(LEDStripService.class);
     private static final int SIXTEEN = 16;
-    private static final short MAX_PRIMARY_COLOR = (short) 255; // NOSONAR Tinkerforge library uses shorts
     private static final double DEFAULT_BRIGHTNESS = 1.0;
 
     private final BrickletLEDStripWrapperService brickletLEDStripWrapperService;
     private final IlluminanceService illuminanceService;
     private final LEDStripRepository ledStripRepository;
+    private final FrameBufferService frameBufferService;
+    private final TransitionService transitionService;
+    private final BrightnessQuantizer brightnessQuantizer;
+    private final BrickBackoff brickBackoff;
+    private final PhotonLatencyTracker photonLatencyTracker;
+    private final ChunkRetry chunkRetry;
+    private final Timer configLookups;
+    private final Timer renders;
+    private final Timer chunkWrites;
+    private final Counter timeouts;
+    private final Counter connectionErrors;
+    private final Counter chunkFailures;
+    private final Counter chunkRetries;
+    private final Set<String> outOfSync = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, BitSet> unwritten = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Object> locks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Compositor> compositors = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RenderProfile> profiles = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, StatusTransitionSink> transitionSinks = new ConcurrentHashMap<>();
 
     @Autowired
     public LEDStripService(BrickletLEDStripWrapperService provider, IlluminanceService illuminanceService,
-        LEDStripRepository ledStripRepository) {
+        LEDStripRepository ledStripRepository, FrameBufferService frameBufferService,
+        TransitionService transitionService, BrightnessQuantizer brightnessQuantizer, BrickBackoff brickBackoff,
+        MetricsService metricsService, PhotonLatencyTracker photonLatencyTracker, ChunkRetry chunkRetry) {
 
         this.brickletLEDStripWrapperService = provider;
         this.illuminanceService = illuminanceService;
         this.ledStripRepository = ledStripRepository;
+        this.frameBufferService = frameBufferService;
+        this.transitionService = transitionService;
+        this.brightnessQuantizer = brightnessQuantizer;
+        this.brickBackoff = brickBackoff;
+        this.photonLatencyTracker = photonLatencyTracker;
+        this.chunkRetry = chunkRetry;
+        this.configLookups = metricsService.getConfigLookups();
+        this.renders = metricsService.timer("sybil_ledstrip_render_seconds",
+                "Time to render a frame and send it to a LED strip", "ledstrip");
+        this.chunkWrites = metricsService.timer("sybil_ledstrip_chunk_seconds",
+                "Time to send sixteen pixels to a LED strip", "ledstrip", "brick");
+        this.timeouts = metricsService.getTimeouts();
+        this.connectionErrors = metricsService.getConnectionErrors();
+        this.chunkFailures = metricsService.counter("sybil_ledstrip_chunk_failures_total",
+                "Chunk writes that failed, by the first chunk written", "ledstrip", "chunk");
+        this.chunkRetries = metricsService.counter("sybil_ledstrip_chunk_retries_total",
+                "Chunk writes that were retried, by how the last retry ended", "ledstrip", "outcome");
     }
 
     public List<Color> getPixels(String name) {
 
         LEDStrip ledStrip = ledStripRepository.get(name);
-        List<Color> result = new ArrayList<>();
 
-        BrickletLEDStripWrapper brickletLEDStrip = brickletLEDStripWrapperService.getBrickletLEDStrip(ledStrip);
+        return readPixels(ledStrip);
+    }
 
-        for (int pos = 0; pos < ledStrip.getLength(); pos += SIXTEEN) {
-            BrickletLEDStrip.RGBValues values = getPixelValues(brickletLEDStrip, pos); // NOSONAR Tinkerforge library uses shorts
 
-            for (int i = 0; i < Math.min(ledStrip.getLength() - pos, SIXTEEN); i++) {
-                result.add(Color.colorFromLEDStrip(values, i));
-            }
-        }
+    public FrameBuffer getFrameBuffer(String name) {
 
-        brickletLEDStrip.disconnect();
+        LEDStrip ledStrip = getLEDStrip(name);
 
-        return result;
+        return frameBufferService.get(ledStrip.getName());
     }
 
 
@@ -80,28 +136,621 @@ public class LEDStripService {
     }
 
 
+    /**
+     * Displays a status on a LED strip, as its status layer with the status' priority. Unless switched off in the
+     * configuration, the layer crossfades from its current frame to the status' color, and pulses while the status is
+     * critical.
+     *
+     * @param  name  The name of the LED strip
+     * @param  statusInformation  The status to display
+     */
     public void handleStatus(String name, StatusInformation statusInformation) {
 
         LEDStrip ledStrip = getLEDStrip(name);
 
-        Sprite1D sprite1D = new Sprite1D(ledStrip.getLength(), statusInformation.getSource());
-        sprite1D.setFill(getColorFromStatus(ledStrip, statusInformation));
+        Sprite1D sprite1D = getProfile(ledStrip).getStatusFrame(statusInformation.getStatus());
+
+        boolean pulse = statusInformation.getStatus() == Status.CRITICAL;
+        int priority = statusInformation.getPriority();
+
+        synchronized (getLock(ledStrip)) {
+            Compositor compositor = getCompositor(ledStrip);
+            Layer current = compositor.get(STATUS_LAYER);
+
+            boolean immediate = !transitionService.isAnimated(pulse)
+                || (!pulse && current != null && current.hasPixels(sprite1D));
+
+            // a running transition to the same status keeps running, unless it draws with another priority
+            if (immediate || (current != null && current.getPriority() != priority)) {
+                transitionService.cancel(ledStrip.getName());
+            }
+
+            if (immediate) {
+                compositor.put(new Layer(STATUS_LAYER, priority, 0, sprite1D, Layer.OPAQUE, 0));
+                drawComposite(ledStrip, compositor);
+
+                return;
+            }
+
+            Sprite1D from;
+
+            if (current != null) {
+                from = current.getSprite();
+            } else {
+                FrameBuffer frameBuffer = frameBufferService.get(ledStrip.getName());
+                from = frameBuffer == null ? new Sprite1D(ledStrip.getLength()) : frameBuffer.getSprite();
+            }
+
+            StatusTransitionSink sink = new StatusTransitionSink(ledStrip, priority, sprite1D);
+
+            transitionService.start(ledStrip.getName(), from, sprite1D, pulse, sink);
+
+            // closed right away if the running transition already leads there
+            if (!sink.closed) {
+                transitionSinks.put(ledStrip.getName(), sink);
+
+                // its frames aren't recorded, the LED strip is supposed to display where the transition leads
+                frameBufferService.update(ledStrip.getName(), compositor.getFrame(ledStrip.getName(), sink.target));
+            }
+        }
+    }
+
+
+    /**
+     * Adds a layer to a LED strip, replacing the one with the same name, and draws the part of the LED strip it
+     * covers.
+     *
+     * @param  name  The name of the LED strip
+     * @param  layer  The layer
+     *
+     * @return  The frame now displayed on the LED strip
+     */
+    public FrameBuffer putLayer(String name, Layer layer) {
+
+        LEDStrip ledStrip = getLEDStrip(name);
+
+        synchronized (getLock(ledStrip)) {
+            if (STATUS_LAYER.equals(layer.getName())) {
+                transitionService.cancel(ledStrip.getName());
+            }
 
-        drawSprite(ledStrip, sprite1D);
+            Compositor compositor = getCompositor(ledStrip);
+            compositor.put(layer);
+
+            return drawComposite(ledStrip, compositor);
+        }
     }
 
 
-    public void setColors(String name, List<Color> pixels) {
+    /**
+     * Removes a layer from a LED strip and draws the part of the LED strip it covered.
+     *
+     * @param  name  The name of the LED strip
+     * @param  layerName  The name of the layer
+     *
+     * @return  true if there was such a layer
+     */
+    public boolean removeLayer(String name, String layerName) {
 
         LEDStrip ledStrip = getLEDStrip(name);
 
-        drawSprite(ledStrip, new Sprite1D(pixels));
+        synchronized (getLock(ledStrip)) {
+            Compositor compositor = compositors.get(ledStrip.getName());
+
+            if (STATUS_LAYER.equals(layerName)) {
+                transitionService.cancel(ledStrip.getName());
+            }
+
+            if (compositor == null || !compositor.remove(layerName)) {
+                return false;
+            }
+
+            drawComposite(ledStrip, compositor);
+
+            return true;
+        }
+    }
+
+
+    /**
+     * Removes the expired layers from a LED strip and draws the parts of the LED strip they covered.
+     *
+     * @param  name  The name of the LED strip
+     */
+    public void expireLayers(String name) {
+
+        LEDStrip ledStrip = getLEDStrip(name);
+
+        synchronized (getLock(ledStrip)) {
+            Compositor compositor = compositors.get(ledStrip.getName());
+
+            if (compositor != null && compositor.expire(System.currentTimeMillis())) {
+                drawComposite(ledStrip, compositor);
+            }
+        }
+    }
+
+
+    /**
+     * Gets the layers of a LED strip.
+     *
+     * @param  name  The name of the LED strip
+     *
+     * @return  The layers that have not expired yet, lowest priority first
+     */
+    public List<Layer> getLayers(String name) {
+
+        LEDStrip ledStrip = getLEDStrip(name);
+
+        synchronized (getLock(ledStrip)) {
+            Compositor compositor = compositors.get(ledStrip.getName());
+
+            if (compositor == null) {
+                return Collections.emptyList();
+            }
+
+            long now = System.currentTimeMillis();
+
+            return compositor.getLayers().stream().filter(layer -> !layer.isExpired(now)).collect(
+                    Collectors.toList());
+        }
+    }
+
+
+    /**
+     * Draws pixels onto a LED strip.
+     *
+     * @param  name  The name of the LED strip
+     * @param  pixels  The pixels to display
+     *
+     * @return  The frame now displayed on the LED strip
+     */
+    public FrameBuffer setColors(String name, List<Color> pixels) {
+
+        LEDStrip ledStrip = getLEDStrip(name);
+
+        return drawSprite(ledStrip, new Sprite1D(pixels));
+    }
+
+
+    /**
+     * Draws pixels onto a LED strip, but only if its frame buffer is still at one of the expected generations.
+     *
+     * @param  name  The name of the LED strip
+     * @param  pixels  The pixels to display
+     * @param  expectedGenerations  The generations the writer accepts, 0 if nothing was rendered since startup
+     *
+     * @return  The frame now displayed on the LED strip
+     *
+     * @throws  FrameBufferModifiedException  if another frame was rendered in the meantime, nothing is drawn then.
+     */
+    public FrameBuffer setColors(String name, List<Color> pixels, long[] expectedGenerations) {
+
+        LEDStrip ledStrip = getLEDStrip(name);
+
+        synchronized (getLock(ledStrip)) {
+            checkGeneration(ledStrip, expectedGenerations);
+
+            return drawChunks(ledStrip, new Sprite1D(pixels), allChunks(ledStrip), null);
+        }
+    }
+
+
+    /**
+     * Draws pixels onto a LED strip whose configuration has already been loaded, over an existing connection to its
+     * brick. The connection is left open.
+     *
+     * @param  ledStrip  The LED strip's configuration
+     * @param  pixels  The pixels to display
+     * @param  ipConnection  The connection to the LED strip's brick
+     *
+     * @return  The frame now displayed on the LED strip
+     */
+    public FrameBuffer setColors(LEDStrip ledStrip, List<Color> pixels, IPConnection ipConnection) {
+
+        return drawChunks(ledStrip, new Sprite1D(pixels), allChunks(ledStrip), ipConnection);
+    }
+
+
+    /**
+     * Gets the padded size of a LED strip's pixel buffer, which is always a multiple of sixteen, since the pixels are
+     * transferred in chunks of sixteen.
+     *
+     * @param  ledStrip  The LED strip's configuration
+     *
+     * @return  The length of the LED strip, rounded up to the next multiple of sixteen
+     */
+    public int getPixelBufferSize(LEDStrip ledStrip) {
+
+        return getProfile(ledStrip).getBufferSize();
+    }
+
+
+    /**
+     * Gets the render profile of a LED strip, compiled once per loaded configuration.
+     *
+     * @param  ledStrip  The LED strip's configuration
+     *
+     * @return  The render profile
+     */
+    public RenderProfile getProfile(LEDStrip ledStrip) {
+
+        RenderProfile profile = profiles.get(ledStrip.getName());
+
+        // the repository hands out new instances once the configuration was reloaded
+        if (profile == null || profile.getLEDStrip() != ledStrip) {
+            profile = new RenderProfile(ledStrip);
+            profiles.put(ledStrip.getName(), profile);
+        }
+
+        return profile;
+    }
+
+
+    /**
+     * Gets the brightness a LED strip should currently be displayed with.
+     *
+     * @param  ledStrip  The LED strip's configuration
+     *
+     * @return  The brightness reported by the LED strip's sensor, or 1.0 if it has none
+     */
+    public double getBrightness(LEDStrip ledStrip) {
+
+        RenderProfile profile = getProfile(ledStrip);
+
+        if (!profile.hasSensor()) {
+            return DEFAULT_BRIGHTNESS;
+        }
+
+        double brightness;
+
+        try {
+            brightness = brightnessQuantizer.quantize(profile.getSensor(),
+                    illuminanceService.getBrightness(profile.getSensor()));
+        } catch (IlluminanceConnectionException | IlluminanceNotFoundException exception) {
+            throw new LEDStripConnectionException("Error getting illuminance sensor value:", exception);
+        }
+
+        return brightness;
+    }
+
+
+    /**
+     * Draws a frame that has already been encoded onto a LED strip whose configuration has already been loaded, over
+     * an existing connection to its brick. The connection is left open.
+     *
+     * @param  ledStrip  The LED strip's configuration
+     * @param  sprite  The frame, before brightness was applied, recorded as the LED strip's frame buffer
+     * @param  transferBuffer  The frame, encoded for the LED strip's padded length and current brightness
+     * @param  ipConnection  The connection to the LED strip's brick
+     *
+     * @return  The frame now displayed on the LED strip
+     */
+    public FrameBuffer drawEncoded(LEDStrip ledStrip, Sprite1D sprite, TransferBuffer transferBuffer,
+        IPConnection ipConnection) {
+
+        return drawChunks(ledStrip, sprite, transferBuffer, allChunks(ledStrip), ipConnection);
+    }
+
+
+    /**
+     * Records pixels as the frame buffer of a LED strip whose brick can't be reached, without drawing them. The LED
+     * strip is out of sync until the reconciler draws its frame buffer.
+     *
+     * @param  ledStrip  The LED strip's configuration
+     * @param  pixels  The pixels to display
+     *
+     * @return  The frame the LED strip is to display
+     */
+    public FrameBuffer recordColors(LEDStrip ledStrip, List<Color> pixels) {
+
+        Sprite1D sprite = new Sprite1D(pixels);
+
+        return recordEncoded(ledStrip, sprite,
+                TransferBuffer.encode(sprite, getPixelBufferSize(ledStrip), getBrightness(ledStrip)));
+    }
+
+
+    /**
+     * Records a frame that has already been encoded as the frame buffer of a LED strip whose brick can't be reached,
+     * without drawing it. The LED strip is out of sync until the reconciler draws its frame buffer.
+     *
+     * @param  ledStrip  The LED strip's configuration
+     * @param  sprite  The frame, before brightness was applied
+     * @param  transferBuffer  The frame, encoded for the LED strip's padded length and current brightness
+     *
+     * @return  The frame the LED strip is to display
+     */
+    public FrameBuffer recordEncoded(LEDStrip ledStrip, Sprite1D sprite, TransferBuffer transferBuffer) {
+
+        return drawChunks(ledStrip, sprite, transferBuffer, allChunks(ledStrip), (BrickletLEDStripWrapper) null);
+    }
+
+
+    /**
+     * Draws a frame that has already been encoded onto a LED strip whose configuration has already been loaded.
+     *
+     * @param  ledStrip  The LED strip's configuration
+     * @param  sprite  The frame, before brightness was applied, recorded as the LED strip's frame buffer
+     * @param  transferBuffer  The frame, encoded for the LED strip's padded length and current brightness
+     *
+     * @return  The frame now displayed on the LED strip
+     */
+    public FrameBuffer drawEncoded(LEDStrip ledStrip, Sprite1D sprite, TransferBuffer transferBuffer) {
+
+        return drawChunks(ledStrip, sprite, transferBuffer, allChunks(ledStrip), (IPConnection) null);
+    }
+
+
+    /**
+     * Draws a frame that has already been encoded onto a LED strip that has already been set up, e.g. one that has
+     * listeners attached. The LED strip is left connected.
+     *
+     * @param  ledStrip  The LED strip's configuration
+     * @param  sprite  The frame, before brightness was applied, recorded as the LED strip's frame buffer
+     * @param  transferBuffer  The frame, encoded for the LED strip's padded length and current brightness
+     * @param  brickletLEDStrip  The LED strip
+     *
+     * @return  The frame now displayed on the LED strip
+     */
+    public FrameBuffer drawFrame(LEDStrip ledStrip, Sprite1D sprite, TransferBuffer transferBuffer,
+        BrickletLEDStripWrapper brickletLEDStrip) {
+
+        return drawChunks(ledStrip, sprite, transferBuffer, allChunks(ledStrip), brickletLEDStrip);
+    }
+
+
+    /**
+     * Sends the frame currently displayed on a LED strip again with another brightness, e.g. once the ambient light
+     * changed. The frame buffer keeps the frame without brightness applied, so nothing has to be drawn again. A
+     * status transition running on the LED strip just draws its next frame with the new brightness.
+     *
+     * @param  ledStrip  The LED strip's configuration
+     * @param  brightness  The new brightness
+     *
+     * @return  true if the frame was sent, false if nothing was drawn onto the LED strip since startup
+     */
+    public boolean redraw(LEDStrip ledStrip, double brightness) {
+
+        synchronized (getLock(ledStrip)) {
+            FrameBuffer frameBuffer = frameBufferService.get(ledStrip.getName());
+
+            StatusTransitionSink sink = transitionSinks.get(ledStrip.getName());
+
+            if (sink != null && transitionService.isRunning(ledStrip.getName())) {
+                sink.brightness = brightness;
+
+                return true;
+            }
+
+            if (frameBuffer == null) {
+                return false;
+            }
+
+            TransferBuffer transferBuffer = encode(ledStrip, frameBuffer, brightness);
+
+            BrickletLEDStripWrapper brickletLEDStrip = connect(ledStrip);
+
+            if (brickletLEDStrip == null) {
+                outOfSync.add(ledStrip.getName());
+                addUnwritten(ledStrip, allChunks(ledStrip), 0);
+
+                return false;
+            }
+
+            try {
+                send(ledStrip, brickletLEDStrip, transferBuffer, allChunks(ledStrip));
+            } finally {
+                brickletLEDStrip.disconnect();
+            }
+
+            return true;
+        }
+    }
+
+
+    /**
+     * Gets the LED strips whose frame buffer was not (completely) sent, because their brick could not be reached.
+     *
+     * @return  The names of the LED strips
+     */
+    public List<String> getOutOfSync() {
+
+        return new ArrayList<>(outOfSync);
+    }
+
+
+    /**
+     * Marks the LED strips of a brick out of sync, because it restarted or was down and they may no longer display
+     * their frame buffers, and lets the next attempt to reach the brick happen right away. Sending the frame buffers
+     * again also sets up the LED strip bricklets again, since every connection sets their frame duration and chip type.
+     *
+     * @param  brick  The name of the brick
+     */
+    public void invalidate(String brick) {
+
+        for (LEDStrip ledStrip : ledStripRepository.getAll()) {
+            if (brick.equals(ledStrip.getBrick()) && frameBufferService.get(ledStrip.getName()) != null) {
+                synchronized (getLock(ledStrip)) {
+                    outOfSync.add(ledStrip.getName());
+                    addUnwritten(ledStrip, allChunks(ledStrip), 0);
+                }
+            }
+        }
+
+        brickBackoff.succeeded(brick);
+    }
+
+
+    /**
+     * Sends the frame buffer of a LED strip that is out of sync, unless its brick is still backed off from. Only the
+     * latest frame is sent, however many were drawn while the brick could not be reached.
+     *
+     * @param  name  The name of the LED strip
+     *
+     * @return  true if the frame was sent
+     */
+    public boolean reconcile(String name) {
+
+        LEDStrip ledStrip = getLEDStrip(name);
+
+        synchronized (getLock(ledStrip)) {
+            if (!outOfSync.contains(name) || brickBackoff.isBackingOff(ledStrip.getBrick())) {
+                return false;
+            }
+
+            if (frameBufferService.get(name) == null) {
+                outOfSync.remove(name);
+
+                return false;
+            }
+
+            return redraw(ledStrip, getBrightness(ledStrip));
+        }
+    }
+
+
+    /**
+     * Draws sprites onto parts of a LED strip, leaving the rest of the current frame as it is. Only the 16 pixel
+     * chunks touched by the sprites are transmitted.
+     *
+     * @param  name  The name of the LED strip
+     * @param  sprites  The sprites and their positions on the LED strip, parts beyond its end are cut off
+     *
+     * @return  The frame now displayed on the LED strip
+     */
+    public FrameBuffer updatePixels(String name, List<PositionedSprite> sprites) {
+
+        return updatePixels(getLEDStrip(name), sprites, null);
+    }
+
+
+    /**
+     * Draws sprites onto parts of a LED strip, but only if its frame buffer is still at one of the expected
+     * generations.
+     *
+     * @param  name  The name of the LED strip
+     * @param  sprites  The sprites and their positions on the LED strip, parts beyond its end are cut off
+     * @param  expectedGenerations  The generations the writer accepts, 0 if nothing was rendered since startup
+     *
+     * @return  The frame now displayed on the LED strip
+     *
+     * @throws  FrameBufferModifiedException  if another frame was rendered in the meantime, nothing is drawn then.
+     */
+    public FrameBuffer updatePixels(String name, List<PositionedSprite> sprites, long[] expectedGenerations) {
+
+        return updatePixels(getLEDStrip(name), sprites, expectedGenerations);
+    }
+
+
+    private FrameBuffer updatePixels(LEDStrip ledStrip, List<PositionedSprite> sprites, long[] expectedGenerations) {
+
+        synchronized (getLock(ledStrip)) {
+            if (expectedGenerations != null) {
+                checkGeneration(ledStrip, expectedGenerations);
+            }
+
+            FrameBuffer current = frameBufferService.get(ledStrip.getName());
+            Compositor compositor = compositors.get(ledStrip.getName());
+
+            Sprite1D frame;
+
+            if (compositor != null) {
+                frame = compositor.getBackground();
+            } else if (current == null) {
+                frame = new Sprite1D(readPixels(ledStrip));
+            } else {
+                frame = current.getSprite();
+            }
+
+            BitSet dirtyChunks = new BitSet();
+
+            for (PositionedSprite positionedSprite : sprites) {
+                int start = Math.max(0, positionedSprite.getOffset());
+                int end = Math.min(ledStrip.getLength(), positionedSprite.getEnd());
+
+                if (start < end) {
+                    frame.setSprite(positionedSprite.getOffset(), positionedSprite.getSprite());
+                    dirtyChunks.set(start / SIXTEEN, (end - 1) / SIXTEEN + 1);
+                }
+            }
+
+            if (dirtyChunks.isEmpty() && current != null) {
+                return current;
+            }
+
+            return drawChunks(ledStrip, frame, dirtyChunks, null);
+        }
+    }
+
+
+    private List<Color> readPixels(LEDStrip ledStrip) {
+
+        List<Color> result = new ArrayList<>();
+
+        BrickletLEDStripWrapper brickletLEDStrip = brickletLEDStripWrapperService.getBrickletLEDStrip(ledStrip);
+
+        for (int pos = 0; pos < ledStrip.getLength(); pos += SIXTEEN) {
+            List<Color> pixels = getPixels(ledStrip, brickletLEDStrip, pos);
+
+            result.addAll(pixels.subList(0, Math.min(ledStrip.getLength() - pos, SIXTEEN)));
+        }
+
+        brickletLEDStrip.disconnect();
+
+        return result;
+    }
+
+
+    private void checkGeneration(LEDStrip ledStrip, long[] expectedGenerations) {
+
+        FrameBuffer current = frameBufferService.get(ledStrip.getName());
+        long generation = current == null ? 0 : current.getGeneration();
+
+        for (long expectedGeneration : expectedGenerations) {
+            if (generation == expectedGeneration) {
+                return;
+            }
+        }
+
+        throw new FrameBufferModifiedException("LED strip " + ledStrip.getName() + " is at generation " + generation
+            + ", not " + Arrays.toString(expectedGenerations));
+    }
+
+
+    /**
+     * Gets the compositor of a LED strip, creating one over the frame currently displayed if it has none. Must be
+     * called under the LED strip's lock.
+     */
+    private Compositor getCompositor(LEDStrip ledStrip) {
+
+        return compositors.computeIfAbsent(ledStrip.getName(), key -> {
+                FrameBuffer frameBuffer = frameBufferService.get(key);
+
+                if (frameBuffer != null) {
+                    return new Compositor(ledStrip.getLength(), frameBuffer.getSprite());
+                }
+
+                // nothing known about the LED strip, so black is drawn wherever the layers leave it uncovered
+                Compositor compositor = new Compositor(ledStrip.getLength(), new Sprite1D(ledStrip.getLength()));
+                compositor.setBackground(new Sprite1D(ledStrip.getLength()), allChunks(ledStrip));
+
+                return compositor;
+            });
+    }
+
+
+    private Object getLock(LEDStrip ledStrip) {
+
+        return locks.computeIfAbsent(ledStrip.getName(), key -> new Object());
     }
 
 
     private LEDStrip getLEDStrip(String name) {
 
+        long start = System.nanoTime();
         LEDStrip ledStrip = ledStripRepository.get(name);
+        configLookups.record("ledstrip", System.nanoTime() - start);
 
         if (ledStrip == null) {
             throw new LEDStripNotFoundException("LED strip " + name + " not found");
@@ -111,12 +760,19 @@ public class LEDStripService {
     }
 
 
-    private BrickletLEDStrip.RGBValues getPixelValues(BrickletLEDStripWrapper brickletLEDStrip, int pos) {
+    private List<Color> getPixels(LEDStrip ledStrip, BrickletLEDStripWrapper brickletLEDStrip, int pos) {
+
+        ChunkEvent event = new ChunkEvent(ledStrip.getName(), ledStrip.getBrick(), ChunkEvent.READ, pos);
+        event.begin();
 
         try {
-            return brickletLEDStrip.getRGBValues(pos, (short) SIXTEEN); // NOSONAR Tinkerforge library uses shorts
+            return brickletLEDStrip.getPixels(pos, SIXTEEN);
         } catch (TimeoutException | NotConnectedException exception) {
+            event.failed(exception);
+
             throw new LEDStripConnectionException("Error getting pixel values:", exception);
+        } finally {
+            event.commit();
         }
     }
 
@@ -126,112 +782,606 @@ public class LEDStripService {
         Sprite1D sprite1D = new Sprite1D(ledStrip.getLength(), "OFF");
         sprite1D.setFill(Color.BLACK);
 
-        drawSprite(ledStrip, sprite1D);
+        synchronized (getLock(ledStrip)) {
+            transitionService.cancel(ledStrip.getName());
+            compositors.remove(ledStrip.getName());
+
+            drawSprite(ledStrip, sprite1D);
+        }
+    }
+
+
+    private FrameBuffer drawSprite(LEDStrip ledStrip, Sprite1D sprite) {
+
+        return drawChunks(ledStrip, sprite, allChunks(ledStrip), null);
+    }
+
+
+    private BitSet allChunks(LEDStrip ledStrip) {
+
+        return getProfile(ledStrip).getAllChunks();
+    }
+
+
+    /**
+     * Writes chunks of a sprite to a LED strip and records the sprite as the LED strip's new frame buffer.
+     *
+     * @param  ipConnection  An open connection to the LED strip's brick, or null to open (and close) a new one.
+     */
+    private FrameBuffer drawChunks(LEDStrip ledStrip, Sprite1D sprite, BitSet chunks, IPConnection ipConnection) {
+
+        double brightness = getBrightness(ledStrip);
+
+        long start = System.nanoTime();
+        TransferBuffer transferBuffer = TransferBuffer.encode(sprite, getPixelBufferSize(ledStrip), brightness);
+        encoded(start);
+
+        return drawChunks(ledStrip, sprite, transferBuffer, chunks, ipConnection);
     }
 
 
-    private Color getColorFromStatus(LEDStrip ledStrip, StatusInformation statusInformation) {
+    private FrameBuffer drawChunks(LEDStrip ledStrip, Sprite1D sprite, TransferBuffer transferBuffer, BitSet chunks,
+        IPConnection ipConnection) {
+
+        long start = System.nanoTime();
+
+        try {
+            return connectAndDrawChunks(ledStrip, sprite, transferBuffer, chunks, ipConnection);
+        } finally {
+            renders.record(ledStrip.getName(), System.nanoTime() - start);
+        }
+    }
+
+
+    private FrameBuffer connectAndDrawChunks(LEDStrip ledStrip, Sprite1D sprite, TransferBuffer transferBuffer,
+        BitSet chunks, IPConnection ipConnection) {
+
+        synchronized (getLock(ledStrip)) {
+            BrickletLEDStripWrapper brickletLEDStrip;
+
+            try {
+                if (ipConnection == null) {
+                    brickletLEDStrip = connect(ledStrip);
+                } else {
+                    brickletLEDStrip = brickletLEDStripWrapperService.getBrickletLEDStrip(ledStrip, ipConnection);
+                }
+            } catch (LEDStripConnectionException exception) {
+                drawChunks(ledStrip, sprite, transferBuffer, chunks, (BrickletLEDStripWrapper) null);
+
+                throw exception;
+            }
+
+            FrameBuffer frameBuffer = drawChunks(ledStrip, sprite, transferBuffer, chunks, brickletLEDStrip);
+
+            if (ipConnection == null && brickletLEDStrip != null) {
+                disconnectWhenRendered(brickletLEDStrip);
+            }
+
+            return frameBuffer;
+        }
+    }
+
 
-        if (ledStrip.hasCustomColors()) {
-            Map<Status, Color> customColors = ledStrip.getCustomColors();
+    /**
+     * Records a sprite as the LED strip's new frame buffer and writes chunks of it to the LED strip.
+     *
+     * @param  brickletLEDStrip  The LED strip, or null if its brick is backed off from.
+     */
+    private FrameBuffer drawChunks(LEDStrip ledStrip, Sprite1D sprite, TransferBuffer transferBuffer, BitSet chunks,
+        BrickletLEDStripWrapper brickletLEDStrip) {
 
-            return customColors.get(statusInformation.getStatus());
+        synchronized (getLock(ledStrip)) {
+            Compositor compositor = compositors.get(ledStrip.getName());
+
+            if (compositor == null) {
+                FrameBuffer frameBuffer = frameBufferService.update(ledStrip.getName(),
+                        new Sprite1D(sprite, ledStrip.getLength()));
+
+                send(ledStrip, brickletLEDStrip, transferBuffer, chunks);
+
+                return frameBuffer;
+            }
+
+            // drawn under the layers, so it has to be composited and encoded again
+            compositor.setBackground(sprite, chunks);
+
+            return drawComposite(ledStrip, compositor, transferBuffer.getBrightness(), brickletLEDStrip, true);
+        }
+    }
+
+
+    private FrameBuffer drawComposite(LEDStrip ledStrip, Compositor compositor) {
+
+        long start = System.nanoTime();
+
+        try {
+            return connectAndDrawComposite(ledStrip, compositor);
+        } finally {
+            renders.record(ledStrip.getName(), System.nanoTime() - start);
+        }
+    }
+
+
+    private FrameBuffer connectAndDrawComposite(LEDStrip ledStrip, Compositor compositor) {
+
+        double brightness = getBrightness(ledStrip);
+
+        BrickletLEDStripWrapper brickletLEDStrip;
+
+        try {
+            brickletLEDStrip = connect(ledStrip);
+        } catch (LEDStripConnectionException exception) {
+            drawComposite(ledStrip, compositor, brightness, null, true);
+
+            throw exception;
+        }
+
+        try {
+            return drawComposite(ledStrip, compositor, brightness, brickletLEDStrip, true);
+        } finally {
+            if (brickletLEDStrip != null) {
+                disconnectWhenRendered(brickletLEDStrip);
+            }
+        }
+    }
+
+
+    /**
+     * Re-composites the dirty chunks of a LED strip, sends just those and records the result as the LED strip's new
+     * frame buffer. A compositor left without layers is dropped, the frame buffer equals its background then. While a
+     * status transition runs, its target is recorded in place of the status' current frame.
+     *
+     * @param  brickletLEDStrip  The LED strip, or null if its brick is backed off from.
+     * @param  record  Whether to record the result, false for the frames of a status transition
+     */
+    private FrameBuffer drawComposite(LEDStrip ledStrip, Compositor compositor, double brightness,
+        BrickletLEDStripWrapper brickletLEDStrip, boolean record) {
+
+        compositor.expire(System.currentTimeMillis());
+
+        BitSet chunks = compositor.render();
+        Sprite1D frame = compositor.getFrame(ledStrip.getName());
+
+        if (!compositor.hasLayers()) {
+            compositors.remove(ledStrip.getName(), compositor);
+        }
+
+        FrameBuffer frameBuffer;
+
+        if (!record) {
+            frameBuffer = frameBufferService.get(ledStrip.getName());
         } else {
-            return Color.colorFromStatus(statusInformation.getStatus());
+            StatusTransitionSink sink = transitionSinks.get(ledStrip.getName());
+
+            frameBuffer = frameBufferService.update(ledStrip.getName(),
+                    sink == null ? frame : compositor.getFrame(ledStrip.getName(), sink.target));
+        }
+
+        if (!chunks.isEmpty()) {
+            long start = System.nanoTime();
+            TransferBuffer transferBuffer = encode(ledStrip, compositor, frame, brightness);
+            encoded(start);
+
+            send(ledStrip, brickletLEDStrip, transferBuffer, chunks);
         }
+
+        return frameBuffer;
     }
 
 
-    private void drawSprite(LEDStrip ledStrip, Sprite1D sprite) {
+    /**
+     * Encodes a composited frame. While an opaque status covers the whole LED strip, the frame is just the status' and
+     * its encoding is taken from the LED strip's render profile.
+     */
+    private TransferBuffer encode(LEDStrip ledStrip, Compositor compositor, Sprite1D frame, double brightness) {
 
-        int pixelBufferSize = getPixelBufferSize(ledStrip);
-        int spriteMaxSize = Math.min(pixelBufferSize, sprite.getLength());
+        RenderProfile profile = getProfile(ledStrip);
+        Layer top = compositor.getTop();
 
-        final int[] pixelBufferRed = new int[pixelBufferSize];
-        final int[] pixelBufferGreen = new int[pixelBufferSize];
-        final int[] pixelBufferBlue = new int[pixelBufferSize];
+        if (top != null && STATUS_LAYER.equals(top.getName()) && top.getAlpha() == Layer.OPAQUE
+                && top.getOffset() <= 0 && top.getEnd() >= ledStrip.getLength()) {
+            Status status = profile.getStatus(top);
 
-        // Copy the sprite's content into the pixelbuffer
-        System.arraycopy(sprite.getRed(), 0, pixelBufferRed, 0, spriteMaxSize);
-        System.arraycopy(sprite.getGreen(), 0, pixelBufferGreen, 0, spriteMaxSize);
-        System.arraycopy(sprite.getBlue(), 0, pixelBufferBlue, 0, spriteMaxSize);
+            if (status != null) {
+                return profile.getEncodedStatusFrame(status, brightness);
+            }
+        }
 
-        short[] transferBufferRed; // NOSONAR Tinkerforge library uses shorts
-        short[] transferBufferGreen; // NOSONAR Tinkerforge library uses shorts
-        short[] transferBufferBlue; // NOSONAR Tinkerforge library uses shorts
+        return TransferBuffer.encode(frame, profile.getBufferSize(), brightness);
+    }
 
-        double brightness = DEFAULT_BRIGHTNESS;
 
-        if (ledStrip.hasSensor()) {
-            brightness = getBrightness(ledStrip);
+    /**
+     * Connects to a LED strip, unless its brick is backed off from.
+     *
+     * @return  The LED strip, which has to be disconnected by the caller, or null if its brick is backed off from
+     *
+     * @throws  LEDStripConnectionException  if the brick can't be reached, it is backed off from then.
+     */
+    private BrickletLEDStripWrapper connect(LEDStrip ledStrip) {
+
+        if (brickBackoff.isBackingOff(ledStrip.getBrick())) {
+            return null;
         }
 
-        BrickletLEDStripWrapper brickletLEDStrip = brickletLEDStripWrapperService.getBrickletLEDStrip(ledStrip);
+        try {
+            return brickletLEDStripWrapperService.getBrickletLEDStrip(ledStrip);
+        } catch (LEDStripConnectionException exception) {
+            brickBackoff.failed(ledStrip.getBrick());
 
-        for (int positionOnLedStrip = 0; positionOnLedStrip < pixelBufferRed.length; positionOnLedStrip += SIXTEEN) {
-            transferBufferRed = applyBrightnessAndCastToShort(Arrays.copyOfRange(pixelBufferRed, positionOnLedStrip,
-                        positionOnLedStrip + SIXTEEN), brightness);
-            transferBufferGreen = applyBrightnessAndCastToShort(Arrays.copyOfRange(pixelBufferGreen, positionOnLedStrip,
-                        positionOnLedStrip + SIXTEEN), brightness);
-            transferBufferBlue = applyBrightnessAndCastToShort(Arrays.copyOfRange(pixelBufferBlue, positionOnLedStrip,
-                        positionOnLedStrip + SIXTEEN), brightness);
+            throw exception;
+        }
+    }
 
-            try {
-                brickletLEDStrip.setRGBValues(positionOnLedStrip, (short) SIXTEEN, // NOSONAR Tinkerforge uses shorts
-                    transferBufferBlue, transferBufferRed, transferBufferGreen);
-            } catch (TimeoutException | NotConnectedException exception) {
-                throw new LEDStripConnectionException("Error setting pixel values:", exception);
+
+    /**
+     * Writes chunks to a LED strip and keeps track of whether it is in sync with its frame buffer. Without a LED
+     * strip, or if the write fails, the LED strip is out of sync until all its chunks are written. Chunks an earlier
+     * frame didn't get to write are written along with the next one.
+     */
+    private void send(LEDStrip ledStrip, BrickletLEDStripWrapper brickletLEDStrip, TransferBuffer transferBuffer,
+        BitSet chunks) {
+
+        send(ledStrip, brickletLEDStrip, transferBuffer, chunks, 0);
+    }
+
+
+    /**
+     * @param  retry  The number of the retry, 0 for a new frame
+     */
+    private void send(LEDStrip ledStrip, BrickletLEDStripWrapper brickletLEDStrip, TransferBuffer transferBuffer,
+        BitSet chunks, int retry) {
+
+        if (brickletLEDStrip == null) {
+            outOfSync.add(ledStrip.getName());
+            addUnwritten(ledStrip, chunks, 0);
+            photonLatencyTracker.unsent(ledStrip);
+
+            return;
+        }
+
+        BitSet pending = unwritten.remove(ledStrip.getName());
+
+        if (pending != null) {
+            pending.or(chunks);
+            chunks = pending;
+        }
+
+        PhotonLatencyTracker.Frame frame = photonLatencyTracker.sending(ledStrip, brickletLEDStrip);
+
+        try {
+            if (!writeChunks(ledStrip, brickletLEDStrip, transferBuffer, chunks, retry)) {
+                // the chunks left are retried later, on the chunk retry's thread
+                photonLatencyTracker.failed(frame);
+                outOfSync.add(ledStrip.getName());
+
+                return;
             }
+        } catch (LEDStripConnectionException exception) {
+            photonLatencyTracker.failed(frame);
+            outOfSync.add(ledStrip.getName());
+            brickBackoff.failed(ledStrip.getBrick());
+
+            throw exception;
         }
 
-        brickletLEDStrip.disconnect();
+        photonLatencyTracker.sent(frame);
+        brickBackoff.succeeded(ledStrip.getBrick());
+
+        // every chunk not written before was written along
+        outOfSync.remove(ledStrip.getName());
     }
 
 
-    private int getPixelBufferSize(LEDStrip ledStrip) {
+    /**
+     * Disconnects from a LED strip once the frame sent to it was rendered, since it reports that over the connection.
+     */
+    private void disconnectWhenRendered(BrickletLEDStripWrapper brickletLEDStrip) {
+
+        photonLatencyTracker.disconnectWhenRendered(brickletLEDStrip.getIPConnection(), brickletLEDStrip::disconnect);
+    }
 
-        int differenceToMultipleOfSixteen = ledStrip.getLength() % SIXTEEN;
 
-        return ledStrip.getLength() + (SIXTEEN - differenceToMultipleOfSixteen);
+    private static void encoded(long start) {
+
+        Ingest ingest = Ingest.current();
+
+        if (ingest != null) {
+            ingest.addEncoding(System.nanoTime() - start);
+        }
     }
 
 
-    private double getBrightness(LEDStrip ledStrip) {
+    /**
+     * Writes the chunks of a frame, as many at once as the LED strip takes, including unchanged chunks between them.
+     * Unless the LED strip is configured to acknowledge every write, they are streamed back-to-back and only the last
+     * one waits for an acknowledgement.
+     *
+     * <p>If a write isn't acknowledged in time, nothing since the last acknowledged write is known to have arrived.
+     * Those chunks and the ones not written yet are left for the next frame, and retried after a backoff unless one
+     * is drawn before. The retry runs on the chunk retry's thread, the caller doesn't wait for it.</p>
+     *
+     * @param  retry  The number of the retry, 0 for a new frame
+     *
+     * @return  true if all chunks were written, false if the chunks left are retried later
+     *
+     * @throws  LEDStripConnectionException  if a write failed and isn't retried. The chunks left are written with the
+     *                                       next frame then.
+     */
+    private boolean writeChunks(LEDStrip ledStrip, BrickletLEDStripWrapper brickletLEDStrip,
+        TransferBuffer transferBuffer, BitSet chunks, int retry) {
+
+        int chunksPerWrite = brickletLEDStrip.getChunksPerWrite();
+        int end = chunks.length();
+        int first = chunks.nextSetBit(0);
+        int unconfirmed = first;
+
+        while (first >= 0) {
+            int count = Math.min(chunksPerWrite, end - first);
+            boolean acknowledged = ledStrip.isAcknowledged() || first + count == end;
 
-        double brightness;
+            try {
+                writeChunks(ledStrip, brickletLEDStrip, transferBuffer, first, count, acknowledged);
+            } catch (TimeoutException exception) {
+                addUnwritten(ledStrip, chunks, unconfirmed);
+
+                if (retry < chunkRetry.getRetries()) {
+                    scheduleRetry(ledStrip, retry + 1);
+
+                    return false;
+                }
+
+                if (retry > 0) {
+                    chunkRetries.increment(ledStrip.getName(), "failed");
+                }
+
+                throw new LEDStripConnectionException("Error setting pixel values:", exception);
+            } catch (NotConnectedException exception) {
+                addUnwritten(ledStrip, chunks, unconfirmed);
+
+                throw new LEDStripConnectionException("Error setting pixel values:", exception);
+            }
+
+            first = chunks.nextSetBit(first + count);
+
+            if (acknowledged) {
+                unconfirmed = first;
+            }
+        }
+
+        if (retry > 0) {
+            chunkRetries.increment(ledStrip.getName(), "written");
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Writes chunks of a frame once.
+     */
+    private void writeChunks(LEDStrip ledStrip, BrickletLEDStripWrapper brickletLEDStrip,
+        TransferBuffer transferBuffer, int first, int count, boolean acknowledged) throws TimeoutException,
+        NotConnectedException {
+
+        ChunkEvent event = new ChunkEvent(ledStrip.getName(), ledStrip.getBrick(), ChunkEvent.WRITE, first * SIXTEEN);
+        long start = System.nanoTime();
+        event.begin();
 
         try {
-            brightness = illuminanceService.getBrightness(ledStrip.getSensor());
-        } catch (IlluminanceConnectionException | IlluminanceNotFoundException exception) {
-            throw new LEDStripConnectionException("Error getting illuminance sensor value:", exception);
+            brickletLEDStrip.setChunks(transferBuffer, first, count, acknowledged);
+        } catch (TimeoutException exception) {
+            timeouts.increment(ledStrip.getBrick(), "chunk");
+            chunkFailures.increment(ledStrip.getName(), String.valueOf(first));
+            event.failed(exception);
+
+            throw exception;
+        } catch (NotConnectedException exception) {
+            connectionErrors.increment(ledStrip.getBrick());
+            chunkFailures.increment(ledStrip.getName(), String.valueOf(first));
+            event.failed(exception);
+
+            throw exception;
+        } finally {
+            event.commit();
         }
 
-        return brightness;
+        chunkWrites.record(ledStrip.getName(), ledStrip.getBrick(), System.nanoTime() - start);
     }
 
 
-    private short[] applyBrightnessAndCastToShort(int[] pixels, double brightness) { // NOSONAR Tinkerforge library uses shorts
+    private void scheduleRetry(LEDStrip ledStrip, int retry) {
 
-        short[] result = new short[pixels.length]; // NOSONAR Tinkerforge library uses shorts
+        FrameBuffer frameBuffer = frameBufferService.get(ledStrip.getName());
+        long generation = frameBuffer == null ? 0 : frameBuffer.getGeneration();
 
-        for (int index = 0; index < pixels.length; index++) {
-            if (brightness == DEFAULT_BRIGHTNESS) {
-                result[index] = (short) pixels[index]; // NOSONAR Tinkerforge library uses shorts
-            } else {
-                result[index] = setColorLimits((short) (pixels[index] * brightness)); // NOSONAR Tinkerforge library uses shorts
+        LOG.debug("Write to LED strip " + ledStrip.getName() + " timed out, retry " + retry + " of "
+            + chunkRetry.getRetries());
+
+        chunkRetry.schedule(() -> retryChunks(ledStrip, generation, retry), retry);
+    }
+
+
+    /**
+     * Writes the chunks a timed out write left, unless a newer frame was drawn meanwhile, or a status transition
+     * runs. Their next frame writes the chunks left then.
+     */
+    private void retryChunks(LEDStrip ledStrip, long generation, int retry) {
+
+        synchronized (getLock(ledStrip)) {
+            FrameBuffer frameBuffer = frameBufferService.get(ledStrip.getName());
+
+            if (frameBuffer == null || frameBuffer.getGeneration() != generation
+                    || !unwritten.containsKey(ledStrip.getName()) || transitionService.isRunning(ledStrip.getName())) {
+                chunkRetries.increment(ledStrip.getName(), "superseded");
+
+                return;
+            }
+
+            BrickletLEDStripWrapper brickletLEDStrip = null;
+
+            try {
+                TransferBuffer transferBuffer = encode(ledStrip, frameBuffer, getBrightness(ledStrip));
+
+                brickletLEDStrip = connect(ledStrip);
+
+                if (brickletLEDStrip != null) {
+                    send(ledStrip, brickletLEDStrip, transferBuffer, new BitSet(), retry);
+                }
+            } catch (LEDStripConnectionException exception) {
+                LOG.warn("Error retrying write to LED strip " + ledStrip.getName() + ":", exception);
+            } finally {
+                if (brickletLEDStrip != null) {
+                    disconnectWhenRendered(brickletLEDStrip);
+                }
             }
         }
+    }
 
-        return result;
+
+    /**
+     * Encodes the frame buffer of a LED strip, like it was composited.
+     */
+    private TransferBuffer encode(LEDStrip ledStrip, FrameBuffer frameBuffer, double brightness) {
+
+        Compositor compositor = compositors.get(ledStrip.getName());
+        Sprite1D frame = frameBuffer.getSprite();
+
+        return compositor == null ? TransferBuffer.encode(frame, getPixelBufferSize(ledStrip), brightness)
+                                  : encode(ledStrip, compositor, frame, brightness);
     }
 
 
-    private short setColorLimits(short primaryColor) { // NOSONAR Tinkerforge library uses shorts
+    /**
+     * Remembers the chunks of a frame from the first one given on as not written, so the next frame writes them.
+     */
+    private void addUnwritten(LEDStrip ledStrip, BitSet chunks, int first) {
 
-        if (primaryColor > MAX_PRIMARY_COLOR) {
-            return MAX_PRIMARY_COLOR;
+        BitSet left = (BitSet) chunks.clone();
+        left.clear(0, first);
+
+        if (left.isEmpty()) {
+            return;
         }
 
-        return primaryColor;
+        unwritten.merge(ledStrip.getName(), left, (previous, added) -> {
+                previous.or(added);
+
+                return previous;
+            });
+    }
+
+    /**
+     * Draws the frames of a status transition as the status layer, over a connection that stays open until the
+     * transition ends. The brightness is read once when the transition starts, and only changes on a redraw.
+     */
+    private final class StatusTransitionSink implements TransitionSink {
+
+        private final LEDStrip ledStrip;
+        private final int priority;
+        private final Layer target;
+        private volatile double brightness;
+        private boolean closed;
+
+        private BrickletLEDStripWrapper brickletLEDStrip;
+
+        // the change that started the transition, followed with its first frame
+        private Ingest ingest;
+
+        private StatusTransitionSink(LEDStrip ledStrip, int priority, Sprite1D target) {
+
+            this.ledStrip = ledStrip;
+            this.priority = priority;
+            this.target = new Layer(STATUS_LAYER, priority, 0, target, Layer.OPAQUE, 0);
+            this.brightness = getBrightness(ledStrip);
+            this.ingest = Ingest.current();
+        }
+
+        @Override
+        public void draw(Transition transition, Sprite1D frame) {
+
+            long start = System.nanoTime();
+            boolean first = ingest != null && Ingest.current() == null;
+
+            if (first) {
+                Ingest.begin(ingest.getTime());
+            }
+
+            ingest = null;
+
+            try {
+                drawTransitionFrame(transition, frame);
+            } finally {
+                renders.record(ledStrip.getName(), System.nanoTime() - start);
+
+                if (first) {
+                    Ingest.end();
+                }
+            }
+        }
+
+
+        private void drawTransitionFrame(Transition transition, Sprite1D frame) {
+
+            synchronized (getLock(ledStrip)) {
+                if (transition.isCancelled()) {
+                    return;
+                }
+
+                Compositor compositor = getCompositor(ledStrip);
+                compositor.put(new Layer(STATUS_LAYER, priority, 0, frame, Layer.OPAQUE, 0));
+
+                if (brickletLEDStrip == null) {
+                    try {
+                        brickletLEDStrip = connect(ledStrip);
+                    } catch (LEDStripConnectionException exception) {
+                        drawComposite(ledStrip, compositor, brightness, null, false);
+
+                        throw exception;
+                    }
+                }
+
+                try {
+                    drawComposite(ledStrip, compositor, brightness, brickletLEDStrip, false);
+                } catch (LEDStripConnectionException exception) {
+                    // reconnect with the next frame, unless the brick is backed off from by then
+                    disconnect();
+
+                    throw exception;
+                }
+            }
+        }
+
+
+        @Override
+        public void close() {
+
+            synchronized (getLock(ledStrip)) {
+                closed = true;
+                transitionSinks.remove(ledStrip.getName(), this);
+
+                disconnect();
+            }
+        }
+
+
+        private void disconnect() {
+
+            if (brickletLEDStrip == null) {
+                return;
+            }
+
+            BrickletLEDStripWrapper connected = brickletLEDStrip;
+
+            photonLatencyTracker.disconnectWhenRendered(connected.getIPConnection(), () -> {
+                try {
+                    connected.disconnect();
+                } catch (LEDStripConnectionException exception) {
+                    LOG.debug("LED strip " + ledStrip.getName() + " was already disconnected:", exception);
+                }
+            });
+
+            brickletLEDStrip = null;
+        }
     }
 }
@@ -0,0 +1,150 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+
+/**
+ * A layer of a LED strip: A sprite at an offset, drawn over all layers of lower priority. Immutable.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public final class Layer {
+
+    public static final int OPAQUE = 255;
+
+    private final String name;
+    private final int priority;
+    private final int offset;
+    private final Sprite1D sprite;
+    private final int alpha;
+    private final long expiresAt;
+
+    /**
+     * Instantiates a new layer.
+     *
+     * @param  name  The name of the layer, unique per LED strip
+     * @param  priority  Layers with a higher priority are drawn over those with a lower one
+     * @param  offset  The position of the sprite's first pixel on the LED strip, may be negative
+     * @param  sprite  The sprite, copied
+     * @param  alpha  The opacity of the layer, from 0 (invisible) to 255 (opaque)
+     * @param  expiresAt  The time in milliseconds since the epoch at which the layer is removed, 0 to keep it
+     */
+    public Layer(String name, int priority, int offset, Sprite1D sprite, int alpha, long expiresAt) {
+
+        this.name = name;
+        this.priority = priority;
+        this.offset = offset;
+        this.sprite = new Sprite1D(sprite, sprite.getLength());
+        this.alpha = Math.max(0, Math.min(OPAQUE, alpha));
+        this.expiresAt = expiresAt;
+    }
+
+    public String getName() {
+
+        return name;
+    }
+
+
+    public int getPriority() {
+
+        return priority;
+    }
+
+
+    public int getOffset() {
+
+        return offset;
+    }
+
+
+    /**
+     * Gets the position on the LED strip just behind the layer's last pixel.
+     *
+     * @return  The end position, exclusive
+     */
+    public int getEnd() {
+
+        return offset + sprite.getLength();
+    }
+
+
+    public int getAlpha() {
+
+        return alpha;
+    }
+
+
+    public long getExpiresAt() {
+
+        return expiresAt;
+    }
+
+
+    public boolean isExpired(long now) {
+
+        return expiresAt != 0 && expiresAt <= now;
+    }
+
+
+    /**
+     * Gets a copy of the layer's pixels as a sprite.
+     *
+     * @return  A new sprite
+     */
+    public Sprite1D getSprite() {
+
+        return new Sprite1D(sprite, sprite.getLength());
+    }
+
+
+    /**
+     * Checks whether the layer consists of the same pixels as a sprite, regardless of the sprite's name.
+     *
+     * @param  sprite  The sprite
+     *
+     * @return  true if all pixels are equal
+     */
+    public boolean hasPixels(Sprite1D sprite) {
+
+        return this.sprite.hasSamePixels(sprite);
+    }
+
+
+    /**
+     * Blends the layer over a range of a frame.
+     *
+     * @param  frame  The packed pixels of the frame
+     * @param  start  The first position on the LED strip to blend
+     * @param  end  The position behind the last one to blend
+     */
+    void blend(int[] frame, int start, int end) {
+
+        int from = Math.max(start, offset);
+        int to = Math.min(end, getEnd());
+
+        if (from >= to || alpha == 0) {
+            return;
+        }
+
+        if (alpha == OPAQUE) {
+            sprite.copyRGB(from - offset, frame, from, to - from);
+
+            return;
+        }
+
+        for (int position = from; position < to; position++) {
+            int below = frame[position];
+            int above = sprite.getRGB(position - offset);
+
+            frame[position] = Color.pack(blendPrimary(Color.red(below), Color.red(above)),
+                    blendPrimary(Color.green(below), Color.green(above)),
+                    blendPrimary(Color.blue(below), Color.blue(above)));
+        }
+    }
+
+
+    private int blendPrimary(int below, int above) {
+
+        return below + (above - below) * alpha / OPAQUE;
+    }
+}
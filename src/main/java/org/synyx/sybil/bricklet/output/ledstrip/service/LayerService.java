@@ -0,0 +1,98 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+
+/**
+ * LayerService. Adds and removes the layers of LED strips, and removes expiring layers once they have expired.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class LayerService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LayerService.class);
+
+    private final LEDStripService ledStripService;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @Autowired
+    public LayerService(LEDStripService ledStripService) {
+
+        this.ledStripService = ledStripService;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+
+        executor.shutdownNow();
+    }
+
+
+    /**
+     * Adds a layer to a LED strip, replacing the one with the same name.
+     *
+     * @param  name  The name of the LED strip
+     * @param  layer  The layer
+     *
+     * @return  The frame now displayed on the LED strip
+     *
+     * @throws  LEDStripNotFoundException  if the LED strip is not configured.
+     * @throws  LEDStripConnectionException  if the LED strip or its sensor could not be reached.
+     */
+    public FrameBuffer put(String name, Layer layer) {
+
+        FrameBuffer frameBuffer = ledStripService.putLayer(name, layer);
+
+        if (layer.getExpiresAt() != 0) {
+            long delay = Math.max(0, layer.getExpiresAt() - System.currentTimeMillis());
+
+            executor.schedule(() -> expire(name), delay, TimeUnit.MILLISECONDS);
+        }
+
+        return frameBuffer;
+    }
+
+
+    /**
+     * Removes a layer from a LED strip.
+     *
+     * @param  name  The name of the LED strip
+     * @param  layerName  The name of the layer
+     *
+     * @return  true if there was such a layer
+     */
+    public boolean remove(String name, String layerName) {
+
+        return ledStripService.removeLayer(name, layerName);
+    }
+
+
+    public List<Layer> getLayers(String name) {
+
+        return ledStripService.getLayers(name);
+    }
+
+
+    private void expire(String name) {
+
+        try {
+            ledStripService.expireLayers(name);
+        } catch (RuntimeException exception) {
+            LOG.error("Error removing expired layers from LED strip " + name + ":", exception);
+        }
+    }
+}
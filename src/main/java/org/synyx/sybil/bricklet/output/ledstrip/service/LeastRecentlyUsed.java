@@ -0,0 +1,36 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * A map that drops its least recently used entry once it holds more than its capacity. Not thread safe.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+final class LeastRecentlyUsed<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int capacity;
+
+    /**
+     * Instantiates a new, empty map.
+     *
+     * @param  capacity  The maximum number of entries
+     */
+    LeastRecentlyUsed(int capacity) {
+
+        super(INITIAL_CAPACITY, LOAD_FACTOR, true);
+        this.capacity = capacity;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+
+        return size() > capacity;
+    }
+}
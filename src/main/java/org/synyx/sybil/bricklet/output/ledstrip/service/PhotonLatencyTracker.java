@@ -0,0 +1,363 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import com.tinkerforge.IPConnection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.core.env.Environment;
+
+import org.springframework.stereotype.Service;
+
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.metrics.Counter;
+import org.synyx.sybil.metrics.Ingest;
+import org.synyx.sybil.metrics.MetricsService;
+import org.synyx.sybil.metrics.Timer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+
+/**
+ * PhotonLatencyTracker. Follows the frames caused by a change, e.g. a REST request or a Jenkins status, from the time
+ * the change was received until the LED strip reports them rendered, and records how long they took in total and in
+ * each stage:
+ *
+ * <ul>
+ *   <li>encode: encoding the frame for transfer,</li>
+ *   <li>queue: anything else before the first chunk is written, e.g. waiting for the LED strip or connecting,</li>
+ *   <li>transmit: writing the chunks, until the last one was acknowledged,</li>
+ *   <li>render: waiting for the LED strip to render the frame.</li>
+ * </ul>
+ *
+ * <p>A frame is dropped if it couldn't be sent, if another frame was sent to the LED strip before it was rendered, or
+ * if it wasn't rendered in time. Connections a frame was sent over are only closed once the frame was rendered or
+ * dropped, since the LED strip reports rendered frames over the connection. Frames drawn without a change, like
+ * those of animations, aren't followed.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class PhotonLatencyTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PhotonLatencyTracker.class);
+    private static final long DEFAULT_TIMEOUT = 1000;
+
+    private final long timeout;
+    private final Timer photons;
+    private final Timer stages;
+    private final Counter dropped;
+    private final Map<String, Frame> pending = new HashMap<>();
+    private final Map<IPConnection, Runnable> disconnects = new HashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @Autowired
+    public PhotonLatencyTracker(MetricsService metricsService, Environment environment) {
+
+        this(metricsService, environment.getProperty("ledstrip.photon.timeout.ms", Long.class, DEFAULT_TIMEOUT));
+    }
+
+
+    /**
+     * Instantiates a new photon latency tracker.
+     *
+     * @param  metricsService  The metrics service
+     * @param  timeout  The time a frame has to be rendered in after it was sent in milliseconds
+     */
+    public PhotonLatencyTracker(MetricsService metricsService, long timeout) {
+
+        this.timeout = TimeUnit.MILLISECONDS.toNanos(Math.max(1, timeout));
+        this.photons = metricsService.timer("sybil_ledstrip_photon_seconds",
+                "Time from receiving a change to the LED strip rendering it", "ledstrip");
+        this.stages = metricsService.timer("sybil_ledstrip_frame_stage_seconds",
+                "Time a frame spent in each stage from receiving a change to the LED strip rendering it", "ledstrip",
+                "stage");
+        this.dropped = metricsService.counter("sybil_ledstrip_dropped_frames_total",
+                "Frames that were received, but never rendered", "ledstrip", "reason");
+    }
+
+    @PostConstruct
+    public void startExpiring() {
+
+        long period = Math.max(1, TimeUnit.NANOSECONDS.toMillis(timeout) / 2);
+        executor.scheduleWithFixedDelay(this::expire, period, period, TimeUnit.MILLISECONDS);
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+
+        executor.shutdownNow();
+
+        List<Runnable> remaining;
+
+        synchronized (this) {
+            pending.clear();
+            remaining = new ArrayList<>(disconnects.values());
+            disconnects.clear();
+        }
+
+        remaining.forEach(Runnable::run);
+    }
+
+
+    /**
+     * Starts following a frame that is about to be written to a LED strip, if it was caused by the change handled by
+     * the current thread. A frame still waiting to be rendered on the LED strip is dropped.
+     *
+     * @param  ledStrip  The LED strip
+     * @param  brickletLEDStrip  The LED strip the frame is written to
+     *
+     * @return  The frame, or null if it isn't followed
+     */
+    public Frame sending(LEDStrip ledStrip, BrickletLEDStripWrapper brickletLEDStrip) {
+
+        long now = System.nanoTime();
+        Ingest ingest = Ingest.current();
+        Frame frame = null;
+
+        if (ingest != null) {
+            frame = new Frame(ledStrip.getName(), brickletLEDStrip, ingest.getTime(), ingest.takeEncoding(), now);
+        }
+
+        List<Runnable> ready = new ArrayList<>();
+
+        synchronized (this) {
+            drop(pending.remove(ledStrip.getName()), "superseded", ready);
+
+            if (frame != null) {
+                pending.put(ledStrip.getName(), frame);
+            }
+        }
+
+        run(ready);
+
+        if (frame != null) {
+            brickletLEDStrip.addFrameRenderedListener(frame);
+        }
+
+        return frame;
+    }
+
+
+    /**
+     * Records that a frame was written, so it only waits for the LED strip to render it.
+     *
+     * @param  frame  The frame, or null if it isn't followed
+     */
+    public void sent(Frame frame) {
+
+        if (frame != null) {
+            frame.sent = System.nanoTime();
+        }
+    }
+
+
+    /**
+     * Drops a frame that couldn't be written.
+     *
+     * @param  frame  The frame, or null if it isn't followed
+     */
+    public void failed(Frame frame) {
+
+        if (frame == null) {
+            return;
+        }
+
+        List<Runnable> ready = new ArrayList<>();
+
+        synchronized (this) {
+            if (pending.remove(frame.ledStrip, frame)) {
+                drop(frame, "unsent", ready);
+            }
+        }
+
+        run(ready);
+    }
+
+
+    /**
+     * Drops the frame the change handled by the current thread caused on a LED strip whose brick is backed off from,
+     * so it isn't sent at all.
+     *
+     * @param  ledStrip  The LED strip
+     */
+    public void unsent(LEDStrip ledStrip) {
+
+        if (Ingest.current() != null) {
+            Ingest.current().takeEncoding();
+            dropped.increment(ledStrip.getName(), "unsent");
+        }
+    }
+
+
+    /**
+     * Closes a connection once no frame sent over it waits to be rendered anymore, right away if none does.
+     *
+     * @param  ipConnection  The connection, or null if it's unknown
+     * @param  disconnect  Closes the connection
+     */
+    public void disconnectWhenRendered(IPConnection ipConnection, Runnable disconnect) {
+
+        synchronized (this) {
+            if (ipConnection != null && isPending(ipConnection)) {
+                disconnects.put(ipConnection, disconnect);
+
+                return;
+            }
+        }
+
+        disconnect.run();
+    }
+
+
+    /**
+     * Drops the frames that weren't rendered in time.
+     */
+    void expire() {
+
+        long now = System.nanoTime();
+        List<Runnable> ready = new ArrayList<>();
+
+        synchronized (this) {
+            Iterator<Frame> iterator = pending.values().iterator();
+
+            while (iterator.hasNext()) {
+                Frame frame = iterator.next();
+
+                if (now - frame.sending > timeout) {
+                    iterator.remove();
+                    drop(frame, "timeout", ready);
+                }
+            }
+        }
+
+        run(ready);
+    }
+
+
+    private void rendered(Frame frame) {
+
+        long now = System.nanoTime();
+        List<Runnable> ready = new ArrayList<>();
+
+        synchronized (this) {
+            if (pending.get(frame.ledStrip) != frame) {
+                return;
+            }
+
+            pending.remove(frame.ledStrip);
+            release(frame, ready);
+        }
+
+        // the callback may arrive before the last chunk has been acknowledged
+        long sent = frame.sent == 0 ? now : frame.sent;
+
+        photons.record(frame.ledStrip, now - frame.ingested);
+        stages.record(frame.ledStrip, "encode", frame.encoding);
+        stages.record(frame.ledStrip, "queue", Math.max(0, frame.sending - frame.ingested - frame.encoding));
+        stages.record(frame.ledStrip, "transmit", sent - frame.sending);
+        stages.record(frame.ledStrip, "render", now - sent);
+
+        if (!ready.isEmpty()) {
+            // not on the callback thread, closing the connection waits for it
+            try {
+                executor.execute(() -> run(ready));
+            } catch (RejectedExecutionException exception) {
+                LOG.debug("Not closing connection, shutting down:", exception);
+            }
+        }
+    }
+
+
+    private void drop(Frame frame, String reason, List<Runnable> ready) {
+
+        if (frame != null) {
+            dropped.increment(frame.ledStrip, reason);
+            release(frame, ready);
+        }
+    }
+
+
+    private void release(Frame frame, List<Runnable> ready) {
+
+        frame.brickletLEDStrip.removeFrameRenderedListener(frame);
+
+        IPConnection ipConnection = frame.brickletLEDStrip.getIPConnection();
+
+        if (ipConnection != null && !isPending(ipConnection)) {
+            Runnable disconnect = disconnects.remove(ipConnection);
+
+            if (disconnect != null) {
+                ready.add(disconnect);
+            }
+        }
+    }
+
+
+    private boolean isPending(IPConnection ipConnection) {
+
+        for (Frame frame : pending.values()) {
+            if (frame.brickletLEDStrip.getIPConnection() == ipConnection) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    private static void run(List<Runnable> disconnects) {
+
+        for (Runnable disconnect : disconnects) {
+            try {
+                disconnect.run();
+            } catch (RuntimeException exception) {
+                LOG.debug("Error closing connection after frame was rendered:", exception);
+            }
+        }
+    }
+
+    /**
+     * A frame followed until it is rendered.
+     */
+    public final class Frame implements BrickletLEDStripWrapper.FrameRenderedListener {
+
+        private final String ledStrip;
+        private final BrickletLEDStripWrapper brickletLEDStrip;
+        private final long ingested;
+        private final long encoding;
+        private final long sending;
+        private volatile long sent;
+
+        private Frame(String ledStrip, BrickletLEDStripWrapper brickletLEDStrip, long ingested, long encoding,
+            long sending) {
+
+            this.ledStrip = ledStrip;
+            this.brickletLEDStrip = brickletLEDStrip;
+            this.ingested = ingested;
+            this.encoding = encoding;
+            this.sending = sending;
+        }
+
+        @Override
+        public void frameRendered(int length) {
+
+            rendered(this);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+/**
+ * A sprite placed at a position on a LED strip. Immutable.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class PositionedSprite {
+
+    private final int offset;
+    private final Sprite1D sprite;
+
+    /**
+     * Places a sprite on a LED strip.
+     *
+     * @param  offset  The position of the sprite's first pixel on the LED strip
+     * @param  sprite  The sprite
+     */
+    public PositionedSprite(int offset, Sprite1D sprite) {
+
+        this.offset = offset;
+        this.sprite = sprite;
+    }
+
+    public int getOffset() {
+
+        return offset;
+    }
+
+
+    /**
+     * Gets the position on the LED strip just behind the sprite's last pixel.
+     *
+     * @return  The end position, exclusive
+     */
+    public int getEnd() {
+
+        return offset + sprite.getLength();
+    }
+
+
+    public Sprite1D getSprite() {
+
+        return sprite;
+    }
+}
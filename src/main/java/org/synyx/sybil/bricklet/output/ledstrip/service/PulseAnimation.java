@@ -0,0 +1,69 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+/**
+ * Lets a sprite breathe: Its brightness swings between full and a minimum and back again. Endless.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class PulseAnimation implements Animation {
+
+    private final int[] red;
+    private final int[] green;
+    private final int[] blue;
+    private final int period;
+    private final double minimum;
+
+    /**
+     * Instantiates a new pulse.
+     *
+     * @param  sprite  The sprite to pulse
+     * @param  period  The number of frames from full brightness to full brightness, at least 2
+     * @param  minimum  The lowest brightness, between 0.0 and 1.0
+     */
+    public PulseAnimation(Sprite1D sprite, int period, double minimum) {
+
+        this.red = sprite.getRed();
+        this.green = sprite.getGreen();
+        this.blue = sprite.getBlue();
+        this.period = Math.max(2, period);
+        this.minimum = Math.min(1.0, Math.max(0.0, minimum));
+    }
+
+    @Override
+    public boolean hasFrame(long frame) {
+
+        return true;
+    }
+
+
+    @Override
+    public Sprite1D render(long frame, int length) {
+
+        double phase = 2 * Math.PI * (frame % period) / period;
+        double brightness = minimum + (1.0 - minimum) * (1.0 + Math.cos(phase)) / 2;
+
+        int pixels = Math.min(length, red.length);
+
+        int[] scaledRed = new int[pixels];
+        int[] scaledGreen = new int[pixels];
+        int[] scaledBlue = new int[pixels];
+
+        for (int position = 0; position < pixels; position++) {
+            scaledRed[position] = (int) (red[position] * brightness);
+            scaledGreen[position] = (int) (green[position] * brightness);
+            scaledBlue[position] = (int) (blue[position] * brightness);
+        }
+
+        Sprite1D result = new Sprite1D(length, getEffect());
+        result.setPixels(scaledRed, scaledGreen, scaledBlue);
+
+        return result;
+    }
+
+
+    @Override
+    public String getEffect() {
+
+        return "pulse";
+    }
+}
@@ -0,0 +1,166 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.jenkins.Status;
+
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.Map;
+
+
+/**
+ * Everything about a LED strip that doesn't change until its configuration is reloaded, derived once: its padded
+ * length, its chunks, its sensor and a frame filled with the color of each status. Immutable, apart from a small cache
+ * of the status frames encoded for the brightness levels they were last displayed with.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public final class RenderProfile {
+
+    private static final int ENCODED_LEVELS = 8;
+
+    private final LEDStrip ledStrip;
+    private final int bufferSize;
+    private final BitSet allChunks = new BitSet();
+    private final String sensor;
+    private final Map<Status, Integer> colors = new EnumMap<>(Status.class);
+    private final Map<Status, Sprite1D> statusFrames = new EnumMap<>(Status.class);
+    private final Map<Status, Map<Double, TransferBuffer>> encodedStatusFrames = new EnumMap<>(Status.class);
+
+    /**
+     * Compiles the render profile of a LED strip.
+     *
+     * @param  ledStrip  The LED strip's configuration
+     */
+    public RenderProfile(LEDStrip ledStrip) {
+
+        this.ledStrip = ledStrip;
+        this.bufferSize = (ledStrip.getLength() + TransferBuffer.CHUNK_SIZE - 1) / TransferBuffer.CHUNK_SIZE
+            * TransferBuffer.CHUNK_SIZE;
+        this.allChunks.set(0, bufferSize / TransferBuffer.CHUNK_SIZE);
+        this.sensor = ledStrip.hasSensor() ? ledStrip.getSensor() : null;
+
+        Map<Status, Color> customColors = ledStrip.hasCustomColors() ? ledStrip.getCustomColors() : null;
+
+        for (Status status : Status.values()) {
+            Color color = customColors == null ? Color.colorFromStatus(status) : customColors.get(status);
+
+            Sprite1D frame = new Sprite1D(ledStrip.getLength(), status.name());
+            frame.setFill(color);
+
+            colors.put(status, color.getRGB());
+            statusFrames.put(status, frame);
+            encodedStatusFrames.put(status, new LeastRecentlyUsed<>(ENCODED_LEVELS));
+        }
+    }
+
+    /**
+     * Gets the configuration the profile was compiled from.
+     *
+     * @return  The LED strip's configuration
+     */
+    public LEDStrip getLEDStrip() {
+
+        return ledStrip;
+    }
+
+
+    /**
+     * Gets the padded size of the LED strip's pixel buffer.
+     *
+     * @return  The length of the LED strip, rounded up to the next multiple of sixteen
+     */
+    public int getBufferSize() {
+
+        return bufferSize;
+    }
+
+
+    /**
+     * Gets all chunks of the LED strip. Shared, must not be modified.
+     *
+     * @return  The chunks
+     */
+    public BitSet getAllChunks() {
+
+        return allChunks;
+    }
+
+
+    public boolean hasSensor() {
+
+        return sensor != null;
+    }
+
+
+    public String getSensor() {
+
+        return sensor;
+    }
+
+
+    /**
+     * Gets the color a status is displayed in on the LED strip.
+     *
+     * @param  status  The status
+     *
+     * @return  The packed color, 0xRRGGBB
+     */
+    public int getColor(Status status) {
+
+        return colors.get(status);
+    }
+
+
+    /**
+     * Gets the whole LED strip filled with the color of a status. Shared, must not be modified.
+     *
+     * @param  status  The status
+     *
+     * @return  The frame, named after the status
+     */
+    public Sprite1D getStatusFrame(Status status) {
+
+        return statusFrames.get(status);
+    }
+
+
+    /**
+     * Finds the status a layer displays.
+     *
+     * @param  layer  The layer
+     *
+     * @return  The status whose frame has the same pixels as the layer, null if there is none
+     */
+    public Status getStatus(Layer layer) {
+
+        for (Map.Entry<Status, Sprite1D> entry : statusFrames.entrySet()) {
+            if (layer.hasPixels(entry.getValue())) {
+                return entry.getKey();
+            }
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Gets the frame of a status encoded for transfer, encoding it only if it wasn't recently encoded for the same
+     * brightness. Shared, must not be modified.
+     *
+     * @param  status  The status
+     * @param  brightness  The quantized brightness
+     *
+     * @return  The encoded frame
+     */
+    public TransferBuffer getEncodedStatusFrame(Status status, double brightness) {
+
+        Map<Double, TransferBuffer> encoded = encodedStatusFrames.get(status);
+
+        synchronized (encoded) {
+            return encoded.computeIfAbsent(brightness,
+                    key -> TransferBuffer.encode(statusFrames.get(status), bufferSize, key));
+        }
+    }
+}
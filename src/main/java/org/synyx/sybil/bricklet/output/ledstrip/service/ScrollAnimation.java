@@ -0,0 +1,57 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+/**
+ * Moves a sprite along the LED strip. Whatever leaves at the end comes back in at the start. Endless.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class ScrollAnimation implements Animation {
+
+    private final Sprite1D sprite;
+    private final int framesPerStep;
+
+    /**
+     * Instantiates a new scroll.
+     *
+     * @param  sprite  The sprite to move, parts longer than the LED strip are cut off
+     * @param  framesPerStep  The number of frames before the sprite moves on by one pixel, at least 1
+     */
+    public ScrollAnimation(Sprite1D sprite, int framesPerStep) {
+
+        this.sprite = new Sprite1D(sprite, sprite.getLength());
+        this.framesPerStep = Math.max(1, framesPerStep);
+    }
+
+    @Override
+    public boolean hasFrame(long frame) {
+
+        return true;
+    }
+
+
+    @Override
+    public Sprite1D render(long frame, int length) {
+
+        Sprite1D result = new Sprite1D(length, getEffect());
+
+        if (length == 0) {
+            return result;
+        }
+
+        int offset = (int) (frame / framesPerStep % length);
+
+        Sprite1D visible = new Sprite1D(sprite, Math.min(sprite.getLength(), length));
+
+        result.setSprite(offset, visible);
+        result.setSprite(offset - length, visible);
+
+        return result;
+    }
+
+
+    @Override
+    public String getEffect() {
+
+        return "scroll";
+    }
+}
@@ -1,11 +1,11 @@
 package org.synyx.sybil.bricklet.output.ledstrip.service;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-
 import org.springframework.hateoas.core.Relation;
 
 import org.synyx.sybil.bricklet.output.ledstrip.Color;
 
+import java.nio.IntBuffer;
+
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -14,18 +14,21 @@ import java.util.Objects;
 /**
  * One-dimensional Sprite: An array of pixels. Drawn onto a 1D display, e.g. a LED Strip.
  *
+ * <p>Each pixel is packed into a single int as 0xRRGGBB, see {@link Color#pack(int, int, int)}. Equality and the hash
+ * code are based on the pixels and the name, the hash code is cached until the sprite is changed.</p>
+ *
  * @author  Tobias Theuer - theuer@synyx.de
  */
 
 @Relation(collectionRelation = "sprites")
 public class Sprite1D {
 
-    private final int[] red;
-    private final int[] green;
-    private final int[] blue;
+    private final int[] pixels;
     private final int length;
     private final String name;
 
+    private int hash;
+
     /**
      * Creates a new sprite, all black.
      *
@@ -35,9 +38,7 @@ public class Sprite1D {
     public Sprite1D(int length, String name) {
 
         this.length = length;
-        red = new int[length];
-        green = new int[length];
-        blue = new int[length];
+        this.pixels = new int[length];
         this.name = name;
     }
 
@@ -50,22 +51,28 @@ public class Sprite1D {
      */
     public Sprite1D(String name, List<Color> pixels) {
 
-        this.length = pixels.size();
-        red = new int[length];
-        green = new int[length];
-        blue = new int[length];
-        this.name = name;
-
-        int minimum = Math.min(pixels.size(), length);
+        this(pixels.size(), name);
 
-        for (int i = 0; i < minimum; i++) {
-            red[i] = pixels.get(i).getRed();
-            green[i] = pixels.get(i).getGreen();
-            blue[i] = pixels.get(i).getBlue();
+        for (int i = 0; i < length; i++) {
+            this.pixels[i] = pixels.get(i).getRGB();
         }
     }
 
 
+    /**
+     * Instantiates a copy of a sprite, cut off or padded with black pixels to the given length.
+     *
+     * @param  sprite  The sprite to copy
+     * @param  length  The number of pixels the copy will be long
+     */
+    public Sprite1D(Sprite1D sprite, int length) {
+
+        this.length = length;
+        this.pixels = Arrays.copyOf(sprite.pixels, length);
+        this.name = sprite.name;
+    }
+
+
     /**
      * Creates a new sprite, named "Unnamed", all black.
      *
@@ -95,9 +102,27 @@ public class Sprite1D {
 
     public void setFill(Color color) {
 
-        Arrays.fill(red, color.getRed());
-        Arrays.fill(green, color.getGreen());
-        Arrays.fill(blue, color.getBlue());
+        Arrays.fill(pixels, color.getRGB());
+        hash = 0;
+    }
+
+
+    /**
+     * Fills a range of the sprite with a single color. Pixels outside of the sprite are ignored.
+     *
+     * @param  offset  The position of the first pixel to fill, may be negative
+     * @param  count  The number of pixels to fill
+     * @param  color  The color
+     */
+    public void fill(int offset, int count, Color color) {
+
+        int from = Math.max(0, offset);
+        int to = Math.min(length, offset + count);
+
+        if (from < to) {
+            Arrays.fill(pixels, from, to, color.getRGB());
+            hash = 0;
+        }
     }
 
 
@@ -109,9 +134,73 @@ public class Sprite1D {
      */
     public void setPixel(int position, Color color) {
 
-        red[position] = color.getRed();
-        green[position] = color.getGreen();
-        blue[position] = color.getBlue();
+        pixels[position] = color.getRGB();
+        hash = 0;
+    }
+
+
+    /**
+     * Sets a single pixel on the sprite to packed primary colors.
+     *
+     * @param  position  The position of the pixel on the sprite.
+     * @param  rgb  The primary colors as 0xRRGGBB
+     */
+    public void setRGB(int position, int rgb) {
+
+        pixels[position] = rgb;
+        hash = 0;
+    }
+
+
+    /**
+     * Sets the pixels from packed primary colors. Values beyond the end of the sprite are ignored.
+     *
+     * @param  rgb  The primary colors as 0xRRGGBB, starting with the first pixel
+     */
+    public void setRGB(int[] rgb) {
+
+        System.arraycopy(rgb, 0, pixels, 0, Math.min(rgb.length, length));
+        hash = 0;
+    }
+
+
+    /**
+     * Sets the pixels from separate primary color arrays. The values are not checked, they have to be between 0 and
+     * 255. Values beyond the end of the sprite are ignored.
+     *
+     * @param  red  The red values, starting with the first pixel
+     * @param  green  The green values, starting with the first pixel
+     * @param  blue  The blue values, starting with the first pixel
+     */
+    public void setPixels(int[] red, int[] green, int[] blue) {
+
+        int count = Math.min(Math.min(red.length, green.length), Math.min(blue.length, length));
+
+        for (int position = 0; position < count; position++) {
+            pixels[position] = Color.pack(red[position], green[position], blue[position]);
+        }
+
+        hash = 0;
+    }
+
+
+    /**
+     * Draws another sprite onto this one. Pixels that would end up outside of this sprite are cut off.
+     *
+     * @param  position  The position of the other sprite's first pixel on this sprite, may be negative.
+     * @param  sprite  The sprite to draw.
+     */
+    public void setSprite(int position, Sprite1D sprite) {
+
+        int from = Math.max(0, -position);
+        int to = Math.min(sprite.length, length - position);
+
+        if (from >= to) {
+            return;
+        }
+
+        System.arraycopy(sprite.pixels, from, pixels, position + from, to - from);
+        hash = 0;
     }
 
 
@@ -131,11 +220,62 @@ public class Sprite1D {
      *
      * @param  position  Position of the pixel on the sprite
      *
-     * @return  Color object
+     * @return  Color object, common colors are shared instances
      */
     public Color getPixel(int position) {
 
-        return new Color(red[position], green[position], blue[position]);
+        return Color.valueOf(pixels[position]);
+    }
+
+
+    /**
+     * Gets the packed primary colors of a pixel, without copying or allocating anything.
+     *
+     * @param  position  Position of the pixel on the sprite
+     *
+     * @return  The primary colors as 0xRRGGBB
+     */
+    public int getRGB(int position) {
+
+        return pixels[position];
+    }
+
+
+    /**
+     * Copies packed pixels into an existing array.
+     *
+     * @param  position  The position of the first pixel to copy
+     * @param  destination  The array to copy to
+     * @param  destinationPosition  The position in the array to copy the first pixel to
+     * @param  count  The number of pixels to copy
+     */
+    public void copyRGB(int position, int[] destination, int destinationPosition, int count) {
+
+        System.arraycopy(pixels, position, destination, destinationPosition, count);
+    }
+
+
+    /**
+     * Gets a read-only view of the packed pixels. Shares the sprite's storage, so it reflects later changes.
+     *
+     * @return  A view of the pixels as 0xRRGGBB
+     */
+    public IntBuffer getRGBView() {
+
+        return IntBuffer.wrap(pixels).asReadOnlyBuffer();
+    }
+
+
+    /**
+     * Checks whether another sprite consists of the same pixels, regardless of its name.
+     *
+     * @param  sprite  The other sprite
+     *
+     * @return  true if both sprites have the same length and pixels
+     */
+    public boolean hasSamePixels(Sprite1D sprite) {
+
+        return Arrays.equals(pixels, sprite.pixels);
     }
 
 
@@ -146,7 +286,13 @@ public class Sprite1D {
      */
     public int[] getRed() {
 
-        return Arrays.copyOf(red, red.length);
+        int[] red = new int[length];
+
+        for (int position = 0; position < length; position++) {
+            red[position] = Color.red(pixels[position]);
+        }
+
+        return red;
     }
 
 
@@ -157,7 +303,13 @@ public class Sprite1D {
      */
     public int[] getGreen() {
 
-        return Arrays.copyOf(green, green.length);
+        int[] green = new int[length];
+
+        for (int position = 0; position < length; position++) {
+            green[position] = Color.green(pixels[position]);
+        }
+
+        return green;
     }
 
 
@@ -168,7 +320,13 @@ public class Sprite1D {
      */
     public int[] getBlue() {
 
-        return Arrays.copyOf(blue, blue.length);
+        int[] blue = new int[length];
+
+        for (int position = 0; position < length; position++) {
+            blue[position] = Color.blue(pixels[position]);
+        }
+
+        return blue;
     }
 
 
@@ -196,20 +354,20 @@ public class Sprite1D {
 
         Sprite1D sprite1D = (Sprite1D) o;
 
-        EqualsBuilder builder = new EqualsBuilder();
-        builder.append(red, sprite1D.red);
-        builder.append(green, sprite1D.green);
-        builder.append(blue, sprite1D.blue);
-        builder.append(length, sprite1D.length);
-        builder.append(name, sprite1D.name);
-
-        return builder.isEquals();
+        return Arrays.equals(pixels, sprite1D.pixels) && Objects.equals(name, sprite1D.name);
     }
 
 
     @Override
     public int hashCode() {
 
-        return Objects.hash(red, green, blue, length, name);
+        int result = hash;
+
+        if (result == 0) {
+            result = Arrays.hashCode(pixels) * 31 + Objects.hashCode(name);
+            hash = result;
+        }
+
+        return result;
     }
 }
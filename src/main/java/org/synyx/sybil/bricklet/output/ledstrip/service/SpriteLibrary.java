@@ -0,0 +1,350 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.core.env.Environment;
+
+import org.springframework.stereotype.Service;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStripRepository;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+
+/**
+ * SpriteLibrary. Sprites are uploaded once and then displayed by reference, identified by a hash of their pixels, so
+ * uploading the same pixels again yields the same id.
+ *
+ * <p>Sprites are kept in a bounded LRU cache and, if enabled, persisted below the config directory, so they survive a
+ * restart. Displaying a sprite caches its encoded transfer buffer per padded strip length, placement and brightness
+ * level, so a sprite shown again on a strip of the same length doesn't need to be encoded again. The brightness is
+ * already quantized by the {@link BrightnessQuantizer}, so small changes of the ambient light don't miss the
+ * cache.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class SpriteLibrary {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpriteLibrary.class);
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final int DEFAULT_ENCODED_CAPACITY = 64;
+    private static final int ID_BYTES = 16;
+    private static final Pattern ID = Pattern.compile("[0-9a-f]{32}");
+
+    private final LEDStripService ledStripService;
+    private final LEDStripRepository ledStripRepository;
+    private final ObjectMapper objectMapper;
+    private final String directory;
+    private final Map<String, Sprite1D> sprites;
+    private final Map<EncodedKey, EncodedSprite> encoded;
+
+    @Autowired
+    public SpriteLibrary(LEDStripService ledStripService, LEDStripRepository ledStripRepository,
+        ObjectMapper objectMapper, Environment environment) {
+
+        this(ledStripService, ledStripRepository, objectMapper,
+            environment.getProperty("sprites.persist", Boolean.class, false)
+                ? environment.getProperty("path.to.configfiles") + "sprites/" : null,
+            environment.getProperty("sprites.cache.size", Integer.class, DEFAULT_CAPACITY),
+            environment.getProperty("sprites.cache.encoded.size", Integer.class, DEFAULT_ENCODED_CAPACITY));
+    }
+
+
+    /**
+     * Instantiates a new sprite library.
+     *
+     * @param  ledStripService  The LED strip service
+     * @param  ledStripRepository  The LED strip repository
+     * @param  objectMapper  The object mapper used to persist sprites
+     * @param  directory  The directory to persist sprites in, null to keep them in memory only
+     * @param  capacity  The maximum number of sprites kept in memory
+     * @param  encodedCapacity  The maximum number of encoded transfer buffers kept in memory
+     */
+    public SpriteLibrary(LEDStripService ledStripService, LEDStripRepository ledStripRepository,
+        ObjectMapper objectMapper, String directory, int capacity, int encodedCapacity) {
+
+        this.ledStripService = ledStripService;
+        this.ledStripRepository = ledStripRepository;
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.sprites = Collections.synchronizedMap(new LeastRecentlyUsed<>(Math.max(1, capacity)));
+        this.encoded = Collections.synchronizedMap(new LeastRecentlyUsed<>(Math.max(0, encodedCapacity)));
+    }
+
+    /**
+     * Adds a sprite to the library.
+     *
+     * @param  sprite  The sprite, copied
+     *
+     * @return  The id of the sprite, the same for all sprites with the same pixels
+     */
+    public String put(Sprite1D sprite) {
+
+        String id = hash(sprite);
+        Sprite1D copy = new Sprite1D(sprite.getLength(), id);
+        copy.setSprite(0, sprite);
+
+        if (sprites.put(id, copy) == null && directory != null) {
+            persist(id, copy);
+        }
+
+        return id;
+    }
+
+
+    /**
+     * Gets a sprite from the library.
+     *
+     * @param  id  The id of the sprite
+     *
+     * @return  A copy of the sprite, named after its id
+     *
+     * @throws  SpriteNotFoundException  if there is no sprite with that id.
+     */
+    public Sprite1D get(String id) {
+
+        Sprite1D sprite = load(id);
+
+        return new Sprite1D(sprite, sprite.getLength());
+    }
+
+
+    /**
+     * Displays a sprite on a LED strip, the rest of the LED strip is turned off.
+     *
+     * @param  name  The name of the LED strip
+     * @param  id  The id of the sprite
+     * @param  offset  The position of the sprite's first pixel on the LED strip, may be negative
+     * @param  repeat  Whether to repeat the sprite along the whole LED strip
+     *
+     * @return  The frame now displayed on the LED strip
+     *
+     * @throws  SpriteNotFoundException  if there is no sprite with that id.
+     * @throws  LEDStripNotFoundException  if the LED strip is not configured.
+     * @throws  LEDStripConnectionException  if the LED strip or its sensor could not be reached.
+     */
+    public FrameBuffer display(String name, String id, int offset, boolean repeat) {
+
+        Sprite1D sprite = load(id);
+        LEDStrip ledStrip = ledStripRepository.get(name);
+
+        if (ledStrip == null) {
+            throw new LEDStripNotFoundException("LED strip " + name + " not found");
+        }
+
+        int bufferSize = ledStripService.getPixelBufferSize(ledStrip);
+        double brightness = ledStripService.getBrightness(ledStrip);
+        EncodedKey key = new EncodedKey(id, bufferSize, ledStrip.getLength(), offset, repeat, brightness);
+
+        EncodedSprite encodedSprite = encoded.get(key);
+
+        if (encodedSprite == null) {
+            Sprite1D frame = render(sprite, ledStrip.getLength(), offset, repeat);
+
+            encodedSprite = new EncodedSprite(frame, TransferBuffer.encode(frame, bufferSize, brightness));
+            encoded.put(key, encodedSprite);
+        }
+
+        return ledStripService.drawEncoded(ledStrip, encodedSprite.frame, encodedSprite.transferBuffer);
+    }
+
+
+    private Sprite1D load(String id) {
+
+        if (id == null || !ID.matcher(id).matches()) {
+            throw new SpriteNotFoundException("Sprite " + id + " not found");
+        }
+
+        Sprite1D sprite = sprites.get(id);
+
+        if (sprite == null && directory != null) {
+            sprite = read(id);
+
+            if (sprite != null) {
+                sprites.put(id, sprite);
+            }
+        }
+
+        if (sprite == null) {
+            throw new SpriteNotFoundException("Sprite " + id + " not found");
+        }
+
+        return sprite;
+    }
+
+
+    private static Sprite1D render(Sprite1D sprite, int length, int offset, boolean repeat) {
+
+        Sprite1D frame = new Sprite1D(length, sprite.getName());
+
+        if (!repeat || sprite.getLength() == 0) {
+            frame.setSprite(offset, sprite);
+
+            return frame;
+        }
+
+        for (int position = Math.floorMod(offset, sprite.getLength()) - sprite.getLength(); position < length;
+                position += sprite.getLength()) {
+            frame.setSprite(position, sprite);
+        }
+
+        return frame;
+    }
+
+
+    private static String hash(Sprite1D sprite) {
+
+        ByteBuffer bytes = ByteBuffer.allocate(sprite.getLength() * Integer.BYTES);
+
+        for (int position = 0; position < sprite.getLength(); position++) {
+            bytes.putInt(sprite.getRGB(position));
+        }
+
+        byte[] digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(bytes.array());
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available:", exception);
+        }
+
+        StringBuilder id = new StringBuilder(ID_BYTES * 2);
+
+        for (int index = 0; index < ID_BYTES; index++) {
+            id.append(String.format("%02x", digest[index]));
+        }
+
+        return id.toString();
+    }
+
+
+    private void persist(String id, Sprite1D sprite) {
+
+        List<Color> pixels = new ArrayList<>(sprite.getLength());
+
+        for (int position = 0; position < sprite.getLength(); position++) {
+            pixels.add(sprite.getPixel(position));
+        }
+
+        File file = new File(directory, id + ".json");
+
+        try {
+            if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+                throw new IOException("Could not create " + file.getParentFile());
+            }
+
+            objectMapper.writeValue(file, pixels);
+        } catch (IOException exception) {
+            LOG.error("Error persisting sprite " + id + ":", exception);
+        }
+    }
+
+
+    private Sprite1D read(String id) {
+
+        File file = new File(directory, id + ".json");
+
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            List<Color> pixels = objectMapper.readValue(file, new TypeReference<List<Color>>() {
+                    });
+
+            return new Sprite1D(id, pixels);
+        } catch (IOException exception) {
+            LOG.error("Error loading sprite " + id + ":", exception);
+
+            return null;
+        }
+    }
+
+    /**
+     * A sprite rendered onto a LED strip, and its transfer buffer. Shared, must not be modified.
+     */
+    private static final class EncodedSprite {
+
+        private final Sprite1D frame;
+        private final TransferBuffer transferBuffer;
+
+        private EncodedSprite(Sprite1D frame, TransferBuffer transferBuffer) {
+
+            this.frame = frame;
+            this.transferBuffer = transferBuffer;
+        }
+    }
+
+    private static final class EncodedKey {
+
+        private final String id;
+        private final int bufferSize;
+        private final int length;
+        private final int offset;
+        private final boolean repeat;
+        private final double brightness;
+
+        private EncodedKey(String id, int bufferSize, int length, int offset, boolean repeat, double brightness) {
+
+            this.id = id;
+            this.bufferSize = bufferSize;
+            this.length = length;
+            this.offset = offset;
+            this.repeat = repeat;
+            this.brightness = brightness;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            EncodedKey that = (EncodedKey) o;
+
+            return bufferSize == that.bufferSize && length == that.length && offset == that.offset
+                && repeat == that.repeat && Double.compare(brightness, that.brightness) == 0 && id.equals(that.id);
+        }
+
+
+        @Override
+        public int hashCode() {
+
+            int result = id.hashCode();
+            result = 31 * result + bufferSize;
+            result = 31 * result + length;
+            result = 31 * result + offset;
+            result = 31 * result + (repeat ? 1 : 0);
+            result = 31 * result + Double.hashCode(brightness);
+
+            return result;
+        }
+    }
+}
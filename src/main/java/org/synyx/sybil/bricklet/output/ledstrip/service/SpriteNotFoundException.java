@@ -0,0 +1,14 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+/**
+ * SpriteNotFoundException.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class SpriteNotFoundException extends RuntimeException {
+
+    public SpriteNotFoundException(String message) {
+
+        super(message);
+    }
+}
@@ -0,0 +1,131 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+
+/**
+ * A frame encoded for transfer to a LED strip: Brightness applied, cast to shorts and cut into 16 pixel chunks. Can be
+ * shared by any number of LED strips of the same padded length and brightness. Immutable.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class TransferBuffer {
+
+    public static final int CHUNK_SIZE = 16;
+
+    private static final short MAX_PRIMARY_COLOR = (short) 255; // NOSONAR Tinkerforge library uses shorts
+    private static final double DEFAULT_BRIGHTNESS = 1.0;
+
+    private final short[][] red; // NOSONAR Tinkerforge library uses shorts
+    private final short[][] green; // NOSONAR Tinkerforge library uses shorts
+    private final short[][] blue; // NOSONAR Tinkerforge library uses shorts
+    private final double brightness;
+
+    private TransferBuffer(int chunkCount, double brightness) {
+
+        this.red = new short[chunkCount][CHUNK_SIZE]; // NOSONAR Tinkerforge library uses shorts
+        this.green = new short[chunkCount][CHUNK_SIZE]; // NOSONAR Tinkerforge library uses shorts
+        this.blue = new short[chunkCount][CHUNK_SIZE]; // NOSONAR Tinkerforge library uses shorts
+        this.brightness = brightness;
+    }
+
+    /**
+     * Encodes a sprite for transfer.
+     *
+     * @param  sprite  The sprite, cut off or padded with black pixels to the buffer size
+     * @param  bufferSize  The number of pixels to encode, a multiple of 16
+     * @param  brightness  The brightness to apply, 1.0 is unchanged
+     *
+     * @return  The encoded sprite
+     */
+    public static TransferBuffer encode(Sprite1D sprite, int bufferSize, double brightness) {
+
+        TransferBuffer transferBuffer = new TransferBuffer(bufferSize / CHUNK_SIZE, brightness);
+
+        int pixels = Math.min(bufferSize, sprite.getLength());
+
+        for (int position = 0; position < pixels; position++) {
+            int chunk = position / CHUNK_SIZE;
+            int index = position % CHUNK_SIZE;
+            int rgb = sprite.getRGB(position);
+
+            transferBuffer.red[chunk][index] = applyBrightnessAndCastToShort(Color.red(rgb), brightness);
+            transferBuffer.green[chunk][index] = applyBrightnessAndCastToShort(Color.green(rgb), brightness);
+            transferBuffer.blue[chunk][index] = applyBrightnessAndCastToShort(Color.blue(rgb), brightness);
+        }
+
+        return transferBuffer;
+    }
+
+
+    private static short applyBrightnessAndCastToShort(int primaryColor, double brightness) { // NOSONAR Tinkerforge library uses shorts
+
+        if (brightness == DEFAULT_BRIGHTNESS) {
+            return (short) primaryColor; // NOSONAR Tinkerforge library uses shorts
+        }
+
+        // limit before casting, a large brightness would otherwise overflow the short
+        return setColorLimits((int) (primaryColor * brightness));
+    }
+
+
+    private static short setColorLimits(int primaryColor) { // NOSONAR Tinkerforge library uses shorts
+
+        if (primaryColor > MAX_PRIMARY_COLOR) {
+            return MAX_PRIMARY_COLOR;
+        }
+
+        return (short) primaryColor; // NOSONAR Tinkerforge library uses shorts
+    }
+
+
+    public int getChunkCount() {
+
+        return red.length;
+    }
+
+
+    public double getBrightness() {
+
+        return brightness;
+    }
+
+
+    /**
+     * Gets the red values of a chunk. Shared, must not be modified.
+     *
+     * @param  chunk  The number of the chunk
+     *
+     * @return  16 red values
+     */
+    public short[] getRed(int chunk) { // NOSONAR Tinkerforge library uses shorts
+
+        return red[chunk];
+    }
+
+
+    /**
+     * Gets the green values of a chunk. Shared, must not be modified.
+     *
+     * @param  chunk  The number of the chunk
+     *
+     * @return  16 green values
+     */
+    public short[] getGreen(int chunk) { // NOSONAR Tinkerforge library uses shorts
+
+        return green[chunk];
+    }
+
+
+    /**
+     * Gets the blue values of a chunk. Shared, must not be modified.
+     *
+     * @param  chunk  The number of the chunk
+     *
+     * @return  16 blue values
+     */
+    public short[] getBlue(int chunk) { // NOSONAR Tinkerforge library uses shorts
+
+        return blue[chunk];
+    }
+}
@@ -0,0 +1,172 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * A crossfade from one frame to another, optionally followed by an endless pulse of the target frame.
+ *
+ * <p>All arithmetic is done in 8 bit fixed point: The progress of the crossfade and the level of the pulse are
+ * fractions of 256, so no floating point math is needed per pixel.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public final class Transition {
+
+    private static final int FRACTION_BITS = 8;
+    private static final int ONE = 1 << FRACTION_BITS;
+
+    private final String name;
+    private final int length;
+    private final int[] from;
+    private final Sprite1D to;
+    private final int frames;
+    private final int pulsePeriod;
+    private final int pulseMinimum;
+    private final TransitionSink sink;
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    private int step;
+    private long pulseFrame;
+
+    /**
+     * Instantiates a new transition.
+     *
+     * @param  name  The name of the LED strip
+     * @param  from  The frame currently displayed
+     * @param  to  The frame to display
+     * @param  frames  The number of frames of the crossfade, the last one is the target, 0 for none
+     * @param  pulsePeriod  The number of frames of one pulse once the target is reached, 0 to stop there
+     * @param  pulseMinimum  The lowest level of the pulse, in 256ths of full brightness
+     * @param  sink  Draws the frames
+     */
+    Transition(String name, Sprite1D from, Sprite1D to, int frames, int pulsePeriod, int pulseMinimum,
+        TransitionSink sink) {
+
+        this.name = name;
+        this.length = to.getLength();
+        this.from = new int[length];
+        from.copyRGB(0, this.from, 0, Math.min(length, from.getLength()));
+        this.to = new Sprite1D(to, length);
+        this.frames = frames;
+        this.pulsePeriod = pulsePeriod;
+        this.pulseMinimum = pulseMinimum;
+        this.sink = sink;
+    }
+
+    public String getName() {
+
+        return name;
+    }
+
+
+    public boolean isCancelled() {
+
+        return cancelled.get();
+    }
+
+
+    /**
+     * Cancels the transition.
+     *
+     * @return  true if it was not cancelled before
+     */
+    boolean cancel() {
+
+        return cancelled.compareAndSet(false, true);
+    }
+
+
+    boolean isPulsing() {
+
+        return pulsePeriod > 0;
+    }
+
+
+    boolean hasTarget(Sprite1D target) {
+
+        return to.hasSamePixels(target);
+    }
+
+
+    AtomicBoolean getBusy() {
+
+        return busy;
+    }
+
+
+    TransitionSink getSink() {
+
+        return sink;
+    }
+
+
+    /**
+     * Checks whether all frames have been rendered.
+     *
+     * @return  true once the crossfade is complete and there is no pulse
+     */
+    boolean isFinished() {
+
+        return step >= frames && pulsePeriod == 0;
+    }
+
+
+    /**
+     * Renders the next frame. Must not be called once the transition is finished.
+     *
+     * @return  The next frame
+     */
+    Sprite1D next() {
+
+        Sprite1D frame = new Sprite1D(length, name);
+
+        if (step < frames) {
+            step++;
+
+            int progress = (step << FRACTION_BITS) / frames;
+
+            for (int position = 0; position < length; position++) {
+                frame.setRGB(position, interpolate(from[position], to.getRGB(position), progress));
+            }
+        } else {
+            int level = pulseLevel();
+            pulseFrame++;
+
+            for (int position = 0; position < length; position++) {
+                frame.setRGB(position, interpolate(0, to.getRGB(position), level));
+            }
+        }
+
+        return frame;
+    }
+
+
+    private static int interpolate(int from, int to, int progress) {
+
+        return Color.pack(interpolatePrimary(Color.red(from), Color.red(to), progress),
+                interpolatePrimary(Color.green(from), Color.green(to), progress),
+                interpolatePrimary(Color.blue(from), Color.blue(to), progress));
+    }
+
+
+    private static int interpolatePrimary(int from, int to, int progress) {
+
+        return from + ((to - from) * progress >> FRACTION_BITS);
+    }
+
+
+    /**
+     * A triangle wave: Full brightness at the start of each period, the minimum halfway through.
+     */
+    private int pulseLevel() {
+
+        int phase = (int) (pulseFrame % pulsePeriod);
+        int distance = Math.abs(2 * phase - pulsePeriod);
+
+        return pulseMinimum + (ONE - pulseMinimum) * distance / pulsePeriod;
+    }
+}
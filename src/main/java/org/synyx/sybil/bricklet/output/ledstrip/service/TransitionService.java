@@ -0,0 +1,204 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.core.env.Environment;
+
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+
+/**
+ * TransitionService. Crossfades LED strips from one frame to the next and pulses them, e.g. while a job is critical.
+ *
+ * <p>A single timing thread ticks for all LED strips. On every tick, each transition whose previous frame has been
+ * written gets its next frame rendered and written by a small pool of writers. A transition whose LED strip is slow
+ * simply skips ticks, so its frames are never queued up.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class TransitionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransitionService.class);
+    private static final int WRITERS = 4;
+    private static final int DEFAULT_FRAMES = 25;
+    private static final long DEFAULT_TICK = 20;
+    private static final int DEFAULT_PULSE_PERIOD = 100;
+    private static final int PULSE_MINIMUM = 64;
+
+    private final int frames;
+    private final long tick;
+    private final int pulsePeriod;
+    private final ConcurrentMap<String, Transition> transitions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+
+    @Autowired
+    public TransitionService(Environment environment) {
+
+        this(environment.getProperty("ledstrip.transition.frames", Integer.class, DEFAULT_FRAMES),
+            environment.getProperty("ledstrip.transition.tick.ms", Long.class, DEFAULT_TICK),
+            environment.getProperty("ledstrip.transition.pulse.frames", Integer.class, DEFAULT_PULSE_PERIOD));
+    }
+
+
+    /**
+     * Instantiates a new transition service.
+     *
+     * @param  frames  The number of frames of a crossfade, 0 to switch immediately
+     * @param  tick  The time between two frames in milliseconds
+     * @param  pulsePeriod  The number of frames of one pulse, 0 to never pulse
+     */
+    public TransitionService(int frames, long tick, int pulsePeriod) {
+
+        this.frames = Math.max(0, frames);
+        this.tick = Math.max(1, tick);
+        this.pulsePeriod = Math.max(0, pulsePeriod);
+    }
+
+    @PostConstruct
+    public void startTimer() {
+
+        timer.scheduleAtFixedRate(this::tick, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+
+        for (String name : transitions.keySet()) {
+            cancel(name);
+        }
+
+        timer.shutdownNow();
+        writers.shutdownNow();
+    }
+
+
+    /**
+     * Checks whether a change to the given target would be animated at all.
+     *
+     * @param  pulse  Whether the target should pulse
+     *
+     * @return  false if crossfades are switched off and there is no pulse either
+     */
+    public boolean isAnimated(boolean pulse) {
+
+        return frames > 0 || (pulse && pulsePeriod > 0);
+    }
+
+
+    /**
+     * Starts a transition on a LED strip, replacing the one running there. If the running transition already leads
+     * to the same target, it is left alone and the new sink is closed right away.
+     *
+     * @param  name  The name of the LED strip
+     * @param  from  The frame currently displayed
+     * @param  to  The frame to display
+     * @param  pulse  Whether to pulse the target once it is reached
+     * @param  sink  Draws the frames
+     */
+    public void start(String name, Sprite1D from, Sprite1D to, boolean pulse, TransitionSink sink) {
+
+        Transition running = transitions.get(name);
+
+        if (running != null && !running.isCancelled() && running.isPulsing() == pulse && running.hasTarget(to)) {
+            sink.close();
+
+            return;
+        }
+
+        Transition transition = new Transition(name, from, to, frames, pulse ? pulsePeriod : 0, PULSE_MINIMUM,
+                sink);
+
+        Transition previous = transitions.put(name, transition);
+
+        if (previous != null) {
+            end(previous);
+        }
+    }
+
+
+    /**
+     * Cancels the transition running on a LED strip. Sinks check for cancellation before drawing, so if the caller
+     * holds the lock the sink draws under, no frame of the transition is drawn after this returns.
+     *
+     * @param  name  The name of the LED strip
+     */
+    public void cancel(String name) {
+
+        Transition transition = transitions.remove(name);
+
+        if (transition != null) {
+            end(transition);
+        }
+    }
+
+
+    /**
+     * Checks whether a transition is running on a LED strip.
+     *
+     * @param  name  The name of the LED strip
+     *
+     * @return  true if a transition is running
+     */
+    public boolean isRunning(String name) {
+
+        return transitions.containsKey(name);
+    }
+
+
+    void tick() {
+
+        for (Transition transition : transitions.values()) {
+            if (transition.getBusy().compareAndSet(false, true)) {
+                writers.execute(() -> advance(transition));
+            }
+        }
+    }
+
+
+    private void advance(Transition transition) {
+
+        try {
+            if (transition.isCancelled()) {
+                return;
+            }
+
+            transition.getSink().draw(transition, transition.next());
+
+            if (transition.isFinished()) {
+                transitions.remove(transition.getName(), transition);
+                end(transition);
+            }
+        } catch (RuntimeException exception) {
+            LOG.error("Error drawing transition on LED strip " + transition.getName() + ":", exception);
+            transitions.remove(transition.getName(), transition);
+            end(transition);
+        } finally {
+            transition.getBusy().set(false);
+        }
+    }
+
+
+    private void end(Transition transition) {
+
+        if (transition.cancel()) {
+            transition.getSink().close();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+/**
+ * Receives the frames of a transition and puts them onto a LED strip.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public interface TransitionSink {
+
+    /**
+     * Draws a frame of a transition. Must not draw anything once the transition is cancelled.
+     *
+     * @param  transition  The transition the frame belongs to
+     * @param  frame  The frame
+     */
+    void draw(Transition transition, Sprite1D frame);
+
+
+    /**
+     * Called once when the transition has ended, been cancelled or been replaced.
+     */
+    void close();
+}
@@ -0,0 +1,14 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+/**
+ * UnknownEffectException. Thrown when an animation is requested with an effect that doesn't exist.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class UnknownEffectException extends RuntimeException {
+
+    public UnknownEffectException(String message) {
+
+        super(message);
+    }
+}
@@ -13,7 +13,12 @@ import org.springframework.web.servlet.config.annotation.EnableWebMvc;
  */
 
 @Configuration
-@ComponentScan(basePackages = { "org.synyx.sybil.bricklet.*.*.api", "org.synyx.sybil.relay.api" })
+@ComponentScan(
+    basePackages = {
+        "org.synyx.sybil.brick.api", "org.synyx.sybil.bricklet.*.*.api", "org.synyx.sybil.metrics.api",
+        "org.synyx.sybil.profiling.api", "org.synyx.sybil.relay.api"
+    }
+)
 @EnableWebMvc
 public class WebConfig {
 }
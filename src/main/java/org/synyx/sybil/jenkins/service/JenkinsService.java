@@ -1,5 +1,7 @@
 package org.synyx.sybil.jenkins.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,6 +31,12 @@ import org.synyx.sybil.jenkins.StatusInformation;
 import org.synyx.sybil.jenkins.persistence.JenkinsConfigRepository;
 import org.synyx.sybil.jenkins.persistence.JobConfig;
 import org.synyx.sybil.jenkins.persistence.ServerConfig;
+import org.synyx.sybil.metrics.Ingest;
+import org.synyx.sybil.metrics.MetricsService;
+import org.synyx.sybil.metrics.Timer;
+import org.synyx.sybil.profiling.JenkinsPollEvent;
+
+import java.io.IOException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -55,14 +63,25 @@ public class JenkinsService {
     private final LEDStripService ledStripService;
     private final RestTemplate restTemplate;
     private final JenkinsConfigRepository jenkinsConfigRepository;
+    private final ObjectMapper objectMapper;
+    private final Timer fetches;
+    private final Timer parses;
+    private final Timer aggregations;
 
     @Autowired
     public JenkinsService(LEDStripService ledStripService, RestTemplate restTemplate,
-        JenkinsConfigRepository jenkinsConfigRepository) {
+        JenkinsConfigRepository jenkinsConfigRepository, ObjectMapper objectMapper, MetricsService metricsService) {
 
         this.ledStripService = ledStripService;
         this.restTemplate = restTemplate;
         this.jenkinsConfigRepository = jenkinsConfigRepository;
+        this.objectMapper = objectMapper;
+        this.fetches = metricsService.timer("sybil_jenkins_fetch_seconds", "Time to fetch the jobs of a Jenkins server",
+                "server");
+        this.parses = metricsService.timer("sybil_jenkins_parse_seconds", "Time to parse the jobs of a Jenkins server",
+                "server");
+        this.aggregations = metricsService.timer("sybil_jenkins_aggregate_seconds",
+                "Time to aggregate the jobs of a Jenkins server into LED strip statuses", "server");
     }
 
     @PreDestroy
@@ -101,17 +120,45 @@ public class JenkinsService {
         List<String> servers = new ArrayList<>(authorizations.keySet());
         List<JenkinsJob> jobs;
         Map<String, StatusInformation> ledStripStatuses = new HashMap<>();
+        Long received = null;
 
         for (String server : servers) {
             try {
                 jobs = getJobsFromJenkins(server, authorizations.get(server));
-                ledStripStatuses = getLEDStripStatusesFromJobs(jobs, jobConfigs.get(server), ledStripStatuses);
             } catch (RestClientException exception) {
                 handleError("Error retrieving jobs from Jenkins:", exception);
+
+                continue;
+            } catch (IOException exception) {
+                handleError("Error parsing jobs from Jenkins:", exception);
+
+                continue;
             }
+
+            if (received == null) {
+                received = System.nanoTime();
+            }
+
+            JenkinsPollEvent event = new JenkinsPollEvent(server, JenkinsPollEvent.AGGREGATE);
+            event.setJobs(jobs.size());
+
+            long start = System.nanoTime();
+            event.begin();
+            ledStripStatuses = getLEDStripStatusesFromJobs(jobs, jobConfigs.get(server), ledStripStatuses);
+            aggregations.record(server, System.nanoTime() - start);
+            event.commit();
         }
 
-        applyStatuses(ledStripStatuses);
+        // changed statuses are followed from the first response until the LED strips display them
+        if (received != null) {
+            Ingest.begin(received);
+        }
+
+        try {
+            applyStatuses(ledStripStatuses);
+        } finally {
+            Ingest.end();
+        }
     }
 
 
@@ -127,17 +174,63 @@ public class JenkinsService {
     }
 
 
-    private List<JenkinsJob> getJobsFromJenkins(String server, HttpEntity<JenkinsProperties[]> authorization) {
+    /**
+     * Fetches the jobs of a Jenkins server and parses them separately, so both can be timed.
+     */
+    private List<JenkinsJob> getJobsFromJenkins(String server, HttpEntity<JenkinsProperties[]> authorization)
+        throws IOException {
+
+        JenkinsPollEvent event = new JenkinsPollEvent(server, JenkinsPollEvent.FETCH);
+        ResponseEntity<byte[]> response;
+        long start = System.nanoTime();
+        event.begin();
+
+        try {
+            response = restTemplate.exchange(server + "/api/json", HttpMethod.GET, authorization, byte[].class);
+        } catch (RestClientException exception) {
+            event.failed(exception);
+
+            throw exception;
+        } finally {
+            event.commit();
+        }
+
+        fetches.record(server, System.nanoTime() - start);
+
+        event = new JenkinsPollEvent(server, JenkinsPollEvent.PARSE);
+
+        JenkinsProperties jenkinsProperties;
+        start = System.nanoTime();
+        event.begin();
+
+        try {
+            jenkinsProperties = objectMapper.readValue(response.getBody(), JenkinsProperties.class);
+            event.setJobs(jenkinsProperties.getJobs().length);
+        } catch (IOException exception) {
+            event.failed(exception);
+
+            throw exception;
+        } finally {
+            event.commit();
+        }
 
-        ResponseEntity<JenkinsProperties> response = restTemplate.exchange(server + "/api/json", HttpMethod.GET,
-                authorization, JenkinsProperties.class);
+        parses.record(server, System.nanoTime() - start);
 
-        return Arrays.asList(response.getBody().getJobs());
+        return Arrays.asList(jenkinsProperties.getJobs());
     }
 
 
-    private Map<String, StatusInformation> getLEDStripStatusesFromJobs(List<JenkinsJob> jobs,
-        List<JobConfig> jobConfigs, Map<String, StatusInformation> ledStripStatuses) {
+    /**
+     * Aggregates the statuses of a Jenkins server's jobs into the statuses of the LED strips they are configured for.
+     *
+     * @param  jobs  The jobs of the server
+     * @param  jobConfigs  The configured jobs of the server, null if there are none
+     * @param  ledStripStatuses  The statuses aggregated from other servers, the highest status wins
+     *
+     * @return  The aggregated statuses
+     */
+    Map<String, StatusInformation> getLEDStripStatusesFromJobs(List<JenkinsJob> jobs, List<JobConfig> jobConfigs,
+        Map<String, StatusInformation> ledStripStatuses) {
 
         if (jobConfigs == null) {
             return ledStripStatuses;
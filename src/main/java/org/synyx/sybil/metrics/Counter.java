@@ -0,0 +1,73 @@
+package org.synyx.sybil.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Counter. A metric that only ever increases, e.g. the number of timeouts.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class Counter extends Metric<LongAdder> {
+
+    Counter(String name, String help, String... labelNames) {
+
+        super(name, help, labelNames);
+    }
+
+    public void increment() {
+
+        get().increment();
+    }
+
+
+    public void increment(String label) {
+
+        get(label).increment();
+    }
+
+
+    public void increment(String first, String second) {
+
+        get(first, second).increment();
+    }
+
+
+    public long getCount() {
+
+        return get().sum();
+    }
+
+
+    public long getCount(String label) {
+
+        return get(label).sum();
+    }
+
+
+    public long getCount(String first, String second) {
+
+        return get(first, second).sum();
+    }
+
+
+    @Override
+    protected LongAdder newSeries() {
+
+        return new LongAdder();
+    }
+
+
+    @Override
+    protected String getType() {
+
+        return "counter";
+    }
+
+
+    @Override
+    protected void writeSeries(StringBuilder out, String labels, LongAdder series) {
+
+        writeSample(out, "", labels, series.sum());
+    }
+}
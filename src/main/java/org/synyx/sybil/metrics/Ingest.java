@@ -0,0 +1,82 @@
+package org.synyx.sybil.metrics;
+
+/**
+ * Ingest. The time the change handled by the current thread was received, e.g. with a REST request or a Jenkins poll,
+ * so the frames it causes can be followed until the LED strips display them. Threads that draw on behalf of another
+ * one, like a transition, begin an ingest with the time they were handed.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public final class Ingest {
+
+    private static final ThreadLocal<Ingest> CURRENT = new ThreadLocal<>();
+
+    private final long time;
+    private long encoding;
+
+    private Ingest(long time) {
+
+        this.time = time;
+    }
+
+    /**
+     * Begins handling a change on the current thread, replacing the one handled so far.
+     *
+     * @param  time  The time the change was received, from {@link System#nanoTime()}
+     */
+    public static void begin(long time) {
+
+        CURRENT.set(new Ingest(time));
+    }
+
+
+    /**
+     * Ends handling the change on the current thread.
+     */
+    public static void end() {
+
+        CURRENT.remove();
+    }
+
+
+    /**
+     * Gets the change handled by the current thread.
+     *
+     * @return  The change, or null if the thread handles none
+     */
+    public static Ingest current() {
+
+        return CURRENT.get();
+    }
+
+
+    public long getTime() {
+
+        return time;
+    }
+
+
+    /**
+     * Adds time spent encoding a frame for the change, which is attributed to the next frame sent.
+     *
+     * @param  nanos  The time in nanoseconds
+     */
+    public void addEncoding(long nanos) {
+
+        encoding += nanos;
+    }
+
+
+    /**
+     * Takes the time spent encoding since the last frame was sent.
+     *
+     * @return  The time in nanoseconds
+     */
+    public long takeEncoding() {
+
+        long result = encoding;
+        encoding = 0;
+
+        return result;
+    }
+}
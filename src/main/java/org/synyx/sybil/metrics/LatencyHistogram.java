@@ -0,0 +1,129 @@
+package org.synyx.sybil.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+
+/**
+ * LatencyHistogram. Records latencies in microseconds with two significant digits up to a minute, longer latencies are
+ * recorded as a minute. Recording is wait-free and doesn't allocate, the recorded latencies are only added up when they
+ * are read. Percentiles are taken over the last ten minutes, in five slots of two minutes that are dropped one after
+ * another, the count and sum cover everything ever recorded.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class LatencyHistogram {
+
+    private static final long HIGHEST = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final long NANOS_PER_MICRO = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final int SLOTS = 5;
+    private static final long SLOT_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final Recorder recorder = new Recorder(HIGHEST, SIGNIFICANT_DIGITS);
+    private final Histogram[] slots;
+    private final Histogram window = new Histogram(HIGHEST, SIGNIFICANT_DIGITS);
+    private final long slotNanos;
+    private final LongSupplier clock;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    private Histogram interval;
+    private int current;
+    private long slotStart;
+
+    public LatencyHistogram() {
+
+        this(SLOTS, SLOT_NANOS, System::nanoTime);
+    }
+
+
+    LatencyHistogram(int slots, long slotNanos, LongSupplier clock) {
+
+        this.slots = new Histogram[slots];
+
+        for (int slot = 0; slot < slots; slot++) {
+            this.slots[slot] = new Histogram(HIGHEST, SIGNIFICANT_DIGITS);
+        }
+
+        this.slotNanos = slotNanos;
+        this.clock = clock;
+        this.slotStart = clock.getAsLong();
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param  nanos  The latency in nanoseconds
+     */
+    public void record(long nanos) {
+
+        recorder.recordValue(Math.max(0, Math.min(HIGHEST, nanos / NANOS_PER_MICRO)));
+        count.increment();
+        sum.add(nanos);
+    }
+
+
+    /**
+     * Gets the number of latencies recorded.
+     *
+     * @return  The number of latencies
+     */
+    public long getCount() {
+
+        return count.sum();
+    }
+
+
+    /**
+     * Gets a percentile of the latencies recorded in the last ten minutes.
+     *
+     * @param  percentile  The percentile, e.g. 99.9
+     *
+     * @return  The latency in nanoseconds, 0 if none were recorded
+     */
+    public synchronized long getPercentile(double percentile) {
+
+        return update().getValueAtPercentile(percentile) * NANOS_PER_MICRO;
+    }
+
+
+    /**
+     * Gets the sum of all recorded latencies.
+     *
+     * @return  The sum in nanoseconds
+     */
+    public long getSum() {
+
+        return sum.sum();
+    }
+
+
+    private Histogram update() {
+
+        long elapsed = (clock.getAsLong() - slotStart) / slotNanos;
+
+        for (long slot = 0; slot < Math.min(elapsed, slots.length); slot++) {
+            current = (current + 1) % slots.length;
+            slots[current].reset();
+        }
+
+        slotStart += elapsed * slotNanos;
+
+        // latencies recorded since the last read go into the newest slot, so none are dropped before their time
+        interval = recorder.getIntervalHistogram(interval);
+        slots[current].add(interval);
+
+        window.reset();
+
+        for (Histogram slot : slots) {
+            window.add(slot);
+        }
+
+        return window;
+    }
+}
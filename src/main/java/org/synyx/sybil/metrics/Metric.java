@@ -0,0 +1,172 @@
+package org.synyx.sybil.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+
+/**
+ * Metric. A named metric with up to two labels, holding one series per combination of label values. Looking up an
+ * existing series doesn't allocate, so recording stays allocation free once a series was created.
+ *
+ * @param  <S>  The type of the series
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public abstract class Metric<S> {
+
+    private static final int MAX_LABELS = 2;
+
+    private final String name;
+    private final String help;
+    private final String[] labelNames;
+    private final S series;
+    private final ConcurrentMap<String, S> byFirst = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, S>> byFirstAndSecond = new ConcurrentSkipListMap<>();
+
+    protected Metric(String name, String help, String... labelNames) {
+
+        if (labelNames.length > MAX_LABELS) {
+            throw new IllegalArgumentException("Metric " + name + " has more than " + MAX_LABELS + " labels");
+        }
+
+        this.name = name;
+        this.help = help;
+        this.labelNames = labelNames.clone();
+        this.series = newSeries();
+    }
+
+    public String getName() {
+
+        return name;
+    }
+
+
+    /**
+     * Writes the metric in the Prometheus text format.
+     *
+     * @param  out  The output
+     */
+    public void write(StringBuilder out) {
+
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(getType()).append('\n');
+
+        switch (labelNames.length) {
+            case 0:
+                writeSeries(out, "", series);
+                break;
+
+            case 1:
+                for (Map.Entry<String, S> entry : byFirst.entrySet()) {
+                    writeSeries(out, label(labelNames[0], entry.getKey()), entry.getValue());
+                }
+
+                break;
+
+            default:
+                for (Map.Entry<String, ConcurrentMap<String, S>> first : byFirstAndSecond.entrySet()) {
+                    for (Map.Entry<String, S> second : first.getValue().entrySet()) {
+                        writeSeries(out,
+                            label(labelNames[0], first.getKey()) + ',' + label(labelNames[1], second.getKey()),
+                            second.getValue());
+                    }
+                }
+        }
+    }
+
+
+    protected S get() {
+
+        checkLabels(0);
+
+        return series;
+    }
+
+
+    protected S get(String first) {
+
+        checkLabels(1);
+
+        String key = nonNull(first);
+        S result = byFirst.get(key);
+
+        return result != null ? result : byFirst.computeIfAbsent(key, value -> newSeries());
+    }
+
+
+    protected S get(String first, String second) {
+
+        checkLabels(2);
+
+        String firstKey = nonNull(first);
+        String secondKey = nonNull(second);
+        ConcurrentMap<String, S> bySecond = byFirstAndSecond.get(firstKey);
+
+        if (bySecond == null) {
+            bySecond = byFirstAndSecond.computeIfAbsent(firstKey, value -> new ConcurrentSkipListMap<>());
+        }
+
+        S result = bySecond.get(secondKey);
+
+        return result != null ? result : bySecond.computeIfAbsent(secondKey, value -> newSeries());
+    }
+
+
+    protected abstract S newSeries();
+
+
+    protected abstract String getType();
+
+
+    /**
+     * Writes the samples of a series.
+     *
+     * @param  out  The output
+     * @param  labels  The series' labels, formatted as {@code name="value"} and separated by commas, or empty
+     * @param  series  The series
+     */
+    protected abstract void writeSeries(StringBuilder out, String labels, S series);
+
+
+    /**
+     * Writes a sample.
+     *
+     * @param  out  The output
+     * @param  suffix  Appended to the metric's name, e.g. _sum, or empty
+     * @param  labels  The labels, or empty
+     * @param  value  The value of the sample
+     */
+    protected void writeSample(StringBuilder out, String suffix, String labels, double value) {
+
+        out.append(name).append(suffix);
+
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+
+        out.append(' ').append(value).append('\n');
+    }
+
+
+    protected static String label(String labelName, String value) {
+
+        return labelName + "=\""
+            + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + '"';
+    }
+
+
+    private void checkLabels(int count) {
+
+        if (labelNames.length != count) {
+            throw new IllegalArgumentException("Metric " + name + " has " + labelNames.length + " labels, not "
+                + count);
+        }
+    }
+
+
+    private static String nonNull(String value) {
+
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,115 @@
+package org.synyx.sybil.metrics;
+
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+
+/**
+ * MetricsService. Holds the timers and counters of the whole application, and exposes them in the Prometheus text
+ * format. Metrics are registered once, e.g. when a service is constructed, and can be recorded to without allocating
+ * from then on.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class MetricsService {
+
+    private final ConcurrentMap<String, Metric<?>> metrics = new ConcurrentSkipListMap<>();
+
+    /**
+     * Gets the timer of config lookups, labelled with the config, e.g. ledstrip.
+     *
+     * @return  The timer
+     */
+    public Timer getConfigLookups() {
+
+        return timer("sybil_config_lookup_seconds", "Time to look up a configuration by name", "config");
+    }
+
+
+    /**
+     * Gets the counter of calls to bricks that timed out, labelled with the brick and the operation, e.g. chunk.
+     *
+     * @return  The counter
+     */
+    public Counter getTimeouts() {
+
+        return counter("sybil_brick_timeouts_total", "Calls to a brick that timed out", "brick", "operation");
+    }
+
+
+    /**
+     * Gets the counter of failed connections to bricks, and calls to bricks that weren't connected, labelled with the
+     * brick.
+     *
+     * @return  The counter
+     */
+    public Counter getConnectionErrors() {
+
+        return counter("sybil_brick_connection_errors_total", "Failed connections to a brick", "brick");
+    }
+
+
+    /**
+     * Gets a timer, registering it if it doesn't exist yet.
+     *
+     * @param  name  The name, e.g. sybil_ledstrip_render_seconds
+     * @param  help  The description
+     * @param  labelNames  The names of up to two labels
+     *
+     * @return  The timer
+     *
+     * @throws  IllegalArgumentException  if a counter with the name exists
+     */
+    public Timer timer(String name, String help, String... labelNames) {
+
+        return register(Timer.class, metrics.computeIfAbsent(name, key -> new Timer(name, help, labelNames)));
+    }
+
+
+    /**
+     * Gets a counter, registering it if it doesn't exist yet.
+     *
+     * @param  name  The name, ending with _total, e.g. sybil_brick_timeouts_total
+     * @param  help  The description
+     * @param  labelNames  The names of up to two labels
+     *
+     * @return  The counter
+     *
+     * @throws  IllegalArgumentException  if a timer with the name exists
+     */
+    public Counter counter(String name, String help, String... labelNames) {
+
+        return register(Counter.class, metrics.computeIfAbsent(name, key -> new Counter(name, help, labelNames)));
+    }
+
+
+    /**
+     * Gets all metrics in the Prometheus text format, version 0.0.4.
+     *
+     * @return  The metrics, sorted by name
+     */
+    public String scrape() {
+
+        StringBuilder out = new StringBuilder();
+
+        for (Metric<?> metric : metrics.values()) {
+            metric.write(out);
+        }
+
+        return out.toString();
+    }
+
+
+    private static <T extends Metric<?>> T register(Class<T> type, Metric<?> metric) {
+
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + metric.getName() + " is not a " + type.getSimpleName());
+        }
+
+        return type.cast(metric);
+    }
+}
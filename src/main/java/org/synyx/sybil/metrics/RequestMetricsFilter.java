@@ -0,0 +1,60 @@
+package org.synyx.sybil.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.stereotype.Component;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+
+/**
+ * RequestMetricsFilter. Times the handling of every REST request, by method and the path pattern of its handler, so
+ * requests for different LED strips are recorded together. The request is the {@link Ingest} of the frames drawn for
+ * it.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Component("requestMetricsFilter")
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final String UNMATCHED = "unmatched";
+
+    private final Timer requests;
+
+    @Autowired
+    public RequestMetricsFilter(MetricsService metricsService) {
+
+        this.requests = metricsService.timer("sybil_http_request_seconds", "Time to handle a REST request", "method",
+                "path");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+
+        long start = System.nanoTime();
+
+        // frames drawn for the request are followed from here until they are displayed
+        Ingest.begin(start);
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Ingest.end();
+
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+            requests.record(request.getMethod(), pattern == null ? UNMATCHED : pattern.toString(),
+                System.nanoTime() - start);
+        }
+    }
+}
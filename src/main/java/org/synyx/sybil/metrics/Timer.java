@@ -0,0 +1,87 @@
+package org.synyx.sybil.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Timer. A metric of latencies, exposed as a Prometheus summary in seconds.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class Timer extends Metric<LatencyHistogram> {
+
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final int PERCENT = 100;
+
+    Timer(String name, String help, String... labelNames) {
+
+        super(name, help, labelNames);
+    }
+
+    public void record(long nanos) {
+
+        get().record(nanos);
+    }
+
+
+    public void record(String label, long nanos) {
+
+        get(label).record(nanos);
+    }
+
+
+    public void record(String first, String second, long nanos) {
+
+        get(first, second).record(nanos);
+    }
+
+
+    public LatencyHistogram getHistogram() {
+
+        return get();
+    }
+
+
+    public LatencyHistogram getHistogram(String label) {
+
+        return get(label);
+    }
+
+
+    public LatencyHistogram getHistogram(String first, String second) {
+
+        return get(first, second);
+    }
+
+
+    @Override
+    protected LatencyHistogram newSeries() {
+
+        return new LatencyHistogram();
+    }
+
+
+    @Override
+    protected String getType() {
+
+        return "summary";
+    }
+
+
+    @Override
+    protected void writeSeries(StringBuilder out, String labels, LatencyHistogram series) {
+
+        String separator = labels.isEmpty() ? "" : ",";
+
+        synchronized (series) {
+            for (double quantile : QUANTILES) {
+                writeSample(out, "", labels + separator + label("quantile", String.valueOf(quantile)),
+                    series.getPercentile(quantile * PERCENT) / NANOS_PER_SECOND);
+            }
+
+            writeSample(out, "_sum", labels, series.getSum() / NANOS_PER_SECOND);
+            writeSample(out, "_count", labels, series.getCount());
+        }
+    }
+}
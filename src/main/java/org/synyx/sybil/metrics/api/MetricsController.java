@@ -0,0 +1,35 @@
+package org.synyx.sybil.metrics.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.synyx.sybil.metrics.MetricsService;
+
+
+/**
+ * MetricsController. Exposes the metrics to be scraped by Prometheus.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+
+    private final MetricsService metricsService;
+
+    @Autowired
+    public MetricsController(MetricsService metricsService) {
+
+        this.metricsService = metricsService;
+    }
+
+    @RequestMapping(method = RequestMethod.GET, produces = "text/plain; version=0.0.4; charset=utf-8")
+    public String getMetrics() {
+
+        return metricsService.scrape();
+    }
+}
@@ -0,0 +1,35 @@
+package org.synyx.sybil.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * BrickConnectEvent. Opening a connection to a brick.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+@Name("org.synyx.sybil.BrickConnect")
+@Label("Brick Connect")
+@Category({ "Sybil", "Bricks" })
+@Description("Opening a connection to a brick")
+public class BrickConnectEvent extends SybilEvent {
+
+    @Label("Brick")
+    private String brick;
+
+    @Label("Host")
+    private String host;
+
+    @Label("Port")
+    private int port;
+
+    public BrickConnectEvent(String brick, String host, int port) {
+
+        this.brick = brick;
+        this.host = host;
+        this.port = port;
+    }
+}
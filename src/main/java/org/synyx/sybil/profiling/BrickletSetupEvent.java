@@ -0,0 +1,31 @@
+package org.synyx.sybil.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * BrickletSetupEvent. Setting up a LED Strip Bricklet's frame duration and chip type before drawing on it.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+@Name("org.synyx.sybil.BrickletSetup")
+@Label("Bricklet Setup")
+@Category({ "Sybil", "Bricks" })
+@Description("Setting up a LED Strip Bricklet before drawing on it")
+public class BrickletSetupEvent extends SybilEvent {
+
+    @Label("LED Strip")
+    private String ledStrip;
+
+    @Label("Brick")
+    private String brick;
+
+    public BrickletSetupEvent(String ledStrip, String brick) {
+
+        this.ledStrip = ledStrip;
+        this.brick = brick;
+    }
+}
@@ -0,0 +1,50 @@
+package org.synyx.sybil.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * ChunkEvent. Writing or reading the 16 pixels of a LED strip starting at a position, one call to the brick.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+@Name("org.synyx.sybil.Chunk")
+@Label("LED Strip Chunk")
+@Category({ "Sybil", "Bricks" })
+@Description("Writing or reading 16 pixels of a LED strip")
+public class ChunkEvent extends SybilEvent {
+
+    public static final String WRITE = "write";
+    public static final String READ = "read";
+
+    @Label("LED Strip")
+    private String ledStrip;
+
+    @Label("Brick")
+    private String brick;
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Position")
+    private int position;
+
+    /**
+     * Instantiates a new chunk event.
+     *
+     * @param  ledStrip  The name of the LED strip
+     * @param  brick  The name of its brick
+     * @param  operation  {@link #WRITE} or {@link #READ}
+     * @param  position  The position of the chunk's first pixel
+     */
+    public ChunkEvent(String ledStrip, String brick, String operation, int position) {
+
+        this.ledStrip = ledStrip;
+        this.brick = brick;
+        this.operation = operation;
+        this.position = position;
+    }
+}
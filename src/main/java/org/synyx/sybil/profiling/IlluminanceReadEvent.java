@@ -0,0 +1,40 @@
+package org.synyx.sybil.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * IlluminanceReadEvent. Reading an illuminance sensor.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+@Name("org.synyx.sybil.IlluminanceRead")
+@Label("Illuminance Read")
+@Category({ "Sybil", "Bricks" })
+@Description("Reading an illuminance sensor")
+public class IlluminanceReadEvent extends SybilEvent {
+
+    @Label("Sensor")
+    private String sensor;
+
+    @Label("Brick")
+    private String brick;
+
+    @Label("Illuminance")
+    @Description("The illuminance in lux/10")
+    private int illuminance;
+
+    public IlluminanceReadEvent(String sensor, String brick) {
+
+        this.sensor = sensor;
+        this.brick = brick;
+    }
+
+    public void setIlluminance(int illuminance) {
+
+        this.illuminance = illuminance;
+    }
+}
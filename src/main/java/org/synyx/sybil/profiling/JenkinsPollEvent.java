@@ -0,0 +1,50 @@
+package org.synyx.sybil.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * JenkinsPollEvent. One phase of polling a Jenkins server: fetching its jobs, parsing them, or aggregating them into
+ * the statuses of the LED strips.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+@Name("org.synyx.sybil.JenkinsPoll")
+@Label("Jenkins Poll")
+@Category({ "Sybil", "Jenkins" })
+@Description("One phase of polling a Jenkins server")
+public class JenkinsPollEvent extends SybilEvent {
+
+    public static final String FETCH = "fetch";
+    public static final String PARSE = "parse";
+    public static final String AGGREGATE = "aggregate";
+
+    @Label("Server")
+    private String server;
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("Jobs")
+    private int jobs;
+
+    /**
+     * Instantiates a new Jenkins poll event.
+     *
+     * @param  server  The URL of the server
+     * @param  phase  {@link #FETCH}, {@link #PARSE} or {@link #AGGREGATE}
+     */
+    public JenkinsPollEvent(String server, String phase) {
+
+        this.server = server;
+        this.phase = phase;
+    }
+
+    public void setJobs(int jobs) {
+
+        this.jobs = jobs;
+    }
+}
@@ -0,0 +1,31 @@
+package org.synyx.sybil.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * SybilEvent. A Java Flight Recorder event of Sybil's I/O, timed from {@link #begin()} to {@link #commit()}. Events
+ * are only written while a recording is running, so they are cheap to create otherwise.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+@Category("Sybil")
+@StackTrace(false)
+public abstract class SybilEvent extends Event {
+
+    @Label("Failure")
+    protected String failure;
+
+    /**
+     * Marks the event as failed.
+     *
+     * @param  exception  The exception it failed with, whose class name is recorded
+     */
+    public void failed(Exception exception) {
+
+        failure = exception.getClass().getSimpleName();
+    }
+}
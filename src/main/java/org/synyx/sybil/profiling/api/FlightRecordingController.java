@@ -0,0 +1,116 @@
+package org.synyx.sybil.profiling.api;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.http.ResponseEntity;
+
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import org.synyx.sybil.bricklet.output.ledstrip.api.APIError;
+import org.synyx.sybil.profiling.dto.FlightRecordingDTO;
+import org.synyx.sybil.profiling.service.FlightRecordingException;
+import org.synyx.sybil.profiling.service.FlightRecordingNotFoundException;
+import org.synyx.sybil.profiling.service.FlightRecordingRunningException;
+import org.synyx.sybil.profiling.service.FlightRecordingService;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.servlet.http.HttpServletResponse;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+
+/**
+ * FlightRecordingController. Starts a Java Flight Recorder recording, and stops it, downloading the .jfr file to be
+ * opened in Java Mission Control.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RestController
+@RequestMapping("/admin/flightrecording")
+public class FlightRecordingController {
+
+    private static final String DEFAULT_DURATION = "60";
+
+    private final FlightRecordingService flightRecordingService;
+
+    @Autowired
+    public FlightRecordingController(FlightRecordingService flightRecordingService) {
+
+        this.flightRecordingService = flightRecordingService;
+    }
+
+    @ResponseStatus(CREATED)
+    @RequestMapping(method = RequestMethod.POST, produces = "application/json")
+    public FlightRecordingDTO start(
+        @RequestParam(value = "duration", defaultValue = DEFAULT_DURATION) long duration,
+        @RequestParam(value = "settings", defaultValue = "default") String settings) {
+
+        return flightRecordingService.start(duration, settings);
+    }
+
+
+    @RequestMapping(method = RequestMethod.GET, produces = "application/json")
+    public FlightRecordingDTO get() {
+
+        return flightRecordingService.getRecording();
+    }
+
+
+    @RequestMapping(method = RequestMethod.DELETE)
+    public void stop(HttpServletResponse response) throws IOException {
+
+        Path file = flightRecordingService.stop();
+
+        try {
+            response.setContentType("application/octet-stream");
+            response.setHeader("Content-Disposition", "attachment; filename=\"sybil.jfr\"");
+            response.setContentLengthLong(Files.size(file));
+
+            Files.copy(file, response.getOutputStream());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+
+    @ExceptionHandler({ FlightRecordingNotFoundException.class })
+    public ResponseEntity<APIError> notFoundError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), NOT_FOUND);
+    }
+
+
+    @ExceptionHandler({ FlightRecordingRunningException.class })
+    public ResponseEntity<APIError> conflictError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), CONFLICT);
+    }
+
+
+    @ExceptionHandler({ IllegalArgumentException.class })
+    public ResponseEntity<APIError> badRequestError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), BAD_REQUEST);
+    }
+
+
+    @ExceptionHandler({ FlightRecordingException.class })
+    public ResponseEntity<APIError> serverError(Exception exception) {
+
+        return new ResponseEntity<>(new APIError(exception.getMessage()), INTERNAL_SERVER_ERROR);
+    }
+}
@@ -0,0 +1,71 @@
+package org.synyx.sybil.profiling.dto;
+
+/**
+ * FlightRecordingDTO. The state of a flight recording, and the bounds it stops or discards data at.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class FlightRecordingDTO {
+
+    private final String state;
+    private final String settings;
+    private final long started;
+    private final long duration;
+    private final long maxSize;
+    private final long size;
+
+    /**
+     * Instantiates a new flight recording DTO.
+     *
+     * @param  state  The state of the recording, e.g. RUNNING or STOPPED
+     * @param  settings  The name of the event settings, default or profile
+     * @param  started  The time the recording was started in milliseconds since the epoch, 0 if it wasn't started yet
+     * @param  duration  The time after which the recording stops itself in seconds
+     * @param  maxSize  The size the recording is kept at by discarding its oldest data in bytes
+     * @param  size  The size of the recording on disk in bytes
+     */
+    public FlightRecordingDTO(String state, String settings, long started, long duration, long maxSize, long size) {
+
+        this.state = state;
+        this.settings = settings;
+        this.started = started;
+        this.duration = duration;
+        this.maxSize = maxSize;
+        this.size = size;
+    }
+
+    public String getState() {
+
+        return state;
+    }
+
+
+    public String getSettings() {
+
+        return settings;
+    }
+
+
+    public long getStarted() {
+
+        return started;
+    }
+
+
+    public long getDuration() {
+
+        return duration;
+    }
+
+
+    public long getMaxSize() {
+
+        return maxSize;
+    }
+
+
+    public long getSize() {
+
+        return size;
+    }
+}
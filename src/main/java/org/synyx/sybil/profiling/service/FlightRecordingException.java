@@ -0,0 +1,20 @@
+package org.synyx.sybil.profiling.service;
+
+/**
+ * FlightRecordingException. Thrown when a recording can't be written.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class FlightRecordingException extends RuntimeException {
+
+    public FlightRecordingException(String message) {
+
+        super(message);
+    }
+
+
+    public FlightRecordingException(String message, Throwable cause) {
+
+        super(message, cause);
+    }
+}
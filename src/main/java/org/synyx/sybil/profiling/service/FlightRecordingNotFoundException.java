@@ -0,0 +1,20 @@
+package org.synyx.sybil.profiling.service;
+
+/**
+ * FlightRecordingNotFoundException.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class FlightRecordingNotFoundException extends RuntimeException {
+
+    public FlightRecordingNotFoundException(String message) {
+
+        super(message);
+    }
+
+
+    public FlightRecordingNotFoundException(String message, Throwable cause) {
+
+        super(message, cause);
+    }
+}
@@ -0,0 +1,20 @@
+package org.synyx.sybil.profiling.service;
+
+/**
+ * FlightRecordingRunningException. Thrown when a recording is started while another one is running.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class FlightRecordingRunningException extends RuntimeException {
+
+    public FlightRecordingRunningException(String message) {
+
+        super(message);
+    }
+
+
+    public FlightRecordingRunningException(String message, Throwable cause) {
+
+        super(message, cause);
+    }
+}
@@ -0,0 +1,198 @@
+package org.synyx.sybil.profiling.service;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.core.env.Environment;
+
+import org.springframework.stereotype.Service;
+
+import org.synyx.sybil.profiling.dto.FlightRecordingDTO;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.text.ParseException;
+
+import java.time.Duration;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.PreDestroy;
+
+
+/**
+ * FlightRecordingService. Runs one Java Flight Recorder recording at a time, bounded in time and size, so incidents
+ * can be profiled in production without attaching a profiler. Besides the JVM's own events, like GC pauses and socket
+ * reads, it records Sybil's events of the brick, sensor and Jenkins I/O.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@Service
+public class FlightRecordingService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FlightRecordingService.class);
+
+    private static final List<String> SETTINGS = Arrays.asList("default", "profile");
+    private static final long DEFAULT_MAX_DURATION = 600;
+    private static final long DEFAULT_MAX_SIZE = 64;
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+    private final long maxDuration;
+    private final long maxSize;
+
+    private Recording recording;
+    private String settings;
+
+    @Autowired
+    public FlightRecordingService(Environment environment) {
+
+        this(environment.getProperty("profiling.recording.max.duration.s", Long.class, DEFAULT_MAX_DURATION),
+            environment.getProperty("profiling.recording.max.size.mb", Long.class, DEFAULT_MAX_SIZE)
+            * BYTES_PER_MEGABYTE);
+    }
+
+
+    /**
+     * Instantiates a new flight recording service.
+     *
+     * @param  maxDuration  The longest time a recording runs in seconds
+     * @param  maxSize  The most disk space a recording uses in bytes, older data is discarded beyond it
+     */
+    public FlightRecordingService(long maxDuration, long maxSize) {
+
+        this.maxDuration = Math.max(1, maxDuration);
+        this.maxSize = Math.max(0, maxSize);
+    }
+
+    /**
+     * Starts a recording, discarding the last one if it wasn't stopped through {@link #stop()}.
+     *
+     * @param  duration  The time after which the recording stops itself in seconds, at most the maximum duration
+     * @param  settingsName  The event settings, default (about 1% overhead) or profile (about 2%, with more detail)
+     *
+     * @return  The started recording
+     *
+     * @throws  FlightRecordingRunningException  if a recording is already running
+     * @throws  IllegalArgumentException  if the settings don't exist, or the duration isn't positive
+     */
+    public synchronized FlightRecordingDTO start(long duration, String settingsName) {
+
+        if (!SETTINGS.contains(settingsName)) {
+            throw new IllegalArgumentException("Settings must be one of " + SETTINGS + ".");
+        }
+
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Duration must be positive.");
+        }
+
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new FlightRecordingRunningException("A recording is already running.");
+        }
+
+        close();
+
+        Recording newRecording;
+
+        try {
+            newRecording = new Recording(Configuration.getConfiguration(settingsName));
+        } catch (IOException | ParseException exception) {
+            throw new IllegalArgumentException("Settings " + settingsName + " can't be loaded.", exception);
+        }
+
+        newRecording.setName("sybil");
+        newRecording.setToDisk(true);
+        newRecording.setDuration(Duration.ofSeconds(Math.min(duration, maxDuration)));
+        newRecording.setMaxSize(maxSize);
+        newRecording.start();
+
+        recording = newRecording;
+        settings = settingsName;
+
+        LOG.info("Started flight recording for " + recording.getDuration().getSeconds() + "s");
+
+        return toDTO();
+    }
+
+
+    /**
+     * Gets the running recording, or the last one if it stopped itself.
+     *
+     * @return  The recording
+     *
+     * @throws  FlightRecordingNotFoundException  if there is none
+     */
+    public synchronized FlightRecordingDTO getRecording() {
+
+        checkRecording();
+
+        return toDTO();
+    }
+
+
+    /**
+     * Stops the recording, unless it already stopped itself, and writes it to a temporary file.
+     *
+     * @return  The file, which has to be deleted by the caller
+     *
+     * @throws  FlightRecordingNotFoundException  if there is no recording
+     * @throws  FlightRecordingException  if the file can't be written
+     */
+    public synchronized Path stop() {
+
+        checkRecording();
+
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+
+        try {
+            Path file = Files.createTempFile("sybil-", ".jfr");
+            recording.dump(file);
+
+            LOG.info("Stopped flight recording, " + Files.size(file) + " bytes");
+
+            return file;
+        } catch (IOException exception) {
+            throw new FlightRecordingException("Error writing the recording:", exception);
+        } finally {
+            close();
+        }
+    }
+
+
+    @PreDestroy
+    public synchronized void close() {
+
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+
+    private void checkRecording() {
+
+        if (recording == null) {
+            throw new FlightRecordingNotFoundException("No recording was started.");
+        }
+    }
+
+
+    private FlightRecordingDTO toDTO() {
+
+        return new FlightRecordingDTO(recording.getState().name(), settings,
+                recording.getStartTime() == null ? 0 : recording.getStartTime().toEpochMilli(),
+                recording.getDuration().getSeconds(), recording.getMaxSize(), recording.getSize());
+    }
+}
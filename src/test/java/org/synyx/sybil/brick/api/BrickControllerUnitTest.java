@@ -0,0 +1,70 @@
+package org.synyx.sybil.brick.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import org.synyx.sybil.brick.dto.BrickDTOService;
+import org.synyx.sybil.brick.dto.BrickHealthDTO;
+import org.synyx.sybil.brick.service.BrickNotFoundException;
+
+import java.util.Arrays;
+
+import static org.mockito.Mockito.when;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class BrickControllerUnitTest {
+
+    @Mock
+    private BrickDTOService brickDTOServiceMock;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+
+        mockMvc = standaloneSetup(new BrickController(brickDTOServiceMock)).build();
+    }
+
+
+    @Test
+    public void getHealthOfAllBricks() throws Exception {
+
+        // setup
+        when(brickDTOServiceMock.getHealth()).thenReturn(Arrays.asList(
+                new BrickHealthDTO("one", "CONNECTED", 1000, 0, 1),
+                new BrickHealthDTO("two", "DISCONNECTED", 2000, 3, 0)));
+
+        // execution & verification
+        mockMvc.perform(get("/configuration/bricks/health"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].name").value("one"))
+            .andExpect(jsonPath("$[0].resets").value(1))
+            .andExpect(jsonPath("$[1].state").value("DISCONNECTED"))
+            .andExpect(jsonPath("$[1].reconnects").value(3));
+    }
+
+
+    @Test
+    public void getHealthOfUnknownBrick() throws Exception {
+
+        // setup
+        when(brickDTOServiceMock.getHealth("none")).thenThrow(new BrickNotFoundException("not configured"));
+
+        // execution & verification
+        mockMvc.perform(get("/configuration/bricks/none/health")).andExpect(status().isNotFound());
+    }
+}
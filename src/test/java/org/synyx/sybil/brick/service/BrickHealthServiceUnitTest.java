@@ -0,0 +1,206 @@
+package org.synyx.sybil.brick.service;
+
+import com.tinkerforge.IPConnection;
+import com.tinkerforge.NetworkException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import org.powermock.core.classloader.annotations.PrepareForTest;
+
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import org.synyx.sybil.brick.persistence.Brick;
+import org.synyx.sybil.brick.persistence.BrickRepository;
+
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static org.powermock.api.mockito.PowerMockito.whenNew;
+
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(BrickHealthService.class)
+public class BrickHealthServiceUnitTest {
+
+    @Mock
+    private IPConnection ipConnectionMock;
+
+    @Mock
+    private BrickRepository brickRepository;
+
+    @Mock
+    private BrickResetListener resetListenerMock;
+
+    private BrickHealthService sut;
+
+    @Before
+    public void setup() throws Exception {
+
+        Brick brick = new Brick("host", "abc");
+
+        when(brickRepository.get("host")).thenReturn(brick);
+        when(brickRepository.getAll()).thenReturn(Collections.singletonList(brick));
+
+        whenNew(IPConnection.class).withNoArguments().thenReturn(ipConnectionMock);
+
+        sut = new BrickHealthService(brickRepository, 0);
+        sut.addResetListener(resetListenerMock);
+    }
+
+
+    @After
+    public void tearDown() {
+
+        sut.shutdown();
+    }
+
+
+    @Test
+    public void unmonitoredBrickIsUnknown() {
+
+        assertThat(sut.getHealth("host").getState(), is(BrickState.UNKNOWN));
+        assertThat(sut.isDown("host"), is(false));
+    }
+
+
+    @Test(expected = BrickNotFoundException.class)
+    public void healthOfUnknownBrick() {
+
+        sut.getHealth("none");
+    }
+
+
+    @Test
+    public void connect() throws Exception {
+
+        // execution
+        sut.check();
+
+        // verification
+        verify(ipConnectionMock).setAutoReconnect(true);
+        verify(ipConnectionMock).connect("host", 4223);
+        assertThat(sut.getHealth("host").getState(), is(BrickState.CONNECTED));
+        verify(resetListenerMock, never()).brickReset("host");
+    }
+
+
+    @Test
+    public void failedConnectionIsRetried() throws Exception {
+
+        // setup
+        doThrow(NetworkException.class).doNothing().when(ipConnectionMock).connect("host", 4223);
+
+        // execution & verification
+        sut.check();
+
+        assertThat(sut.isDown("host"), is(true));
+
+        sut.check();
+
+        assertThat(sut.isDown("host"), is(false));
+        verify(resetListenerMock).brickReset("host");
+    }
+
+
+    @Test
+    public void lostConnectionIsReconnected() throws Exception {
+
+        // setup
+        ArgumentCaptor<IPConnection.ConnectedListener> connected = ArgumentCaptor.forClass(
+                IPConnection.ConnectedListener.class);
+        ArgumentCaptor<IPConnection.DisconnectedListener> disconnected = ArgumentCaptor.forClass(
+                IPConnection.DisconnectedListener.class);
+
+        sut.check();
+
+        verify(ipConnectionMock).addConnectedListener(connected.capture());
+        verify(ipConnectionMock).addDisconnectedListener(disconnected.capture());
+
+        // execution & verification
+        disconnected.getValue().disconnected(IPConnection.DISCONNECT_REASON_ERROR);
+
+        assertThat(sut.isDown("host"), is(true));
+
+        when(ipConnectionMock.getConnectionState()).thenReturn(IPConnection.CONNECTION_STATE_PENDING);
+        sut.check();
+
+        verify(ipConnectionMock, times(1)).connect("host", 4223);
+
+        connected.getValue().connected(IPConnection.CONNECT_REASON_AUTO_RECONNECT);
+
+        assertThat(sut.isDown("host"), is(false));
+        assertThat(sut.getHealth("host").getReconnects(), is(1));
+        verify(resetListenerMock).brickReset("host");
+    }
+
+
+    @Test
+    public void restartedBrickResetsOnce() throws Exception {
+
+        // setup
+        ArgumentCaptor<IPConnection.EnumerateListener> enumerate = ArgumentCaptor.forClass(
+                IPConnection.EnumerateListener.class);
+
+        sut.check();
+
+        verify(ipConnectionMock).addEnumerateListener(enumerate.capture());
+
+        // execution
+        enumerate.getValue().enumerate("abc", "0", '0', new short[3], new short[3], 13,
+            IPConnection.ENUMERATION_TYPE_AVAILABLE);
+        enumerate.getValue().enumerate("abc", "0", '0', new short[3], new short[3], 13,
+            IPConnection.ENUMERATION_TYPE_CONNECTED);
+        enumerate.getValue().enumerate("xyz", "abc", 'a', new short[3], new short[3], 231,
+            IPConnection.ENUMERATION_TYPE_CONNECTED);
+        enumerate.getValue().enumerate("uvw", "abc", 'b', new short[3], new short[3], 21,
+            IPConnection.ENUMERATION_TYPE_CONNECTED);
+
+        // verification
+        verify(resetListenerMock, times(1)).brickReset("host");
+        assertThat(sut.getHealth("host").getResets(), is(1));
+    }
+
+
+    @Test
+    public void restartedBrickWithoutUidIsConnectedToHost() throws Exception {
+
+        // setup
+        Brick brick = new Brick("host", null);
+
+        when(brickRepository.get("host")).thenReturn(brick);
+        when(brickRepository.getAll()).thenReturn(Collections.singletonList(brick));
+
+        ArgumentCaptor<IPConnection.EnumerateListener> enumerate = ArgumentCaptor.forClass(
+                IPConnection.EnumerateListener.class);
+
+        sut.check();
+
+        verify(ipConnectionMock).addEnumerateListener(enumerate.capture());
+
+        // execution
+        enumerate.getValue().enumerate("abc", "0", '0', new short[3], new short[3], 13,
+            IPConnection.ENUMERATION_TYPE_CONNECTED);
+        enumerate.getValue().enumerate("xyz", "abc", 'a', new short[3], new short[3], 231,
+            IPConnection.ENUMERATION_TYPE_CONNECTED);
+
+        // verification
+        verify(resetListenerMock, times(1)).brickReset("host");
+        assertThat(sut.getHealth("host").getResets(), is(1));
+    }
+}
@@ -16,6 +16,7 @@ import org.powermock.modules.junit4.PowerMockRunner;
 
 import org.synyx.sybil.brick.persistence.Brick;
 import org.synyx.sybil.brick.persistence.BrickRepository;
+import org.synyx.sybil.metrics.MetricsService;
 
 import java.util.Arrays;
 import java.util.List;
@@ -24,6 +25,12 @@ import static org.hamcrest.CoreMatchers.is;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import static org.junit.Assert.fail;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -48,6 +55,9 @@ public class BrickServiceUnitTest {
     @Mock
     BrickRepository brickRepository;
 
+    @Mock
+    BrickHealthService brickHealthServiceMock;
+
     @Before
     public void setup() throws Exception {
 
@@ -64,7 +74,7 @@ public class BrickServiceUnitTest {
         whenNew(IPConnection.class).withNoArguments().thenReturn(ipConnectionMock);
         whenNew(BrickMaster.class).withAnyArguments().thenReturn(brickMasterMock);
 
-        sut = new BrickService(brickRepository);
+        sut = new BrickService(brickRepository, brickHealthServiceMock, new MetricsService());
     }
 
 
@@ -80,6 +90,25 @@ public class BrickServiceUnitTest {
     }
 
 
+    @Test
+    public void connectFailsFastWhileBrickIsDown() throws Exception {
+
+        // setup
+        when(brickHealthServiceMock.isDown("host")).thenReturn(true);
+
+        // execution
+        try {
+            sut.connect("host");
+            fail("Connecting to a brick that is down should fail");
+        } catch (BrickConnectionException exception) {
+            // expected
+        }
+
+        // verification
+        verify(ipConnectionMock, never()).connect(anyString(), anyInt());
+    }
+
+
     @Test
     public void reset() throws Exception {
 
@@ -0,0 +1,71 @@
+package org.synyx.sybil.bricklet.input.illuminance.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import org.synyx.sybil.bricklet.input.illuminance.dto.IlluminanceDTOService;
+import org.synyx.sybil.bricklet.input.illuminance.dto.IlluminanceHistoryDTO;
+import org.synyx.sybil.bricklet.input.illuminance.dto.IlluminanceReadingDTO;
+import org.synyx.sybil.bricklet.input.illuminance.service.IlluminanceNotFoundException;
+
+import java.util.Arrays;
+
+import static org.mockito.Mockito.when;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class IlluminanceControllerUnitTest {
+
+    @Mock
+    private IlluminanceDTOService illuminanceDTOServiceMock;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+
+        mockMvc = standaloneSetup(new IlluminanceController(illuminanceDTOServiceMock)).build();
+    }
+
+
+    @Test
+    public void getHistory() throws Exception {
+
+        // setup
+        when(illuminanceDTOServiceMock.getHistory("ambientlight")).thenReturn(new IlluminanceHistoryDTO(
+                Arrays.asList(new IlluminanceReadingDTO(1000, 120), new IlluminanceReadingDTO(2000, 140)), 130.0, 120,
+                140, 130.0, 130.0));
+
+        // execution & verification
+        mockMvc.perform(get("/configuration/illuminances/ambientlight/history"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.readings[1].time").value(2000))
+            .andExpect(jsonPath("$.readings[1].illuminance").value(140))
+            .andExpect(jsonPath("$.smoothed").value(130.0))
+            .andExpect(jsonPath("$.maximum").value(140));
+    }
+
+
+    @Test
+    public void getHistoryOfUnknownSensor() throws Exception {
+
+        // setup
+        when(illuminanceDTOServiceMock.getHistory("none")).thenThrow(new IlluminanceNotFoundException("not found"));
+
+        // execution & verification
+        mockMvc.perform(get("/configuration/illuminances/none/history")).andExpect(status().isNotFound());
+    }
+}
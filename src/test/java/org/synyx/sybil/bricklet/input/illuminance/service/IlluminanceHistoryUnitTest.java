@@ -0,0 +1,92 @@
+package org.synyx.sybil.bricklet.input.illuminance.service;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+
+import static org.junit.Assert.assertThat;
+
+
+public class IlluminanceHistoryUnitTest {
+
+    @Test
+    public void firstReadingIsNotSmoothed() {
+
+        IlluminanceHistory sut = new IlluminanceHistory(4, 3, 0.5);
+
+        assertThat(sut.add(1, 100), is(100.0));
+    }
+
+
+    @Test
+    public void medianDropsOutlier() {
+
+        IlluminanceHistory sut = new IlluminanceHistory(4, 3, 1.0);
+
+        sut.add(1, 100);
+        sut.add(2, 100);
+
+        assertThat(sut.add(3, 900), is(100.0));
+    }
+
+
+    @Test
+    public void movingAverage() {
+
+        IlluminanceHistory sut = new IlluminanceHistory(4, 1, 0.5);
+
+        sut.add(1, 100);
+
+        assertThat(sut.add(2, 200), is(150.0));
+        assertThat(sut.add(3, 200), is(175.0));
+    }
+
+
+    @Test
+    public void oldestReadingIsOverwritten() {
+
+        IlluminanceHistory sut = new IlluminanceHistory(3, 1, 1.0);
+
+        for (int reading = 1; reading <= 5; reading++) {
+            sut.add(reading * 10, reading);
+        }
+
+        IlluminanceReadings result = sut.getReadings();
+
+        assertThat(result.size(), is(3));
+        assertThat(result.getReading(0), is(3));
+        assertThat(result.getTime(0), is(30L));
+        assertThat(result.getReading(2), is(5));
+        assertThat(result.getSmoothed(), is(5.0));
+    }
+
+
+    @Test
+    public void aggregates() {
+
+        IlluminanceHistory sut = new IlluminanceHistory(8, 1, 1.0);
+
+        sut.add(1, 40);
+        sut.add(2, 10);
+        sut.add(3, 30);
+        sut.add(4, 20);
+
+        IlluminanceReadings result = sut.getReadings();
+
+        assertThat(result.getMinimum(), is(10));
+        assertThat(result.getMaximum(), is(40));
+        assertThat(result.getMean(), is(25.0));
+        assertThat(result.getMedian(), is(25.0));
+    }
+
+
+    @Test
+    public void empty() {
+
+        IlluminanceReadings result = new IlluminanceHistory(8, 3, 0.5).getReadings();
+
+        assertThat(result.size(), is(0));
+        assertThat(result.getMedian(), is(0.0));
+        assertThat(result.getMinimum(), is(0));
+    }
+}
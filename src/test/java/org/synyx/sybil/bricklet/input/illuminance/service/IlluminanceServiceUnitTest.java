@@ -13,6 +13,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import org.synyx.sybil.bricklet.input.illuminance.persistence.Illuminance;
 import org.synyx.sybil.bricklet.input.illuminance.persistence.IlluminanceRepository;
+import org.synyx.sybil.metrics.MetricsService;
 
 import java.lang.reflect.Constructor;
 
@@ -50,7 +51,8 @@ public class IlluminanceServiceUnitTest {
 
         when(illuminanceRepository.get("ambientlight")).thenReturn(illuminance);
 
-        sut = new IlluminanceService(brickletAmbientLightWrapperService, illuminanceRepository);
+        sut = new IlluminanceService(brickletAmbientLightWrapperService, illuminanceRepository,
+                new MetricsService(), 4, 3, 0.5);
     }
 
 
@@ -99,6 +101,50 @@ public class IlluminanceServiceUnitTest {
     }
 
 
+    @Test
+    public void singleBrightSpikeIsIgnored() throws Exception {
+
+        // setup
+        when(brickletAmbientLightWrapperMock.getIlluminance()).thenReturn(140, 140, 2000);
+
+        // execution
+        sut.getBrightness("ambientlight");
+        sut.getBrightness("ambientlight");
+        double brightness = sut.getBrightness("ambientlight");
+
+        // verification
+        assertThat(brightness, is(3.0));
+    }
+
+
+    @Test
+    public void getReadings() throws Exception {
+
+        // setup
+        when(brickletAmbientLightWrapperMock.getIlluminance()).thenReturn(100, 120, 140, 160, 180);
+
+        for (int reading = 0; reading < 5; reading++) {
+            sut.getBrightness("ambientlight");
+        }
+
+        // execution
+        IlluminanceReadings readings = sut.getReadings("ambientlight");
+
+        // verification
+        assertThat(readings.size(), is(4));
+        assertThat(readings.getReading(0), is(120));
+        assertThat(readings.getReading(3), is(180));
+        assertThat(readings.getMean(), is(150.0));
+    }
+
+
+    @Test(expected = IlluminanceNotFoundException.class)
+    public void getReadingsNonExistentSensor() {
+
+        sut.getReadings("does_not_exist");
+    }
+
+
     @Test(expected = IlluminanceNotFoundException.class)
     public void getBrightnessNonExistentSensor() {
 
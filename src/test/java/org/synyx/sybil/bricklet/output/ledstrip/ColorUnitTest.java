@@ -111,4 +111,26 @@ public class ColorUnitTest {
         // verification
         assertThat(color, is(new Color(255, 0, 0)));
     }
+
+
+    @Test
+    public void packed() throws Exception {
+
+        Color color = new Color(1, 2, 3);
+
+        assertThat(color.getRGB(), is(0x010203));
+        assertThat(Color.valueOf(0x010203), is(color));
+        assertThat(Color.valueOf(0x010203).hashCode(), is(color.hashCode()));
+        assertThat(Color.red(0xFF0000), is(255));
+        assertThat(Color.green(0xFF0000), is(0));
+    }
+
+
+    @Test
+    public void valueOfReusesCommonColors() throws Exception {
+
+        assertThat(Color.valueOf(0) == Color.BLACK, is(true));
+        assertThat(Color.valueOf(0xFFFFFF) == Color.WHITE, is(true));
+        assertThat(Color.valueOf(0x123456) == Color.valueOf(0x123456), is(true));
+    }
 }
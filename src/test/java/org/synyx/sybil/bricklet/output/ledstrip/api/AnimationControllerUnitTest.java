@@ -0,0 +1,152 @@
+package org.synyx.sybil.bricklet.output.ledstrip.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.springframework.http.MediaType;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import org.synyx.sybil.bricklet.output.ledstrip.dto.AnimationDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTOService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripNotFoundException;
+import org.synyx.sybil.bricklet.output.ledstrip.service.UnknownEffectException;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class AnimationControllerUnitTest {
+
+    @Mock
+    private LEDStripDTOService ledStripDTOServiceMock;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+
+        mockMvc = standaloneSetup(new AnimationController(ledStripDTOServiceMock)).build();
+    }
+
+
+    @Test
+    public void putAnimation() throws Exception {
+
+        // execution
+        mockMvc.perform(put("/configuration/ledstrips/one/animation").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"effect\":\"pulse\",\"pixels\":[{\"red\":255,\"green\":0,\"blue\":0}],\"frames\":80}"))
+            .andExpect(status().isNoContent());
+
+        // verification
+        verify(ledStripDTOServiceMock).startAnimation(eq("one"), any(AnimationDTO.class));
+    }
+
+
+    @Test
+    public void putAnimationWithUnknownEffect() throws Exception {
+
+        // execution
+        mockMvc.perform(put("/configuration/ledstrips/one/animation").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"effect\":\"explode\",\"pixels\":[]}"))
+            .andExpect(status().isBadRequest());
+
+        // verification
+        verify(ledStripDTOServiceMock, never()).startAnimation(anyString(), any(AnimationDTO.class));
+    }
+
+
+    @Test
+    public void putAnimationWithEffectUnknownToService() throws Exception {
+
+        // setup
+        doThrow(new UnknownEffectException("Test")).when(ledStripDTOServiceMock).startAnimation(eq("one"),
+            any(AnimationDTO.class));
+
+        // execution & verification
+        mockMvc.perform(put("/configuration/ledstrips/one/animation").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"effect\":\"scroll\",\"pixels\":[]}"))
+            .andExpect(status().isBadRequest());
+    }
+
+
+    @Test
+    public void putChaseWithoutColor() throws Exception {
+
+        // execution
+        mockMvc.perform(put("/configuration/ledstrips/one/animation").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"effect\":\"chase\"}"))
+            .andExpect(status().isBadRequest());
+
+        // verification
+        verify(ledStripDTOServiceMock, never()).startAnimation(anyString(), any(AnimationDTO.class));
+    }
+
+
+    @Test
+    public void putAnimationOnUnknownLEDStrip() throws Exception {
+
+        // setup
+        doThrow(new LEDStripNotFoundException("Test")).when(ledStripDTOServiceMock).startAnimation(eq("none"),
+            any(AnimationDTO.class));
+
+        // execution & verification
+        mockMvc.perform(put("/configuration/ledstrips/none/animation").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"effect\":\"scroll\",\"pixels\":[]}"))
+            .andExpect(status().isNotFound());
+    }
+
+
+    @Test
+    public void getAnimation() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.getAnimation("one")).thenReturn(new AnimationDTO("chase", null, null, null, 0,
+                0));
+
+        // execution & verification
+        mockMvc.perform(get("/configuration/ledstrips/one/animation"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.effect", is("chase")));
+    }
+
+
+    @Test
+    public void getNoAnimation() throws Exception {
+
+        mockMvc.perform(get("/configuration/ledstrips/one/animation")).andExpect(status().isNoContent());
+    }
+
+
+    @Test
+    public void deleteAnimation() throws Exception {
+
+        // execution
+        mockMvc.perform(delete("/configuration/ledstrips/one/animation")).andExpect(status().isNoContent());
+
+        // verification
+        verify(ledStripDTOServiceMock).stopAnimation("one");
+    }
+}
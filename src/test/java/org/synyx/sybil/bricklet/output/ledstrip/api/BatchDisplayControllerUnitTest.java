@@ -0,0 +1,103 @@
+package org.synyx.sybil.bricklet.output.ledstrip.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.springframework.http.MediaType;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import org.synyx.sybil.LoadFailedException;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripBatchDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTOService;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripResultDTO;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.hamcrest.Matchers.hasSize;
+
+import static org.mockito.Matchers.any;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class BatchDisplayControllerUnitTest {
+
+    private static final String BATCH = "{\"ledstrips\":{"
+        + "\"one\":{\"pixels\":[{\"red\":255,\"green\":0,\"blue\":0}]},"
+        + "\"two\":{\"pixels\":[{\"red\":0,\"green\":255,\"blue\":0}]}}}";
+
+    @Mock
+    private LEDStripDTOService ledStripDTOServiceMock;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+
+        mockMvc = standaloneSetup(new BatchDisplayController(ledStripDTOServiceMock)).build();
+    }
+
+
+    @Test
+    public void putDisplays() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.setColorsOfLEDStrips(any(LEDStripBatchDTO.class))).thenReturn(Arrays.asList(
+                new LEDStripResultDTO("one", true, null), new LEDStripResultDTO("two", false, "Test")));
+
+        // execution & verification
+        mockMvc.perform(put("/configuration/ledstrips/display").contentType(MediaType.APPLICATION_JSON)
+                .content(BATCH))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].name", is("one")))
+            .andExpect(jsonPath("$[0].success", is(true)))
+            .andExpect(jsonPath("$[1].name", is("two")))
+            .andExpect(jsonPath("$[1].success", is(false)))
+            .andExpect(jsonPath("$[1].error", is("Test")));
+    }
+
+
+    @Test
+    public void putDisplaysWithoutPixels() throws Exception {
+
+        // execution
+        mockMvc.perform(put("/configuration/ledstrips/display").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ledstrips\":{\"one\":{}}}"))
+            .andExpect(status().isBadRequest());
+
+        // verification
+        verify(ledStripDTOServiceMock, never()).setColorsOfLEDStrips(any(LEDStripBatchDTO.class));
+    }
+
+
+    @Test
+    public void putDisplaysWithFailingConfig() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.setColorsOfLEDStrips(any(LEDStripBatchDTO.class))).thenThrow(
+            new LoadFailedException("Test"));
+
+        // execution & verification
+        mockMvc.perform(put("/configuration/ledstrips/display").contentType(MediaType.APPLICATION_JSON)
+                .content(BATCH))
+            .andExpect(status().isInternalServerError());
+    }
+}
@@ -18,10 +18,15 @@ import org.springframework.http.MediaType;
 
 import org.springframework.test.web.servlet.MockMvc;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
 import org.synyx.sybil.LoadFailedException;
 import org.synyx.sybil.bricklet.output.ledstrip.Color;
 import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTO;
 import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTOService;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripPatchDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripStreamService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.FrameBufferModifiedException;
 import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripNotFoundException;
 
 import java.util.ArrayList;
@@ -31,6 +36,8 @@ import static org.hamcrest.CoreMatchers.is;
 
 import static org.hamcrest.Matchers.hasSize;
 
+import static org.mockito.AdditionalMatchers.aryEq;
+
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 
@@ -39,8 +46,12 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
 
@@ -51,6 +62,9 @@ public class DisplayControllerUnitTest {
     @Mock
     private LEDStripDTOService ledStripDTOServiceMock;
 
+    @Mock
+    private LEDStripStreamService ledStripStreamServiceMock;
+
     private DisplayController sut;
     private MockMvc mockMvc;
     private List<Color> colors;
@@ -68,8 +82,12 @@ public class DisplayControllerUnitTest {
         colors.add(Color.WHITE);
 
         when(ledStripDTOServiceMock.get("ledone")).thenReturn(new LEDStripDTO(colors));
+        when(ledStripDTOServiceMock.setColorsOfLEDStrip(eq("ledone"), any(LEDStripDTO.class))).thenReturn(
+            new LEDStripDTO(colors, 8));
+        when(ledStripDTOServiceMock.setColorsOfLEDStrip(eq("ledone"), any(LEDStripDTO.class), any(long[].class)))
+            .thenReturn(new LEDStripDTO(colors, 8));
 
-        sut = new DisplayController(ledStripDTOServiceMock);
+        sut = new DisplayController(ledStripDTOServiceMock, ledStripStreamServiceMock);
         mockMvc = standaloneSetup(sut).build();
     }
 
@@ -90,7 +108,7 @@ public class DisplayControllerUnitTest {
         // setup
         when(ledStripDTOServiceMock.get("ledone")).thenThrow(new LoadFailedException("test"));
 
-        sut = new DisplayController(ledStripDTOServiceMock);
+        sut = new DisplayController(ledStripDTOServiceMock, ledStripStreamServiceMock);
         mockMvc = standaloneSetup(sut).build();
 
         // execution & verification
@@ -122,6 +140,133 @@ public class DisplayControllerUnitTest {
     }
 
 
+    @Test
+    public void getDisplayWithETag() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.get("ledone")).thenReturn(new LEDStripDTO(colors, 7));
+
+        // execution & verification
+        mockMvc.perform(get("/configuration/ledstrips/ledone/display"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"7\""))
+            .andExpect(jsonPath("$.pixels", hasSize(5)))
+            .andExpect(jsonPath("$.generation").doesNotExist());
+    }
+
+
+    @Test
+    public void getUnmodifiedDisplay() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.getGeneration("ledone")).thenReturn(7L);
+
+        // execution
+        mockMvc.perform(get("/configuration/ledstrips/ledone/display").header("If-None-Match", "\"3\", W/\"7\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"7\""))
+            .andExpect(content().string(""));
+
+        // verification
+        verify(ledStripDTOServiceMock, never()).get("ledone");
+    }
+
+
+    @Test
+    public void getModifiedDisplay() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.getGeneration("ledone")).thenReturn(8L);
+        when(ledStripDTOServiceMock.get("ledone")).thenReturn(new LEDStripDTO(colors, 8));
+
+        // execution & verification
+        mockMvc.perform(get("/configuration/ledstrips/ledone/display").header("If-None-Match", "\"7\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"8\""))
+            .andExpect(jsonPath("$.pixels", hasSize(5)));
+    }
+
+
+    @Test
+    public void getDisplayFromHardware() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.readBack("ledone")).thenReturn(new LEDStripDTO(colors, 7));
+
+        // execution
+        mockMvc.perform(get("/configuration/ledstrips/ledone/display").param("source", "hardware"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"7\""))
+            .andExpect(jsonPath("$.pixels", hasSize(5)));
+
+        // verification
+        verify(ledStripDTOServiceMock, never()).get("ledone");
+    }
+
+
+    @Test
+    public void putDisplayIfMatch() throws Exception {
+
+        // execution
+        mockMvc.perform(put("/configuration/ledstrips/ledone/display").contentType(MediaType.APPLICATION_JSON)
+                .header("If-Match", "\"7\"")
+                .content(objectMapper.writeValueAsBytes(new LEDStripDTO(colors))))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"8\""));
+
+        // verification
+        verify(ledStripDTOServiceMock).setColorsOfLEDStrip(eq("ledone"), any(LEDStripDTO.class),
+            aryEq(new long[] { 7 }));
+        verify(ledStripDTOServiceMock, never()).setColorsOfLEDStrip(eq("ledone"), any(LEDStripDTO.class));
+    }
+
+
+    @Test
+    public void putDisplayIfMatchWithList() throws Exception {
+
+        // execution
+        mockMvc.perform(put("/configuration/ledstrips/ledone/display").contentType(MediaType.APPLICATION_JSON)
+                .header("If-Match", "\"6\", \"7\"")
+                .content(objectMapper.writeValueAsBytes(new LEDStripDTO(colors))))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"8\""));
+
+        // verification
+        verify(ledStripDTOServiceMock).setColorsOfLEDStrip(eq("ledone"), any(LEDStripDTO.class),
+            aryEq(new long[] { 6, 7 }));
+    }
+
+
+    @Test
+    public void putDisplayIfMatchWithStaleGeneration() throws Exception {
+
+        // setup
+        Mockito.doThrow(new FrameBufferModifiedException("Test")).when(ledStripDTOServiceMock).setColorsOfLEDStrip(
+            eq("ledone"), any(LEDStripDTO.class), any(long[].class));
+
+        // execution & verification
+        mockMvc.perform(put("/configuration/ledstrips/ledone/display").contentType(MediaType.APPLICATION_JSON)
+                .header("If-Match", "\"6\"")
+                .content(objectMapper.writeValueAsBytes(new LEDStripDTO(colors))))
+            .andExpect(status().isPreconditionFailed());
+    }
+
+
+    @Test
+    public void putDisplayIfMatchWithWeakETag() throws Exception {
+
+        // execution
+        mockMvc.perform(put("/configuration/ledstrips/ledone/display").contentType(MediaType.APPLICATION_JSON)
+                .header("If-Match", "W/\"7\"")
+                .content(objectMapper.writeValueAsBytes(new LEDStripDTO(colors))))
+            .andExpect(status().isOk());
+
+        // verification
+        verify(ledStripDTOServiceMock).setColorsOfLEDStrip(eq("ledone"), any(LEDStripDTO.class),
+            aryEq(new long[0]));
+    }
+
+
     @Test
     public void putFullDisplay() throws Exception {
 
@@ -131,11 +276,14 @@ public class DisplayControllerUnitTest {
         // execution
         mockMvc.perform(put("/configuration/ledstrips/ledone/display").contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsBytes(ledStripDTO)))
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"8\""))
+            .andExpect(jsonPath("$.pixels", hasSize(5)));
 
         // verification
         verify(ledStripDTOServiceMock).setColorsOfLEDStrip(eq("ledone"),
             Mockito.argThat(Matchers.<LEDStripDTO>hasProperty("pixels", Matchers.is(colors))));
+        verify(ledStripDTOServiceMock, never()).get("ledone");
     }
 
 
@@ -173,4 +321,95 @@ public class DisplayControllerUnitTest {
         // verification
         verify(ledStripDTOServiceMock, never()).setColorsOfLEDStrip(any(String.class), any(LEDStripDTO.class));
     }
+
+
+    @Test
+    public void patchDisplay() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.patch(eq("ledone"), any(LEDStripPatchDTO.class))).thenReturn(new LEDStripDTO(
+                colors));
+
+        String content = "{\"ranges\":[{\"offset\":3,\"pixels\":[{\"red\":255,\"green\":0,\"blue\":0}]}],"
+            + "\"fills\":[{\"offset\":0,\"length\":2,\"color\":{\"red\":0,\"green\":16,\"blue\":0}}]}";
+
+        // execution
+        mockMvc.perform(patch("/configuration/ledstrips/ledone/display").contentType(MediaType.APPLICATION_JSON)
+                .content(content))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.pixels", hasSize(5)));
+
+        // verification
+        verify(ledStripDTOServiceMock).patch(eq("ledone"),
+            Mockito.argThat(Matchers.<LEDStripPatchDTO>hasProperty("fills", hasSize(1))));
+    }
+
+
+    @Test
+    public void patchDisplayIfMatch() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.patch(eq("ledone"), any(LEDStripPatchDTO.class), aryEq(new long[] { 4 })))
+            .thenReturn(new LEDStripDTO(colors, 5));
+
+        String content = "{\"fills\":[{\"offset\":0,\"length\":2,\"color\":{\"red\":0,\"green\":16,\"blue\":0}}]}";
+
+        // execution & verification
+        mockMvc.perform(patch("/configuration/ledstrips/ledone/display").contentType(MediaType.APPLICATION_JSON)
+                .header("If-Match", "\"4\"")
+                .content(content))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"5\""));
+    }
+
+
+    @Test
+    public void patchEmptyDisplay() throws Exception {
+
+        // execution
+        mockMvc.perform(patch("/configuration/ledstrips/ledone/display").contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+            .andExpect(status().isBadRequest());
+
+        // verification
+        verify(ledStripDTOServiceMock, never()).patch(any(String.class), any(LEDStripPatchDTO.class));
+    }
+
+
+    @Test
+    public void patchInvalidRange() throws Exception {
+
+        // execution
+        mockMvc.perform(patch("/configuration/ledstrips/ledone/display").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fills\":[{\"offset\":-1,\"length\":2,\"color\":{}}]}"))
+            .andExpect(status().isBadRequest());
+
+        // verification
+        verify(ledStripDTOServiceMock, never()).patch(any(String.class), any(LEDStripPatchDTO.class));
+    }
+
+
+    @Test
+    public void streamDisplay() throws Exception {
+
+        // setup
+        when(ledStripStreamServiceMock.subscribe("ledone")).thenReturn(new SseEmitter());
+
+        // execution & verification
+        mockMvc.perform(get("/configuration/ledstrips/ledone/display/stream").accept("text/event-stream"))
+            .andExpect(status().isOk())
+            .andExpect(request().asyncStarted());
+
+        verify(ledStripStreamServiceMock).subscribe("ledone");
+    }
+
+
+    @Test
+    public void streamMissingDisplay() throws Exception {
+
+        when(ledStripStreamServiceMock.subscribe("doesntexist")).thenThrow(new LEDStripNotFoundException(
+                "LED strip is not configured."));
+
+        mockMvc.perform(get("/configuration/ledstrips/doesntexist/display/stream")).andExpect(status().isNotFound());
+    }
 }
@@ -0,0 +1,47 @@
+package org.synyx.sybil.bricklet.output.ledstrip.api;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.junit.Assert.assertThat;
+
+
+public class EntityTagsUnitTest {
+
+    @Test
+    public void of() {
+
+        assertThat(EntityTags.of(42), is("\"42\""));
+    }
+
+
+    @Test
+    public void matches() {
+
+        assertThat(EntityTags.matches("\"42\"", 42), is(true));
+        assertThat(EntityTags.matches("\"1\", W/\"42\"", 42), is(true));
+        assertThat(EntityTags.matches("*", 42), is(true));
+        assertThat(EntityTags.matches("\"41\"", 42), is(false));
+        assertThat(EntityTags.matches("42", 42), is(false));
+        assertThat(EntityTags.matches("\"\"", 42), is(false));
+        assertThat(EntityTags.matches(null, 42), is(false));
+    }
+
+
+    @Test
+    public void expectedGenerations() {
+
+        assertThat(EntityTags.expectedGenerations(" \"42\" "), is(new long[] { 42 }));
+        assertThat(EntityTags.expectedGenerations("W/\"42\""), is(new long[0]));
+        assertThat(EntityTags.expectedGenerations("\"abc\""), is(new long[0]));
+    }
+
+
+    @Test
+    public void expectedGenerationsOfList() {
+
+        assertThat(EntityTags.expectedGenerations("\"3\", \"4\""), is(new long[] { 3, 4 }));
+        assertThat(EntityTags.expectedGenerations("\"3\", W/\"4\",\"abc\""), is(new long[] { 3 }));
+    }
+}
@@ -0,0 +1,103 @@
+package org.synyx.sybil.bricklet.output.ledstrip.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.springframework.http.MediaType;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTOService;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripResultDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripNotFoundException;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.hamcrest.Matchers.hasSize;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class GroupDisplayControllerUnitTest {
+
+    private static final String FRAME = "{\"pixels\":[{\"red\":255,\"green\":0,\"blue\":0}]}";
+
+    @Mock
+    private LEDStripDTOService ledStripDTOServiceMock;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+
+        mockMvc = standaloneSetup(new GroupDisplayController(ledStripDTOServiceMock)).build();
+    }
+
+
+    @Test
+    public void putDisplay() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.setColorsOfGroup(eq("hallway"), any(LEDStripDTO.class))).thenReturn(Arrays
+            .asList(new LEDStripResultDTO("one", true, null), new LEDStripResultDTO("two", false, "Test")));
+
+        // execution & verification
+        mockMvc.perform(put("/configuration/ledstripgroups/hallway/display").contentType(MediaType.APPLICATION_JSON)
+                .content(FRAME))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].name", is("one")))
+            .andExpect(jsonPath("$[0].success", is(true)))
+            .andExpect(jsonPath("$[1].name", is("two")))
+            .andExpect(jsonPath("$[1].success", is(false)))
+            .andExpect(jsonPath("$[1].error", is("Test")));
+    }
+
+
+    @Test
+    public void putDisplayWithoutPixels() throws Exception {
+
+        // execution
+        mockMvc.perform(put("/configuration/ledstripgroups/hallway/display").contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+            .andExpect(status().isBadRequest());
+
+        // verification
+        verify(ledStripDTOServiceMock, never()).setColorsOfGroup(anyString(), any(LEDStripDTO.class));
+    }
+
+
+    @Test
+    public void putDisplayOfUnknownGroup() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.setColorsOfGroup(eq("none"), any(LEDStripDTO.class))).thenThrow(
+            new LEDStripNotFoundException("Test"));
+
+        // execution & verification
+        mockMvc.perform(put("/configuration/ledstripgroups/none/display").contentType(MediaType.APPLICATION_JSON)
+                .content(FRAME))
+            .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,142 @@
+package org.synyx.sybil.bricklet.output.ledstrip.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.springframework.http.MediaType;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTOService;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LayerDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripNotFoundException;
+
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.junit.Assert.assertThat;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class LayerControllerUnitTest {
+
+    @Mock
+    private LEDStripDTOService ledStripDTOServiceMock;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+
+        mockMvc = standaloneSetup(new LayerController(ledStripDTOServiceMock)).build();
+    }
+
+
+    @Test
+    public void putLayer() throws Exception {
+
+        // execution
+        mockMvc.perform(put("/configuration/ledstrips/one/layers/alert").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"offset\":3,\"pixels\":[{\"red\":255,\"green\":0,\"blue\":0}],\"alpha\":128,\"ttl\":500}"))
+            .andExpect(status().isNoContent());
+
+        // verification
+        ArgumentCaptor<LayerDTO> captor = ArgumentCaptor.forClass(LayerDTO.class);
+
+        verify(ledStripDTOServiceMock).putLayer(eq("one"), eq("alert"), captor.capture());
+
+        assertThat(captor.getValue().getPriority(), is(200));
+        assertThat(captor.getValue().getOffset(), is(3));
+        assertThat(captor.getValue().getAlpha(), is(128));
+        assertThat(captor.getValue().getTtl(), is(500L));
+    }
+
+
+    @Test
+    public void putLayerWithInvalidAlpha() throws Exception {
+
+        // execution
+        mockMvc.perform(put("/configuration/ledstrips/one/layers/alert").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"pixels\":[],\"alpha\":256}"))
+            .andExpect(status().isBadRequest());
+
+        // verification
+        verify(ledStripDTOServiceMock, never()).putLayer(anyString(), anyString(), any(LayerDTO.class));
+    }
+
+
+    @Test
+    public void putLayerWithoutPixels() throws Exception {
+
+        // execution
+        mockMvc.perform(put("/configuration/ledstrips/one/layers/alert").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"offset\":3}"))
+            .andExpect(status().isBadRequest());
+
+        // verification
+        verify(ledStripDTOServiceMock, never()).putLayer(anyString(), anyString(), any(LayerDTO.class));
+    }
+
+
+    @Test
+    public void getLayers() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.getLayers("one")).thenReturn(Collections.singletonList(
+                new LayerDTO("alert", 300, 3, Collections.singletonList(Color.WHITE), 255, 0)));
+
+        // execution & verification
+        mockMvc.perform(get("/configuration/ledstrips/one/layers"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].name", is("alert")))
+            .andExpect(jsonPath("$[0].priority", is(300)))
+            .andExpect(jsonPath("$[0].pixels[0].red", is(255)));
+    }
+
+
+    @Test
+    public void deleteLayer() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.removeLayer("one", "alert")).thenReturn(true);
+
+        // execution & verification
+        mockMvc.perform(delete("/configuration/ledstrips/one/layers/alert")).andExpect(status().isNoContent());
+        mockMvc.perform(delete("/configuration/ledstrips/one/layers/other")).andExpect(status().isNotFound());
+    }
+
+
+    @Test
+    public void getLayersOfUnknownLEDStrip() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.getLayers("none")).thenThrow(new LEDStripNotFoundException("Test"));
+
+        // execution & verification
+        mockMvc.perform(get("/configuration/ledstrips/none/layers")).andExpect(status().isNotFound());
+    }
+}
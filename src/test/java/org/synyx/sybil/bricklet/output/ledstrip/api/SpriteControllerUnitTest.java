@@ -0,0 +1,138 @@
+package org.synyx.sybil.bricklet.output.ledstrip.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.springframework.http.MediaType;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTOService;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.SpriteDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.SpriteDisplayDTO;
+import org.synyx.sybil.bricklet.output.ledstrip.service.SpriteNotFoundException;
+
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.junit.Assert.assertThat;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class SpriteControllerUnitTest {
+
+    private static final String ID = "0123456789abcdef0123456789abcdef";
+
+    @Mock
+    private LEDStripDTOService ledStripDTOServiceMock;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+
+        mockMvc = standaloneSetup(new SpriteController(ledStripDTOServiceMock)).build();
+    }
+
+
+    @Test
+    public void postSprite() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.putSprite(any(SpriteDTO.class))).thenReturn(new SpriteDTO(ID,
+                Collections.singletonList(Color.CRITICAL)));
+
+        // execution & verification
+        mockMvc.perform(post("/configuration/sprites").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"pixels\":[{\"red\":127,\"green\":0,\"blue\":0}]}"))
+            .andExpect(status().isCreated())
+            .andExpect(header().string("Location", "/configuration/sprites/" + ID))
+            .andExpect(jsonPath("$.id").value(ID));
+    }
+
+
+    @Test
+    public void postSpriteWithoutPixels() throws Exception {
+
+        // execution
+        mockMvc.perform(post("/configuration/sprites").contentType(MediaType.APPLICATION_JSON).content("{}"))
+            .andExpect(status().isBadRequest());
+
+        // verification
+        verify(ledStripDTOServiceMock, never()).putSprite(any(SpriteDTO.class));
+    }
+
+
+    @Test
+    public void getUnknownSprite() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.getSprite(ID)).thenThrow(new SpriteNotFoundException("Sprite not found"));
+
+        // execution & verification
+        mockMvc.perform(get("/configuration/sprites/" + ID)).andExpect(status().isNotFound());
+    }
+
+
+    @Test
+    public void displaySprite() throws Exception {
+
+        // setup
+        when(ledStripDTOServiceMock.displaySprite(eq("one"), any(SpriteDisplayDTO.class))).thenReturn(
+            new LEDStripDTO(Collections.singletonList(Color.CRITICAL), 7));
+
+        // execution
+        mockMvc.perform(put("/configuration/ledstrips/one/display/sprite").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":\"" + ID + "\",\"offset\":-3,\"repeat\":true}"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"7\""));
+
+        // verification
+        ArgumentCaptor<SpriteDisplayDTO> captor = ArgumentCaptor.forClass(SpriteDisplayDTO.class);
+
+        verify(ledStripDTOServiceMock).displaySprite(eq("one"), captor.capture());
+
+        assertThat(captor.getValue().getId(), is(ID));
+        assertThat(captor.getValue().getOffset(), is(-3));
+        assertThat(captor.getValue().isRepeat(), is(true));
+    }
+
+
+    @Test
+    public void displaySpriteWithoutId() throws Exception {
+
+        // execution
+        mockMvc.perform(put("/configuration/ledstrips/one/display/sprite").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"offset\":1}"))
+            .andExpect(status().isBadRequest());
+
+        // verification
+        verify(ledStripDTOServiceMock, never()).displaySprite(anyString(), any(SpriteDisplayDTO.class));
+    }
+}
@@ -0,0 +1,146 @@
+package org.synyx.sybil.bricklet.output.ledstrip.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.service.FrameBuffer;
+import org.synyx.sybil.bricklet.output.ledstrip.service.Sprite1D;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.junit.Assert.assertThat;
+
+import static org.mockito.Matchers.any;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+
+/**
+ * FrameBroadcasterUnitTest.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RunWith(MockitoJUnitRunner.class)
+public class FrameBroadcasterUnitTest {
+
+    @Mock
+    private SseEmitter emitterOne;
+
+    @Mock
+    private SseEmitter emitterTwo;
+
+    private FrameBroadcaster sut;
+
+    @Before
+    public void setup() {
+
+        sut = new FrameBroadcaster(new ObjectMapper());
+    }
+
+
+    @Test
+    public void subscribeSendsKeyframe() throws Exception {
+
+        // execution
+        sut.subscribe(emitterOne, frame(1, Color.OKAY));
+
+        // verification
+        verify(emitterOne).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+
+    @Test
+    public void subscribeWithoutFrameSendsNothing() throws Exception {
+
+        // execution
+        sut.subscribe(emitterOne, null);
+
+        // verification
+        verify(emitterOne, never()).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+
+    @Test
+    public void publishToAllSubscribers() throws Exception {
+
+        // setup
+        sut.subscribe(emitterOne, frame(1, Color.OKAY));
+        sut.subscribe(emitterTwo, null);
+
+        // execution
+        sut.publish(frame(2, Color.CRITICAL));
+
+        // verification
+        verify(emitterOne, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitterTwo, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+
+    @Test
+    public void publishUnchangedFrameSendsNothing() throws Exception {
+
+        // setup
+        sut.subscribe(emitterOne, frame(1, Color.OKAY));
+
+        // execution
+        sut.publish(frame(2, Color.OKAY));
+
+        // verification
+        verify(emitterOne, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+
+    @Test
+    public void publishOutdatedFrameSendsNothing() throws Exception {
+
+        // setup
+        sut.subscribe(emitterOne, frame(2, Color.OKAY));
+
+        // execution
+        sut.publish(frame(1, Color.CRITICAL));
+
+        // verification
+        verify(emitterOne, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+
+    @Test
+    public void failingSubscriberIsDropped() throws Exception {
+
+        // setup
+        sut.subscribe(emitterOne, null);
+        doThrow(new IOException("gone")).when(emitterOne).send(any(SseEmitter.SseEventBuilder.class));
+
+        // execution
+        sut.publish(frame(1, Color.CRITICAL));
+
+        // verification
+        assertThat(sut.hasSubscribers(), is(false));
+    }
+
+
+    private FrameBuffer frame(long generation, Color color) {
+
+        Sprite1D sprite = new Sprite1D(20);
+        sprite.setFill(color);
+
+        return new FrameBuffer("one", generation, sprite);
+    }
+}
@@ -5,25 +5,45 @@ import org.junit.Test;
 
 import org.junit.runner.RunWith;
 
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 
 import org.mockito.runners.MockitoJUnitRunner;
 
 import org.synyx.sybil.bricklet.output.ledstrip.Color;
 import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStripRepository;
+import org.synyx.sybil.bricklet.output.ledstrip.service.Animation;
+import org.synyx.sybil.bricklet.output.ledstrip.service.AnimationService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.FrameBuffer;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripBatchService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripConnectionException;
 import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.Layer;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LayerService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.PositionedSprite;
+import org.synyx.sybil.bricklet.output.ledstrip.service.Sprite1D;
+import org.synyx.sybil.bricklet.output.ledstrip.service.SpriteLibrary;
+import org.synyx.sybil.bricklet.output.ledstrip.service.UnknownEffectException;
 
 import java.io.IOException;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 
 import static org.junit.Assert.assertThat;
 
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.eq;
 
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -45,6 +65,21 @@ public class LEDStripDTOServiceUnitTest {
     @Mock
     private LEDStripService ledStripService;
 
+    @Mock
+    private LEDStripBatchService ledStripBatchService;
+
+    @Mock
+    private AnimationService animationService;
+
+    @Mock
+    private LayerService layerService;
+
+    @Mock
+    private SpriteLibrary spriteLibrary;
+
+    @Captor
+    private ArgumentCaptor<List<PositionedSprite>> spritesCaptor;
+
     List<Color> colors;
 
     @Before
@@ -58,7 +93,8 @@ public class LEDStripDTOServiceUnitTest {
 
         when(ledStripService.getPixels("one")).thenReturn(colors);
 
-        sut = new LEDStripDTOService(ledStripService);
+        sut = new LEDStripDTOService(ledStripService, ledStripBatchService, animationService, layerService,
+                spriteLibrary);
     }
 
 
@@ -73,16 +109,288 @@ public class LEDStripDTOServiceUnitTest {
     }
 
 
+    @Test
+    public void getFromFrameBuffer() {
+
+        // setup
+        when(ledStripService.getFrameBuffer("one")).thenReturn(new FrameBuffer("one", 5, new Sprite1D(colors)));
+
+        // execution
+        LEDStripDTO result = sut.get("one");
+
+        // verification
+        assertThat(result.getGeneration(), is(5L));
+        assertThat(result.getPixels(), is(colors));
+        verify(ledStripService, never()).getPixels("one");
+    }
+
+
+    @Test
+    public void readBackWithGeneration() {
+
+        // setup
+        when(ledStripService.getFrameBuffer("one")).thenReturn(new FrameBuffer("one", 5, new Sprite1D(1)));
+
+        // execution
+        LEDStripDTO result = sut.readBack("one");
+
+        // verification
+        assertThat(result.getGeneration(), is(5L));
+        assertThat(result.getPixels(), is(colors));
+    }
+
+
+    @Test
+    public void getGenerationOfUntouchedLEDStrip() {
+
+        // execution
+        long generation = sut.getGeneration("one");
+
+        // verification
+        assertThat(generation, is(0L));
+    }
+
+
     @Test
     public void setColorsOfLEDStrip() {
 
         // setup
         LEDStripDTO ledStripDTO = new LEDStripDTO(colors);
 
+        when(ledStripService.setColors("two", colors)).thenReturn(new FrameBuffer("two", 3, new Sprite1D(colors)));
+
         // execution
-        sut.setColorsOfLEDStrip("two", ledStripDTO);
+        LEDStripDTO result = sut.setColorsOfLEDStrip("two", ledStripDTO);
 
         // verificatiom
         verify(ledStripService).setColors(eq("two"), eq(colors));
+        verify(ledStripService, never()).getPixels("two");
+        assertThat(result.getPixels(), is(colors));
+        assertThat(result.getGeneration(), is(3L));
+    }
+
+
+    @Test
+    public void patch() {
+
+        // setup
+        LEDStripPatchDTO ledStripPatchDTO = new LEDStripPatchDTO(Collections.singletonList(new PixelRangeDTO(2, colors)),
+                Collections.singletonList(new FillRangeDTO(10, 4, Color.WHITE)));
+
+        when(ledStripService.updatePixels(eq("two"), anyListOf(PositionedSprite.class))).thenReturn(new FrameBuffer(
+                "two", 1, new Sprite1D(colors)));
+
+        // execution
+        LEDStripDTO result = sut.patch("two", ledStripPatchDTO);
+
+        // verification
+        verify(ledStripService).updatePixels(eq("two"), spritesCaptor.capture());
+
+        List<PositionedSprite> sprites = spritesCaptor.getValue();
+
+        assertThat(sprites.get(0).getOffset(), is(2));
+        assertThat(sprites.get(0).getSprite().getPixel(0), is(Color.CRITICAL));
+        assertThat(sprites.get(1).getOffset(), is(10));
+        assertThat(sprites.get(1).getEnd(), is(14));
+        assertThat(sprites.get(1).getSprite().getPixel(3), is(Color.WHITE));
+        assertThat(result.getPixels(), is(colors));
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void setColorsOfLEDStrips() {
+
+        // setup
+        Map<String, LEDStripDTO> ledStrips = new LinkedHashMap<>();
+        ledStrips.put("one", new LEDStripDTO(colors));
+        ledStrips.put("two", new LEDStripDTO(colors));
+
+        when(ledStripBatchService.setColors(anyMap())).thenReturn(Collections.singletonMap(
+                "two", new LEDStripConnectionException("Test")));
+
+        // execution
+        List<LEDStripResultDTO> results = sut.setColorsOfLEDStrips(new LEDStripBatchDTO(ledStrips));
+
+        // verification
+        assertThat(results.get(0).getName(), is("one"));
+        assertThat(results.get(0).isSuccess(), is(true));
+        assertThat(results.get(1).getName(), is("two"));
+        assertThat(results.get(1).isSuccess(), is(false));
+        assertThat(results.get(1).getError(), is("Test"));
+    }
+
+
+    @Test
+    public void setColorsOfGroup() {
+
+        // setup
+        Map<String, RuntimeException> failures = new LinkedHashMap<>();
+        failures.put("one", null);
+        failures.put("two", new LEDStripConnectionException("Test"));
+
+        when(ledStripBatchService.setColorsOfGroup("hallway", colors)).thenReturn(failures);
+
+        // execution
+        List<LEDStripResultDTO> results = sut.setColorsOfGroup("hallway", new LEDStripDTO(colors));
+
+        // verification
+        assertThat(results.size(), is(2));
+        assertThat(results.get(0).getName(), is("one"));
+        assertThat(results.get(0).isSuccess(), is(true));
+        assertThat(results.get(1).getName(), is("two"));
+        assertThat(results.get(1).isSuccess(), is(false));
+        assertThat(results.get(1).getError(), is("Test"));
+    }
+
+
+    @Test
+    public void startFadeFromCurrentFrame() {
+
+        // setup
+        Sprite1D current = new Sprite1D(3);
+        current.setFill(Color.WHITE);
+
+        when(ledStripService.getFrameBuffer("one")).thenReturn(new FrameBuffer("one", 1, current));
+
+        // execution
+        sut.startAnimation("one", new AnimationDTO("fade", colors, null, null, 4, 1));
+
+        // verification
+        ArgumentCaptor<Animation> captor = ArgumentCaptor.forClass(Animation.class);
+        verify(animationService).start(eq("one"), captor.capture());
+
+        Animation animation = captor.getValue();
+
+        assertThat(animation.getEffect(), is("fade"));
+        assertThat(animation.render(0, 3).getPixel(0), is(new Color(223, 192, 192)));
+        assertThat(animation.render(3, 3).getPixel(0), is(Color.CRITICAL));
+        assertThat(animation.hasFrame(4), is(false));
+    }
+
+
+    @Test
+    public void startChaseOnBlack() {
+
+        // execution
+        sut.startAnimation("one", new AnimationDTO("chase", null, Color.WHITE, null, 1, 2));
+
+        // verification
+        ArgumentCaptor<Animation> captor = ArgumentCaptor.forClass(Animation.class);
+        verify(animationService).start(eq("one"), captor.capture());
+
+        Sprite1D frame = captor.getValue().render(0, 4);
+
+        assertThat(frame.getPixel(0), is(Color.WHITE));
+        assertThat(frame.getPixel(1), is(Color.BLACK));
+    }
+
+
+    @Test
+    public void startScroll() {
+
+        // execution
+        sut.startAnimation("one", new AnimationDTO("scroll", colors, null, null, 2, 1));
+
+        // verification
+        ArgumentCaptor<Animation> captor = ArgumentCaptor.forClass(Animation.class);
+        verify(animationService).start(eq("one"), captor.capture());
+
+        assertThat(captor.getValue().getEffect(), is("scroll"));
+    }
+
+
+    @Test(expected = UnknownEffectException.class)
+    public void startUnknownEffect() {
+
+        // execution
+        sut.startAnimation("one", new AnimationDTO("explode", colors, null, null, 2, 1));
+    }
+
+
+    @Test
+    public void getAnimation() {
+
+        // setup
+        when(animationService.getEffect("one")).thenReturn("pulse");
+
+        // execution & verification
+        assertThat(sut.getAnimation("one").getEffect(), is("pulse"));
+        assertThat(sut.getAnimation("two"), is(nullValue()));
+    }
+
+
+    @Test
+    public void putLayer() {
+
+        // setup
+        long before = System.currentTimeMillis();
+
+        // execution
+        sut.putLayer("one", "alert", new LayerDTO(null, 300, 4, colors, 128, 5000));
+
+        // verification
+        ArgumentCaptor<Layer> captor = ArgumentCaptor.forClass(Layer.class);
+
+        verify(layerService).put(eq("one"), captor.capture());
+
+        Layer layer = captor.getValue();
+
+        assertThat(layer.getName(), is("alert"));
+        assertThat(layer.getPriority(), is(300));
+        assertThat(layer.getOffset(), is(4));
+        assertThat(layer.getEnd(), is(7));
+        assertThat(layer.getAlpha(), is(128));
+        assertThat(layer.getExpiresAt() >= before + 5000, is(true));
+    }
+
+
+    @Test
+    public void getLayers() {
+
+        // setup
+        when(layerService.getLayers("one")).thenReturn(Collections.singletonList(
+                new Layer("alert", 300, 4, new Sprite1D(colors), 128, 0)));
+
+        // execution
+        List<LayerDTO> result = sut.getLayers("one");
+
+        // verification
+        assertThat(result.size(), is(1));
+        assertThat(result.get(0).getName(), is("alert"));
+        assertThat(result.get(0).getPixels(), is(colors));
+        assertThat(result.get(0).getTtl(), is(0L));
+    }
+
+
+    @Test
+    public void putSprite() {
+
+        // setup
+        when(spriteLibrary.put(new Sprite1D(colors))).thenReturn("0123456789abcdef0123456789abcdef");
+
+        // execution
+        SpriteDTO result = sut.putSprite(new SpriteDTO(null, colors));
+
+        // verification
+        assertThat(result.getId(), is("0123456789abcdef0123456789abcdef"));
+        assertThat(result.getPixels(), is(colors));
+    }
+
+
+    @Test
+    public void displaySprite() {
+
+        // setup
+        when(spriteLibrary.display("one", "0123456789abcdef0123456789abcdef", -2, true)).thenReturn(new FrameBuffer(
+                "one", 3, new Sprite1D(colors)));
+
+        // execution
+        LEDStripDTO result = sut.displaySprite("one",
+                new SpriteDisplayDTO("0123456789abcdef0123456789abcdef", -2, true));
+
+        // verification
+        assertThat(result.getPixels(), is(colors));
+        assertThat(result.getGeneration(), is(3L));
     }
 }
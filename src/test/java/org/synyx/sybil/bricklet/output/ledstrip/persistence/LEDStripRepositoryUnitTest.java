@@ -17,6 +17,8 @@ import org.springframework.core.env.Environment;
 import java.io.File;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.core.Is.is;
@@ -27,6 +29,8 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -48,9 +52,14 @@ public class LEDStripRepositoryUnitTest {
 
         LEDStrip one = new LEDStrip("one", "abc", 42, "abrick");
         LEDStrip two = new LEDStrip("two", "xyz", 23, "anotherbrick");
+        LEDStrip three = new LEDStrip("three", "foo", 42, "abrick");
+
+        one.setGroups(Arrays.asList("hallway", "all"));
+        three.setGroups(Collections.singletonList("hallway"));
 
         ledStrips.add(one);
         ledStrips.add(two);
+        ledStrips.add(three);
 
         when(environmentMock.getProperty("path.to.configfiles")).thenReturn("path/to/config/files/");
         when(objectMapperMock.readValue(eq(new File("path/to/config/files/ledstrips.json")), any(TypeReference.class)))
@@ -69,6 +78,20 @@ public class LEDStripRepositoryUnitTest {
     }
 
 
+    @Test
+    public void configIsOnlyParsedOnceWhileUnmodified() throws Exception {
+
+        // execution
+        LEDStrip first = sut.get("one");
+        LEDStrip second = sut.get("one");
+        sut.getAll();
+
+        // verification
+        assertThat(first == second, is(true));
+        verify(objectMapperMock, times(1)).readValue(any(File.class), any(TypeReference.class));
+    }
+
+
     @Test
     public void getNone() throws Exception {
 
@@ -85,4 +108,22 @@ public class LEDStripRepositoryUnitTest {
 
         assertThat(result, is(ledStrips));
     }
+
+
+    @Test
+    public void getGroup() throws Exception {
+
+        List<LEDStrip> result = sut.getGroup("hallway");
+
+        assertThat(result, is(Arrays.asList(ledStrips.get(0), ledStrips.get(2))));
+    }
+
+
+    @Test
+    public void getUnknownGroup() throws Exception {
+
+        List<LEDStrip> result = sut.getGroup("none");
+
+        assertThat(result.isEmpty(), is(true));
+    }
 }
@@ -0,0 +1,197 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStripRepository;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+
+import static org.junit.Assert.assertThat;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * AnimationServiceUnitTest.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RunWith(MockitoJUnitRunner.class)
+public class AnimationServiceUnitTest {
+
+    private static final int TIMEOUT = 1000;
+
+    @Mock
+    private LEDStripService ledStripServiceMock;
+
+    @Mock
+    private LEDStripRepository ledStripRepositoryMock;
+
+    @Mock
+    private BrickletLEDStripWrapperService brickletLEDStripWrapperServiceMock;
+
+    @Mock
+    private BrickletLEDStripWrapper brickletLEDStripMock;
+
+    private LEDStrip ledStrip;
+
+    private AnimationService sut;
+
+    @Before
+    public void setup() {
+
+        ledStrip = new LEDStrip("one", "abc", 16, "abrick");
+
+        when(ledStripRepositoryMock.get("one")).thenReturn(ledStrip);
+        when(ledStripServiceMock.getBrightness(ledStrip)).thenReturn(1.0);
+        when(ledStripServiceMock.getPixelBufferSize(ledStrip)).thenReturn(16);
+        when(brickletLEDStripWrapperServiceMock.getBrickletLEDStrip(ledStrip)).thenReturn(brickletLEDStripMock);
+
+        sut = new AnimationService(ledStripServiceMock, ledStripRepositoryMock, brickletLEDStripWrapperServiceMock);
+    }
+
+
+    @After
+    public void tearDown() {
+
+        sut.shutdown();
+    }
+
+
+    @Test
+    public void framesArePacedByTheLEDStrip() {
+
+        // setup
+        Sprite1D target = new Sprite1D(16);
+        target.setFill(Color.WHITE);
+
+        // execution
+        sut.start("one", new FadeAnimation(new Sprite1D(16), target, 2));
+
+        // verification
+        BrickletLEDStripWrapper.FrameRenderedListener listener = captureListener();
+
+        verify(ledStripServiceMock, timeout(TIMEOUT).times(1)).drawFrame(eq(ledStrip), any(Sprite1D.class),
+            any(TransferBuffer.class), eq(brickletLEDStripMock));
+        verify(ledStripServiceMock, after(100).times(1)).drawFrame(eq(ledStrip), any(Sprite1D.class),
+            any(TransferBuffer.class), eq(brickletLEDStripMock));
+
+        listener.frameRendered(16);
+
+        ArgumentCaptor<Sprite1D> sprites = ArgumentCaptor.forClass(Sprite1D.class);
+        verify(ledStripServiceMock, timeout(TIMEOUT).times(2)).drawFrame(eq(ledStrip), sprites.capture(),
+            any(TransferBuffer.class), eq(brickletLEDStripMock));
+
+        assertThat(sprites.getAllValues().get(0).getPixel(0), is(new Color(127, 127, 127)));
+        assertThat(sprites.getAllValues().get(1).getPixel(0), is(Color.WHITE));
+
+        listener.frameRendered(16);
+
+        verify(brickletLEDStripMock, timeout(TIMEOUT)).disconnect();
+        verify(brickletLEDStripMock).removeFrameRenderedListener(listener);
+        assertThat(sut.getEffect("one"), is(nullValue()));
+    }
+
+
+    @Test
+    public void lostCallbackIsResumedByWatchdog() {
+
+        // setup
+        sut.startWatchdog();
+
+        // execution
+        sut.start("one", new ChaseAnimation(Color.WHITE, Color.BLACK, 2, 1));
+
+        // verification
+        verify(ledStripServiceMock, timeout(3 * TIMEOUT).times(2)).drawFrame(eq(ledStrip), any(Sprite1D.class),
+            any(TransferBuffer.class), eq(brickletLEDStripMock));
+    }
+
+
+    @Test
+    public void stop() {
+
+        // setup
+        sut.start("one", new ChaseAnimation(Color.WHITE, Color.BLACK, 2, 1));
+
+        assertThat(sut.getEffect("one"), is("chase"));
+
+        // execution
+        boolean stopped = sut.stop("one");
+
+        // verification
+        assertThat(stopped, is(true));
+        assertThat(sut.getEffect("one"), is(nullValue()));
+        assertThat(sut.stop("one"), is(false));
+        verify(brickletLEDStripMock, times(1)).disconnect();
+    }
+
+
+    @Test
+    public void startReplacesRunningAnimation() {
+
+        // setup
+        sut.start("one", new ChaseAnimation(Color.WHITE, Color.BLACK, 2, 1));
+
+        // execution
+        sut.start("one", new ScrollAnimation(new Sprite1D(2), 1));
+
+        // verification
+        assertThat(sut.getEffect("one"), is("scroll"));
+        verify(brickletLEDStripMock, times(1)).disconnect();
+    }
+
+
+    @Test
+    public void connectionErrorEndsAnimation() {
+
+        // setup
+        when(ledStripServiceMock.drawFrame(eq(ledStrip), any(Sprite1D.class), any(TransferBuffer.class),
+                    eq(brickletLEDStripMock))).thenThrow(new LEDStripConnectionException("Test"));
+
+        // execution
+        sut.start("one", new ChaseAnimation(Color.WHITE, Color.BLACK, 2, 1));
+
+        // verification
+        verify(brickletLEDStripMock, timeout(TIMEOUT)).disconnect();
+        assertThat(sut.getEffect("one"), is(nullValue()));
+    }
+
+
+    @Test(expected = LEDStripNotFoundException.class)
+    public void startOnUnknownLEDStrip() {
+
+        sut.start("two", new ChaseAnimation(Color.WHITE, Color.BLACK, 2, 1));
+    }
+
+
+    private BrickletLEDStripWrapper.FrameRenderedListener captureListener() {
+
+        ArgumentCaptor<BrickletLEDStripWrapper.FrameRenderedListener> captor = ArgumentCaptor.forClass(
+                BrickletLEDStripWrapper.FrameRenderedListener.class);
+        verify(brickletLEDStripMock).addFrameRenderedListener(captor.capture());
+
+        return captor.getValue();
+    }
+}
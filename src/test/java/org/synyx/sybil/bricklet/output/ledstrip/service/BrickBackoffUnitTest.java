@@ -0,0 +1,72 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.hamcrest.core.Is.is;
+
+
+/**
+ * BrickBackoffUnitTest.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class BrickBackoffUnitTest {
+
+    private long now;
+
+    private final BrickBackoff sut = new BrickBackoff(1000, 3000, () -> now);
+
+    @Test
+    public void reachableBrickIsNotBackedOffFrom() {
+
+        assertThat(sut.isBackingOff("abrick"), is(false));
+    }
+
+
+    @Test
+    public void delayDoublesUpToMaximum() {
+
+        // execution & verification
+        sut.failed("abrick");
+        now = 999;
+        assertThat(sut.isBackingOff("abrick"), is(true));
+        now = 1000;
+        assertThat(sut.isBackingOff("abrick"), is(false));
+
+        sut.failed("abrick");
+        now = 2999;
+        assertThat(sut.isBackingOff("abrick"), is(true));
+        now = 3000;
+        assertThat(sut.isBackingOff("abrick"), is(false));
+
+        sut.failed("abrick");
+        now = 5999;
+        assertThat(sut.isBackingOff("abrick"), is(true));
+        now = 6000;
+        assertThat(sut.isBackingOff("abrick"), is(false));
+
+        sut.failed("abrick");
+        now = 8999;
+        assertThat(sut.isBackingOff("abrick"), is(true));
+        assertThat(sut.isBackingOff("anotherbrick"), is(false));
+    }
+
+
+    @Test
+    public void successResetsDelay() {
+
+        // execution
+        sut.failed("abrick");
+        sut.failed("abrick");
+        sut.succeeded("abrick");
+
+        // verification
+        assertThat(sut.isBackingOff("abrick"), is(false));
+
+        sut.failed("abrick");
+        now = 1000;
+        assertThat(sut.isBackingOff("abrick"), is(false));
+    }
+}
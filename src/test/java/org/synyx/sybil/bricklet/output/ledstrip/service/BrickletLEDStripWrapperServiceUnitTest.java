@@ -15,8 +15,15 @@ import org.powermock.modules.junit4.PowerMockRunner;
 
 import org.synyx.sybil.brick.service.BrickService;
 import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.metrics.MetricsService;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+
+import static org.hamcrest.MatcherAssert.assertThat;
 
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import static org.powermock.api.mockito.PowerMockito.whenNew;
@@ -36,7 +43,10 @@ public class BrickletLEDStripWrapperServiceUnitTest {
     IPConnection ipConnectionMock;
 
     @Mock
-    BrickletLEDStripWrapper brickletLEDStripWrapperMock;
+    BrickletLEDStripV1Wrapper brickletLEDStripWrapperMock;
+
+    @Mock
+    BrickletLEDStripV2Wrapper brickletLEDStripV2WrapperMock;
 
     @Test
     public void getBrickletLEDStrip() throws Exception {
@@ -46,9 +56,10 @@ public class BrickletLEDStripWrapperServiceUnitTest {
 
         when(brickServiceMock.connect("brick")).thenReturn(ipConnectionMock);
 
-        whenNew(BrickletLEDStripWrapper.class).withAnyArguments().thenReturn(brickletLEDStripWrapperMock);
+        whenNew(BrickletLEDStripV1Wrapper.class).withAnyArguments().thenReturn(brickletLEDStripWrapperMock);
 
-        BrickletLEDStripWrapperService sut = new BrickletLEDStripWrapperService(brickServiceMock);
+        BrickletLEDStripWrapperService sut = new BrickletLEDStripWrapperService(brickServiceMock,
+                new MetricsService());
 
         // execution
         sut.getBrickletLEDStrip(ledStripMock);
@@ -59,4 +70,27 @@ public class BrickletLEDStripWrapperServiceUnitTest {
         inOrder.verify(brickletLEDStripWrapperMock).setFrameDuration(10);
         inOrder.verify(brickletLEDStripWrapperMock).setChipType(2812);
     }
+
+
+    @Test
+    public void getBrickletLEDStripV2() throws Exception {
+
+        // setup
+        when(ledStripMock.getBrick()).thenReturn("brick");
+        when(ledStripMock.getVersion()).thenReturn(2);
+
+        when(brickServiceMock.connect("brick")).thenReturn(ipConnectionMock);
+
+        whenNew(BrickletLEDStripV2Wrapper.class).withAnyArguments().thenReturn(brickletLEDStripV2WrapperMock);
+
+        BrickletLEDStripWrapperService sut = new BrickletLEDStripWrapperService(brickServiceMock,
+                new MetricsService());
+
+        // execution
+        BrickletLEDStripWrapper brickletLEDStrip = sut.getBrickletLEDStrip(ledStripMock);
+
+        // verification
+        assertThat(brickletLEDStrip, is(sameInstance(brickletLEDStripV2WrapperMock)));
+        verify(brickletLEDStripV2WrapperMock).setChipType(2812);
+    }
 }
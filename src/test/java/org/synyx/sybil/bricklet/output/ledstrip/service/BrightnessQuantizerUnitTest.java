@@ -0,0 +1,59 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.hamcrest.core.Is.is;
+
+
+/**
+ * BrightnessQuantizerUnitTest.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class BrightnessQuantizerUnitTest {
+
+    @Test
+    public void roundsToStep() {
+
+        BrightnessQuantizer sut = new BrightnessQuantizer(0.5, 0);
+
+        assertThat(sut.quantize("a", 1.2), is(1.0));
+        assertThat(sut.quantize("b", 1.3), is(1.5));
+        assertThat(sut.quantize("c", 3.0), is(3.0));
+    }
+
+
+    @Test
+    public void jitterAroundMiddleKeepsLevel() {
+
+        BrightnessQuantizer sut = new BrightnessQuantizer(0.5, 0.25);
+
+        assertThat(sut.quantize("a", 1.2), is(1.0));
+        assertThat(sut.quantize("a", 1.3), is(1.0));
+        assertThat(sut.quantize("a", 1.35), is(1.0));
+        assertThat(sut.quantize("a", 1.4), is(1.5));
+        assertThat(sut.quantize("a", 1.2), is(1.5));
+        assertThat(sut.quantize("a", 1.1), is(1.0));
+    }
+
+
+    @Test
+    public void sensorsHaveTheirOwnLevel() {
+
+        BrightnessQuantizer sut = new BrightnessQuantizer(0.5, 0.25);
+
+        sut.quantize("a", 1.2);
+
+        assertThat(sut.quantize("b", 1.3), is(1.5));
+        assertThat(sut.quantize("a", 1.3), is(1.0));
+    }
+
+
+    @Test
+    public void zeroStepDoesNotQuantize() {
+
+        assertThat(new BrightnessQuantizer(0, 0.25).quantize("a", 1.23), is(1.23));
+    }
+}
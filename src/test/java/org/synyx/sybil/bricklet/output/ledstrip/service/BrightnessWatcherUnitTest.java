@@ -0,0 +1,163 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.synyx.sybil.bricklet.input.illuminance.service.IlluminanceConnectionException;
+import org.synyx.sybil.bricklet.input.illuminance.service.IlluminanceService;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStripRepository;
+
+import java.util.Arrays;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyDouble;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * BrightnessWatcherUnitTest.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RunWith(MockitoJUnitRunner.class)
+public class BrightnessWatcherUnitTest {
+
+    @Mock
+    LEDStripService ledStripServiceMock;
+
+    @Mock
+    LEDStripRepository ledStripRepository;
+
+    @Mock
+    IlluminanceService illuminanceServiceMock;
+
+    @Mock
+    AnimationService animationServiceMock;
+
+    LEDStrip one;
+    LEDStrip two;
+    LEDStrip dark;
+
+    BrightnessWatcher sut;
+
+    @Before
+    public void setup() {
+
+        one = new LEDStrip("one", "abc", 16, "abrick", "ambientlight");
+        two = new LEDStrip("two", "def", 16, "abrick", "ambientlight");
+        dark = new LEDStrip("dark", "ghi", 16, "abrick");
+
+        when(ledStripRepository.getAll()).thenReturn(Arrays.asList(one, two, dark));
+
+        for (LEDStrip ledStrip : Arrays.asList(one, two, dark)) {
+            when(ledStripServiceMock.getProfile(ledStrip)).thenReturn(new RenderProfile(ledStrip));
+        }
+
+        sut = new BrightnessWatcher(ledStripServiceMock, ledStripRepository, illuminanceServiceMock,
+                new BrightnessQuantizer(0.5, 0.25), animationServiceMock, 0);
+    }
+
+
+    @After
+    public void tearDown() {
+
+        sut.shutdown();
+    }
+
+
+    @Test
+    public void firstReadingOnlyRecordsLevel() {
+
+        // setup
+        when(illuminanceServiceMock.getBrightness("ambientlight")).thenReturn(1.0);
+
+        // execution
+        sut.poll();
+
+        // verification
+        verify(illuminanceServiceMock, times(1)).getBrightness("ambientlight");
+        verify(ledStripServiceMock, never()).redraw(any(LEDStrip.class), anyDouble());
+    }
+
+
+    @Test
+    public void changedLevelRedrawsEachBoundLEDStripOnce() {
+
+        // setup
+        when(illuminanceServiceMock.getBrightness("ambientlight")).thenReturn(1.0, 2.0, 2.1);
+
+        // execution
+        sut.poll();
+        sut.poll();
+        sut.poll();
+
+        // verification
+        verify(ledStripServiceMock, times(1)).redraw(one, 2.0);
+        verify(ledStripServiceMock, times(1)).redraw(two, 2.0);
+        verify(ledStripServiceMock, never()).redraw(dark, 2.0);
+    }
+
+
+    @Test
+    public void jitterDoesNotRedraw() {
+
+        // setup
+        when(illuminanceServiceMock.getBrightness("ambientlight")).thenReturn(1.0, 1.3, 1.2, 1.35);
+
+        // execution
+        sut.poll();
+        sut.poll();
+        sut.poll();
+        sut.poll();
+
+        // verification
+        verify(ledStripServiceMock, never()).redraw(any(LEDStrip.class), anyDouble());
+    }
+
+
+    @Test
+    public void animatedLEDStripIsSkipped() {
+
+        // setup
+        when(illuminanceServiceMock.getBrightness("ambientlight")).thenReturn(1.0, 3.0);
+        when(animationServiceMock.getEffect("one")).thenReturn("pulse");
+
+        // execution
+        sut.poll();
+        sut.poll();
+
+        // verification
+        verify(ledStripServiceMock, never()).redraw(one, 3.0);
+        verify(ledStripServiceMock).redraw(two, 3.0);
+    }
+
+
+    @Test
+    public void unreachableSensorIsSkipped() {
+
+        // setup
+        when(illuminanceServiceMock.getBrightness("ambientlight")).thenReturn(1.0).thenThrow(
+            new IlluminanceConnectionException("")).thenReturn(3.0);
+
+        // execution
+        sut.poll();
+        sut.poll();
+        sut.poll();
+
+        // verification
+        verify(ledStripServiceMock).redraw(one, 3.0);
+    }
+}
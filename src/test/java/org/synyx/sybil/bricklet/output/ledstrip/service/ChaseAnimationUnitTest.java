@@ -0,0 +1,44 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.Test;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.junit.Assert.assertThat;
+
+
+public class ChaseAnimationUnitTest {
+
+    private final ChaseAnimation sut = new ChaseAnimation(Color.WHITE, Color.OKAY, 3, 2);
+
+    @Test
+    public void render() {
+
+        Sprite1D frame = sut.render(0, 7);
+
+        assertThat(frame.getLength(), is(7));
+        assertThat(frame.getPixel(0), is(Color.WHITE));
+        assertThat(frame.getPixel(1), is(Color.OKAY));
+        assertThat(frame.getPixel(3), is(Color.WHITE));
+        assertThat(frame.getPixel(6), is(Color.WHITE));
+    }
+
+
+    @Test
+    public void renderMovesEveryFramesPerStep() {
+
+        assertThat(sut.render(1, 7).getPixel(0), is(Color.WHITE));
+        assertThat(sut.render(2, 7).getPixel(0), is(Color.OKAY));
+        assertThat(sut.render(2, 7).getPixel(1), is(Color.WHITE));
+        assertThat(sut.render(6, 7).getPixel(0), is(Color.WHITE));
+    }
+
+
+    @Test
+    public void isEndless() {
+
+        assertThat(sut.hasFrame(Long.MAX_VALUE), is(true));
+    }
+}
@@ -0,0 +1,78 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.hamcrest.core.Is.is;
+
+
+/**
+ * ChunkRetryUnitTest.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class ChunkRetryUnitTest {
+
+    private double random;
+
+    private final ChunkRetry sut = new ChunkRetry(3, 20, () -> random);
+
+    @Test
+    public void delayDoublesWithEveryRetry() {
+
+        // execution & verification
+        assertThat(sut.getRetries(), is(3));
+        assertThat(sut.getDelay(1), is(20L));
+        assertThat(sut.getDelay(2), is(40L));
+        assertThat(sut.getDelay(3), is(80L));
+    }
+
+
+    @Test
+    public void delayIsJitteredByUpToHalf() {
+
+        // execution & verification
+        random = 0.5;
+        assertThat(sut.getDelay(1), is(15L));
+
+        random = 0.999;
+        assertThat(sut.getDelay(2), is(21L));
+    }
+
+
+    @Test
+    public void negativeValuesAreIgnored() {
+
+        // setup
+        ChunkRetry chunkRetry = new ChunkRetry(-1, -20, () -> random);
+
+        // execution & verification
+        assertThat(chunkRetry.getRetries(), is(0));
+        assertThat(chunkRetry.getDelay(1), is(0L));
+    }
+
+
+    @Test
+    public void retryRunsOnItsOwnThread() throws Exception {
+
+        // setup
+        CountDownLatch retried = new CountDownLatch(1);
+        Thread[] thread = new Thread[1];
+
+        // execution
+        sut.schedule(() -> {
+                thread[0] = Thread.currentThread();
+                retried.countDown();
+            }, 1);
+
+        // verification
+        assertThat(retried.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(thread[0] == Thread.currentThread(), is(false));
+
+        sut.shutdown();
+    }
+}
@@ -0,0 +1,194 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.Test;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import java.util.BitSet;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+
+import static org.junit.Assert.assertThat;
+
+
+/**
+ * CompositorUnitTest.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class CompositorUnitTest {
+
+    private static final Color BLUE = new Color(0, 0, 255);
+
+    @Test
+    public void newCompositorIsClean() {
+
+        // setup
+        Sprite1D background = new Sprite1D(40);
+        background.setFill(BLUE);
+
+        // execution
+        Compositor sut = new Compositor(40, background);
+
+        // verification
+        assertThat(sut.render().isEmpty(), is(true));
+        assertThat(sut.getFrame("one").getPixel(39), is(BLUE));
+    }
+
+
+    @Test
+    public void layerOnlyDirtiesChunksItCovers() {
+
+        // setup
+        Compositor sut = new Compositor(40, new Sprite1D(40));
+
+        // execution
+        sut.put(new Layer("alert", 100, 14, filled(4, Color.WHITE), Layer.OPAQUE, 0));
+
+        BitSet chunks = sut.render();
+
+        // verification
+        BitSet expected = new BitSet();
+        expected.set(0, 2);
+
+        assertThat(chunks, is(expected));
+        assertThat(sut.getFrame("one").getPixel(13), is(Color.BLACK));
+        assertThat(sut.getFrame("one").getPixel(14), is(Color.WHITE));
+        assertThat(sut.getFrame("one").getPixel(17), is(Color.WHITE));
+        assertThat(sut.getFrame("one").getPixel(18), is(Color.BLACK));
+    }
+
+
+    @Test
+    public void higherPriorityIsDrawnOnTop() {
+
+        // setup
+        Compositor sut = new Compositor(16, new Sprite1D(16));
+
+        // execution
+        sut.put(new Layer("top", 200, 0, filled(2, Color.WHITE), Layer.OPAQUE, 0));
+        sut.put(new Layer("bottom", 100, 1, filled(2, BLUE), Layer.OPAQUE, 0));
+        sut.render();
+
+        // verification
+        assertThat(sut.getFrame("one").getPixel(1), is(Color.WHITE));
+        assertThat(sut.getFrame("one").getPixel(2), is(BLUE));
+        assertThat(sut.getLayers().get(0).getName(), is("bottom"));
+    }
+
+
+    @Test
+    public void equalPriorityIsOrderedByName() {
+
+        // setup
+        Compositor sut = new Compositor(16, new Sprite1D(16));
+
+        sut.put(new Layer("b", 100, 0, filled(1, Color.WHITE), Layer.OPAQUE, 0));
+        sut.put(new Layer("a", 100, 0, filled(1, BLUE), Layer.OPAQUE, 0));
+
+        // execution
+        sut.put(new Layer("a", 100, 0, filled(1, Color.CRITICAL), Layer.OPAQUE, 0));
+        sut.render();
+
+        // verification
+        assertThat(sut.getFrame("one").getPixel(0), is(Color.WHITE));
+    }
+
+
+    @Test
+    public void alphaBlendsOverLowerLayers() {
+
+        // setup
+        Sprite1D background = new Sprite1D(16);
+        background.setFill(BLUE);
+
+        Compositor sut = new Compositor(16, background);
+
+        // execution
+        sut.put(new Layer("half", 100, 0, filled(1, Color.WHITE), 102, 0));
+        sut.render();
+
+        // verification
+        assertThat(sut.getFrame("one").getPixel(0), is(new Color(102, 102, 255)));
+        assertThat(sut.getFrame("one").getPixel(1), is(BLUE));
+    }
+
+
+    @Test
+    public void removeRestoresBackground() {
+
+        // setup
+        Compositor sut = new Compositor(16, new Sprite1D(16));
+
+        sut.put(new Layer("alert", 100, 0, filled(16, Color.WHITE), Layer.OPAQUE, 0));
+        sut.render();
+
+        // execution
+        boolean removed = sut.remove("alert");
+        sut.render();
+
+        // verification
+        assertThat(removed, is(true));
+        assertThat(sut.remove("alert"), is(false));
+        assertThat(sut.hasLayers(), is(false));
+        assertThat(sut.getFrame("one").getPixel(0), is(Color.BLACK));
+    }
+
+
+    @Test
+    public void backgroundIsDrawnUnderLayers() {
+
+        // setup
+        Compositor sut = new Compositor(32, new Sprite1D(32));
+
+        sut.put(new Layer("alert", 100, 0, filled(2, Color.WHITE), Layer.OPAQUE, 0));
+        sut.render();
+
+        BitSet secondChunk = new BitSet();
+        secondChunk.set(1);
+
+        // execution
+        sut.setBackground(filled(32, BLUE), secondChunk);
+
+        BitSet chunks = sut.render();
+
+        // verification
+        assertThat(chunks, is(secondChunk));
+        assertThat(sut.getFrame("one").getPixel(0), is(Color.WHITE));
+        assertThat(sut.getFrame("one").getPixel(2), is(Color.BLACK));
+        assertThat(sut.getFrame("one").getPixel(16), is(BLUE));
+        assertThat(sut.getBackground().getPixel(2), is(Color.BLACK));
+    }
+
+
+    @Test
+    public void expire() {
+
+        // setup
+        Compositor sut = new Compositor(16, new Sprite1D(16));
+
+        sut.put(new Layer("short", 100, 0, filled(1, Color.WHITE), Layer.OPAQUE, 1000));
+        sut.put(new Layer("forever", 100, 1, filled(1, Color.WHITE), Layer.OPAQUE, 0));
+        sut.render();
+
+        // execution & verification
+        assertThat(sut.expire(999), is(false));
+        assertThat(sut.expire(1000), is(true));
+        assertThat(sut.get("short"), is(nullValue()));
+        assertThat(sut.get("forever").getOffset(), is(1));
+
+        sut.render();
+
+        assertThat(sut.getFrame("one").getPixel(0), is(Color.BLACK));
+    }
+
+
+    private Sprite1D filled(int length, Color color) {
+
+        Sprite1D sprite = new Sprite1D(length);
+        sprite.setFill(color);
+
+        return sprite;
+    }
+}
@@ -0,0 +1,48 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.Test;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.junit.Assert.assertThat;
+
+
+public class FadeAnimationUnitTest {
+
+    @Test
+    public void render() {
+
+        // setup
+        Sprite1D to = new Sprite1D(2);
+        to.setFill(new Color(100, 200, 40));
+
+        FadeAnimation sut = new FadeAnimation(new Sprite1D(2), to, 4);
+
+        // execution & verification
+        assertThat(sut.render(0, 2).getPixel(0), is(new Color(25, 50, 10)));
+        assertThat(sut.render(1, 2).getPixel(1), is(new Color(50, 100, 20)));
+        assertThat(sut.render(3, 2).getPixel(1), is(new Color(100, 200, 40)));
+        assertThat(sut.hasFrame(3), is(true));
+        assertThat(sut.hasFrame(4), is(false));
+    }
+
+
+    @Test
+    public void renderFromShorterSprite() {
+
+        // setup
+        Sprite1D from = new Sprite1D(1);
+        from.setFill(Color.WHITE);
+
+        FadeAnimation sut = new FadeAnimation(from, new Sprite1D(0), 1);
+
+        // execution
+        Sprite1D frame = sut.render(0, 3);
+
+        // verification
+        assertThat(frame.getPixel(0), is(Color.BLACK));
+        assertThat(frame.getPixel(2), is(Color.BLACK));
+    }
+}
@@ -0,0 +1,353 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import com.tinkerforge.IPConnection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStripRepository;
+import org.synyx.sybil.metrics.MetricsService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+
+import static org.junit.Assert.assertThat;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * LEDStripBatchServiceUnitTest.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RunWith(MockitoJUnitRunner.class)
+public class LEDStripBatchServiceUnitTest {
+
+    @Mock
+    private LEDStripService ledStripServiceMock;
+
+    @Mock
+    private LEDStripRepository ledStripRepositoryMock;
+
+    @Mock
+    private BrickletLEDStripWrapperService brickletLEDStripWrapperServiceMock;
+
+    @Mock
+    private IPConnection ipConnectionOneMock;
+
+    @Mock
+    private IPConnection ipConnectionTwoMock;
+
+    private LEDStrip one;
+    private LEDStrip two;
+    private LEDStrip three;
+
+    private List<Color> pixels = Collections.singletonList(Color.WHITE);
+
+    private long now;
+
+    private LEDStripBatchService sut;
+
+    @Before
+    public void setup() {
+
+        one = new LEDStrip("one", "abc", 16, "brickone");
+        two = new LEDStrip("two", "def", 16, "brickone");
+        three = new LEDStrip("three", "ghi", 16, "bricktwo");
+
+        when(ledStripRepositoryMock.getAll()).thenReturn(Arrays.asList(one, two, three));
+
+        when(brickletLEDStripWrapperServiceMock.connect("brickone")).thenReturn(ipConnectionOneMock);
+        when(brickletLEDStripWrapperServiceMock.connect("bricktwo")).thenReturn(ipConnectionTwoMock);
+
+        sut = new LEDStripBatchService(ledStripServiceMock, ledStripRepositoryMock,
+                brickletLEDStripWrapperServiceMock, new PhotonLatencyTracker(new MetricsService(), 1000),
+                new BrickBackoff(1000, 60000, () -> now));
+    }
+
+
+    @After
+    public void tearDown() {
+
+        sut.shutdown();
+    }
+
+
+    @Test
+    public void setColorsConnectsOncePerBrick() throws Exception {
+
+        // setup
+        Map<String, List<Color>> pixelsByName = new HashMap<>();
+        pixelsByName.put("one", pixels);
+        pixelsByName.put("two", pixels);
+        pixelsByName.put("three", pixels);
+
+        // execution
+        Map<String, RuntimeException> failures = sut.setColors(pixelsByName);
+
+        // verification
+        assertThat(failures.isEmpty(), is(true));
+
+        verify(ledStripRepositoryMock, times(1)).getAll();
+        verify(brickletLEDStripWrapperServiceMock, times(1)).connect("brickone");
+        verify(brickletLEDStripWrapperServiceMock, times(1)).connect("bricktwo");
+
+        verify(ledStripServiceMock).setColors(one, pixels, ipConnectionOneMock);
+        verify(ledStripServiceMock).setColors(two, pixels, ipConnectionOneMock);
+        verify(ledStripServiceMock).setColors(three, pixels, ipConnectionTwoMock);
+
+        verify(ipConnectionOneMock).disconnect();
+        verify(ipConnectionTwoMock).disconnect();
+    }
+
+
+    @Test
+    public void setColorsWithUnknownLEDStrip() {
+
+        // setup
+        Map<String, List<Color>> pixelsByName = new HashMap<>();
+        pixelsByName.put("one", pixels);
+        pixelsByName.put("four", pixels);
+
+        // execution
+        Map<String, RuntimeException> failures = sut.setColors(pixelsByName);
+
+        // verification
+        assertThat(failures.size(), is(1));
+        assertThat(failures.get("four"), instanceOf(LEDStripNotFoundException.class));
+
+        verify(ledStripServiceMock).setColors(one, pixels, ipConnectionOneMock);
+    }
+
+
+    @Test
+    public void setColorsWithUnreachableBrick() {
+
+        // setup
+        when(brickletLEDStripWrapperServiceMock.connect("brickone")).thenThrow(new LEDStripConnectionException(
+                "Test"));
+
+        Map<String, List<Color>> pixelsByName = new HashMap<>();
+        pixelsByName.put("one", pixels);
+        pixelsByName.put("two", pixels);
+        pixelsByName.put("three", pixels);
+
+        // execution
+        Map<String, RuntimeException> failures = sut.setColors(pixelsByName);
+
+        // verification
+        assertThat(failures.size(), is(2));
+        assertThat(failures.get("one").getMessage(), is("Test"));
+        assertThat(failures.get("two").getMessage(), is("Test"));
+
+        verify(ledStripServiceMock, never()).setColors(eq(one), eq(pixels), any(IPConnection.class));
+        verify(ledStripServiceMock).recordColors(one, pixels);
+        verify(ledStripServiceMock).recordColors(two, pixels);
+        verify(ledStripServiceMock).setColors(three, pixels, ipConnectionTwoMock);
+    }
+
+
+    @Test
+    public void setColorsLeavesUnreachableBrickAlone() {
+
+        // setup
+        when(brickletLEDStripWrapperServiceMock.connect("brickone")).thenThrow(new LEDStripConnectionException(
+                "Test"));
+
+        Map<String, List<Color>> pixelsByName = new HashMap<>();
+        pixelsByName.put("one", pixels);
+
+        sut.setColors(pixelsByName);
+
+        // execution
+        Map<String, RuntimeException> failures = sut.setColors(pixelsByName);
+
+        // verification
+        assertThat(failures.isEmpty(), is(true));
+
+        verify(brickletLEDStripWrapperServiceMock, times(1)).connect("brickone");
+        verify(ledStripServiceMock, times(2)).recordColors(one, pixels);
+
+        // until the backoff elapsed
+        now = 1000;
+        sut.setColors(pixelsByName);
+
+        verify(brickletLEDStripWrapperServiceMock, times(2)).connect("brickone");
+    }
+
+
+    @Test
+    public void setColorsWithFailingLEDStrip() {
+
+        // setup
+        when(ledStripServiceMock.setColors(one, pixels, ipConnectionOneMock)).thenThrow(
+            new LEDStripConnectionException("Test"));
+
+        Map<String, List<Color>> pixelsByName = new HashMap<>();
+        pixelsByName.put("one", pixels);
+        pixelsByName.put("two", pixels);
+
+        // execution
+        Map<String, RuntimeException> failures = sut.setColors(pixelsByName);
+
+        // verification
+        assertThat(failures.size(), is(1));
+        assertThat(failures.get("one").getMessage(), is("Test"));
+
+        verify(ledStripServiceMock).setColors(two, pixels, ipConnectionOneMock);
+    }
+
+
+    @Test
+    public void setColorsWithUnexpectedErrorOnLEDStrip() throws Exception {
+
+        // setup
+        IllegalStateException error = new IllegalStateException("Test");
+        when(ledStripServiceMock.setColors(one, pixels, ipConnectionOneMock)).thenThrow(error);
+
+        Map<String, List<Color>> pixelsByName = new HashMap<>();
+        pixelsByName.put("one", pixels);
+        pixelsByName.put("two", pixels);
+
+        // execution
+        Map<String, RuntimeException> failures = sut.setColors(pixelsByName);
+
+        // verification
+        assertThat(failures.size(), is(1));
+        assertThat(failures.get("one"), is(sameInstance((RuntimeException) error)));
+
+        verify(ledStripServiceMock).setColors(two, pixels, ipConnectionOneMock);
+        verify(ipConnectionOneMock).disconnect();
+    }
+
+
+    @Test
+    public void setColorsOfGroupEncodesOncePerFormat() {
+
+        // setup
+        LEDStrip four = new LEDStrip("four", "jkl", 20, "bricktwo");
+
+        when(ledStripRepositoryMock.getGroup("hallway")).thenReturn(Arrays.asList(one, two, three, four));
+        when(ledStripServiceMock.getPixelBufferSize(any(LEDStrip.class))).thenReturn(16);
+        when(ledStripServiceMock.getPixelBufferSize(four)).thenReturn(32);
+        when(ledStripServiceMock.getBrightness(any(LEDStrip.class))).thenReturn(1.0);
+
+        // execution
+        Map<String, RuntimeException> results = sut.setColorsOfGroup("hallway", pixels);
+
+        // verification
+        assertThat(new ArrayList<>(results.keySet()), is(Arrays.asList("one", "two", "three", "four")));
+        assertThat(results.get("one"), is(nullValue()));
+
+        verify(ledStripServiceMock, times(1)).getBrightness(any(LEDStrip.class));
+        verify(brickletLEDStripWrapperServiceMock, times(1)).connect("brickone");
+        verify(brickletLEDStripWrapperServiceMock, times(1)).connect("bricktwo");
+
+        TransferBuffer transferBufferOne = captureTransferBuffer(one, ipConnectionOneMock);
+
+        assertThat(captureTransferBuffer(two, ipConnectionOneMock), sameInstance(transferBufferOne));
+        assertThat(captureTransferBuffer(three, ipConnectionTwoMock), sameInstance(transferBufferOne));
+        assertThat(captureTransferBuffer(four, ipConnectionTwoMock), not(sameInstance(transferBufferOne)));
+        assertThat(transferBufferOne.getChunkCount(), is(1));
+    }
+
+
+    @Test
+    public void setColorsOfGroupWithUnreachableBrick() {
+
+        // setup
+        when(ledStripRepositoryMock.getGroup("hallway")).thenReturn(Arrays.asList(one, two, three));
+        when(ledStripServiceMock.getPixelBufferSize(any(LEDStrip.class))).thenReturn(16);
+        when(ledStripServiceMock.getBrightness(any(LEDStrip.class))).thenReturn(1.0);
+        when(brickletLEDStripWrapperServiceMock.connect("brickone")).thenThrow(new LEDStripConnectionException(
+                "Test"));
+
+        // execution
+        Map<String, RuntimeException> results = sut.setColorsOfGroup("hallway", pixels);
+
+        // verification
+        assertThat(results.get("one").getMessage(), is("Test"));
+        assertThat(results.get("two").getMessage(), is("Test"));
+        assertThat(results.get("three"), is(nullValue()));
+
+        TransferBuffer transferBuffer = captureTransferBuffer(three, ipConnectionTwoMock);
+
+        verify(ledStripServiceMock).recordEncoded(eq(one), any(Sprite1D.class), eq(transferBuffer));
+        verify(ledStripServiceMock).recordEncoded(eq(two), any(Sprite1D.class), eq(transferBuffer));
+        verify(ledStripServiceMock, never()).drawEncoded(eq(one), any(Sprite1D.class), any(TransferBuffer.class),
+            any(IPConnection.class));
+    }
+
+
+    @Test(expected = LEDStripNotFoundException.class)
+    public void setColorsOfUnknownGroup() {
+
+        // setup
+        when(ledStripRepositoryMock.getGroup("none")).thenReturn(Collections.emptyList());
+
+        // execution
+        sut.setColorsOfGroup("none", pixels);
+    }
+
+
+    @Test
+    public void setColorsOfGroupWithFailingSensor() {
+
+        // setup
+        three.setSensor("sensor");
+
+        when(ledStripRepositoryMock.getGroup("hallway")).thenReturn(Arrays.asList(one, three));
+        when(ledStripServiceMock.getPixelBufferSize(any(LEDStrip.class))).thenReturn(16);
+        when(ledStripServiceMock.getBrightness(one)).thenReturn(1.0);
+        doThrow(new LEDStripConnectionException("Test")).when(ledStripServiceMock).getBrightness(three);
+
+        // execution
+        Map<String, RuntimeException> results = sut.setColorsOfGroup("hallway", pixels);
+
+        // verification
+        assertThat(results.get("one"), is(nullValue()));
+        assertThat(results.get("three").getMessage(), is("Test"));
+
+        verify(brickletLEDStripWrapperServiceMock, never()).connect("bricktwo");
+    }
+
+
+    private TransferBuffer captureTransferBuffer(LEDStrip ledStrip, IPConnection ipConnection) {
+
+        ArgumentCaptor<TransferBuffer> captor = ArgumentCaptor.forClass(TransferBuffer.class);
+
+        verify(ledStripServiceMock).drawEncoded(eq(ledStrip), any(Sprite1D.class), captor.capture(),
+            eq(ipConnection));
+
+        return captor.getValue();
+    }
+}
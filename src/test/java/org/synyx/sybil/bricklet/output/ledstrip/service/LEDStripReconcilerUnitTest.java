@@ -0,0 +1,85 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.synyx.sybil.brick.service.BrickHealthService;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * LEDStripReconcilerUnitTest.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RunWith(MockitoJUnitRunner.class)
+public class LEDStripReconcilerUnitTest {
+
+    @Mock
+    LEDStripService ledStripServiceMock;
+
+    @Mock
+    BrickHealthService brickHealthServiceMock;
+
+    LEDStripReconciler sut;
+
+    @Before
+    public void setup() {
+
+        sut = new LEDStripReconciler(ledStripServiceMock, brickHealthServiceMock, 0);
+    }
+
+
+    @After
+    public void tearDown() {
+
+        sut.shutdown();
+    }
+
+
+    @Test
+    public void reconcileEveryLEDStripOutOfSync() {
+
+        // setup
+        when(ledStripServiceMock.getOutOfSync()).thenReturn(Arrays.asList("one", "two", "three"));
+        when(ledStripServiceMock.reconcile("one")).thenThrow(new LEDStripConnectionException("Still unreachable"));
+        when(ledStripServiceMock.reconcile("two")).thenThrow(new LEDStripNotFoundException("LED strip two not found"));
+
+        // execution
+        sut.reconcile();
+
+        // verification
+        verify(ledStripServiceMock).reconcile("one");
+        verify(ledStripServiceMock).reconcile("two");
+        verify(ledStripServiceMock).reconcile("three");
+    }
+
+
+    @Test
+    public void resetBrickIsReconciled() {
+
+        // setup
+        when(ledStripServiceMock.getOutOfSync()).thenReturn(Collections.singletonList("one"));
+
+        // execution
+        sut.brickReset("abrick");
+
+        // verification
+        verify(ledStripServiceMock, timeout(1000)).invalidate("abrick");
+        verify(ledStripServiceMock, timeout(1000)).reconcile("one");
+    }
+}
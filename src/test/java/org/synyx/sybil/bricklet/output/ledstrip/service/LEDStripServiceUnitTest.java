@@ -1,6 +1,7 @@
 package org.synyx.sybil.bricklet.output.ledstrip.service;
 
 import com.tinkerforge.BrickletLEDStrip;
+import com.tinkerforge.IPConnection;
 import com.tinkerforge.NotConnectedException;
 import com.tinkerforge.TimeoutException;
 
@@ -22,23 +23,34 @@ import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
 import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStripRepository;
 import org.synyx.sybil.jenkins.Status;
 import org.synyx.sybil.jenkins.StatusInformation;
+import org.synyx.sybil.metrics.MetricsService;
 
 import java.lang.reflect.Constructor;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import static org.hamcrest.core.Is.is;
 
+import static org.junit.Assert.fail;
+
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyShort;
 import static org.mockito.Matchers.eq;
 
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -62,7 +74,10 @@ public class LEDStripServiceUnitTest {
     IlluminanceService illuminanceServiceMock;
 
     @Mock
-    BrickletLEDStripWrapper brickletLEDStripMock;
+    BrickletLEDStrip brickletLEDStripMock;
+
+    @Mock
+    IPConnection ipConnectionMock;
 
     @Mock
     BrickletLEDStrip.RGBValues rgbValuesOneMock;
@@ -70,15 +85,32 @@ public class LEDStripServiceUnitTest {
     @Mock
     BrickletLEDStrip.RGBValues rgbValuesTwoMock;
 
+    BrickletLEDStripWrapper brickletLEDStrip;
+
+    FrameBufferService frameBufferService;
+
+    MetricsService metricsService;
+
     LEDStripService sut;
 
     @Before
     public void setup() throws Exception {
 
+        frameBufferService = new FrameBufferService();
+
+        // the original LED strip, writing each chunk with setRGBValues
+        brickletLEDStrip = spy(new BrickletLEDStripV1Wrapper(brickletLEDStripMock, ipConnectionMock));
+        doReturn(null).when(brickletLEDStrip).getIPConnection();
+
         when(brickletLEDStripWrapperServiceMock.getBrickletLEDStrip(any(LEDStrip.class))).thenReturn(
-            brickletLEDStripMock);
+            brickletLEDStrip);
 
-        sut = new LEDStripService(brickletLEDStripWrapperServiceMock, illuminanceServiceMock, ledStripRepository);
+        metricsService = new MetricsService();
+
+        sut = new LEDStripService(brickletLEDStripWrapperServiceMock, illuminanceServiceMock, ledStripRepository,
+                frameBufferService, new TransitionService(0, 1, 0), new BrightnessQuantizer(0.125, 0.25),
+                new BrickBackoff(0, 0), metricsService, new PhotonLatencyTracker(metricsService, 1000),
+                new ChunkRetry(0, 0));
     }
 
 
@@ -106,6 +138,361 @@ public class LEDStripServiceUnitTest {
     }
 
 
+    @Test
+    public void brightnessJitterKeepsLevel() throws Exception {
+
+        // setup
+        LEDStrip ledStrip = new LEDStrip("one", "xyz", 16, "abrick", "ambientlight");
+
+        when(illuminanceServiceMock.getBrightness("ambientlight")).thenReturn(2.06, 1.94, 2.09, 2.2);
+
+        // execution & verification
+        assertThat(sut.getBrightness(ledStrip), is(2.0));
+        assertThat(sut.getBrightness(ledStrip), is(2.0));
+        assertThat(sut.getBrightness(ledStrip), is(2.0));
+        assertThat(sut.getBrightness(ledStrip), is(2.25));
+    }
+
+
+    @Test
+    public void redrawSendsFrameBufferWithNewBrightness() throws Exception {
+
+        // setup
+        LEDStrip ledStrip = new LEDStrip("one", "xyz", 16, "abrick");
+        when(ledStripRepository.get("one")).thenReturn(ledStrip);
+
+        sut.setColors("one", Collections.singletonList(new Color(10, 20, 30)));
+
+        // execution
+        boolean result = sut.redraw(ledStrip, 2.0);
+
+        // verification
+        short[] zeroes = new short[16];
+        short[] red = new short[16];
+        short[] green = new short[16];
+        short[] blue = new short[16];
+        red[0] = 20;
+        green[0] = 40;
+        blue[0] = 60;
+
+        assertThat(result, is(true));
+        verify(brickletLEDStripMock).setRGBValues(0, (short) 16, blue, red, green);
+        assertThat(sut.getFrameBuffer("one").getSprite().getPixel(0), is(new Color(10, 20, 30)));
+        assertThat(sut.getFrameBuffer("one").getGeneration(), is(1L));
+    }
+
+
+    @Test
+    public void redrawWithoutFrameBuffer() throws Exception {
+
+        // execution & verification
+        assertThat(sut.redraw(new LEDStrip("one", "xyz", 16, "abrick"), 2.0), is(false));
+        verify(brickletLEDStripMock, never()).setRGBValues(anyInt(), anyShort(), any(short[].class),
+            any(short[].class), any(short[].class));
+    }
+
+
+    @Test
+    public void recordedColorsAreReplayedByReconcile() throws Exception {
+
+        // setup
+        LEDStrip ledStrip = new LEDStrip("one", "xyz", 16, "abrick");
+        when(ledStripRepository.get("one")).thenReturn(ledStrip);
+
+        // execution
+        FrameBuffer frameBuffer = sut.recordColors(ledStrip, Collections.singletonList(new Color(10, 20, 30)));
+
+        // verification
+        assertThat(frameBuffer.getPixel(0), is(new Color(10, 20, 30)));
+        assertThat(sut.getOutOfSync(), is(Collections.singletonList("one")));
+        verify(brickletLEDStripWrapperServiceMock, never()).getBrickletLEDStrip(ledStrip);
+
+        assertThat(sut.reconcile("one"), is(true));
+        assertThat(sut.getOutOfSync().isEmpty(), is(true));
+    }
+
+
+    @Test
+    public void failedWriteIsReplayedByReconcile() throws Exception {
+
+        // setup
+        long[] now = { 0 };
+        sut = new LEDStripService(brickletLEDStripWrapperServiceMock, illuminanceServiceMock, ledStripRepository,
+                frameBufferService, new TransitionService(0, 1, 0), new BrightnessQuantizer(0.125, 0.25),
+                new BrickBackoff(1000, 60000, () -> now[0]), new MetricsService(),
+                new PhotonLatencyTracker(new MetricsService(), 1000), new ChunkRetry(0, 0));
+
+        LEDStrip ledStrip = new LEDStrip("one", "xyz", 16, "abrick");
+        when(ledStripRepository.get("one")).thenReturn(ledStrip);
+
+        Constructor<NotConnectedException> constructor = NotConnectedException.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+
+        doThrow(constructor.newInstance()).doNothing().when(brickletLEDStripMock)
+            .setRGBValues(anyInt(), anyShort(), any(short[].class), any(short[].class), any(short[].class));
+
+        try {
+            sut.setColors("one", Collections.singletonList(new Color(10, 20, 30)));
+            fail("The failed write should be reported");
+        } catch (LEDStripConnectionException exception) {
+            // expected
+        }
+
+        // execution & verification
+        assertThat(sut.getOutOfSync(), is(Collections.singletonList("one")));
+        assertThat(sut.getFrameBuffer("one").getSprite().getPixel(0), is(new Color(10, 20, 30)));
+
+        // the brick is left alone until the backoff elapsed, and writes only update the frame buffer
+        sut.setColors("one", Collections.singletonList(new Color(40, 50, 60)));
+        assertThat(sut.reconcile("one"), is(false));
+
+        now[0] = 1000;
+
+        assertThat(sut.reconcile("one"), is(true));
+        assertThat(sut.getOutOfSync().isEmpty(), is(true));
+        assertThat(sut.reconcile("one"), is(false));
+
+        short[] red = new short[16];
+        short[] green = new short[16];
+        short[] blue = new short[16];
+        red[0] = 40;
+        green[0] = 50;
+        blue[0] = 60;
+
+        verify(brickletLEDStripWrapperServiceMock, Mockito.times(2)).getBrickletLEDStrip(ledStrip);
+        verify(brickletLEDStripMock).setRGBValues(0, (short) 16, blue, red, green);
+        verify(brickletLEDStripMock, Mockito.times(2)).setRGBValues(anyInt(), anyShort(), any(short[].class),
+            any(short[].class), any(short[].class));
+    }
+
+
+    @Test
+    public void timedOutFrameIsRetriedFromFirstUnacknowledgedChunk() throws Exception {
+
+        // setup, backing off long enough to see the LED strip out of sync before the retry
+        ChunkRetry chunkRetry = new ChunkRetry(2, 500);
+        sut = new LEDStripService(brickletLEDStripWrapperServiceMock, illuminanceServiceMock, ledStripRepository,
+                frameBufferService, new TransitionService(0, 1, 0), new BrightnessQuantizer(0.125, 0.25),
+                new BrickBackoff(0, 0), metricsService, new PhotonLatencyTracker(metricsService, 1000), chunkRetry);
+
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 48, "abrick"));
+
+        // only the last chunk is acknowledged, so the ones before it may not have arrived either
+        doThrow(timeoutException()).doNothing().when(brickletLEDStripMock)
+            .setRGBValues(eq(32), anyShort(), any(short[].class), any(short[].class), any(short[].class));
+
+        // execution
+        sut.setColors("one", Collections.singletonList(Color.WHITE));
+
+        // verification
+        assertThat(sut.getOutOfSync(), is(Collections.singletonList("one")));
+
+        verify(brickletLEDStripMock, timeout(5000).times(2)).setRGBValues(eq(32), anyShort(), any(short[].class),
+            any(short[].class), any(short[].class));
+        verify(brickletLEDStripMock, Mockito.times(2)).setRGBValues(eq(0), anyShort(), any(short[].class),
+            any(short[].class), any(short[].class));
+        verify(brickletLEDStripMock, Mockito.times(2)).setRGBValues(eq(16), anyShort(), any(short[].class),
+            any(short[].class), any(short[].class));
+
+        awaitTrue(() -> sut.getOutOfSync().isEmpty());
+        assertThat(metricsService.counter("sybil_ledstrip_chunk_failures_total", "", "ledstrip", "chunk")
+            .getCount("one", "2"), is(1L));
+        assertThat(metricsService.counter("sybil_ledstrip_chunk_retries_total", "", "ledstrip", "outcome")
+            .getCount("one", "written"), is(1L));
+
+        chunkRetry.shutdown();
+    }
+
+
+    @Test
+    public void timedOutChunkIsRetriedAloneIfEveryChunkIsAcknowledged() throws Exception {
+
+        // setup
+        ChunkRetry chunkRetry = new ChunkRetry(2, 1);
+        sut = new LEDStripService(brickletLEDStripWrapperServiceMock, illuminanceServiceMock, ledStripRepository,
+                frameBufferService, new TransitionService(0, 1, 0), new BrightnessQuantizer(0.125, 0.25),
+                new BrickBackoff(0, 0), metricsService, new PhotonLatencyTracker(metricsService, 1000), chunkRetry);
+
+        LEDStrip ledStrip = new LEDStrip("one", "abc", 48, "abrick");
+        ledStrip.setAcknowledged(true);
+        when(ledStripRepository.get("one")).thenReturn(ledStrip);
+
+        doThrow(timeoutException()).doNothing().when(brickletLEDStripMock)
+            .setRGBValues(eq(16), anyShort(), any(short[].class), any(short[].class), any(short[].class));
+
+        // execution
+        sut.setColors("one", Collections.singletonList(Color.WHITE));
+
+        // verification
+        verify(brickletLEDStripMock, timeout(5000)).setRGBValues(eq(32), anyShort(), any(short[].class),
+            any(short[].class), any(short[].class));
+        verify(brickletLEDStripMock, Mockito.times(2)).setRGBValues(eq(16), anyShort(), any(short[].class),
+            any(short[].class), any(short[].class));
+        verify(brickletLEDStripMock).setRGBValues(eq(0), anyShort(), any(short[].class), any(short[].class),
+            any(short[].class));
+
+        awaitTrue(() -> sut.getOutOfSync().isEmpty());
+
+        chunkRetry.shutdown();
+    }
+
+
+    @Test
+    public void chunksLeftAfterLastRetryAreWrittenWithNextFrame() throws Exception {
+
+        // setup
+        ChunkRetry chunkRetry = new ChunkRetry(1, 1);
+        sut = new LEDStripService(brickletLEDStripWrapperServiceMock, illuminanceServiceMock, ledStripRepository,
+                frameBufferService, new TransitionService(0, 1, 0), new BrightnessQuantizer(0.125, 0.25),
+                new BrickBackoff(0, 0), metricsService, new PhotonLatencyTracker(metricsService, 1000), chunkRetry);
+
+        LEDStrip ledStrip = new LEDStrip("one", "abc", 48, "abrick");
+        ledStrip.setAcknowledged(true);
+        when(ledStripRepository.get("one")).thenReturn(ledStrip);
+
+        doThrow(timeoutException()).doThrow(timeoutException()).doNothing().when(brickletLEDStripMock)
+            .setRGBValues(eq(16), anyShort(), any(short[].class), any(short[].class), any(short[].class));
+
+        sut.setColors("one", Collections.singletonList(Color.WHITE));
+
+        awaitTrue(() ->
+                metricsService.counter("sybil_ledstrip_chunk_retries_total", "", "ledstrip", "outcome")
+                .getCount("one", "failed") == 1L);
+        assertThat(sut.getOutOfSync(), is(Collections.singletonList("one")));
+
+        // execution
+        sut.updatePixels("one", Collections.singletonList(new PositionedSprite(0, new Sprite1D(1))));
+
+        // verification
+        verify(brickletLEDStripMock, Mockito.times(2)).setRGBValues(eq(0), anyShort(), any(short[].class),
+            any(short[].class), any(short[].class));
+        verify(brickletLEDStripMock, Mockito.times(3)).setRGBValues(eq(16), anyShort(), any(short[].class),
+            any(short[].class), any(short[].class));
+        verify(brickletLEDStripMock).setRGBValues(eq(32), anyShort(), any(short[].class), any(short[].class),
+            any(short[].class));
+
+        assertThat(sut.getOutOfSync().isEmpty(), is(true));
+
+        chunkRetry.shutdown();
+    }
+
+
+    @Test
+    public void retryIsGivenUpForNewerFrame() throws Exception {
+
+        // setup
+        ChunkRetry chunkRetry = new ChunkRetry(1, 100);
+        sut = new LEDStripService(brickletLEDStripWrapperServiceMock, illuminanceServiceMock, ledStripRepository,
+                frameBufferService, new TransitionService(0, 1, 0), new BrightnessQuantizer(0.125, 0.25),
+                new BrickBackoff(0, 0), metricsService, new PhotonLatencyTracker(metricsService, 1000), chunkRetry);
+
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 16, "abrick"));
+
+        doThrow(timeoutException()).doNothing().when(brickletLEDStripMock)
+            .setRGBValues(anyInt(), anyShort(), any(short[].class), any(short[].class), any(short[].class));
+
+        sut.setColors("one", Collections.singletonList(Color.WHITE));
+
+        // execution
+        sut.setColors("one", Collections.singletonList(new Color(10, 20, 30)));
+
+        // verification
+        awaitTrue(() ->
+                metricsService.counter("sybil_ledstrip_chunk_retries_total", "", "ledstrip", "outcome")
+                .getCount("one", "superseded") == 1L);
+        assertThat(sut.getOutOfSync().isEmpty(), is(true));
+
+        short[] red = new short[16];
+        short[] green = new short[16];
+        short[] blue = new short[16];
+        red[0] = 10;
+        green[0] = 20;
+        blue[0] = 30;
+
+        verify(brickletLEDStripMock).setRGBValues(0, (short) 16, blue, red, green);
+        verify(brickletLEDStripMock, Mockito.times(2)).setRGBValues(anyInt(), anyShort(), any(short[].class),
+            any(short[].class), any(short[].class));
+
+        chunkRetry.shutdown();
+    }
+
+
+    @Test
+    public void unreachableBrickIsBackedOffFrom() throws Exception {
+
+        // setup
+        sut = new LEDStripService(brickletLEDStripWrapperServiceMock, illuminanceServiceMock, ledStripRepository,
+                frameBufferService, new TransitionService(0, 1, 0), new BrightnessQuantizer(0.125, 0.25),
+                new BrickBackoff(1000, 60000, () -> 0), new MetricsService(),
+                new PhotonLatencyTracker(new MetricsService(), 1000), new ChunkRetry(0, 0));
+
+        LEDStrip ledStrip = new LEDStrip("one", "xyz", 16, "abrick");
+        when(ledStripRepository.get("one")).thenReturn(ledStrip);
+        when(brickletLEDStripWrapperServiceMock.getBrickletLEDStrip(ledStrip)).thenThrow(
+            new LEDStripConnectionException("Brick unreachable"));
+
+        try {
+            sut.setColors("one", Collections.singletonList(Color.WHITE));
+            fail("The failed connection should be reported");
+        } catch (LEDStripConnectionException exception) {
+            // expected
+        }
+
+        // execution
+        sut.setColors("one", Collections.singletonList(Color.WHITE));
+
+        // verification
+        verify(brickletLEDStripWrapperServiceMock).getBrickletLEDStrip(ledStrip);
+        assertThat(sut.getFrameBuffer("one").getGeneration(), is(2L));
+        assertThat(sut.getOutOfSync(), is(Collections.singletonList("one")));
+    }
+
+
+    @Test
+    public void invalidateMarksDrawnLEDStripsOfBrick() throws Exception {
+
+        // setup
+        LEDStrip one = new LEDStrip("one", "xyz", 16, "abrick");
+        LEDStrip two = new LEDStrip("two", "uvw", 16, "abrick");
+        LEDStrip three = new LEDStrip("three", "rst", 16, "anotherbrick");
+        when(ledStripRepository.get("one")).thenReturn(one);
+        when(ledStripRepository.get("three")).thenReturn(three);
+        when(ledStripRepository.getAll()).thenReturn(Arrays.asList(one, two, three));
+
+        sut.setColors("one", Collections.singletonList(Color.WHITE));
+        sut.setColors("three", Collections.singletonList(Color.WHITE));
+
+        // execution
+        sut.invalidate("abrick");
+
+        // verification
+        assertThat(sut.getOutOfSync(), is(Collections.singletonList("one")));
+        assertThat(sut.reconcile("one"), is(true));
+        assertThat(sut.getOutOfSync().isEmpty(), is(true));
+    }
+
+
+    @Test
+    public void repeatedStatusReusesEncodedFrame() throws Exception {
+
+        // setup
+        LEDStrip ledStrip = new LEDStrip("one", "xyz", 16, "abrick");
+        when(ledStripRepository.get("one")).thenReturn(ledStrip);
+
+        sut.handleStatus("one", new StatusInformation("test", Status.WARNING));
+
+        TransferBuffer encoded = sut.getProfile(ledStrip).getEncodedStatusFrame(Status.WARNING, 1.0);
+
+        // execution
+        sut.handleStatus("one", new StatusInformation("test", Status.WARNING));
+
+        // verification
+        assertThat(sut.getProfile(ledStrip).getEncodedStatusFrame(Status.WARNING, 1.0) == encoded, is(true));
+        verify(brickletLEDStripMock, Mockito.times(2)).setRGBValues(0, (short) 16, encoded.getBlue(0),
+            encoded.getRed(0), encoded.getGreen(0));
+    }
+
+
     @Test
     public void getBrightnessMax() throws Exception {
 
@@ -227,6 +614,217 @@ public class LEDStripServiceUnitTest {
     }
 
 
+    @Test
+    public void onlyLastChunkIsAcknowledged() throws Exception {
+
+        // setup
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 30, "abrick"));
+
+        List<Color> colors = Arrays.asList(new Color[20]);
+        Collections.fill(colors, Color.WHITE);
+
+        // execution
+        sut.setColors("one", colors);
+
+        // verification
+        InOrder inOrder = Mockito.inOrder(brickletLEDStripMock);
+
+        inOrder.verify(brickletLEDStripMock).setResponseExpected(BrickletLEDStrip.FUNCTION_SET_RGB_VALUES, false);
+        inOrder.verify(brickletLEDStripMock).setRGBValues(eq(0), anyShort(), any(short[].class), any(short[].class),
+            any(short[].class));
+        inOrder.verify(brickletLEDStripMock).setResponseExpected(BrickletLEDStrip.FUNCTION_SET_RGB_VALUES, true);
+        inOrder.verify(brickletLEDStripMock).setRGBValues(eq(16), anyShort(), any(short[].class), any(short[].class),
+            any(short[].class));
+    }
+
+
+    @Test
+    public void everyChunkIsAcknowledgedIfConfigured() throws Exception {
+
+        // setup
+        LEDStrip ledStrip = new LEDStrip("one", "abc", 30, "abrick");
+        ledStrip.setAcknowledged(true);
+        when(ledStripRepository.get("one")).thenReturn(ledStrip);
+
+        List<Color> colors = Arrays.asList(new Color[20]);
+        Collections.fill(colors, Color.WHITE);
+
+        // execution
+        sut.setColors("one", colors);
+
+        // verification
+        verify(brickletLEDStripMock, Mockito.times(2)).setResponseExpected(BrickletLEDStrip.FUNCTION_SET_RGB_VALUES, true);
+        verify(brickletLEDStripMock, never()).setResponseExpected(BrickletLEDStrip.FUNCTION_SET_RGB_VALUES, false);
+    }
+
+
+    @Test
+    public void handleSpriteUpdatesFrameBuffer() throws Exception {
+
+        // setup
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 30, "abrick"));
+
+        List<Color> colors = Arrays.asList(new Color[20]);
+        Collections.fill(colors, Color.WHITE);
+
+        // execution
+        sut.setColors("one", colors);
+        sut.setColors("one", colors);
+
+        // verification
+        FrameBuffer frameBuffer = sut.getFrameBuffer("one");
+
+        assertThat(frameBuffer.getGeneration(), is(2L));
+        assertThat(frameBuffer.getLength(), is(30));
+        assertThat(frameBuffer.getPixel(19), is(Color.WHITE));
+        assertThat(frameBuffer.getPixel(20), is(Color.BLACK));
+    }
+
+
+    @Test
+    public void setColorsIfGenerationMatches() throws Exception {
+
+        // setup
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 16, "abrick"));
+
+        frameBufferService.update("one", new Sprite1D(16));
+
+        // execution
+        FrameBuffer frameBuffer = sut.setColors("one", Collections.singletonList(Color.WHITE), new long[] { 1 });
+
+        // verification
+        assertThat(frameBuffer.getGeneration(), is(2L));
+        assertThat(frameBuffer.getPixel(0), is(Color.WHITE));
+    }
+
+
+    @Test
+    public void setColorsIfGenerationDoesNotMatch() throws Exception {
+
+        // setup
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 16, "abrick"));
+
+        frameBufferService.update("one", new Sprite1D(16));
+        frameBufferService.update("one", new Sprite1D(16));
+
+        // execution
+        try {
+            sut.setColors("one", Collections.singletonList(Color.WHITE), new long[] { 1 });
+            fail("Expected FrameBufferModifiedException");
+        } catch (FrameBufferModifiedException exception) {
+            // expected
+        }
+
+        // verification
+        assertThat(sut.getFrameBuffer("one").getGeneration(), is(2L));
+        verify(brickletLEDStripWrapperServiceMock, never()).getBrickletLEDStrip(any(LEDStrip.class));
+    }
+
+
+    @Test
+    public void setColorsIfOneOfGenerationsMatches() throws Exception {
+
+        // setup
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 16, "abrick"));
+
+        frameBufferService.update("one", new Sprite1D(16));
+        frameBufferService.update("one", new Sprite1D(16));
+
+        // execution
+        FrameBuffer frameBuffer = sut.setColors("one", Collections.singletonList(Color.WHITE), new long[] { 1, 2 });
+
+        // verification
+        assertThat(frameBuffer.getGeneration(), is(3L));
+        assertThat(frameBuffer.getPixel(0), is(Color.WHITE));
+    }
+
+
+    @Test(expected = FrameBufferModifiedException.class)
+    public void updatePixelsIfGenerationDoesNotMatch() throws Exception {
+
+        // setup
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 16, "abrick"));
+
+        // execution
+        sut.updatePixels("one", Collections.singletonList(new PositionedSprite(0, new Sprite1D(1))),
+            new long[] { 3 });
+    }
+
+
+    @Test
+    public void updatePixelsOnlySendsAffectedChunks() throws Exception {
+
+        // setup
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 40, "abrick"));
+
+        frameBufferService.update("one", new Sprite1D(40));
+
+        Sprite1D sprite = new Sprite1D(3);
+        sprite.setFill(Color.WHITE);
+
+        // execution
+        FrameBuffer frameBuffer = sut.updatePixels("one", Collections.singletonList(new PositionedSprite(20, sprite)));
+
+        // verification
+        short[] partlyWhite = new short[16];
+        Arrays.fill(partlyWhite, 4, 7, (short) 255);
+
+        verify(brickletLEDStripMock).setRGBValues(16, (short) 16, partlyWhite, partlyWhite, partlyWhite);
+        verify(brickletLEDStripMock, never()).setRGBValues(eq(0), anyShort(), any(short[].class), any(short[].class),
+            any(short[].class));
+        verify(brickletLEDStripMock, never()).setRGBValues(eq(32), anyShort(), any(short[].class),
+            any(short[].class), any(short[].class));
+
+        assertThat(frameBuffer.getGeneration(), is(2L));
+        assertThat(frameBuffer.getPixel(19), is(Color.BLACK));
+        assertThat(frameBuffer.getPixel(20), is(Color.WHITE));
+        assertThat(frameBuffer.getPixel(22), is(Color.WHITE));
+        assertThat(frameBuffer.getPixel(23), is(Color.BLACK));
+    }
+
+
+    @Test
+    public void updatePixelsWithoutFrameBufferReadsLEDStrip() throws Exception {
+
+        // setup
+        rgbValuesOneMock.r = new short[16];
+        rgbValuesOneMock.g = new short[16];
+        rgbValuesOneMock.b = new short[16];
+
+        // WS2812 use BRG instead of RGB, so this is red
+        Arrays.fill(rgbValuesOneMock.g, (short) 127);
+
+        when(brickletLEDStripMock.getRGBValues(0, (short) 16)).thenReturn(rgbValuesOneMock);
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 16, "abrick"));
+
+        // execution
+        FrameBuffer frameBuffer = sut.updatePixels("one",
+                Collections.singletonList(new PositionedSprite(15, new Sprite1D(1))));
+
+        // verification
+        assertThat(frameBuffer.getPixel(0), is(Color.CRITICAL));
+        assertThat(frameBuffer.getPixel(15), is(Color.BLACK));
+    }
+
+
+    @Test
+    public void updatePixelsOutsideOfLEDStrip() throws Exception {
+
+        // setup
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 16, "abrick"));
+
+        frameBufferService.update("one", new Sprite1D(16));
+
+        // execution
+        FrameBuffer frameBuffer = sut.updatePixels("one",
+                Collections.singletonList(new PositionedSprite(16, new Sprite1D(4))));
+
+        // verification
+        assertThat(frameBuffer.getGeneration(), is(1L));
+        verify(brickletLEDStripWrapperServiceMock, never()).getBrickletLEDStrip(any(LEDStrip.class));
+    }
+
+
     @Test
     public void handleTooLongSprite() throws Exception {
 
@@ -305,6 +903,242 @@ public class LEDStripServiceUnitTest {
     }
 
 
+    @Test
+    public void handleStatusCrossfades() throws Exception {
+
+        // setup
+        TransitionService transitionService = new TransitionService(2, 1000, 0);
+
+        sut = new LEDStripService(brickletLEDStripWrapperServiceMock, illuminanceServiceMock, ledStripRepository,
+                frameBufferService, transitionService, new BrightnessQuantizer(0.125, 0.25),
+                new BrickBackoff(0, 0), new MetricsService(),
+                new PhotonLatencyTracker(new MetricsService(), 1000), new ChunkRetry(0, 0));
+
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 16, "abrick"));
+
+        frameBufferService.update("one", new Sprite1D(16));
+
+        // execution
+        sut.handleStatus("one", new StatusInformation("test", Status.CRITICAL));
+
+        // verification
+        verify(brickletLEDStripWrapperServiceMock, never()).getBrickletLEDStrip(any(LEDStrip.class));
+
+        short[] zeroes = new short[16];
+        short[] halfCritical = new short[16];
+        short[] critical = new short[16];
+        Arrays.fill(halfCritical, (short) (Color.CRITICAL.getRed() / 2));
+        Arrays.fill(critical, (short) Color.CRITICAL.getRed());
+
+        transitionService.tick();
+        verify(brickletLEDStripMock, timeout(1000)).setRGBValues(0, (short) 16, zeroes, halfCritical, zeroes);
+
+        // a tick is skipped while the previous frame is still being drawn
+        awaitTrue(() -> {
+            transitionService.tick();
+
+            return !transitionService.isRunning("one");
+        });
+        verify(brickletLEDStripMock, timeout(1000)).setRGBValues(0, (short) 16, zeroes, critical, zeroes);
+        verify(brickletLEDStrip, timeout(1000)).disconnect();
+
+        assertThat(frameBufferService.get("one").getPixel(0), is(Color.CRITICAL));
+
+        transitionService.shutdown();
+    }
+
+
+    @Test
+    public void pulseKeepsGeneration() throws Exception {
+
+        // setup
+        TransitionService transitionService = new TransitionService(2, 1000, 4);
+
+        sut = new LEDStripService(brickletLEDStripWrapperServiceMock, illuminanceServiceMock, ledStripRepository,
+                frameBufferService, transitionService, new BrightnessQuantizer(0.125, 0.25),
+                new BrickBackoff(0, 0), new MetricsService(),
+                new PhotonLatencyTracker(new MetricsService(), 1000), new ChunkRetry(0, 0));
+
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 16, "abrick"));
+
+        frameBufferService.update("one", new Sprite1D(16));
+
+        AtomicInteger written = new AtomicInteger();
+        doAnswer(invocation -> written.incrementAndGet()).when(brickletLEDStripMock)
+            .setRGBValues(anyInt(), anyShort(), any(short[].class), any(short[].class), any(short[].class));
+
+        // execution
+        sut.handleStatus("one", new StatusInformation("test", Status.CRITICAL));
+
+        // verification
+        assertThat(frameBufferService.get("one").getGeneration(), is(2L));
+        assertThat(frameBufferService.get("one").getPixel(0), is(Color.CRITICAL));
+
+        // the crossfade and more than one period of the pulse
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (written.get() < 8 && System.currentTimeMillis() < deadline) {
+            transitionService.tick();
+            Thread.sleep(1);
+        }
+
+        assertThat(written.get() >= 8, is(true));
+        assertThat(transitionService.isRunning("one"), is(true));
+        assertThat(frameBufferService.get("one").getGeneration(), is(2L));
+        assertThat(frameBufferService.get("one").getPixel(0), is(Color.CRITICAL));
+
+        transitionService.shutdown();
+    }
+
+
+    @Test
+    public void directDrawIsDrawnUnderStatus() throws Exception {
+
+        // setup
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 16, "abrick"));
+
+        sut.handleStatus("one", new StatusInformation("test", Status.WARNING));
+
+        // execution
+        FrameBuffer frameBuffer = sut.setColors("one", Collections.singletonList(Color.WHITE), new long[] { 1 });
+
+        // verification
+        assertThat(frameBuffer.getGeneration(), is(2L));
+        assertThat(frameBuffer.getPixel(0), is(Color.WARNING));
+
+        sut.removeLayer("one", LEDStripService.STATUS_LAYER);
+
+        assertThat(frameBufferService.get("one").getPixel(0), is(Color.WHITE));
+        assertThat(frameBufferService.get("one").getPixel(1), is(Color.BLACK));
+    }
+
+
+    @Test
+    public void changedChunksAreWrittenAtOnceIfSupported() throws Exception {
+
+        // setup
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 64, "abrick"));
+        doReturn(128).when(brickletLEDStrip).getChunksPerWrite();
+
+        frameBufferService.update("one", new Sprite1D(64));
+
+        Sprite1D sprite = new Sprite1D(3);
+        sprite.setFill(Color.WHITE);
+
+        // execution
+        sut.updatePixels("one", Arrays.asList(new PositionedSprite(2, sprite), new PositionedSprite(50, sprite)));
+
+        // verification
+        verify(brickletLEDStrip).setChunks(any(TransferBuffer.class), eq(0), eq(4), eq(true));
+        verify(brickletLEDStrip).setChunks(any(TransferBuffer.class), anyInt(), anyInt(), anyBoolean());
+    }
+
+
+    @Test
+    public void putLayerOnlySendsAffectedChunks() throws Exception {
+
+        // setup
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 40, "abrick"));
+
+        frameBufferService.update("one", new Sprite1D(40));
+
+        Sprite1D sprite = new Sprite1D(3);
+        sprite.setFill(Color.WHITE);
+
+        // execution
+        FrameBuffer frameBuffer = sut.putLayer("one", new Layer("alert", 200, 20, sprite, Layer.OPAQUE, 0));
+
+        // verification
+        short[] partlyWhite = new short[16];
+        Arrays.fill(partlyWhite, 4, 7, (short) 255);
+
+        verify(brickletLEDStripMock).setRGBValues(16, (short) 16, partlyWhite, partlyWhite, partlyWhite);
+        verify(brickletLEDStripMock, never()).setRGBValues(eq(0), anyShort(), any(short[].class), any(short[].class),
+            any(short[].class));
+        verify(brickletLEDStripMock, never()).setRGBValues(eq(32), anyShort(), any(short[].class),
+            any(short[].class), any(short[].class));
+
+        assertThat(frameBuffer.getPixel(19), is(Color.BLACK));
+        assertThat(frameBuffer.getPixel(20), is(Color.WHITE));
+        assertThat(sut.getLayers("one").size(), is(1));
+    }
+
+
+    @Test
+    public void layersAreBlendedByPriority() throws Exception {
+
+        // setup
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 16, "abrick"));
+
+        Sprite1D white = new Sprite1D(2);
+        white.setFill(Color.WHITE);
+
+        Sprite1D blue = new Sprite1D(2);
+        blue.setFill(new Color(0, 0, 255));
+
+        // execution
+        sut.handleStatus("one", new StatusInformation("test", Status.CRITICAL));
+        sut.putLayer("one", new Layer("hidden", 50, 0, blue, Layer.OPAQUE, 0));
+        sut.putLayer("one", new Layer("overlay", 200, 1, white, 51, 0));
+
+        // verification
+        FrameBuffer frameBuffer = frameBufferService.get("one");
+
+        assertThat(frameBuffer.getPixel(0), is(Color.CRITICAL));
+        assertThat(frameBuffer.getPixel(1), is(new Color(127 + 128 * 51 / 255, 51, 51)));
+        assertThat(frameBuffer.getPixel(2), is(new Color(127 + 128 * 51 / 255, 51, 51)));
+        assertThat(frameBuffer.getPixel(3), is(Color.CRITICAL));
+
+        // execution
+        sut.removeLayer("one", "overlay");
+        sut.removeLayer("one", LEDStripService.STATUS_LAYER);
+
+        // verification
+        frameBuffer = frameBufferService.get("one");
+
+        assertThat(frameBuffer.getPixel(0), is(new Color(0, 0, 255)));
+        assertThat(frameBuffer.getPixel(2), is(Color.BLACK));
+    }
+
+
+    @Test
+    public void expiredLayerIsNotDrawn() throws Exception {
+
+        // setup
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 16, "abrick"));
+
+        Sprite1D white = new Sprite1D(2);
+        white.setFill(Color.WHITE);
+
+        // execution
+        FrameBuffer frameBuffer = sut.putLayer("one", new Layer("alert", 200, 0, white, Layer.OPAQUE, 1));
+
+        // verification
+        assertThat(frameBuffer.getPixel(0), is(Color.BLACK));
+        assertThat(sut.getLayers("one").isEmpty(), is(true));
+    }
+
+
+    @Test
+    public void turnOffRemovesLayers() throws Exception {
+
+        // setup
+        LEDStrip ledStrip = new LEDStrip("one", "abc", 16, "abrick");
+
+        when(ledStripRepository.get("one")).thenReturn(ledStrip);
+        when(ledStripRepository.getAll()).thenReturn(Collections.singletonList(ledStrip));
+
+        sut.handleStatus("one", new StatusInformation("test", Status.WARNING));
+
+        // execution
+        sut.turnOffAllLEDStrips();
+
+        // verification
+        assertThat(sut.getLayers("one").isEmpty(), is(true));
+        assertThat(frameBufferService.get("one").getPixel(0), is(Color.BLACK));
+    }
+
+
     @Test
     public void handleStatusWarning() throws Exception {
 
@@ -359,6 +1193,24 @@ public class LEDStripServiceUnitTest {
     }
 
 
+    @Test
+    public void profileIsCompiledOncePerConfiguration() {
+
+        // setup
+        LEDStrip ledStrip = new LEDStrip("one", "abc", 16, "abrick");
+        LEDStrip reloaded = new LEDStrip("one", "abc", 20, "abrick");
+
+        // execution
+        RenderProfile first = sut.getProfile(ledStrip);
+        RenderProfile second = sut.getProfile(ledStrip);
+        RenderProfile third = sut.getProfile(reloaded);
+
+        // verification
+        assertThat(first == second, is(true));
+        assertThat(third.getBufferSize(), is(32));
+    }
+
+
     @Test
     public void handleStatusCustomOkay() throws Exception {
 
@@ -609,6 +1461,35 @@ public class LEDStripServiceUnitTest {
     }
 
 
+    @Test
+    public void chunkTimeoutsAreRecorded() throws Exception {
+
+        // setup
+        Constructor<TimeoutException> constructor = TimeoutException.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+
+        doThrow(constructor.newInstance()).when(brickletLEDStripMock)
+            .setRGBValues(anyInt(), eq((short) 16), any(short[].class), any(short[].class), any(short[].class));
+
+        when(ledStripRepository.get("one")).thenReturn(new LEDStrip("one", "abc", 16, "abrick"));
+
+        List<Color> colors = Arrays.asList(new Color[16]);
+        Collections.fill(colors, Color.WHITE);
+
+        // execution
+        try {
+            sut.setColors("one", colors);
+        } catch (LEDStripConnectionException exception) {
+            // expected
+        }
+
+        // verification
+        assertThat(metricsService.getTimeouts().getCount("abrick", "chunk"), is(1L));
+        assertThat(metricsService.timer("sybil_ledstrip_render_seconds", "", "ledstrip")
+                .getHistogram("one").getCount(), is(1L));
+    }
+
+
     @Test(expected = LEDStripConnectionException.class)
     public void getIlluminanceWithException() {
 
@@ -625,4 +1506,25 @@ public class LEDStripServiceUnitTest {
         // execution
         sut.setColors("one", colors);
     }
+
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+
+        assertThat(condition.getAsBoolean(), is(true));
+    }
+
+
+    private static TimeoutException timeoutException() throws Exception {
+
+        Constructor<TimeoutException> constructor = TimeoutException.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+
+        return constructor.newInstance();
+    }
 }
@@ -0,0 +1,89 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+
+/**
+ * LayerServiceUnitTest.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RunWith(MockitoJUnitRunner.class)
+public class LayerServiceUnitTest {
+
+    @Mock
+    private LEDStripService ledStripServiceMock;
+
+    private LayerService sut;
+
+    @Before
+    public void setup() {
+
+        sut = new LayerService(ledStripServiceMock);
+    }
+
+
+    @After
+    public void tearDown() {
+
+        sut.shutdown();
+    }
+
+
+    @Test
+    public void expiringLayerIsRemoved() {
+
+        // setup
+        Layer layer = new Layer("alert", 200, 0, new Sprite1D(1), Layer.OPAQUE, System.currentTimeMillis() + 50);
+
+        // execution
+        sut.put("one", layer);
+
+        // verification
+        verify(ledStripServiceMock).putLayer("one", layer);
+        verify(ledStripServiceMock, timeout(1000)).expireLayers("one");
+    }
+
+
+    @Test
+    public void permanentLayerIsKept() {
+
+        // setup
+        Layer layer = new Layer("alert", 200, 0, new Sprite1D(1), Layer.OPAQUE, 0);
+
+        // execution
+        sut.put("one", layer);
+
+        // verification
+        verify(ledStripServiceMock, after(100).never()).expireLayers("one");
+    }
+
+
+    @Test
+    public void failingExpiryIsLogged() {
+
+        // setup
+        doThrow(new LEDStripConnectionException("Test")).when(ledStripServiceMock).expireLayers("one");
+
+        // execution
+        sut.put("one", new Layer("alert", 200, 0, new Sprite1D(1), Layer.OPAQUE, 1));
+        sut.put("one", new Layer("other", 200, 0, new Sprite1D(1), Layer.OPAQUE, 1));
+
+        // verification
+        verify(ledStripServiceMock, timeout(1000).times(2)).expireLayers("one");
+    }
+}
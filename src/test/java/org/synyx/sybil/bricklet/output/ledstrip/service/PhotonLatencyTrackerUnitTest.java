@@ -0,0 +1,215 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import com.tinkerforge.IPConnection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.metrics.Ingest;
+import org.synyx.sybil.metrics.MetricsService;
+import org.synyx.sybil.metrics.Timer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class PhotonLatencyTrackerUnitTest {
+
+    @Mock
+    private BrickletLEDStripWrapper brickletLEDStripMock;
+
+    @Mock
+    private IPConnection ipConnectionMock;
+
+    private LEDStrip ledStrip;
+    private MetricsService metricsService;
+    private PhotonLatencyTracker sut;
+
+    @Before
+    public void setup() {
+
+        when(brickletLEDStripMock.getIPConnection()).thenReturn(ipConnectionMock);
+
+        ledStrip = new LEDStrip("one", "abc", 16, "abrick");
+        metricsService = new MetricsService();
+        sut = new PhotonLatencyTracker(metricsService, 1000);
+    }
+
+
+    @After
+    public void tearDown() {
+
+        Ingest.end();
+        sut.shutdown();
+    }
+
+
+    @Test
+    public void renderedFrameIsRecorded() {
+
+        // setup
+        Ingest.begin(System.nanoTime());
+        Ingest.current().addEncoding(10);
+
+        // execution
+        PhotonLatencyTracker.Frame frame = sut.sending(ledStrip, brickletLEDStripMock);
+        sut.sent(frame);
+
+        ArgumentCaptor<BrickletLEDStripWrapper.FrameRenderedListener> listener = ArgumentCaptor.forClass(
+                BrickletLEDStripWrapper.FrameRenderedListener.class);
+        verify(brickletLEDStripMock).addFrameRenderedListener(listener.capture());
+
+        listener.getValue().frameRendered(16);
+
+        // verification
+        assertThat(photons().getHistogram("one").getCount(), is(1L));
+        assertThat(stages().getHistogram("one", "encode").getSum(), is(10L));
+        assertThat(stages().getHistogram("one", "render").getCount(), is(1L));
+        assertThat(Ingest.current().takeEncoding(), is(0L));
+        verify(brickletLEDStripMock).removeFrameRenderedListener(frame);
+    }
+
+
+    @Test
+    public void frameWithoutIngestIsNotFollowed() {
+
+        // execution
+        PhotonLatencyTracker.Frame frame = sut.sending(ledStrip, brickletLEDStripMock);
+
+        // verification
+        assertThat(frame, is(nullValue()));
+    }
+
+
+    @Test
+    public void supersededFrameIsDropped() {
+
+        // setup
+        Ingest.begin(System.nanoTime());
+
+        PhotonLatencyTracker.Frame first = sut.sending(ledStrip, brickletLEDStripMock);
+        sut.sent(first);
+
+        // execution
+        sut.sending(ledStrip, brickletLEDStripMock);
+
+        // verification
+        assertThat(metricsService.counter("sybil_ledstrip_dropped_frames_total", "", "ledstrip", "reason")
+            .getCount("one", "superseded"), is(1L));
+
+        first.frameRendered(16);
+
+        assertThat(photons().getHistogram("one").getCount(), is(0L));
+    }
+
+
+    @Test
+    public void failedAndUnsentFramesAreDropped() {
+
+        // setup
+        Ingest.begin(System.nanoTime());
+
+        // execution
+        sut.failed(sut.sending(ledStrip, brickletLEDStripMock));
+        sut.unsent(ledStrip);
+
+        // verification
+        assertThat(metricsService.counter("sybil_ledstrip_dropped_frames_total", "", "ledstrip", "reason")
+            .getCount("one", "unsent"), is(2L));
+    }
+
+
+    @Test
+    public void frameNotRenderedInTimeIsDropped() throws Exception {
+
+        // setup
+        sut = new PhotonLatencyTracker(metricsService, 1);
+        Ingest.begin(System.nanoTime());
+
+        PhotonLatencyTracker.Frame frame = sut.sending(ledStrip, brickletLEDStripMock);
+        sut.sent(frame);
+
+        Thread.sleep(5);
+
+        // execution
+        sut.expire();
+
+        // verification
+        assertThat(metricsService.counter("sybil_ledstrip_dropped_frames_total", "", "ledstrip", "reason")
+            .getCount("one", "timeout"), is(1L));
+        verify(brickletLEDStripMock).removeFrameRenderedListener(frame);
+    }
+
+
+    @Test
+    public void disconnectWaitsForFrameToBeRendered() throws Exception {
+
+        // setup
+        Ingest.begin(System.nanoTime());
+
+        PhotonLatencyTracker.Frame frame = sut.sending(ledStrip, brickletLEDStripMock);
+        sut.sent(frame);
+
+        CountDownLatch disconnected = new CountDownLatch(1);
+
+        // execution
+        sut.disconnectWhenRendered(ipConnectionMock, disconnected::countDown);
+
+        // verification
+        assertThat(disconnected.getCount(), is(1L));
+
+        frame.frameRendered(16);
+
+        assertThat(disconnected.await(1, TimeUnit.SECONDS), is(true));
+    }
+
+
+    @Test
+    public void disconnectWithoutPendingFrameIsImmediate() {
+
+        // setup
+        IPConnection other = mock(IPConnection.class);
+        Ingest.begin(System.nanoTime());
+        assertThat(sut.sending(ledStrip, brickletLEDStripMock), is(notNullValue()));
+
+        CountDownLatch disconnected = new CountDownLatch(1);
+
+        // execution
+        sut.disconnectWhenRendered(other, disconnected::countDown);
+
+        // verification
+        assertThat(disconnected.getCount(), is(0L));
+    }
+
+
+    private Timer photons() {
+
+        return metricsService.timer("sybil_ledstrip_photon_seconds", "", "ledstrip");
+    }
+
+
+    private Timer stages() {
+
+        return metricsService.timer("sybil_ledstrip_frame_stage_seconds", "", "ledstrip", "stage");
+    }
+}
@@ -0,0 +1,30 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.Test;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.junit.Assert.assertThat;
+
+
+public class PulseAnimationUnitTest {
+
+    @Test
+    public void render() {
+
+        // setup
+        Sprite1D sprite = new Sprite1D(2);
+        sprite.setFill(new Color(200, 100, 0));
+
+        PulseAnimation sut = new PulseAnimation(sprite, 4, 0.5);
+
+        // execution & verification
+        assertThat(sut.render(0, 3).getPixel(0), is(new Color(200, 100, 0)));
+        assertThat(sut.render(1, 3).getPixel(0), is(new Color(150, 75, 0)));
+        assertThat(sut.render(2, 3).getPixel(1), is(new Color(100, 50, 0)));
+        assertThat(sut.render(4, 3).getPixel(1), is(new Color(200, 100, 0)));
+        assertThat(sut.render(0, 3).getPixel(2), is(Color.BLACK));
+    }
+}
@@ -0,0 +1,80 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.Test;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.jenkins.Status;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+
+/**
+ * RenderProfileUnitTest.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class RenderProfileUnitTest {
+
+    @Test
+    public void layout() {
+
+        // execution
+        RenderProfile profile = new RenderProfile(new LEDStrip("one", "abc", 30, "abrick"));
+
+        // verification
+        assertThat(profile.getBufferSize(), is(32));
+        assertThat(profile.getAllChunks().cardinality(), is(2));
+        assertThat(profile.hasSensor(), is(false));
+        assertThat(profile.getSensor(), is(nullValue()));
+    }
+
+
+    @Test
+    public void sensor() {
+
+        // execution
+        RenderProfile profile = new RenderProfile(new LEDStrip("one", "abc", 16, "abrick", "ambientlight"));
+
+        // verification
+        assertThat(profile.getBufferSize(), is(16));
+        assertThat(profile.hasSensor(), is(true));
+        assertThat(profile.getSensor(), is("ambientlight"));
+    }
+
+
+    @Test
+    public void defaultColors() {
+
+        // execution
+        RenderProfile profile = new RenderProfile(new LEDStrip("one", "abc", 3, "abrick"));
+
+        // verification
+        assertThat(profile.getColor(Status.CRITICAL), is(Color.CRITICAL.getRGB()));
+        assertThat(profile.getStatusFrame(Status.WARNING).getLength(), is(3));
+        assertThat(profile.getStatusFrame(Status.WARNING).getPixel(2), is(Color.WARNING));
+        assertThat(profile.getStatusFrame(Status.OKAY).getPixel(0), is(Color.OKAY));
+    }
+
+
+    @Test
+    public void customColors() {
+
+        // setup
+        LEDStrip ledStrip = new LEDStrip("one", "abc", 3, "abrick");
+        ledStrip.setOkayRed(16);
+        ledStrip.setOkayGreen(32);
+        ledStrip.setOkayBlue(64);
+
+        // execution
+        RenderProfile profile = new RenderProfile(ledStrip);
+
+        // verification
+        assertThat(profile.getColor(Status.OKAY), is(0x102040));
+        assertThat(profile.getStatusFrame(Status.OKAY).getPixel(1), is(new Color(16, 32, 64)));
+        assertThat(profile.getStatusFrame(Status.CRITICAL).getPixel(1), is(Color.BLACK));
+    }
+}
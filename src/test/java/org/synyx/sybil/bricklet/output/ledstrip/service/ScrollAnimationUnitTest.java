@@ -0,0 +1,53 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.Test;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.junit.Assert.assertThat;
+
+
+public class ScrollAnimationUnitTest {
+
+    @Test
+    public void renderWrapsAround() {
+
+        // setup
+        Sprite1D sprite = new Sprite1D(2);
+        sprite.setPixel(0, Color.WHITE);
+        sprite.setPixel(1, Color.OKAY);
+
+        ScrollAnimation sut = new ScrollAnimation(sprite, 1);
+
+        // execution
+        Sprite1D frame = sut.render(4, 5);
+
+        // verification
+        assertThat(frame.getPixel(4), is(Color.WHITE));
+        assertThat(frame.getPixel(0), is(Color.OKAY));
+        assertThat(frame.getPixel(1), is(Color.BLACK));
+    }
+
+
+    @Test
+    public void renderSpriteLongerThanLEDStrip() {
+
+        // setup
+        Sprite1D sprite = new Sprite1D(10);
+        sprite.setFill(Color.WHITE);
+
+        ScrollAnimation sut = new ScrollAnimation(sprite, 3);
+
+        // execution
+        Sprite1D frame = sut.render(3, 4);
+
+        // verification
+        assertThat(frame.getLength(), is(4));
+
+        for (int position = 0; position < 4; position++) {
+            assertThat(frame.getPixel(position), is(Color.WHITE));
+        }
+    }
+}
@@ -4,6 +4,8 @@ import org.junit.Test;
 
 import org.synyx.sybil.bricklet.output.ledstrip.Color;
 
+import java.nio.IntBuffer;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -173,4 +175,81 @@ public class Sprite1DUnitTest {
 
         sprite.equals(null);
     }
+
+
+    @Test
+    public void equalContentHasEqualHashCode() {
+
+        Sprite1D one = new Sprite1D(3, "name");
+        one.setFill(new Color(64, 128, 0));
+
+        Sprite1D two = new Sprite1D(3, "name");
+        two.setFill(new Color(64, 128, 0));
+
+        assertThat(one.equals(two), is(true));
+        assertThat(one.hashCode(), is(two.hashCode()));
+
+        int hashCode = one.hashCode();
+        one.setPixel(1, Color.WHITE);
+
+        assertThat(one.equals(two), is(false));
+        assertThat(one.hashCode() == hashCode, is(false));
+        assertThat(one.hasSamePixels(new Sprite1D(two, 3)), is(false));
+    }
+
+
+    @Test
+    public void hasSamePixelsIgnoresName() {
+
+        Sprite1D one = new Sprite1D(3, "one");
+        Sprite1D two = new Sprite1D(3, "two");
+
+        assertThat(one.hasSamePixels(two), is(true));
+        assertThat(one.equals(two), is(false));
+    }
+
+
+    @Test
+    public void fillRange() {
+
+        Sprite1D sprite = new Sprite1D(5);
+
+        sprite.fill(-1, 3, Color.WHITE);
+        sprite.fill(4, 10, Color.CRITICAL);
+
+        assertThat(sprite.getPixel(0), is(Color.WHITE));
+        assertThat(sprite.getPixel(1), is(Color.WHITE));
+        assertThat(sprite.getPixel(2), is(Color.BLACK));
+        assertThat(sprite.getPixel(4), is(Color.CRITICAL));
+    }
+
+
+    @Test
+    public void packedPixels() {
+
+        Sprite1D sprite = new Sprite1D(2);
+
+        sprite.setRGB(0, 0x102030);
+        sprite.setRGB(new int[] { 0x405060 });
+
+        assertThat(sprite.getRGB(0), is(0x405060));
+        assertThat(sprite.getPixel(0), is(new Color(0x40, 0x50, 0x60)));
+
+        IntBuffer view = sprite.getRGBView();
+        sprite.setPixel(1, Color.WHITE);
+
+        assertThat(view.get(1), is(0xFFFFFF));
+        assertThat(view.isReadOnly(), is(true));
+    }
+
+
+    @Test
+    public void commonColorsAreShared() {
+
+        Sprite1D sprite = new Sprite1D(1);
+        sprite.setPixel(0, new Color(127, 0, 0));
+
+        assertThat(sprite.getPixel(0) == Color.CRITICAL, is(true));
+        assertThat(sprite.getPixel(0) == sprite.getPixel(0), is(true));
+    }
 }
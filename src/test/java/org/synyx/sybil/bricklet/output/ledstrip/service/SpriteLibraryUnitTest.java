@@ -0,0 +1,235 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStripRepository;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.hamcrest.core.Is.is;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * SpriteLibraryUnitTest.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+
+@RunWith(MockitoJUnitRunner.class)
+public class SpriteLibraryUnitTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    LEDStripService ledStripServiceMock;
+
+    @Mock
+    LEDStripRepository ledStripRepository;
+
+    LEDStrip ledStrip;
+
+    SpriteLibrary sut;
+
+    @Before
+    public void setup() {
+
+        ledStrip = new LEDStrip("one", "abc", 5, "abrick");
+
+        when(ledStripRepository.get("one")).thenReturn(ledStrip);
+        when(ledStripServiceMock.getPixelBufferSize(ledStrip)).thenReturn(16);
+        when(ledStripServiceMock.getBrightness(ledStrip)).thenReturn(1.0);
+
+        sut = new SpriteLibrary(ledStripServiceMock, ledStripRepository, new ObjectMapper(), null, 2, 4);
+    }
+
+
+    @Test
+    public void sameContentHasSameId() {
+
+        // execution
+        String one = sut.put(new Sprite1D("a", Arrays.asList(Color.CRITICAL, Color.OKAY)));
+        String two = sut.put(new Sprite1D("b", Arrays.asList(Color.CRITICAL, Color.OKAY)));
+        String three = sut.put(new Sprite1D("c", Arrays.asList(Color.OKAY, Color.CRITICAL)));
+
+        // verification
+        assertThat(one, is(two));
+        assertThat(one, is(not(three)));
+        assertThat(one.matches("[0-9a-f]{32}"), is(true));
+    }
+
+
+    @Test
+    public void getReturnsPixels() {
+
+        // setup
+        String id = sut.put(new Sprite1D(Arrays.asList(Color.WARNING, Color.OKAY)));
+
+        // execution
+        Sprite1D result = sut.get(id);
+
+        // verification
+        assertThat(result.getName(), is(id));
+        assertThat(result.getPixel(0), is(Color.WARNING));
+        assertThat(result.getPixel(1), is(Color.OKAY));
+    }
+
+
+    @Test(expected = SpriteNotFoundException.class)
+    public void getUnknownSprite() {
+
+        sut.get("0123456789abcdef0123456789abcdef");
+    }
+
+
+    @Test(expected = SpriteNotFoundException.class)
+    public void getInvalidId() {
+
+        sut.get("../ledstrips");
+    }
+
+
+    @Test(expected = SpriteNotFoundException.class)
+    public void leastRecentlyUsedSpriteIsEvicted() {
+
+        // setup
+        String one = sut.put(new Sprite1D(Arrays.asList(Color.CRITICAL)));
+        String two = sut.put(new Sprite1D(Arrays.asList(Color.WARNING)));
+
+        sut.get(one);
+        sut.put(new Sprite1D(Arrays.asList(Color.OKAY)));
+
+        sut.get(one);
+
+        // execution
+        sut.get(two);
+    }
+
+
+    @Test
+    public void persistedSpriteSurvivesRestart() throws Exception {
+
+        // setup
+        String directory = folder.getRoot().getAbsolutePath() + "/sprites/";
+        String id = new SpriteLibrary(ledStripServiceMock, ledStripRepository, new ObjectMapper(), directory, 2, 4)
+            .put(new Sprite1D(Arrays.asList(Color.CRITICAL, new Color(1, 2, 3))));
+
+        // execution
+        Sprite1D result = new SpriteLibrary(ledStripServiceMock, ledStripRepository, new ObjectMapper(), directory, 2,
+                    4).get(id);
+
+        // verification
+        assertThat(result.getLength(), is(2));
+        assertThat(result.getPixel(0), is(Color.CRITICAL));
+        assertThat(result.getPixel(1), is(new Color(1, 2, 3)));
+    }
+
+
+    @Test
+    public void displayReusesTransferBuffer() {
+
+        // setup
+        String id = sut.put(new Sprite1D(Arrays.asList(Color.CRITICAL, Color.OKAY)));
+
+        // execution
+        sut.display("one", id, 1, false);
+        sut.display("one", id, 1, false);
+
+        // verification
+        ArgumentCaptor<Sprite1D> frames = ArgumentCaptor.forClass(Sprite1D.class);
+        ArgumentCaptor<TransferBuffer> transferBuffers = ArgumentCaptor.forClass(TransferBuffer.class);
+
+        verify(ledStripServiceMock, times(2)).drawEncoded(eq(ledStrip), frames.capture(),
+            transferBuffers.capture());
+
+        assertThat(transferBuffers.getAllValues().get(0), is(sameInstance(transferBuffers.getAllValues().get(1))));
+
+        Sprite1D frame = frames.getValue();
+
+        assertThat(frame.getLength(), is(5));
+        assertThat(frame.getPixel(0), is(Color.BLACK));
+        assertThat(frame.getPixel(1), is(Color.CRITICAL));
+        assertThat(frame.getPixel(2), is(Color.OKAY));
+        assertThat(frame.getPixel(3), is(Color.BLACK));
+    }
+
+
+    @Test
+    public void displayWithOtherBrightnessEncodesAgain() {
+
+        // setup
+        String id = sut.put(new Sprite1D(Arrays.asList(Color.CRITICAL, Color.OKAY)));
+
+        // execution
+        sut.display("one", id, 0, false);
+        when(ledStripServiceMock.getBrightness(ledStrip)).thenReturn(2.0);
+        sut.display("one", id, 0, false);
+
+        // verification
+        ArgumentCaptor<TransferBuffer> transferBuffers = ArgumentCaptor.forClass(TransferBuffer.class);
+
+        verify(ledStripServiceMock, times(2)).drawEncoded(eq(ledStrip), any(Sprite1D.class),
+            transferBuffers.capture());
+
+        assertThat(transferBuffers.getAllValues().get(0).getBrightness(), is(1.0));
+        assertThat(transferBuffers.getAllValues().get(1).getBrightness(), is(2.0));
+    }
+
+
+    @Test
+    public void displayRepeated() {
+
+        // setup
+        String id = sut.put(new Sprite1D(Arrays.asList(Color.CRITICAL, Color.OKAY)));
+
+        // execution
+        sut.display("one", id, -1, true);
+
+        // verification
+        ArgumentCaptor<Sprite1D> frames = ArgumentCaptor.forClass(Sprite1D.class);
+
+        verify(ledStripServiceMock).drawEncoded(eq(ledStrip), frames.capture(), any(TransferBuffer.class));
+
+        Sprite1D frame = frames.getValue();
+
+        assertThat(frame.getPixel(0), is(Color.OKAY));
+        assertThat(frame.getPixel(1), is(Color.CRITICAL));
+        assertThat(frame.getPixel(2), is(Color.OKAY));
+        assertThat(frame.getPixel(3), is(Color.CRITICAL));
+        assertThat(frame.getPixel(4), is(Color.OKAY));
+    }
+
+
+    @Test(expected = LEDStripNotFoundException.class)
+    public void displayOnUnknownLEDStrip() {
+
+        sut.display("two", sut.put(new Sprite1D(Arrays.asList(Color.CRITICAL))), 0, false);
+    }
+}
@@ -0,0 +1,81 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.Test;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.junit.Assert.assertThat;
+
+
+public class TransferBufferUnitTest {
+
+    @Test
+    public void encodePadsWithBlack() {
+
+        // setup
+        Sprite1D sprite = new Sprite1D(20);
+        sprite.setFill(new Color(10, 20, 30));
+
+        // execution
+        TransferBuffer transferBuffer = TransferBuffer.encode(sprite, 32, 1.0);
+
+        // verification
+        assertThat(transferBuffer.getChunkCount(), is(2));
+        assertThat(transferBuffer.getRed(0)[0], is((short) 10));
+        assertThat(transferBuffer.getGreen(0)[15], is((short) 20));
+        assertThat(transferBuffer.getBlue(1)[3], is((short) 30));
+        assertThat(transferBuffer.getRed(1)[4], is((short) 0));
+        assertThat(transferBuffer.getBlue(1)[15], is((short) 0));
+    }
+
+
+    @Test
+    public void encodeCutsOff() {
+
+        // setup
+        Sprite1D sprite = new Sprite1D(20);
+        sprite.setFill(new Color(10, 20, 30));
+
+        // execution
+        TransferBuffer transferBuffer = TransferBuffer.encode(sprite, 16, 1.0);
+
+        // verification
+        assertThat(transferBuffer.getChunkCount(), is(1));
+        assertThat(transferBuffer.getRed(0)[15], is((short) 10));
+    }
+
+
+    @Test
+    public void encodeAppliesBrightness() {
+
+        // setup
+        Sprite1D sprite = new Sprite1D(16);
+        sprite.setFill(new Color(100, 200, 10));
+
+        // execution
+        TransferBuffer transferBuffer = TransferBuffer.encode(sprite, 16, 2.0);
+
+        // verification
+        assertThat(transferBuffer.getBrightness(), is(2.0));
+        assertThat(transferBuffer.getRed(0)[0], is((short) 200));
+        assertThat(transferBuffer.getGreen(0)[0], is((short) 255));
+        assertThat(transferBuffer.getBlue(0)[0], is((short) 20));
+    }
+
+
+    @Test
+    public void encodeDoesNotOverflowWithLargeBrightness() {
+
+        // setup
+        Sprite1D sprite = new Sprite1D(16);
+        sprite.setFill(new Color(255, 255, 255));
+
+        // execution
+        TransferBuffer transferBuffer = TransferBuffer.encode(sprite, 16, 200.0);
+
+        // verification
+        assertThat(transferBuffer.getRed(0)[0], is((short) 255));
+    }
+}
@@ -0,0 +1,172 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.mockito.ArgumentCaptor;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.junit.Assert.assertThat;
+
+import static org.mockito.Matchers.any;
+
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+
+/**
+ * TransitionServiceUnitTest.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class TransitionServiceUnitTest {
+
+    private static final int TIMEOUT = 1000;
+
+    private final TransitionService sut = new TransitionService(2, 1000, 0);
+
+    private final TransitionSink sinkMock = mock(TransitionSink.class);
+
+    @After
+    public void tearDown() {
+
+        sut.shutdown();
+    }
+
+
+    @Test
+    public void oneFramePerTick() {
+
+        // setup
+        Sprite1D to = new Sprite1D(1);
+        to.setFill(new Color(100, 0, 0));
+
+        sut.start("one", new Sprite1D(1), to, false, sinkMock);
+
+        // execution
+        sut.tick();
+
+        // verification
+        ArgumentCaptor<Sprite1D> frames = ArgumentCaptor.forClass(Sprite1D.class);
+        verify(sinkMock, timeout(TIMEOUT)).draw(any(Transition.class), frames.capture());
+        assertThat(frames.getValue().getPixel(0), is(new Color(50, 0, 0)));
+        assertThat(sut.isRunning("one"), is(true));
+
+        // execution
+        sut.tick();
+
+        // verification
+        verify(sinkMock, timeout(TIMEOUT).times(2)).draw(any(Transition.class), frames.capture());
+        assertThat(frames.getValue().getPixel(0), is(new Color(100, 0, 0)));
+        verify(sinkMock, timeout(TIMEOUT)).close();
+        assertThat(sut.isRunning("one"), is(false));
+    }
+
+
+    @Test
+    public void sameTargetKeepsRunningTransition() {
+
+        // setup
+        Sprite1D to = new Sprite1D(1);
+        to.setFill(Color.WHITE);
+
+        TransitionSink otherSinkMock = mock(TransitionSink.class);
+
+        sut.start("one", new Sprite1D(1), to, false, sinkMock);
+
+        // execution
+        sut.start("one", new Sprite1D(1), to, false, otherSinkMock);
+        sut.tick();
+
+        // verification
+        verify(otherSinkMock).close();
+        verify(otherSinkMock, after(100).never()).draw(any(Transition.class), any(Sprite1D.class));
+        verify(sinkMock, timeout(TIMEOUT)).draw(any(Transition.class), any(Sprite1D.class));
+    }
+
+
+    @Test
+    public void newTargetReplacesRunningTransition() {
+
+        // setup
+        Sprite1D to = new Sprite1D(1);
+        to.setFill(Color.WHITE);
+
+        TransitionSink otherSinkMock = mock(TransitionSink.class);
+
+        sut.start("one", new Sprite1D(1), to, false, sinkMock);
+
+        // execution
+        sut.start("one", new Sprite1D(1), new Sprite1D(1), false, otherSinkMock);
+        sut.tick();
+
+        // verification
+        verify(sinkMock).close();
+        verify(sinkMock, after(100).never()).draw(any(Transition.class), any(Sprite1D.class));
+        verify(otherSinkMock, timeout(TIMEOUT)).draw(any(Transition.class), any(Sprite1D.class));
+    }
+
+
+    @Test
+    public void cancel() {
+
+        // setup
+        sut.start("one", new Sprite1D(1), new Sprite1D(1), false, sinkMock);
+
+        // execution
+        sut.cancel("one");
+        sut.tick();
+
+        // verification
+        assertThat(sut.isRunning("one"), is(false));
+        verify(sinkMock, times(1)).close();
+        verify(sinkMock, after(100).never()).draw(any(Transition.class), any(Sprite1D.class));
+    }
+
+
+    @Test
+    public void failingSinkEndsTransition() {
+
+        // setup
+        TransitionSink failingSink = new TransitionSink() {
+
+            @Override
+            public void draw(Transition transition, Sprite1D frame) {
+
+                throw new LEDStripConnectionException("Test");
+            }
+
+
+            @Override
+            public void close() {
+
+                sinkMock.close();
+            }
+        };
+
+        sut.start("one", new Sprite1D(1), new Sprite1D(1), true, failingSink);
+
+        // execution
+        sut.tick();
+
+        // verification
+        verify(sinkMock, timeout(TIMEOUT)).close();
+        assertThat(sut.isRunning("one"), is(false));
+    }
+
+
+    @Test
+    public void isAnimated() {
+
+        assertThat(sut.isAnimated(false), is(true));
+        assertThat(new TransitionService(0, 20, 0).isAnimated(true), is(false));
+        assertThat(new TransitionService(0, 20, 50).isAnimated(true), is(true));
+        assertThat(new TransitionService(0, 20, 50).isAnimated(false), is(false));
+    }
+}
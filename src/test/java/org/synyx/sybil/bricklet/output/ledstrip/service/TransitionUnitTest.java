@@ -0,0 +1,87 @@
+package org.synyx.sybil.bricklet.output.ledstrip.service;
+
+import org.junit.Test;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.junit.Assert.assertThat;
+
+import static org.mockito.Mockito.mock;
+
+
+public class TransitionUnitTest {
+
+    private final TransitionSink sink = mock(TransitionSink.class);
+
+    @Test
+    public void crossfade() {
+
+        // setup
+        Sprite1D from = new Sprite1D(2);
+        from.setFill(new Color(200, 0, 100));
+
+        Sprite1D to = new Sprite1D(2);
+        to.setFill(new Color(0, 200, 100));
+
+        Transition sut = new Transition("one", from, to, 4, 0, 64, sink);
+
+        // execution & verification
+        assertThat(sut.next().getPixel(0), is(new Color(150, 50, 100)));
+        assertThat(sut.next().getPixel(1), is(new Color(100, 100, 100)));
+        assertThat(sut.next().getPixel(0), is(new Color(50, 150, 100)));
+        assertThat(sut.isFinished(), is(false));
+        assertThat(sut.next().getPixel(0), is(new Color(0, 200, 100)));
+        assertThat(sut.isFinished(), is(true));
+    }
+
+
+    @Test
+    public void crossfadeFromShorterFrame() {
+
+        // setup
+        Sprite1D to = new Sprite1D(3);
+        to.setFill(Color.WHITE);
+
+        Transition sut = new Transition("one", new Sprite1D(0), to, 1, 0, 64, sink);
+
+        // execution
+        Sprite1D frame = sut.next();
+
+        // verification
+        assertThat(frame.getLength(), is(3));
+        assertThat(frame.getPixel(2), is(Color.WHITE));
+    }
+
+
+    @Test
+    public void pulseAfterCrossfade() {
+
+        // setup
+        Sprite1D to = new Sprite1D(1);
+        to.setFill(new Color(200, 0, 0));
+
+        Transition sut = new Transition("one", to, to, 1, 4, 128, sink);
+
+        // execution & verification
+        assertThat(sut.next().getPixel(0), is(new Color(200, 0, 0)));
+        assertThat(sut.next().getPixel(0), is(new Color(200, 0, 0)));
+        assertThat(sut.next().getPixel(0), is(new Color(150, 0, 0)));
+        assertThat(sut.next().getPixel(0), is(new Color(100, 0, 0)));
+        assertThat(sut.next().getPixel(0), is(new Color(150, 0, 0)));
+        assertThat(sut.next().getPixel(0), is(new Color(200, 0, 0)));
+        assertThat(sut.isFinished(), is(false));
+    }
+
+
+    @Test
+    public void cancelOnlyOnce() {
+
+        Transition sut = new Transition("one", new Sprite1D(1), new Sprite1D(1), 1, 0, 64, sink);
+
+        assertThat(sut.cancel(), is(true));
+        assertThat(sut.cancel(), is(false));
+        assertThat(sut.isCancelled(), is(true));
+    }
+}
@@ -1,5 +1,7 @@
 package org.synyx.sybil.jenkins.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -35,6 +37,7 @@ import org.synyx.sybil.jenkins.StatusInformation;
 import org.synyx.sybil.jenkins.persistence.JenkinsConfigRepository;
 import org.synyx.sybil.jenkins.persistence.JobConfig;
 import org.synyx.sybil.jenkins.persistence.ServerConfig;
+import org.synyx.sybil.metrics.MetricsService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -124,12 +127,16 @@ public class JenkinsServiceUnitTest {
         JenkinsProperties jenkinsProperties = new JenkinsProperties(
                 new JenkinsJob[] { jobOkay, jobWarning, jobCritical, jobUndefined, jobBlinkCritical, jobBlinkWarning });
 
-        ResponseEntity<JenkinsProperties> responseEntity = new ResponseEntity<>(jenkinsProperties, HttpStatus.OK);
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        ResponseEntity<byte[]> responseEntity = new ResponseEntity<>(objectMapper.writeValueAsBytes(
+                    jenkinsProperties), HttpStatus.OK);
 
         when(restTemplateMock.exchange(eq("http://jenkins/api/json"), eq(HttpMethod.GET), any(HttpEntity.class),
-                    eq(JenkinsProperties.class))).thenReturn(responseEntity);
+                    eq(byte[].class))).thenReturn(responseEntity);
 
-        sut = new JenkinsService(ledStripServiceMock, restTemplateMock, jenkinsConfigRepositoryMock);
+        sut = new JenkinsService(ledStripServiceMock, restTemplateMock, jenkinsConfigRepositoryMock, objectMapper,
+                new MetricsService());
     }
 
 
@@ -206,7 +213,7 @@ public class JenkinsServiceUnitTest {
     public void getJobsFromJenkins() {
 
         when(restTemplateMock.exchange(eq("http://jenkins/api/json"), eq(HttpMethod.GET), any(HttpEntity.class),
-                    eq(JenkinsProperties.class))).thenThrow(new RestClientException("Test 6"));
+                    eq(byte[].class))).thenThrow(new RestClientException("Test 6"));
 
         // Should log "Error retrieving jobs from Jenkins:"
         sut.runScheduled();
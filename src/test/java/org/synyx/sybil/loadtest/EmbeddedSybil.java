@@ -0,0 +1,111 @@
+package org.synyx.sybil.loadtest;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.core.env.MapPropertySource;
+
+import org.springframework.web.context.ContextLoaderListener;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.filter.DelegatingFilterProxy;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import org.synyx.sybil.config.SpringConfig;
+import org.synyx.sybil.config.WebConfig;
+
+import java.io.Closeable;
+
+import java.net.InetSocketAddress;
+
+import java.util.EnumSet;
+import java.util.Map;
+
+import javax.servlet.DispatcherType;
+
+
+/**
+ * EmbeddedSybil. Runs Sybil in an embedded Jetty, set up like the AppInitializer does in a servlet container, with
+ * properties overriding those in config.properties.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class EmbeddedSybil implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedSybil.class);
+
+    private final Server server;
+    private final AnnotationConfigWebApplicationContext rootContext = new AnnotationConfigWebApplicationContext();
+
+    /**
+     * Instantiates a new embedded Sybil on a free port of localhost, which isn't started until {@link #start()}.
+     *
+     * @param  properties  The properties overriding config.properties, e.g. path.to.configfiles
+     */
+    public EmbeddedSybil(Map<String, Object> properties) {
+
+        rootContext.register(SpringConfig.class);
+        rootContext.getEnvironment().getPropertySources().addFirst(new MapPropertySource("overrides", properties));
+
+        AnnotationConfigWebApplicationContext webContext = new AnnotationConfigWebApplicationContext();
+        webContext.register(WebConfig.class);
+
+        ServletHolder dispatcher = new ServletHolder(new DispatcherServlet(webContext));
+        dispatcher.setAsyncSupported(true);
+
+        ServletContextHandler handler = new ServletContextHandler();
+        handler.setContextPath("/");
+        handler.addEventListener(new ContextLoaderListener(rootContext));
+        handler.addServlet(dispatcher, "/");
+        handler.addFilter(new FilterHolder(new DelegatingFilterProxy("requestMetricsFilter")), "/*",
+            EnumSet.of(DispatcherType.REQUEST, DispatcherType.ASYNC));
+
+        server = new Server(new InetSocketAddress("localhost", 0));
+        server.setHandler(handler);
+    }
+
+    /**
+     * Starts the container, and with it Sybil.
+     *
+     * @throws  Exception  if the container can't be started
+     */
+    public void start() throws Exception { // NOSONAR Jetty throws Exception
+
+        server.start();
+    }
+
+
+    public String getUrl() {
+
+        return "http://localhost:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+    }
+
+
+    /**
+     * Gets a bean of the running Sybil, e.g. to call scheduled services directly.
+     *
+     * @param  type  The type of the bean
+     *
+     * @return  The bean
+     */
+    public <T> T getBean(Class<T> type) {
+
+        return rootContext.getBean(type);
+    }
+
+
+    @Override
+    public void close() {
+
+        try {
+            server.stop();
+        } catch (Exception exception) { // NOSONAR Jetty throws Exception
+            LOG.warn("Error stopping embedded Sybil:", exception);
+        }
+    }
+}
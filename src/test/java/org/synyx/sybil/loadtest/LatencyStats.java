@@ -0,0 +1,95 @@
+package org.synyx.sybil.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * LatencyStats. Records every latency of an operation, so exact percentiles can be reported afterwards.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class LatencyStats {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private long[] latencies = new long[INITIAL_CAPACITY];
+    private int count;
+    private int errors;
+    private boolean sorted = true;
+
+    public synchronized void record(long nanos) {
+
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+
+        latencies[count++] = nanos;
+        sorted = false;
+    }
+
+
+    public synchronized void recordError() {
+
+        errors++;
+    }
+
+
+    public synchronized int getCount() {
+
+        return count;
+    }
+
+
+    public synchronized int getErrors() {
+
+        return errors;
+    }
+
+
+    /**
+     * Gets a percentile of the recorded latencies, by nearest rank.
+     *
+     * @param  percentile  The percentile, e.g. 99.9
+     *
+     * @return  The latency in nanoseconds, 0 if none were recorded
+     */
+    public synchronized long getPercentile(double percentile) {
+
+        if (count == 0) {
+            return 0;
+        }
+
+        if (!sorted) {
+            Arrays.sort(latencies, 0, count);
+            sorted = true;
+        }
+
+        int rank = (int) Math.ceil(percentile * count / 100);
+
+        return latencies[Math.max(0, Math.min(count, rank) - 1)];
+    }
+
+
+    /**
+     * Formats the throughput and latencies of the operation as one line of the report.
+     *
+     * @param  operation  The operation
+     * @param  seconds  The duration the latencies were recorded in
+     *
+     * @return  The line
+     */
+    public synchronized String format(Operation operation, double seconds) {
+
+        return String.format("%-14s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f", operation, count, errors,
+                count / seconds, millis(getPercentile(50)), millis(getPercentile(99)), millis(getPercentile(99.9)),
+                millis(getPercentile(100)));
+    }
+
+
+    private static double millis(long nanos) {
+
+        return nanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,48 @@
+package org.synyx.sybil.loadtest;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+
+/**
+ * LatencyStatsUnitTest.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class LatencyStatsUnitTest {
+
+    @Test
+    public void percentilesByNearestRank() {
+
+        // setup
+        LatencyStats sut = new LatencyStats();
+
+        for (long latency = 2000; latency > 0; latency--) {
+            sut.record(latency);
+        }
+
+        // execution & verification
+        assertThat(sut.getCount(), is(2000));
+        assertThat(sut.getPercentile(50), is(1000L));
+        assertThat(sut.getPercentile(99), is(1980L));
+        assertThat(sut.getPercentile(99.9), is(1998L));
+        assertThat(sut.getPercentile(100), is(2000L));
+        assertThat(sut.getPercentile(0), is(1L));
+    }
+
+
+    @Test
+    public void noLatencies() {
+
+        // setup
+        LatencyStats sut = new LatencyStats();
+        sut.recordError();
+
+        // execution & verification
+        assertThat(sut.getPercentile(99), is(0L));
+        assertThat(sut.getErrors(), is(1));
+    }
+}
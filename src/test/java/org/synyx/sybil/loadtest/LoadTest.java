@@ -0,0 +1,359 @@
+package org.synyx.sybil.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.web.client.RestTemplate;
+
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.dto.LEDStripDTO;
+import org.synyx.sybil.jenkins.service.JenkinsService;
+import org.synyx.sybil.simulator.BrickSimulator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * LoadTest. Starts Sybil in an embedded container against simulated bricks and a stub Jenkins, and has concurrent
+ * clients send a mix of display GETs and PUTs to random LED strips and poll Jenkins, as fast as Sybil answers. The
+ * throughput and latencies of every kind of operation are reported once the test is over.
+ *
+ * <p>The test is configured with the system properties {@code loadtest.clients}, {@code loadtest.bricks},
+ * {@code loadtest.ledstrips}, {@code loadtest.length} (of each LED strip), {@code loadtest.mix} (e.g.
+ * {@code get:6,put:3,jenkins:1}), {@code loadtest.latency.ms} and {@code loadtest.jitter.ms} (of the simulated bricks),
+ * {@code loadtest.warmup.s} and {@code loadtest.duration.s}.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class LoadTest implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final String BASE58 = "123456789abcdefghijkmnopqrstuvwxyzABCDEFGHJKLMNPQRSTUVWXYZ";
+    private static final int FIRST_UID = 100000;
+    private static final String DISPLAY = "/configuration/ledstrips/{name}/display";
+    private static final long TERMINATION_TIMEOUT = 60;
+    private static final int COLOR_RANGE = 256;
+
+    private final int clients;
+    private final int bricks;
+    private final int ledStrips;
+    private final int length;
+    private final OperationMix mix;
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    private Path configDir;
+    private BrickSimulator simulator;
+    private StubJenkins stubJenkins;
+    private EmbeddedSybil sybil;
+    private JenkinsService jenkinsService;
+
+    /**
+     * Instantiates a new load test, which has to be started before it can be run.
+     *
+     * @param  clients  The number of concurrent clients
+     * @param  bricks  The number of simulated bricks
+     * @param  ledStrips  The number of LED strips, spread over the bricks, each with a Jenkins job
+     * @param  length  The length of every LED strip
+     * @param  mix  The weights the clients pick their operations with
+     */
+    public LoadTest(int clients, int bricks, int ledStrips, int length, OperationMix mix) {
+
+        this.clients = clients;
+        this.bricks = bricks;
+        this.ledStrips = ledStrips;
+        this.length = length;
+        this.mix = mix;
+    }
+
+    public static void main(String[] args) throws Exception { // NOSONAR Jetty throws Exception
+
+        LoadTest loadTest = new LoadTest(Integer.getInteger("loadtest.clients", 8),
+                Integer.getInteger("loadtest.bricks", 1), Integer.getInteger("loadtest.ledstrips", 10),
+                Integer.getInteger("loadtest.length", 30),
+                new OperationMix(System.getProperty("loadtest.mix", "get:6,put:3,jenkins:1")));
+
+        long duration = TimeUnit.SECONDS.toMillis(Long.getLong("loadtest.duration.s", 30));
+
+        try {
+            loadTest.start(Long.getLong("loadtest.latency.ms", 0), Long.getLong("loadtest.jitter.ms", 0));
+
+            Map<Operation, LatencyStats> stats = loadTest.run(TimeUnit.SECONDS.toMillis(
+                        Long.getLong("loadtest.warmup.s", 5)), duration);
+
+            LOG.info("Load test results:\n" + report(stats, duration));
+        } finally {
+            loadTest.close();
+        }
+    }
+
+
+    /**
+     * Starts the simulated bricks, the stub Jenkins and Sybil.
+     *
+     * @param  latency  The fixed delay of every request to a brick in milliseconds
+     * @param  jitter  The maximum random delay added to it in milliseconds
+     *
+     * @throws  Exception  if something can't be started
+     */
+    public void start(long latency, long jitter) throws Exception { // NOSONAR Jetty throws Exception
+
+        configDir = Files.createTempDirectory("sybil-loadtest");
+        simulator = new BrickSimulator(0);
+        simulator.setLatency(latency, jitter);
+        stubJenkins = new StubJenkins(ledStrips);
+
+        writeConfig();
+
+        simulator.start();
+        stubJenkins.start();
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("path.to.configfiles", configDir.toString() + File.separator);
+        properties.put("jenkins.configfile", configDir.resolve("jenkinsservers.json").toString());
+
+        sybil = new EmbeddedSybil(properties);
+        sybil.start();
+        jenkinsService = sybil.getBean(JenkinsService.class);
+    }
+
+
+    /**
+     * Runs the load test.
+     *
+     * @param  warmup  The time the clients run before latencies are recorded, in milliseconds
+     * @param  duration  The time latencies are recorded, in milliseconds
+     *
+     * @return  The latencies of each operation
+     *
+     * @throws  InterruptedException  if interrupted while waiting for the clients
+     */
+    public Map<Operation, LatencyStats> run(long warmup, long duration) throws InterruptedException {
+
+        Map<Operation, LatencyStats> stats = new EnumMap<>(Operation.class);
+
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new LatencyStats());
+        }
+
+        long measureFrom = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(warmup);
+        long until = measureFrom + TimeUnit.MILLISECONDS.toNanos(duration);
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+
+        for (int client = 0; client < clients; client++) {
+            executor.execute(() -> drive(measureFrom, until, stats));
+        }
+
+        executor.shutdown();
+
+        if (!executor.awaitTermination(warmup + duration + TimeUnit.SECONDS.toMillis(TERMINATION_TIMEOUT),
+                    TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+            LOG.warn("Load test clients didn't finish in time");
+        }
+
+        return stats;
+    }
+
+
+    @Override
+    public void close() {
+
+        if (sybil != null) {
+            sybil.close();
+        }
+
+        if (stubJenkins != null) {
+            stubJenkins.close();
+        }
+
+        if (simulator != null) {
+            simulator.close();
+        }
+
+        if (configDir != null) {
+            for (File file : configDir.toFile().listFiles()) {
+                file.delete(); // NOSONAR the temporary directory is cleaned up on a best effort basis
+            }
+
+            configDir.toFile().delete(); // NOSONAR
+        }
+    }
+
+
+    /**
+     * Formats the results of a load test as a table.
+     *
+     * @param  stats  The latencies of each operation
+     * @param  duration  The time latencies were recorded, in milliseconds
+     *
+     * @return  The table
+     */
+    public static String report(Map<Operation, LatencyStats> stats, long duration) {
+
+        double seconds = duration / (double) TimeUnit.SECONDS.toMillis(1);
+        StringBuilder report = new StringBuilder(String.format("%-14s %9s %7s %10s %9s %9s %9s %9s%n", "operation",
+                    "count", "errors", "ops/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+
+        for (Map.Entry<Operation, LatencyStats> entry : stats.entrySet()) {
+            report.append(entry.getValue().format(entry.getKey(), seconds)).append(String.format("%n"));
+        }
+
+        return report.toString();
+    }
+
+
+    private void drive(long measureFrom, long until, Map<Operation, LatencyStats> stats) {
+
+        Random random = ThreadLocalRandom.current();
+
+        while (System.nanoTime() < until) {
+            Operation operation = mix.pick(random);
+            String ledStrip = ledStripName(random.nextInt(ledStrips));
+            boolean failed = false;
+            long start = System.nanoTime();
+
+            try {
+                perform(operation, ledStrip, random);
+            } catch (RuntimeException exception) {
+                LOG.debug("Error performing " + operation + " on LED strip " + ledStrip + ":", exception);
+                failed = true;
+            }
+
+            long latency = System.nanoTime() - start;
+
+            if (start < measureFrom) {
+                continue;
+            }
+
+            if (failed) {
+                stats.get(operation).recordError();
+            } else {
+                stats.get(operation).record(latency);
+            }
+        }
+    }
+
+
+    private void perform(Operation operation, String ledStrip, Random random) {
+
+        switch (operation) {
+            case DISPLAY_GET:
+                restTemplate.getForObject(sybil.getUrl() + DISPLAY, String.class, ledStrip);
+                break;
+
+            case DISPLAY_PUT:
+                restTemplate.put(sybil.getUrl() + DISPLAY, new LEDStripDTO(randomPixels(random)), ledStrip);
+                break;
+
+            case JENKINS_POLL:
+                jenkinsService.runScheduled();
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+
+    private List<Color> randomPixels(Random random) {
+
+        List<Color> pixels = new ArrayList<>(length);
+
+        for (int pixel = 0; pixel < length; pixel++) {
+            pixels.add(new Color(random.nextInt(COLOR_RANGE), random.nextInt(COLOR_RANGE),
+                    random.nextInt(COLOR_RANGE)));
+        }
+
+        return pixels;
+    }
+
+
+    private void writeConfig() throws IOException {
+
+        List<Map<String, Object>> brickConfigs = new ArrayList<>();
+        List<Map<String, Object>> ledStripConfigs = new ArrayList<>();
+        List<Map<String, Object>> jobConfigs = new ArrayList<>();
+        Map<String, Integer> positions = new HashMap<>();
+
+        for (int brick = 0; brick < bricks; brick++) {
+            String name = "loadbrick" + brick;
+            String uid = uid(brick);
+
+            simulator.addMaster(uid);
+            positions.put(name, 0);
+            brickConfigs.add(entry("name", name, "hostname", "localhost", "port", simulator.getPort(), "uid", uid));
+        }
+
+        for (int index = 0; index < ledStrips; index++) {
+            String name = ledStripName(index);
+            String brick = "loadbrick" + index % bricks;
+            String uid = uid(bricks + index);
+            int position = positions.merge(brick, 1, Integer::sum) - 1;
+
+            simulator.addLEDStrip(uid, uid(index % bricks), (char) ('a' + position));
+            ledStripConfigs.add(entry("name", name, "uid", uid, "length", length, "brick", brick));
+            jobConfigs.add(entry("name", "job" + index, "ledstrip", name));
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.writeValue(configDir.resolve("bricks.json").toFile(), brickConfigs);
+        objectMapper.writeValue(configDir.resolve("ledstrips.json").toFile(), ledStripConfigs);
+        objectMapper.writeValue(configDir.resolve("illuminances.json").toFile(), Collections.emptyList());
+        objectMapper.writeValue(configDir.resolve("jenkins.json").toFile(),
+            Collections.singletonMap(stubJenkins.getUrl(), jobConfigs));
+        objectMapper.writeValue(configDir.resolve("jenkinsservers.json").toFile(),
+            Collections.singletonList(entry("url", stubJenkins.getUrl(), "user", "loadtest", "key", "loadtest")));
+    }
+
+
+    private static String ledStripName(int index) {
+
+        return "loadtest" + index;
+    }
+
+
+    private static String uid(int index) {
+
+        StringBuilder uid = new StringBuilder();
+
+        for (int value = FIRST_UID + index; value > 0; value /= BASE58.length()) {
+            uid.insert(0, BASE58.charAt(value % BASE58.length()));
+        }
+
+        return uid.toString();
+    }
+
+
+    private static Map<String, Object> entry(Object... keysAndValues) {
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+
+        for (int index = 0; index < keysAndValues.length; index += 2) {
+            entry.put((String) keysAndValues[index], keysAndValues[index + 1]);
+        }
+
+        return entry;
+    }
+}
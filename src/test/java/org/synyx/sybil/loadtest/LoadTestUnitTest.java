@@ -0,0 +1,53 @@
+package org.synyx.sybil.loadtest;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+
+/**
+ * LoadTestUnitTest. Runs a short load test against Sybil in an embedded container.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class LoadTestUnitTest {
+
+    private LoadTest sut;
+
+    @After
+    public void tearDown() {
+
+        if (sut != null) {
+            sut.close();
+        }
+    }
+
+
+    @Test
+    public void runsEveryOperation() throws Exception {
+
+        for (Operation operation : Operation.values()) {
+            // setup
+            // one operation per run, so none is left out by chance
+            sut = new LoadTest(2, 2, 3, 20, new OperationMix(operation.getKey() + ":1"));
+            sut.start(0, 0);
+
+            // execution
+            Map<Operation, LatencyStats> stats = sut.run(100, 500);
+
+            // verification
+            assertThat(operation + " was run", stats.get(operation).getCount() > 0, is(true));
+            assertThat(operation + " failed", stats.get(operation).getErrors(), is(0));
+            assertThat(LoadTest.report(stats, 500), containsString(operation.name()));
+
+            sut.close();
+            sut = null;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.synyx.sybil.loadtest;
+
+/**
+ * Operation. The kinds of requests the load test sends to Sybil.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public enum Operation {
+
+    /**
+     * Gets the pixels of a LED strip via the display controller.
+     */
+    DISPLAY_GET("get"),
+
+    /**
+     * Draws pixels onto a LED strip via the display controller.
+     */
+    DISPLAY_PUT("put"),
+
+    /**
+     * Polls the stub Jenkins and applies the statuses of its jobs to their LED strips.
+     */
+    JENKINS_POLL("jenkins");
+
+    private final String key;
+
+    Operation(String key) {
+
+        this.key = key;
+    }
+
+    public String getKey() {
+
+        return key;
+    }
+
+
+    /**
+     * Gets the operation with a key, as used in the operation mix.
+     *
+     * @param  key  The key, e.g. get
+     *
+     * @return  The operation
+     *
+     * @throws  IllegalArgumentException  if there's no operation with the key
+     */
+    public static Operation fromKey(String key) {
+
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown operation " + key);
+    }
+}
@@ -0,0 +1,72 @@
+package org.synyx.sybil.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+
+/**
+ * OperationMix. The weights the operations of the load test are picked with, e.g. {@code get:6,put:3,jenkins:1}.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class OperationMix {
+
+    private final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    private final int total;
+
+    /**
+     * Parses an operation mix.
+     *
+     * @param  mix  Comma separated operations and their weights, e.g. {@code get:6,put:3,jenkins:1}
+     *
+     * @throws  IllegalArgumentException  if the mix can't be parsed, or no operation has a positive weight
+     */
+    public OperationMix(String mix) {
+
+        int sum = 0;
+
+        for (String entry : mix.split(",")) {
+            String[] keyAndWeight = entry.trim().split(":");
+
+            if (keyAndWeight.length != 2) {
+                throw new IllegalArgumentException("Invalid operation mix " + mix);
+            }
+
+            int weight = Integer.parseInt(keyAndWeight[1].trim());
+
+            if (weight > 0) {
+                weights.put(Operation.fromKey(keyAndWeight[0].trim()), weight);
+                sum += weight;
+            }
+        }
+
+        if (sum == 0) {
+            throw new IllegalArgumentException("Operation mix " + mix + " contains no operation");
+        }
+
+        this.total = sum;
+    }
+
+    public Operation pick(Random random) {
+
+        int value = random.nextInt(total);
+
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            value -= entry.getValue();
+
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+
+        throw new IllegalStateException("Weights don't add up to " + total);
+    }
+
+
+    @Override
+    public String toString() {
+
+        return weights.toString();
+    }
+}
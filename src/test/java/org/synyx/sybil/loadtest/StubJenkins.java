@@ -0,0 +1,92 @@
+package org.synyx.sybil.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.synyx.sybil.jenkins.JenkinsJob;
+import org.synyx.sybil.jenkins.JenkinsProperties;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import java.net.InetSocketAddress;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * StubJenkins. Answers {@code /api/json} like a Jenkins server with a fixed set of jobs, whose colors change with every
+ * poll, so the statuses of their LED strips keep changing.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class StubJenkins implements Closeable {
+
+    private static final String[] COLORS = { "blue", "yellow", "red", "blue_anime", "yellow_anime", "red_anime" };
+
+    private final HttpServer server;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong polls = new AtomicLong();
+    private final int jobs;
+
+    /**
+     * Instantiates a new stub Jenkins on a free port, which doesn't accept connections until it is started.
+     *
+     * @param  jobs  The number of jobs, named job0, job1 and so on
+     *
+     * @throws  IOException  if no port can be bound
+     */
+    public StubJenkins(int jobs) throws IOException {
+
+        this.jobs = jobs;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/api/json", this::handle);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+    }
+
+    public void start() {
+
+        server.start();
+    }
+
+
+    public String getUrl() {
+
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+
+    public long getPolls() {
+
+        return polls.get();
+    }
+
+
+    @Override
+    public void close() {
+
+        server.stop(0);
+    }
+
+
+    private void handle(HttpExchange exchange) throws IOException {
+
+        long poll = polls.getAndIncrement();
+        JenkinsJob[] jenkinsJobs = new JenkinsJob[jobs];
+
+        for (int job = 0; job < jobs; job++) {
+            jenkinsJobs[job] = new JenkinsJob("job" + job, COLORS[(int) ((poll + job) % COLORS.length)]);
+        }
+
+        byte[] body = objectMapper.writeValueAsBytes(new JenkinsProperties(jenkinsJobs));
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
@@ -0,0 +1,90 @@
+package org.synyx.sybil.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.hamcrest.Matchers.closeTo;
+
+
+public class LatencyHistogramUnitTest {
+
+    private static final double RESOLUTION = 0.01;
+    private static final long SLOT = TimeUnit.MINUTES.toNanos(1);
+
+    private long now;
+
+    private LatencyHistogram sut;
+
+    @Before
+    public void setup() {
+
+        now = 0;
+        sut = new LatencyHistogram(3, SLOT, () -> now);
+    }
+
+
+    @Test
+    public void oldLatenciesAgeOut() {
+
+        // setup
+        sut.record(TimeUnit.SECONDS.toNanos(10));
+        sut.getPercentile(50);
+
+        now += SLOT;
+        sut.record(TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertThat((double) sut.getPercentile(100), closeTo(TimeUnit.SECONDS.toNanos(10),
+                TimeUnit.SECONDS.toNanos(10) * RESOLUTION));
+
+        // execution
+        now += 2 * SLOT;
+
+        // verification
+        assertThat((double) sut.getPercentile(100), closeTo(TimeUnit.MILLISECONDS.toNanos(10),
+                TimeUnit.MILLISECONDS.toNanos(10) * RESOLUTION));
+        assertThat(sut.getCount(), is(2L));
+        assertThat(sut.getSum(), is(TimeUnit.MILLISECONDS.toNanos(10010)));
+    }
+
+
+    @Test
+    public void latenciesOfAWholeWindowAgeOutAtOnce() {
+
+        // setup
+        sut.record(TimeUnit.SECONDS.toNanos(10));
+        sut.getPercentile(50);
+
+        // execution
+        now += 10 * SLOT;
+
+        // verification
+        assertThat(sut.getPercentile(100), is(0L));
+        assertThat(sut.getCount(), is(1L));
+    }
+
+
+    @Test
+    public void latenciesAreKeptForTheWholeWindow() {
+
+        // setup
+        sut.record(TimeUnit.SECONDS.toNanos(10));
+        sut.getPercentile(50);
+
+        // execution
+        now += 3 * SLOT - 1;
+
+        // verification
+        assertThat((double) sut.getPercentile(100), closeTo(TimeUnit.SECONDS.toNanos(10),
+                TimeUnit.SECONDS.toNanos(10) * RESOLUTION));
+
+        now += 1;
+
+        assertThat(sut.getPercentile(100), is(0L));
+    }
+}
@@ -0,0 +1,152 @@
+package org.synyx.sybil.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.hamcrest.Matchers.closeTo;
+
+
+public class MetricsServiceUnitTest {
+
+    private static final double RESOLUTION = 0.01;
+
+    private MetricsService sut;
+
+    @Before
+    public void setup() {
+
+        sut = new MetricsService();
+    }
+
+
+    @Test
+    public void timerIsRegisteredOnce() {
+
+        // execution
+        Timer timer = sut.timer("sybil_test_seconds", "Test", "ledstrip");
+
+        // verification
+        assertThat(sut.timer("sybil_test_seconds", "Test", "ledstrip"), is(sameInstance(timer)));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void counterWithNameOfTimer() {
+
+        sut.timer("sybil_test", "Test");
+
+        sut.counter("sybil_test", "Test");
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void recordWithWrongNumberOfLabels() {
+
+        sut.timer("sybil_test_seconds", "Test", "ledstrip", "brick").record("one", 1);
+    }
+
+
+    @Test
+    public void percentiles() {
+
+        // setup
+        Timer timer = sut.timer("sybil_test_seconds", "Test", "ledstrip");
+
+        // execution
+        for (int millis = 1; millis <= 1000; millis++) {
+            timer.record("one", TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        // verification
+        LatencyHistogram histogram = timer.getHistogram("one");
+
+        assertThat(histogram.getCount(), is(1000L));
+        assertThat(histogram.getSum(), is(TimeUnit.MILLISECONDS.toNanos(500500)));
+        assertThat((double) histogram.getPercentile(50), closeTo(TimeUnit.MILLISECONDS.toNanos(500),
+                TimeUnit.MILLISECONDS.toNanos(500) * RESOLUTION));
+        assertThat((double) histogram.getPercentile(99.9), closeTo(TimeUnit.MILLISECONDS.toNanos(999),
+                TimeUnit.MILLISECONDS.toNanos(999) * RESOLUTION));
+        assertThat(timer.getHistogram("two").getCount(), is(0L));
+    }
+
+
+    @Test
+    public void latenciesLongerThanAMinuteAreRecordedAsAMinute() {
+
+        // setup
+        Timer timer = sut.timer("sybil_test_seconds", "Test");
+
+        // execution
+        timer.record(TimeUnit.HOURS.toNanos(1));
+        timer.record(-1);
+
+        // verification
+        assertThat((double) timer.getHistogram().getPercentile(100), closeTo(TimeUnit.MINUTES.toNanos(1),
+                TimeUnit.MINUTES.toNanos(1) * RESOLUTION));
+        assertThat(timer.getHistogram().getPercentile(0), is(0L));
+    }
+
+
+    @Test
+    public void counters() {
+
+        // execution
+        sut.getTimeouts().increment("abrick", "chunk");
+        sut.getTimeouts().increment("abrick", "chunk");
+        sut.getTimeouts().increment("abrick", "setup");
+        sut.getConnectionErrors().increment("otherbrick");
+
+        // verification
+        assertThat(sut.getTimeouts().getCount("abrick", "chunk"), is(2L));
+        assertThat(sut.getTimeouts().getCount("abrick", "setup"), is(1L));
+        assertThat(sut.getTimeouts().getCount("otherbrick", "chunk"), is(0L));
+        assertThat(sut.getConnectionErrors().getCount("otherbrick"), is(1L));
+    }
+
+
+    @Test
+    public void scrape() {
+
+        // setup
+        sut.getTimeouts().increment("abrick", "chunk");
+        sut.timer("sybil_ledstrip_render_seconds", "Time to render", "ledstrip")
+            .record("one", TimeUnit.MILLISECONDS.toNanos(2));
+
+        // execution
+        String scraped = sut.scrape();
+
+        // verification
+        assertThat(scraped, containsString("# HELP sybil_brick_timeouts_total Calls to a brick that timed out\n"
+                + "# TYPE sybil_brick_timeouts_total counter\n"
+                + "sybil_brick_timeouts_total{brick=\"abrick\",operation=\"chunk\"} 1.0\n"));
+        assertThat(scraped, containsString("# TYPE sybil_ledstrip_render_seconds summary\n"));
+        assertThat(scraped, containsString("sybil_ledstrip_render_seconds{ledstrip=\"one\",quantile=\"0.99\"} 0.002"));
+        assertThat(scraped, containsString("sybil_ledstrip_render_seconds_sum{ledstrip=\"one\"} 0.002\n"));
+        assertThat(scraped, containsString("sybil_ledstrip_render_seconds_count{ledstrip=\"one\"} 1.0\n"));
+
+        // metrics are sorted by name
+        assertThat(scraped.indexOf("sybil_brick_timeouts_total") < scraped.indexOf("sybil_ledstrip_render_seconds"),
+            is(true));
+    }
+
+
+    @Test
+    public void labelValuesAreEscaped() {
+
+        // execution
+        sut.getConnectionErrors().increment("a \"brick\"\\\n");
+
+        // verification
+        assertThat(sut.scrape(), containsString("{brick=\"a \\\"brick\\\"\\\\\\n\"} 1.0\n"));
+        assertThat(sut.scrape(), not(containsString("brick\"\"")));
+    }
+}
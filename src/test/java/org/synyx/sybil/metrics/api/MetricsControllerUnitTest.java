@@ -0,0 +1,47 @@
+package org.synyx.sybil.metrics.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import org.synyx.sybil.metrics.MetricsService;
+import org.synyx.sybil.metrics.RequestMetricsFilter;
+
+import static org.hamcrest.CoreMatchers.containsString;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+
+public class MetricsControllerUnitTest {
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+
+        MetricsService metricsService = new MetricsService();
+        metricsService.getConnectionErrors().increment("abrick");
+
+        mockMvc = standaloneSetup(new MetricsController(metricsService)).addFilters(new RequestMetricsFilter(
+                    metricsService)).build();
+    }
+
+
+    @Test
+    public void getMetrics() throws Exception {
+
+        mockMvc.perform(get("/metrics"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/plain"))
+            .andExpect(content().string(containsString("sybil_brick_connection_errors_total{brick=\"abrick\"} 1.0")));
+
+        // the first request was timed by the filter
+        mockMvc.perform(get("/metrics"))
+            .andExpect(content().string(
+                    containsString("sybil_http_request_seconds_count{method=\"GET\",path=\"/metrics\"} 1.0")));
+    }
+}
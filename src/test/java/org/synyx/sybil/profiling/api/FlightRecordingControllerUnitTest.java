@@ -0,0 +1,133 @@
+package org.synyx.sybil.profiling.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.junit.runner.RunWith;
+
+import org.mockito.Mock;
+
+import org.mockito.runners.MockitoJUnitRunner;
+
+import org.springframework.test.web.servlet.MockMvc;
+
+import org.synyx.sybil.profiling.dto.FlightRecordingDTO;
+import org.synyx.sybil.profiling.service.FlightRecordingNotFoundException;
+import org.synyx.sybil.profiling.service.FlightRecordingRunningException;
+import org.synyx.sybil.profiling.service.FlightRecordingService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.mockito.Mockito.when;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class FlightRecordingControllerUnitTest {
+
+    @Mock
+    private FlightRecordingService flightRecordingServiceMock;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+
+        mockMvc = standaloneSetup(new FlightRecordingController(flightRecordingServiceMock)).build();
+    }
+
+
+    @Test
+    public void start() throws Exception {
+
+        // setup
+        when(flightRecordingServiceMock.start(300, "profile")).thenReturn(new FlightRecordingDTO("RUNNING", "profile",
+                1000, 300, 1024, 0));
+
+        // execution & verification
+        mockMvc.perform(post("/admin/flightrecording?duration=300&settings=profile"))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.state").value("RUNNING"))
+            .andExpect(jsonPath("$.duration").value(300));
+    }
+
+
+    @Test
+    public void startWithDefaults() throws Exception {
+
+        // setup
+        when(flightRecordingServiceMock.start(60, "default")).thenReturn(new FlightRecordingDTO("RUNNING", "default",
+                1000, 60, 1024, 0));
+
+        // execution & verification
+        mockMvc.perform(post("/admin/flightrecording"))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.settings").value("default"));
+    }
+
+
+    @Test
+    public void startWhileRunning() throws Exception {
+
+        // setup
+        when(flightRecordingServiceMock.start(60, "default")).thenThrow(new FlightRecordingRunningException(
+                "A recording is already running."));
+
+        // execution & verification
+        mockMvc.perform(post("/admin/flightrecording")).andExpect(status().isConflict());
+    }
+
+
+    @Test
+    public void startWithUnknownSettings() throws Exception {
+
+        // setup
+        when(flightRecordingServiceMock.start(60, "all")).thenThrow(new IllegalArgumentException("Unknown"));
+
+        // execution & verification
+        mockMvc.perform(post("/admin/flightrecording?settings=all")).andExpect(status().isBadRequest());
+    }
+
+
+    @Test
+    public void getWithoutRecording() throws Exception {
+
+        // setup
+        when(flightRecordingServiceMock.getRecording()).thenThrow(new FlightRecordingNotFoundException("none"));
+
+        // execution & verification
+        mockMvc.perform(get("/admin/flightrecording")).andExpect(status().isNotFound());
+    }
+
+
+    @Test
+    public void stopDownloadsAndDeletesRecording() throws Exception {
+
+        // setup
+        Path file = Files.createTempFile("sybil-", ".jfr");
+        Files.write(file, new byte[] { 1, 2, 3 });
+
+        when(flightRecordingServiceMock.stop()).thenReturn(file);
+
+        // execution & verification
+        mockMvc.perform(delete("/admin/flightrecording"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Disposition", "attachment; filename=\"sybil.jfr\""))
+            .andExpect(content().bytes(new byte[] { 1, 2, 3 }));
+
+        assertThat(Files.exists(file), is(false));
+    }
+}
@@ -0,0 +1,125 @@
+package org.synyx.sybil.profiling.service;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.synyx.sybil.profiling.ChunkEvent;
+import org.synyx.sybil.profiling.dto.FlightRecordingDTO;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+
+public class FlightRecordingServiceUnitTest {
+
+    private static final long MAX_SIZE = 1024L * 1024L;
+
+    private FlightRecordingService sut;
+
+    @Before
+    public void setup() {
+
+        sut = new FlightRecordingService(120, MAX_SIZE);
+    }
+
+
+    @After
+    public void tearDown() {
+
+        sut.close();
+    }
+
+
+    @Test
+    public void startIsBounded() {
+
+        // execution
+        FlightRecordingDTO recording = sut.start(3600, "default");
+
+        // verification
+        assertThat(recording.getState(), is("RUNNING"));
+        assertThat(recording.getSettings(), is("default"));
+        assertThat(recording.getDuration(), is(120L));
+        assertThat(recording.getMaxSize(), is(MAX_SIZE));
+        assertThat(sut.getRecording().getState(), is("RUNNING"));
+    }
+
+
+    @Test(expected = FlightRecordingRunningException.class)
+    public void startWhileRunning() {
+
+        sut.start(60, "default");
+
+        sut.start(60, "profile");
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void startWithUnknownSettings() {
+
+        sut.start(60, "everything");
+    }
+
+
+    @Test(expected = FlightRecordingNotFoundException.class)
+    public void stopWithoutRecording() {
+
+        sut.stop();
+    }
+
+
+    @Test
+    public void stopWritesSybilEvents() throws Exception {
+
+        // setup
+        sut.start(60, "default");
+
+        ChunkEvent event = new ChunkEvent("one", "abrick", ChunkEvent.WRITE, 16);
+        event.begin();
+        event.failed(new IllegalStateException("Test"));
+        event.commit();
+
+        // execution
+        Path file = sut.stop();
+
+        // verification
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file)
+                .stream()
+                .filter(recorded -> recorded.getEventType().getName().equals("org.synyx.sybil.Chunk"))
+                .collect(Collectors.toList());
+
+            assertThat(events.size(), is(1));
+            assertThat(events.get(0).getString("ledStrip"), is("one"));
+            assertThat(events.get(0).getString("brick"), is("abrick"));
+            assertThat(events.get(0).getString("operation"), is("write"));
+            assertThat(events.get(0).getInt("position"), is(16));
+            assertThat(events.get(0).getString("failure"), is("IllegalStateException"));
+            assertThat(events.get(0).getStackTrace(), is(nullValue()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+
+    @Test(expected = FlightRecordingNotFoundException.class)
+    public void stoppedRecordingIsDiscarded() throws Exception {
+
+        sut.start(60, "default");
+        Files.delete(sut.stop());
+
+        sut.getRecording();
+    }
+}
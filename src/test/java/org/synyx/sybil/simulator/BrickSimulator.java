@@ -0,0 +1,353 @@
+package org.synyx.sybil.simulator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * BrickSimulator. Listens on a port like a brick with an Ethernet Extension (or brickd) does, and answers the subset of
+ * the Tinkerforge TCP/IP protocol Sybil uses: enumerate, get identity, resetting the Master Brick, the LED Strip
+ * Bricklet's RGB values, frame duration, chip type and frame rendered callback, and the Ambient Light Bricklet's
+ * illuminance and illuminance callback.
+ *
+ * <p>Every request can be delayed by a fixed latency plus a random jitter, and dropped at a given rate, so the client
+ * times out. A brick that is down closes all connections and refuses new ones. Requests of a connection are handled one
+ * after the other, like a brick does.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class BrickSimulator implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BrickSimulator.class);
+
+    private static final short ENUMERATION_TYPE_AVAILABLE = 0;
+    private static final short ENUMERATION_TYPE_CONNECTED = 1;
+    private static final long RESET_DELAY = 10;
+
+    private final ServerSocket serverSocket;
+    private final Map<Integer, SimulatedDevice> devices = new ConcurrentHashMap<>();
+    private final List<SimulatedDevice> deviceOrder = new CopyOnWriteArrayList<>();
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+    private final ExecutorService connections = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+    private final Random random = new Random();
+
+    private volatile long latency;
+    private volatile long jitter;
+    private volatile double dropRate;
+    private volatile boolean down;
+
+    /**
+     * Instantiates a new brick simulator, which doesn't accept connections until it is started.
+     *
+     * @param  port  The port to listen on, 0 for any free port
+     *
+     * @throws  IOException  if the port can't be bound
+     */
+    public BrickSimulator(int port) throws IOException {
+
+        this.serverSocket = new ServerSocket(port);
+    }
+
+    public int getPort() {
+
+        return serverSocket.getLocalPort();
+    }
+
+
+    public void start() {
+
+        connections.execute(this::accept);
+        ticker.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.MILLISECONDS);
+    }
+
+
+    @Override
+    public void close() {
+
+        ticker.shutdownNow();
+
+        try {
+            serverSocket.close();
+        } catch (IOException exception) {
+            LOG.debug("Error closing simulator on port " + getPort() + ":", exception);
+        }
+
+        clients.forEach(Client::close);
+        connections.shutdownNow();
+    }
+
+
+    /**
+     * Adds a Master Brick, resetting it restarts all devices.
+     */
+    public SimulatedMaster addMaster(String uid) {
+
+        return add(new SimulatedMaster(uid, () -> ticker.schedule(this::restart, RESET_DELAY, TimeUnit.MILLISECONDS)));
+    }
+
+
+    public SimulatedLEDStrip addLEDStrip(String uid, String connectedUid, char position) {
+
+        return add(new SimulatedLEDStrip(uid, connectedUid, position));
+    }
+
+
+    public SimulatedLEDStripV2 addLEDStripV2(String uid, String connectedUid, char position) {
+
+        return add(new SimulatedLEDStripV2(uid, connectedUid, position));
+    }
+
+
+    public SimulatedAmbientLight addAmbientLight(String uid, String connectedUid, char position) {
+
+        return add(new SimulatedAmbientLight(uid, connectedUid, position));
+    }
+
+
+    /**
+     * Delays every request.
+     *
+     * @param  latency  The fixed delay in milliseconds
+     * @param  jitter  The maximum random delay added to it in milliseconds
+     */
+    public void setLatency(long latency, long jitter) {
+
+        this.latency = Math.max(0, latency);
+        this.jitter = Math.max(0, jitter);
+    }
+
+
+    /**
+     * Drops requests without handling or answering them.
+     *
+     * @param  dropRate  The share of requests dropped, from 0 to 1
+     */
+    public void setDropRate(double dropRate) {
+
+        this.dropRate = dropRate;
+    }
+
+
+    /**
+     * Takes the brick down, closing all connections and refusing new ones, or brings it up again.
+     */
+    public void setDown(boolean down) {
+
+        this.down = down;
+
+        if (down) {
+            clients.forEach(Client::close);
+        }
+    }
+
+
+    /**
+     * Restarts all devices, as if the brick was power cycled while connected to brickd: Their state is lost, and each
+     * one announces itself with an enumerate callback.
+     */
+    public void restart() {
+
+        for (SimulatedDevice device : deviceOrder) {
+            device.reset();
+            broadcast(device, Packet.CALLBACK_ENUMERATE, device.getEnumeration(ENUMERATION_TYPE_CONNECTED));
+        }
+    }
+
+
+    private <T extends SimulatedDevice> T add(T device) {
+
+        devices.put(device.getNumericUid(), device);
+        deviceOrder.add(device);
+
+        return device;
+    }
+
+
+    private void accept() {
+
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException exception) {
+                LOG.debug("Simulator on port " + getPort() + " stopped accepting connections:", exception);
+
+                return;
+            }
+
+            Client client;
+
+            try {
+                client = new Client(socket);
+            } catch (IOException exception) {
+                LOG.warn("Error accepting connection to simulator on port " + getPort() + ":", exception);
+
+                continue;
+            }
+
+            if (down) {
+                client.close();
+
+                continue;
+            }
+
+            clients.add(client);
+            connections.execute(client::serve);
+        }
+    }
+
+
+    private void tick() {
+
+        long now = System.currentTimeMillis();
+
+        for (SimulatedDevice device : deviceOrder) {
+            device.tick(now, this::broadcast);
+        }
+    }
+
+
+    private void broadcast(SimulatedDevice device, byte functionId, byte[] payload) {
+
+        byte[] packet = Packet.build(device.getNumericUid(), functionId, 0, Packet.ERROR_NONE, payload);
+
+        for (Client client : clients) {
+            client.send(packet);
+        }
+    }
+
+
+    private void handle(Client client, Packet request) throws InterruptedException {
+
+        if (dropRate > 0 && random.nextDouble() < dropRate) {
+            return;
+        }
+
+        long delay = latency + (jitter > 0 ? (long) (random.nextDouble() * jitter) : 0);
+
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+
+        if (request.getFunctionId() == Packet.FUNCTION_DISCONNECT_PROBE) {
+            return;
+        }
+
+        if (request.getFunctionId() == Packet.FUNCTION_ENUMERATE) {
+            for (SimulatedDevice device : deviceOrder) {
+                client.send(Packet.build(device.getNumericUid(), Packet.CALLBACK_ENUMERATE, 0, Packet.ERROR_NONE,
+                        device.getEnumeration(ENUMERATION_TYPE_AVAILABLE)));
+            }
+
+            return;
+        }
+
+        SimulatedDevice device = devices.get(request.getUid());
+
+        if (device == null) {
+            // like brickd, requests to unknown devices are ignored and time out
+            return;
+        }
+
+        byte[] response = request.getFunctionId() == Packet.FUNCTION_GET_IDENTITY
+            ? device.getIdentity(0) : device.handle(request.getFunctionId(), request.getPayload());
+
+        if (request.isResponseExpected()) {
+            client.send(Packet.build(request.getUid(), request.getFunctionId(), request.getSequenceNumber(),
+                    response == null ? Packet.ERROR_FUNCTION_NOT_SUPPORTED : Packet.ERROR_NONE,
+                    response == null ? SimulatedDevice.EMPTY : response));
+            device.responded(request.getFunctionId());
+        }
+    }
+
+    private final class Client {
+
+        private final Socket socket;
+        private final DataInputStream input;
+        private final OutputStream output;
+
+        private Client(Socket socket) throws IOException {
+
+            this.socket = socket;
+            this.socket.setTcpNoDelay(true);
+            this.input = new DataInputStream(socket.getInputStream());
+            this.output = socket.getOutputStream();
+        }
+
+        private void serve() {
+
+            try {
+                while (!socket.isClosed()) {
+                    byte[] header = new byte[Packet.HEADER_SIZE];
+                    input.readFully(header);
+
+                    int length = header[4] & 0xFF;
+
+                    if (length < Packet.HEADER_SIZE) {
+                        LOG.warn("Invalid packet sent to simulator on port " + getPort());
+
+                        return;
+                    }
+
+                    byte[] data = new byte[length];
+                    System.arraycopy(header, 0, data, 0, header.length);
+                    input.readFully(data, header.length, data.length - header.length);
+
+                    handle(this, Packet.parse(data));
+                }
+            } catch (IOException exception) {
+                LOG.debug("Connection to simulator on port " + getPort() + " closed:", exception);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+
+        private void send(byte[] packet) {
+
+            synchronized (output) {
+                try {
+                    output.write(packet);
+                    output.flush();
+                } catch (IOException exception) {
+                    LOG.debug("Error sending to client of simulator on port " + getPort() + ":", exception);
+                    close();
+                }
+            }
+        }
+
+
+        private void close() {
+
+            clients.remove(this);
+
+            try {
+                socket.close();
+            } catch (IOException exception) {
+                LOG.debug("Error closing connection to simulator on port " + getPort() + ":", exception);
+            }
+        }
+    }
+}
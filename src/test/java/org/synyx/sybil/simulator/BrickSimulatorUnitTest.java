@@ -0,0 +1,261 @@
+package org.synyx.sybil.simulator;
+
+import com.tinkerforge.BrickMaster;
+import com.tinkerforge.BrickletAmbientLight;
+import com.tinkerforge.BrickletLEDStrip;
+import com.tinkerforge.BrickletLEDStripV2;
+import com.tinkerforge.IPConnection;
+import com.tinkerforge.TimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.synyx.sybil.brick.persistence.Brick;
+import org.synyx.sybil.brick.persistence.BrickRepository;
+import org.synyx.sybil.brick.service.BrickHealthService;
+import org.synyx.sybil.brick.service.BrickService;
+import org.synyx.sybil.bricklet.input.illuminance.service.IlluminanceService;
+import org.synyx.sybil.bricklet.output.ledstrip.Color;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStripRepository;
+import org.synyx.sybil.bricklet.output.ledstrip.service.BrickBackoff;
+import org.synyx.sybil.bricklet.output.ledstrip.service.BrickletLEDStripWrapperService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.BrightnessQuantizer;
+import org.synyx.sybil.bricklet.output.ledstrip.service.ChunkRetry;
+import org.synyx.sybil.bricklet.output.ledstrip.service.FrameBufferService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.LEDStripService;
+import org.synyx.sybil.bricklet.output.ledstrip.service.PhotonLatencyTracker;
+import org.synyx.sybil.bricklet.output.ledstrip.service.TransitionService;
+import org.synyx.sybil.metrics.MetricsService;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * BrickSimulatorUnitTest. Talks to the simulator with the real Tinkerforge bindings.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public class BrickSimulatorUnitTest {
+
+    private static final long TIMEOUT = 2000;
+
+    private BrickSimulator sut;
+    private SimulatedLEDStrip ledStrip;
+    private SimulatedLEDStripV2 ledStripV2;
+    private SimulatedAmbientLight ambientLight;
+    private IPConnection ipConnection;
+
+    @Before
+    public void setup() throws Exception {
+
+        sut = new BrickSimulator(0);
+        sut.addMaster("68ymYA");
+        ledStrip = sut.addLEDStrip("p5V", "68ymYA", 'a');
+        ambientLight = sut.addAmbientLight("m3d", "68ymYA", 'b');
+        ledStripV2 = sut.addLEDStripV2("Lh2", "68ymYA", 'c');
+        sut.start();
+
+        ipConnection = new IPConnection();
+        ipConnection.connect("localhost", sut.getPort());
+    }
+
+
+    @After
+    public void tearDown() throws Exception {
+
+        ipConnection.disconnect();
+        sut.close();
+    }
+
+
+    @Test
+    public void setAndGetRGBValues() throws Exception {
+
+        // setup
+        BrickletLEDStrip brickletLEDStrip = new BrickletLEDStrip("p5V", ipConnection);
+
+        BlockingQueue<Integer> rendered = new LinkedBlockingQueue<>();
+        brickletLEDStrip.addFrameRenderedListener(rendered::add);
+
+        short[] red = new short[16];
+        short[] green = new short[16];
+        short[] blue = new short[16];
+        red[1] = 255;
+        green[1] = 128;
+        blue[1] = 1;
+
+        // execution
+        brickletLEDStrip.setFrameDuration(10);
+        brickletLEDStrip.setRGBValues(16, (short) 16, red, green, blue);
+
+        BrickletLEDStrip.RGBValues values = brickletLEDStrip.getRGBValues(16, (short) 16);
+
+        // verification
+        assertThat(values.r[1], is((short) 255));
+        assertThat(values.g[1], is((short) 128));
+        assertThat(values.b[1], is((short) 1));
+        assertThat(ledStrip.getPixel(17), is(0xFF8001));
+        assertThat(ledStrip.getFrameDuration(), is(10));
+        assertThat(rendered.poll(TIMEOUT, TimeUnit.MILLISECONDS), is(32));
+    }
+
+
+    @Test
+    public void illuminance() throws Exception {
+
+        // setup
+        BrickletAmbientLight brickletAmbientLight = new BrickletAmbientLight("m3d", ipConnection);
+
+        BlockingQueue<Integer> callbacks = new LinkedBlockingQueue<>();
+        brickletAmbientLight.addIlluminanceListener(callbacks::add);
+
+        ambientLight.setIlluminance(1234);
+
+        // execution & verification
+        assertThat(brickletAmbientLight.getIlluminance(), is(1234));
+
+        brickletAmbientLight.setIlluminanceCallbackPeriod(10);
+
+        assertThat(callbacks.poll(TIMEOUT, TimeUnit.MILLISECONDS), is(1234));
+
+        ambientLight.setIlluminance(42);
+
+        assertThat(callbacks.poll(TIMEOUT, TimeUnit.MILLISECONDS), is(42));
+    }
+
+
+    @Test
+    public void enumerateAndRestart() throws Exception {
+
+        // setup
+        BlockingQueue<String> enumerations = new LinkedBlockingQueue<>();
+        ipConnection.addEnumerateListener((uid, connectedUid, position, hardwareVersion, firmwareVersion,
+                deviceIdentifier, enumerationType) ->
+                enumerations.add(uid + "@" + connectedUid + ":" + position + ":" + deviceIdentifier + ":"
+                    + enumerationType));
+
+        // execution & verification
+        ipConnection.enumerate();
+
+        assertThat(enumerations.poll(TIMEOUT, TimeUnit.MILLISECONDS), is("68ymYA@0:0:13:0"));
+        assertThat(enumerations.poll(TIMEOUT, TimeUnit.MILLISECONDS), is("p5V@68ymYA:a:231:0"));
+        assertThat(enumerations.poll(TIMEOUT, TimeUnit.MILLISECONDS), is("m3d@68ymYA:b:21:0"));
+        assertThat(enumerations.poll(TIMEOUT, TimeUnit.MILLISECONDS), is("Lh2@68ymYA:c:2103:0"));
+
+        new BrickMaster("68ymYA", ipConnection).reset();
+
+        assertThat(enumerations.poll(TIMEOUT, TimeUnit.MILLISECONDS), is("68ymYA@0:0:13:1"));
+        assertThat(enumerations.poll(TIMEOUT, TimeUnit.MILLISECONDS), is("p5V@68ymYA:a:231:1"));
+        assertThat(enumerations.poll(TIMEOUT, TimeUnit.MILLISECONDS), is("m3d@68ymYA:b:21:1"));
+        assertThat(enumerations.poll(TIMEOUT, TimeUnit.MILLISECONDS), is("Lh2@68ymYA:c:2103:1"));
+    }
+
+
+    @Test(expected = TimeoutException.class)
+    public void droppedRequestTimesOut() throws Exception {
+
+        // setup
+        sut.setDropRate(1);
+        ipConnection.setTimeout(100);
+
+        // execution
+        new BrickletLEDStrip("p5V", ipConnection).getFrameDuration();
+    }
+
+
+    @Test
+    public void latency() throws Exception {
+
+        // setup
+        sut.setLatency(50, 10);
+
+        // execution
+        long start = System.nanoTime();
+        new BrickletLEDStrip("p5V", ipConnection).getFrameDuration();
+
+        // verification
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50, is(true));
+    }
+
+
+    @Test
+    public void sybilDrawsOnSimulatedLEDStrip() throws Exception {
+
+        // setup
+        LEDStrip devled = new LEDStrip("devled", "p5V", 20, "devbrick");
+
+        BrickRepository brickRepository = mock(BrickRepository.class);
+        when(brickRepository.get("devbrick")).thenReturn(new Brick("localhost", "68ymYA", sut.getPort(), "devbrick"));
+
+        LEDStripRepository ledStripRepository = mock(LEDStripRepository.class);
+        when(ledStripRepository.get("devled")).thenReturn(devled);
+
+        MetricsService metricsService = new MetricsService();
+        LEDStripService ledStripService = new LEDStripService(new BrickletLEDStripWrapperService(
+                    new BrickService(brickRepository, mock(BrickHealthService.class), metricsService), metricsService),
+                mock(IlluminanceService.class), ledStripRepository, new FrameBufferService(),
+                new TransitionService(0, 1, 0), new BrightnessQuantizer(0.125, 0.25), new BrickBackoff(0, 0),
+                metricsService, new PhotonLatencyTracker(metricsService, 1000), new ChunkRetry(0, 0));
+
+        List<Color> colors = Arrays.asList(new Color[20]);
+        colors.replaceAll(color -> new Color(10, 20, 30));
+
+        // execution
+        ledStripService.setColors("devled", colors);
+
+        // verification
+        assertThat(ledStrip.getChipType(), is(2812));
+        assertThat(ledStripService.getPixels("devled"), is(colors));
+    }
+
+
+    @Test
+    public void sybilDrawsOnSimulatedLEDStripV2() throws Exception {
+
+        // setup
+        LEDStrip devled = new LEDStrip("devled", "Lh2", 100, "devbrick");
+        devled.setVersion(2);
+
+        BrickRepository brickRepository = mock(BrickRepository.class);
+        when(brickRepository.get("devbrick")).thenReturn(new Brick("localhost", "68ymYA", sut.getPort(), "devbrick"));
+
+        LEDStripRepository ledStripRepository = mock(LEDStripRepository.class);
+        when(ledStripRepository.get("devled")).thenReturn(devled);
+
+        MetricsService metricsService = new MetricsService();
+        LEDStripService ledStripService = new LEDStripService(new BrickletLEDStripWrapperService(
+                    new BrickService(brickRepository, mock(BrickHealthService.class), metricsService), metricsService),
+                mock(IlluminanceService.class), ledStripRepository, new FrameBufferService(),
+                new TransitionService(0, 1, 0), new BrightnessQuantizer(0.125, 0.25), new BrickBackoff(0, 0),
+                metricsService, new PhotonLatencyTracker(metricsService, 1000), new ChunkRetry(0, 0));
+
+        List<Color> colors = Arrays.asList(new Color[100]);
+        colors.replaceAll(color -> new Color(10, 20, 30));
+
+        // execution
+        ledStripService.setColors("devled", colors);
+
+        // verification
+        assertThat(ledStripV2.getChipType(), is(2812));
+        assertThat(ledStripV2.getChannelMapping(), is(BrickletLEDStripV2.CHANNEL_MAPPING_BRG));
+        assertThat(ledStripV2.getPixel(99), is(0x1E0A14));
+
+        // 112 pixels in one call, streamed in chunks of 58 values
+        assertThat(ledStripV2.getWrites(), is(6));
+        assertThat(ledStripV2.getAcknowledgedWrites(), is(0));
+        assertThat(ledStripService.getPixels("devled"), is(colors));
+    }
+}
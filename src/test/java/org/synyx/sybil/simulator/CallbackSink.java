@@ -0,0 +1,12 @@
+package org.synyx.sybil.simulator;
+
+/**
+ * Receives the callbacks of simulated devices, to send them to every connected client.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+@FunctionalInterface
+interface CallbackSink {
+
+    void callback(SimulatedDevice device, byte functionId, byte[] payload);
+}
@@ -0,0 +1,156 @@
+package org.synyx.sybil.simulator;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+
+/**
+ * A packet of the Tinkerforge TCP/IP protocol: an eight byte header (uid, length, function id, sequence number and
+ * flags) and a little endian payload.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+final class Packet {
+
+    static final int HEADER_SIZE = 8;
+
+    static final byte FUNCTION_DISCONNECT_PROBE = (byte) 128;
+    static final byte FUNCTION_ENUMERATE = -2;
+    static final byte CALLBACK_ENUMERATE = -3;
+    static final byte FUNCTION_GET_IDENTITY = -1;
+
+    static final int ERROR_NONE = 0;
+    static final int ERROR_FUNCTION_NOT_SUPPORTED = 2;
+
+    private static final String BASE58 = "123456789abcdefghijkmnopqrstuvwxyzABCDEFGHJKLMNPQRSTUVWXYZ";
+    private static final long MASK_32 = 0xFFFFFFFFL;
+
+    private final int uid;
+    private final byte functionId;
+    private final int sequenceNumber;
+    private final boolean responseExpected;
+    private final ByteBuffer payload;
+
+    private Packet(byte[] data) {
+
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+
+        this.uid = buffer.getInt();
+        buffer.get();
+        this.functionId = buffer.get();
+
+        byte options = buffer.get();
+        this.sequenceNumber = (options >> 4) & 0x0F;
+        this.responseExpected = (options & 0x08) != 0;
+
+        buffer.get();
+        this.payload = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Parses a request.
+     *
+     * @param  data  The whole packet, header included
+     */
+    static Packet parse(byte[] data) {
+
+        return new Packet(data);
+    }
+
+
+    /**
+     * Builds a response to this request, or a callback if the sequence number is 0.
+     */
+    static byte[] build(int uid, byte functionId, int sequenceNumber, int errorCode, byte[] payload) {
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(uid);
+        buffer.put((byte) (HEADER_SIZE + payload.length));
+        buffer.put(functionId);
+        buffer.put((byte) ((sequenceNumber << 4) | (sequenceNumber == 0 ? 0 : 0x08)));
+        buffer.put((byte) (errorCode << 6));
+        buffer.put(payload);
+
+        return buffer.array();
+    }
+
+
+    /**
+     * Converts a uid the way the bindings do, including folding uids beyond 32 bits.
+     */
+    static int decodeUid(String uid) {
+
+        long value = 0;
+
+        for (int index = 0; index < uid.length(); index++) {
+            int digit = BASE58.indexOf(uid.charAt(index));
+
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid uid " + uid);
+            }
+
+            value = value * BASE58.length() + digit;
+        }
+
+        if (value > MASK_32) {
+            long low = value & MASK_32;
+            long high = (value >> 32) & MASK_32;
+
+            value = low & 0x00000FFFL;
+            value |= (low & 0x0F000000L) >> 12;
+            value |= (high & 0x0000003FL) << 16;
+            value |= (high & 0x000F0000L) << 6;
+            value |= (high & 0x3F000000L) << 2;
+        }
+
+        return (int) value;
+    }
+
+
+    static ByteBuffer allocate(int size) {
+
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+
+    /**
+     * Writes a string into a fixed size, zero padded field.
+     */
+    static void putString(ByteBuffer buffer, String value, int size) {
+
+        for (int index = 0; index < size; index++) {
+            buffer.put(index < value.length() ? (byte) value.charAt(index) : 0);
+        }
+    }
+
+
+    int getUid() {
+
+        return uid;
+    }
+
+
+    byte getFunctionId() {
+
+        return functionId;
+    }
+
+
+    int getSequenceNumber() {
+
+        return sequenceNumber;
+    }
+
+
+    boolean isResponseExpected() {
+
+        return responseExpected;
+    }
+
+
+    ByteBuffer getPayload() {
+
+        return payload;
+    }
+}
@@ -0,0 +1,119 @@
+package org.synyx.sybil.simulator;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * A simulated Ambient Light Bricklet, whose illuminance is set by the test or load generator.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public final class SimulatedAmbientLight extends SimulatedDevice {
+
+    static final int DEVICE_IDENTIFIER = 21;
+
+    private static final byte FUNCTION_GET_ILLUMINANCE = 1;
+    private static final byte FUNCTION_GET_ANALOG_VALUE = 2;
+    private static final byte FUNCTION_SET_ILLUMINANCE_CALLBACK_PERIOD = 3;
+    private static final byte FUNCTION_GET_ILLUMINANCE_CALLBACK_PERIOD = 4;
+    private static final byte FUNCTION_SET_DEBOUNCE_PERIOD = 11;
+    private static final byte FUNCTION_GET_DEBOUNCE_PERIOD = 12;
+    private static final byte CALLBACK_ILLUMINANCE = 13;
+
+    private static final int DEFAULT_ILLUMINANCE = 1000;
+    private static final int MAX_ILLUMINANCE = 9000;
+    private static final int MAX_ANALOG_VALUE = 4095;
+    private static final long DEFAULT_DEBOUNCE_PERIOD = 100;
+
+    private int illuminance = DEFAULT_ILLUMINANCE;
+    private long callbackPeriod;
+    private long debouncePeriod;
+    private long nextCallback;
+    private int lastCallback = -1;
+
+    SimulatedAmbientLight(String uid, String connectedUid, char position) {
+
+        super(uid, connectedUid, position, DEVICE_IDENTIFIER);
+
+        reset();
+    }
+
+    @Override
+    synchronized byte[] handle(byte functionId, ByteBuffer request) {
+
+        switch (functionId) {
+            case FUNCTION_GET_ILLUMINANCE:
+                return unsignedShort(illuminance);
+
+            case FUNCTION_GET_ANALOG_VALUE:
+                return unsignedShort(illuminance * MAX_ANALOG_VALUE / MAX_ILLUMINANCE);
+
+            case FUNCTION_SET_ILLUMINANCE_CALLBACK_PERIOD:
+                callbackPeriod = request.getInt() & 0xFFFFFFFFL;
+                nextCallback = 0;
+
+                return EMPTY;
+
+            case FUNCTION_GET_ILLUMINANCE_CALLBACK_PERIOD:
+                return unsignedInt(callbackPeriod);
+
+            case FUNCTION_SET_DEBOUNCE_PERIOD:
+                debouncePeriod = request.getInt() & 0xFFFFFFFFL;
+
+                return EMPTY;
+
+            case FUNCTION_GET_DEBOUNCE_PERIOD:
+                return unsignedInt(debouncePeriod);
+
+            default:
+                return null;
+        }
+    }
+
+
+    @Override
+    synchronized void reset() {
+
+        callbackPeriod = 0;
+        debouncePeriod = DEFAULT_DEBOUNCE_PERIOD;
+        lastCallback = -1;
+    }
+
+
+    /**
+     * Sends the illuminance callback once its period elapsed, if the illuminance changed since the last one.
+     */
+    @Override
+    void tick(long now, CallbackSink sink) {
+
+        int value;
+
+        synchronized (this) {
+            if (callbackPeriod == 0 || now < nextCallback) {
+                return;
+            }
+
+            nextCallback = now + callbackPeriod;
+
+            if (illuminance == lastCallback) {
+                return;
+            }
+
+            lastCallback = illuminance;
+            value = illuminance;
+        }
+
+        sink.callback(this, CALLBACK_ILLUMINANCE, unsignedShort(value));
+    }
+
+
+    /**
+     * Sets the illuminance the sensor measures.
+     *
+     * @param  illuminance  The illuminance in decilux, from 0 to 9000
+     */
+    public synchronized void setIlluminance(int illuminance) {
+
+        this.illuminance = Math.max(0, Math.min(MAX_ILLUMINANCE, illuminance));
+    }
+}
@@ -0,0 +1,134 @@
+package org.synyx.sybil.simulator;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * A simulated brick or bricklet, answering the functions Sybil calls on it.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public abstract class SimulatedDevice {
+
+    static final byte[] EMPTY = new byte[0];
+
+    private static final int IDENTITY_SIZE = 25;
+    private static final int UID_SIZE = 8;
+
+    private final String uid;
+    private final int numericUid;
+    private final String connectedUid;
+    private final char position;
+    private final int deviceIdentifier;
+
+    SimulatedDevice(String uid, String connectedUid, char position, int deviceIdentifier) {
+
+        this.uid = uid;
+        this.numericUid = Packet.decodeUid(uid);
+        this.connectedUid = connectedUid;
+        this.position = position;
+        this.deviceIdentifier = deviceIdentifier;
+    }
+
+    public String getUid() {
+
+        return uid;
+    }
+
+
+    int getNumericUid() {
+
+        return numericUid;
+    }
+
+
+    /**
+     * Handles a request.
+     *
+     * @param  functionId  The function called
+     * @param  request  The request's payload
+     *
+     * @return  The response's payload, null if the function isn't supported
+     */
+    abstract byte[] handle(byte functionId, ByteBuffer request);
+
+
+    /**
+     * Sets the device back to the state it starts up with.
+     */
+    abstract void reset();
+
+
+    /**
+     * Called about every millisecond, to send callbacks that are due.
+     *
+     * @param  now  The current time in milliseconds
+     * @param  sink  Where to send callbacks to
+     */
+    void tick(long now, CallbackSink sink) {
+
+        // no callbacks by default
+    }
+
+
+    /**
+     * Called when a request is answered, which only happens if it asked for a response.
+     *
+     * @param  functionId  The function called
+     */
+    void responded(byte functionId) {
+
+        // nothing recorded by default
+    }
+
+
+    /**
+     * Gets the identity, as returned by get identity and, followed by the enumeration type, by enumerate.
+     */
+    byte[] getIdentity(int extra) {
+
+        ByteBuffer buffer = Packet.allocate(IDENTITY_SIZE + extra);
+
+        Packet.putString(buffer, uid, UID_SIZE);
+        Packet.putString(buffer, connectedUid, UID_SIZE);
+        buffer.put((byte) position);
+        buffer.put(new byte[] { 1, 0, 0 });
+        buffer.put(new byte[] { 2, 0, 0 });
+        buffer.putShort((short) deviceIdentifier);
+
+        return buffer.array();
+    }
+
+
+    byte[] getEnumeration(short enumerationType) {
+
+        byte[] enumeration = getIdentity(1);
+        enumeration[IDENTITY_SIZE] = (byte) enumerationType;
+
+        return enumeration;
+    }
+
+
+    static int getUnsignedShort(ByteBuffer buffer) {
+
+        return buffer.getShort() & 0xFFFF;
+    }
+
+
+    static int getUnsignedByte(ByteBuffer buffer) {
+
+        return buffer.get() & 0xFF;
+    }
+
+
+    static byte[] unsignedShort(int value) {
+
+        return Packet.allocate(2).putShort((short) value).array();
+    }
+
+
+    static byte[] unsignedInt(long value) {
+
+        return Packet.allocate(4).putInt((int) value).array();
+    }
+}
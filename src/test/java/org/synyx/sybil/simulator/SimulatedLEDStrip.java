@@ -0,0 +1,203 @@
+package org.synyx.sybil.simulator;
+
+import java.nio.ByteBuffer;
+
+import java.util.Arrays;
+
+
+/**
+ * A simulated LED Strip Bricklet. Pixels set are rendered with the next frame, which is announced by a frame rendered
+ * callback.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public final class SimulatedLEDStrip extends SimulatedDevice {
+
+    static final int DEVICE_IDENTIFIER = 231;
+
+    private static final byte FUNCTION_SET_RGB_VALUES = 1;
+    private static final byte FUNCTION_GET_RGB_VALUES = 2;
+    private static final byte FUNCTION_SET_FRAME_DURATION = 3;
+    private static final byte FUNCTION_GET_FRAME_DURATION = 4;
+    private static final byte FUNCTION_GET_SUPPLY_VOLTAGE = 5;
+    private static final byte CALLBACK_FRAME_RENDERED = 6;
+    private static final byte FUNCTION_SET_CLOCK_FREQUENCY = 7;
+    private static final byte FUNCTION_GET_CLOCK_FREQUENCY = 8;
+    private static final byte FUNCTION_SET_CHIP_TYPE = 9;
+    private static final byte FUNCTION_GET_CHIP_TYPE = 10;
+
+    private static final int MAX_LEDS = 320;
+    private static final int CHUNK = 16;
+    private static final int DEFAULT_FRAME_DURATION = 100;
+    private static final int DEFAULT_CHIP_TYPE = 2801;
+    private static final long DEFAULT_CLOCK_FREQUENCY = 1666666;
+    private static final int SUPPLY_VOLTAGE = 5000;
+
+    private final byte[] red = new byte[MAX_LEDS];
+    private final byte[] green = new byte[MAX_LEDS];
+    private final byte[] blue = new byte[MAX_LEDS];
+
+    private int frameDuration;
+    private int chipType;
+    private long clockFrequency;
+    private int length;
+    private boolean dirty;
+    private long nextFrame;
+    private int framesRendered;
+
+    SimulatedLEDStrip(String uid, String connectedUid, char position) {
+
+        super(uid, connectedUid, position, DEVICE_IDENTIFIER);
+
+        reset();
+    }
+
+    @Override
+    synchronized byte[] handle(byte functionId, ByteBuffer request) {
+
+        switch (functionId) {
+            case FUNCTION_SET_RGB_VALUES:
+                setRGBValues(getUnsignedShort(request), getUnsignedByte(request), request);
+
+                return EMPTY;
+
+            case FUNCTION_GET_RGB_VALUES:
+                return getRGBValues(getUnsignedShort(request), getUnsignedByte(request));
+
+            case FUNCTION_SET_FRAME_DURATION:
+                frameDuration = getUnsignedShort(request);
+
+                return EMPTY;
+
+            case FUNCTION_GET_FRAME_DURATION:
+                return unsignedShort(frameDuration);
+
+            case FUNCTION_GET_SUPPLY_VOLTAGE:
+                return unsignedShort(SUPPLY_VOLTAGE);
+
+            case FUNCTION_SET_CLOCK_FREQUENCY:
+                clockFrequency = request.getInt() & 0xFFFFFFFFL;
+
+                return EMPTY;
+
+            case FUNCTION_GET_CLOCK_FREQUENCY:
+                return unsignedInt(clockFrequency);
+
+            case FUNCTION_SET_CHIP_TYPE:
+                chipType = getUnsignedShort(request);
+
+                return EMPTY;
+
+            case FUNCTION_GET_CHIP_TYPE:
+                return unsignedShort(chipType);
+
+            default:
+                return null;
+        }
+    }
+
+
+    @Override
+    synchronized void reset() {
+
+        Arrays.fill(red, (byte) 0);
+        Arrays.fill(green, (byte) 0);
+        Arrays.fill(blue, (byte) 0);
+
+        frameDuration = DEFAULT_FRAME_DURATION;
+        chipType = DEFAULT_CHIP_TYPE;
+        clockFrequency = DEFAULT_CLOCK_FREQUENCY;
+        length = 0;
+        dirty = false;
+    }
+
+
+    @Override
+    void tick(long now, CallbackSink sink) {
+
+        int rendered;
+
+        synchronized (this) {
+            if (now < nextFrame) {
+                return;
+            }
+
+            nextFrame = now + Math.max(1, frameDuration);
+
+            if (!dirty) {
+                return;
+            }
+
+            dirty = false;
+            framesRendered++;
+            rendered = length;
+        }
+
+        sink.callback(this, CALLBACK_FRAME_RENDERED, unsignedShort(rendered));
+    }
+
+
+    /**
+     * Gets a pixel, in the order the channels were sent.
+     *
+     * @param  index  The index of the pixel
+     *
+     * @return  The channels packed as 0xRRGGBB
+     */
+    public synchronized int getPixel(int index) {
+
+        return ((red[index] & 0xFF) << 16) | ((green[index] & 0xFF) << 8) | (blue[index] & 0xFF);
+    }
+
+
+    public synchronized int getFrameDuration() {
+
+        return frameDuration;
+    }
+
+
+    public synchronized int getChipType() {
+
+        return chipType;
+    }
+
+
+    public synchronized int getFramesRendered() {
+
+        return framesRendered;
+    }
+
+
+    private void setRGBValues(int index, int count, ByteBuffer request) {
+
+        byte[] values = new byte[CHUNK * 3];
+        request.get(values);
+
+        int end = Math.min(MAX_LEDS, index + Math.min(count, CHUNK));
+
+        for (int pixel = index; pixel < end; pixel++) {
+            red[pixel] = values[pixel - index];
+            green[pixel] = values[CHUNK + pixel - index];
+            blue[pixel] = values[2 * CHUNK + pixel - index];
+        }
+
+        length = Math.max(length, end);
+        dirty = true;
+    }
+
+
+    private byte[] getRGBValues(int index, int count) {
+
+        byte[] values = new byte[CHUNK * 3];
+
+        int end = Math.min(MAX_LEDS, index + Math.min(count, CHUNK));
+
+        for (int pixel = index; pixel < end; pixel++) {
+            values[pixel - index] = red[pixel];
+            values[CHUNK + pixel - index] = green[pixel];
+            values[2 * CHUNK + pixel - index] = blue[pixel];
+        }
+
+        return values;
+    }
+}
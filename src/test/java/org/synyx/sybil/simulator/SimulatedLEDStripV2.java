@@ -0,0 +1,233 @@
+package org.synyx.sybil.simulator;
+
+import java.nio.ByteBuffer;
+
+import java.util.Arrays;
+
+
+/**
+ * A simulated LED Strip Bricklet 2.0. Values are streamed to it in chunks of 58, and read back in chunks of 60. Values
+ * set are shown with the next frame, which is announced by a frame started callback.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public final class SimulatedLEDStripV2 extends SimulatedDevice {
+
+    static final int DEVICE_IDENTIFIER = 2103;
+
+    private static final byte FUNCTION_SET_LED_VALUES_LOW_LEVEL = 1;
+    private static final byte FUNCTION_GET_LED_VALUES_LOW_LEVEL = 2;
+    private static final byte FUNCTION_SET_FRAME_DURATION = 3;
+    private static final byte FUNCTION_GET_FRAME_DURATION = 4;
+    private static final byte FUNCTION_GET_SUPPLY_VOLTAGE = 5;
+    private static final byte CALLBACK_FRAME_STARTED = 6;
+    private static final byte FUNCTION_SET_CHIP_TYPE = 9;
+    private static final byte FUNCTION_GET_CHIP_TYPE = 10;
+    private static final byte FUNCTION_SET_CHANNEL_MAPPING = 11;
+    private static final byte FUNCTION_GET_CHANNEL_MAPPING = 12;
+
+    private static final int MAX_VALUES = 6144;
+    private static final int CHANNELS = 3;
+    private static final int SET_CHUNK = 58;
+    private static final int GET_CHUNK = 60;
+    private static final int DEFAULT_FRAME_DURATION = 100;
+    private static final int DEFAULT_CHIP_TYPE = 2801;
+    private static final int DEFAULT_CHANNEL_MAPPING = 36;
+    private static final int SUPPLY_VOLTAGE = 5000;
+
+    private final byte[] values = new byte[MAX_VALUES];
+
+    private int frameDuration;
+    private int chipType;
+    private int channelMapping;
+    private int length;
+    private int readOffset;
+    private boolean dirty;
+    private long nextFrame;
+    private int writes;
+    private int acknowledgedWrites;
+
+    SimulatedLEDStripV2(String uid, String connectedUid, char position) {
+
+        super(uid, connectedUid, position, DEVICE_IDENTIFIER);
+
+        reset();
+    }
+
+    @Override
+    synchronized byte[] handle(byte functionId, ByteBuffer request) {
+
+        switch (functionId) {
+            case FUNCTION_SET_LED_VALUES_LOW_LEVEL:
+                setLEDValues(getUnsignedShort(request), getUnsignedShort(request), getUnsignedShort(request),
+                    request);
+
+                return EMPTY;
+
+            case FUNCTION_GET_LED_VALUES_LOW_LEVEL:
+                return getLEDValues(getUnsignedShort(request), getUnsignedShort(request));
+
+            case FUNCTION_SET_FRAME_DURATION:
+                frameDuration = getUnsignedShort(request);
+
+                return EMPTY;
+
+            case FUNCTION_GET_FRAME_DURATION:
+                return unsignedShort(frameDuration);
+
+            case FUNCTION_GET_SUPPLY_VOLTAGE:
+                return unsignedShort(SUPPLY_VOLTAGE);
+
+            case FUNCTION_SET_CHIP_TYPE:
+                chipType = getUnsignedShort(request);
+
+                return EMPTY;
+
+            case FUNCTION_GET_CHIP_TYPE:
+                return unsignedShort(chipType);
+
+            case FUNCTION_SET_CHANNEL_MAPPING:
+                channelMapping = getUnsignedByte(request);
+
+                return EMPTY;
+
+            case FUNCTION_GET_CHANNEL_MAPPING:
+                return new byte[] { (byte) channelMapping };
+
+            default:
+                return null;
+        }
+    }
+
+
+    @Override
+    synchronized void responded(byte functionId) {
+
+        if (functionId == FUNCTION_SET_LED_VALUES_LOW_LEVEL) {
+            acknowledgedWrites++;
+        }
+    }
+
+
+    @Override
+    synchronized void reset() {
+
+        Arrays.fill(values, (byte) 0);
+
+        frameDuration = DEFAULT_FRAME_DURATION;
+        chipType = DEFAULT_CHIP_TYPE;
+        channelMapping = DEFAULT_CHANNEL_MAPPING;
+        length = 0;
+        readOffset = 0;
+        dirty = false;
+    }
+
+
+    @Override
+    void tick(long now, CallbackSink sink) {
+
+        int started;
+
+        synchronized (this) {
+            if (now < nextFrame) {
+                return;
+            }
+
+            nextFrame = now + Math.max(1, frameDuration);
+
+            if (!dirty) {
+                return;
+            }
+
+            dirty = false;
+            started = length / CHANNELS;
+        }
+
+        sink.callback(this, CALLBACK_FRAME_STARTED, unsignedShort(started));
+    }
+
+
+    /**
+     * Gets a pixel, in the order the channels were sent.
+     *
+     * @param  index  The index of the pixel
+     *
+     * @return  The channels packed as 0xRRGGBB
+     */
+    public synchronized int getPixel(int index) {
+
+        int value = index * CHANNELS;
+
+        return ((values[value] & 0xFF) << 16) | ((values[value + 1] & 0xFF) << 8) | (values[value + 2] & 0xFF);
+    }
+
+
+    public synchronized int getChipType() {
+
+        return chipType;
+    }
+
+
+    public synchronized int getChannelMapping() {
+
+        return channelMapping;
+    }
+
+
+    /**
+     * Gets the number of low level writes, each carrying up to 58 values.
+     */
+    public synchronized int getWrites() {
+
+        return writes;
+    }
+
+
+    /**
+     * Gets the number of low level writes that asked for a response, and were answered.
+     */
+    public synchronized int getAcknowledgedWrites() {
+
+        return acknowledgedWrites;
+    }
+
+
+    private void setLEDValues(int index, int valueLength, int offset, ByteBuffer request) {
+
+        byte[] chunk = new byte[SET_CHUNK];
+        request.get(chunk);
+
+        int end = Math.min(MAX_VALUES, index + Math.min(valueLength, offset + SET_CHUNK));
+
+        for (int value = index + offset; value < end; value++) {
+            values[value] = chunk[value - index - offset];
+        }
+
+        length = Math.max(length, end);
+        dirty = true;
+        writes++;
+    }
+
+
+    private byte[] getLEDValues(int index, int valueLength) {
+
+        // the values are read in consecutive calls, starting over once all of them were read
+        if (readOffset >= valueLength) {
+            readOffset = 0;
+        }
+
+        ByteBuffer response = Packet.allocate(4 + GET_CHUNK);
+        response.putShort((short) valueLength);
+        response.putShort((short) readOffset);
+
+        for (int value = 0; value < GET_CHUNK; value++) {
+            int position = index + readOffset + value;
+
+            response.put(readOffset + value < valueLength && position < MAX_VALUES ? values[position] : 0);
+        }
+
+        readOffset += GET_CHUNK;
+
+        return response.array();
+    }
+}
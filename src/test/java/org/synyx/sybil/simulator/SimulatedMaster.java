@@ -0,0 +1,61 @@
+package org.synyx.sybil.simulator;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * A simulated Master Brick. Resetting it restarts the whole simulated brick.
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public final class SimulatedMaster extends SimulatedDevice {
+
+    static final int DEVICE_IDENTIFIER = 13;
+
+    private static final byte FUNCTION_GET_STACK_VOLTAGE = 1;
+    private static final byte FUNCTION_GET_STACK_CURRENT = 2;
+    private static final byte FUNCTION_GET_CHIP_TEMPERATURE = -14;
+    private static final byte FUNCTION_RESET = -13;
+    private static final int STACK_VOLTAGE = 5000;
+    private static final int STACK_CURRENT = 200;
+    private static final int CHIP_TEMPERATURE = 3500;
+
+    private final Runnable onReset;
+
+    SimulatedMaster(String uid, Runnable onReset) {
+
+        super(uid, "0", '0', DEVICE_IDENTIFIER);
+
+        this.onReset = onReset;
+    }
+
+    @Override
+    byte[] handle(byte functionId, ByteBuffer request) {
+
+        switch (functionId) {
+            case FUNCTION_GET_STACK_VOLTAGE:
+                return unsignedShort(STACK_VOLTAGE);
+
+            case FUNCTION_GET_STACK_CURRENT:
+                return unsignedShort(STACK_CURRENT);
+
+            case FUNCTION_GET_CHIP_TEMPERATURE:
+                return unsignedShort(CHIP_TEMPERATURE);
+
+            case FUNCTION_RESET:
+                onReset.run();
+
+                return EMPTY;
+
+            default:
+                return null;
+        }
+    }
+
+
+    @Override
+    void reset() {
+
+        // the master brick keeps no state
+    }
+}
@@ -0,0 +1,155 @@
+package org.synyx.sybil.simulator;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.synyx.sybil.brick.persistence.Brick;
+import org.synyx.sybil.bricklet.input.illuminance.persistence.Illuminance;
+import org.synyx.sybil.bricklet.output.ledstrip.persistence.LEDStrip;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Simulator. Starts a brick simulator for the bricks, LED strips and illuminance sensors in Sybil's config directory,
+ * so Sybil can be run against it on the same machine, with every brick's hostname set to localhost.
+ *
+ * <p>Bricks sharing a port are simulated by the same simulator, like bricks stacked or connected to the same brickd.
+ * The latency, jitter and drop rate are set with the system properties {@code simulator.latency.ms},
+ * {@code simulator.jitter.ms} and {@code simulator.drop.rate}, for a single brick with e.g.
+ * {@code simulator.devbrick.latency.ms}.</p>
+ *
+ * @author  Tobias Theuer - theuer@synyx.de
+ */
+public final class Simulator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Simulator.class);
+    private static final String DEFAULT_CONFIG_DIR = "/home/sybil-config/";
+    private static final char FIRST_POSITION = 'a';
+
+    private Simulator() {
+
+        // only static methods
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        String configDir = args.length > 0 ? args[0] : DEFAULT_CONFIG_DIR;
+
+        Map<Integer, BrickSimulator> simulators = start(new File(configDir));
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> simulators.values().forEach(BrickSimulator::close)));
+
+        LOG.info("Simulating bricks on ports " + simulators.keySet());
+    }
+
+
+    /**
+     * Starts the simulators for a config directory.
+     *
+     * @param  configDir  The directory containing bricks.json, ledstrips.json and illuminances.json
+     *
+     * @return  The started simulators by port
+     *
+     * @throws  IOException  if a config file can't be read, or a port can't be bound
+     */
+    public static Map<Integer, BrickSimulator> start(File configDir) throws IOException {
+
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        List<Brick> bricks = read(objectMapper, new File(configDir, "bricks.json"), new TypeReference<List<Brick>>() {
+                });
+        List<LEDStrip> ledStrips = read(objectMapper, new File(configDir, "ledstrips.json"),
+                new TypeReference<List<LEDStrip>>() {
+                });
+        List<Illuminance> illuminances = read(objectMapper, new File(configDir, "illuminances.json"),
+                new TypeReference<List<Illuminance>>() {
+                });
+
+        Map<Integer, BrickSimulator> simulators = new LinkedHashMap<>();
+        Map<String, Brick> bricksByName = new HashMap<>();
+        Map<String, Character> positions = new HashMap<>();
+
+        for (Brick brick : bricks) {
+            BrickSimulator simulator = simulators.get(brick.getPort());
+
+            if (simulator == null) {
+                simulator = new BrickSimulator(brick.getPort());
+                simulators.put(brick.getPort(), simulator);
+            }
+
+            simulator.addMaster(brick.getUid());
+            simulator.setLatency(getLong(brick, "latency.ms"), getLong(brick, "jitter.ms"));
+            simulator.setDropRate(Double.parseDouble(getProperty(brick, "drop.rate", "0")));
+
+            bricksByName.put(brick.getName(), brick);
+            positions.put(brick.getName(), FIRST_POSITION);
+        }
+
+        for (LEDStrip ledStrip : ledStrips) {
+            Brick brick = bricksByName.get(ledStrip.getBrick());
+
+            if (brick != null) {
+                simulators.get(brick.getPort())
+                    .addLEDStrip(ledStrip.getUid(), brick.getUid(), nextPosition(positions, brick));
+            }
+        }
+
+        for (Illuminance illuminance : illuminances) {
+            Brick brick = bricksByName.get(illuminance.getBrick());
+
+            if (brick != null) {
+                simulators.get(brick.getPort())
+                    .addAmbientLight(illuminance.getUid(), brick.getUid(), nextPosition(positions, brick));
+            }
+        }
+
+        simulators.values().forEach(BrickSimulator::start);
+
+        return simulators;
+    }
+
+
+    private static <T> List<T> read(ObjectMapper objectMapper, File file, TypeReference<List<T>> type)
+        throws IOException {
+
+        if (!file.exists()) {
+            return Collections.emptyList();
+        }
+
+        return objectMapper.readValue(file, type);
+    }
+
+
+    private static char nextPosition(Map<String, Character> positions, Brick brick) {
+
+        char position = positions.get(brick.getName());
+        positions.put(brick.getName(), (char) (position + 1));
+
+        return position;
+    }
+
+
+    private static long getLong(Brick brick, String key) {
+
+        return Long.parseLong(getProperty(brick, key, "0"));
+    }
+
+
+    private static String getProperty(Brick brick, String key, String defaultValue) {
+
+        return System.getProperty("simulator." + brick.getName() + "." + key,
+                System.getProperty("simulator." + key, defaultValue));
+    }
+}